@@ -15,21 +15,30 @@
  */
 package org.springframework.cloud.skipper.client;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.cloud.deployer.spi.app.DeploymentState;
 import org.springframework.cloud.skipper.domain.AboutResource;
+import org.springframework.cloud.skipper.domain.BatchUpgradeRequest;
+import org.springframework.cloud.skipper.domain.BatchUpgradeResult;
 import org.springframework.cloud.skipper.domain.CancelRequest;
 import org.springframework.cloud.skipper.domain.CancelResponse;
 import org.springframework.cloud.skipper.domain.Deployer;
@@ -37,8 +46,10 @@ import org.springframework.cloud.skipper.domain.Info;
 import org.springframework.cloud.skipper.domain.InstallRequest;
 import org.springframework.cloud.skipper.domain.LogInfo;
 import org.springframework.cloud.skipper.domain.Manifest;
+import org.springframework.cloud.skipper.domain.Operation;
 import org.springframework.cloud.skipper.domain.PackageMetadata;
 import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.ReleasePage;
 import org.springframework.cloud.skipper.domain.Repository;
 import org.springframework.cloud.skipper.domain.RollbackRequest;
 import org.springframework.cloud.skipper.domain.ScaleRequest;
@@ -48,8 +59,12 @@ import org.springframework.cloud.skipper.domain.UploadRequest;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.util.Assert;
 import org.springframework.util.StreamUtils;
 import org.springframework.util.StringUtils;
@@ -321,6 +336,93 @@ public class DefaultSkipperClient implements SkipperClient {
 		return this.restTemplate.postForObject(url, upgradeRequest, Release.class);
 	}
 
+	@Override
+	public Operation installAsync(InstallRequest installRequest) {
+		String url = String.format("%s/%s/%s?async=true", baseUri, "package", "install");
+		return this.restTemplate.postForObject(url, installRequest, Operation.class);
+	}
+
+	@Override
+	public Operation upgradeAsync(UpgradeRequest upgradeRequest) {
+		String url = String.format("%s/%s/%s?async=true", baseUri, "release", "upgrade");
+		log.debug("Posting UpgradeRequest to " + url + ". UpgradeRequest = " + upgradeRequest);
+		return this.restTemplate.postForObject(url, upgradeRequest, Operation.class);
+	}
+
+	@Override
+	public Operation rollbackAsync(RollbackRequest rollbackRequest) {
+		String url = String.format("%s/%s/%s?async=true", baseUri, "release", "rollback");
+		return this.restTemplate.postForObject(url, rollbackRequest, Operation.class);
+	}
+
+	@Override
+	public Operation operation(String operationId) {
+		return this.restTemplate.getForObject(baseUri + "/operations/{id}", Operation.class, operationId);
+	}
+
+	@Override
+	public List<BatchUpgradeResult> upgradeAll(String batchId, List<UpgradeRequest> upgradeRequests,
+			Consumer<BatchUpgradeResult> resultConsumer) {
+		String url = String.format("%s/%s/%s/%s", baseUri, "release", "upgrade", "batch");
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.setAccept(Collections.singletonList(MediaType.APPLICATION_NDJSON));
+		HttpEntity<BatchUpgradeRequest> httpEntity = new HttpEntity<>(
+				new BatchUpgradeRequest(batchId, upgradeRequests), headers);
+		ObjectMapper objectMapper = getObjectMapper();
+		// results are streamed as json lines, so read them as they arrive
+		return this.restTemplate.execute(url, HttpMethod.POST, this.restTemplate.httpEntityCallback(httpEntity),
+				response -> {
+					List<BatchUpgradeResult> results = new ArrayList<>();
+					BufferedReader reader = new BufferedReader(
+							new InputStreamReader(response.getBody(), StandardCharsets.UTF_8));
+					String line;
+					while ((line = reader.readLine()) != null) {
+						if (!StringUtils.hasText(line)) {
+							continue;
+						}
+						BatchUpgradeResult result = objectMapper.readValue(line, BatchUpgradeResult.class);
+						results.add(result);
+						if (resultConsumer != null) {
+							resultConsumer.accept(result);
+						}
+					}
+					return results;
+				});
+	}
+
+	@Override
+	public CancelResponse cancelUpgradeAll(String batchId) {
+		String url = String.format("%s/%s/%s/%s/{batchId}/%s", baseUri, "release", "upgrade", "batch", "cancel");
+		return this.restTemplate.postForObject(url, null, CancelResponse.class, batchId);
+	}
+
+	@Override
+	public Operation waitFor(String operationId, Duration timeout) {
+		long deadline = System.currentTimeMillis() + timeout.toMillis();
+		long pollInterval = 500;
+		while (true) {
+			Operation operation = operation(operationId);
+			if (operation.isDone()) {
+				return operation;
+			}
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0) {
+				throw new SkipperServerException("Operation " + operationId + " was not done within " + timeout
+						+ ", last state was " + operation.getState());
+			}
+			try {
+				Thread.sleep(Math.min(pollInterval, remaining));
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SkipperServerException("Interrupted while waiting for operation " + operationId, e);
+			}
+			// poll long running operations less often
+			pollInterval = Math.min(pollInterval * 2, 5000);
+		}
+	}
+
 	@Override
 	public void delete(String releaseName, boolean deletePackage) {
 		String url = null;
@@ -379,6 +481,33 @@ public class DefaultSkipperClient implements SkipperClient {
 		}
 	}
 
+	@Override
+	public ReleasePage list(String releaseNameLike, String cursor, int pageSize) {
+		UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(baseUri);
+		builder.pathSegment("release", "page");
+		if (StringUtils.hasText(releaseNameLike)) {
+			builder.queryParam("name", releaseNameLike);
+		}
+		if (StringUtils.hasText(cursor)) {
+			builder.queryParam("cursor", cursor);
+		}
+		builder.queryParam("size", pageSize);
+		return this.restTemplate.getForObject(builder.encode().build().toUri(), ReleasePage.class);
+	}
+
+	@Override
+	public List<Release> list(String releaseNameLike, int pageSize) {
+		List<Release> releases = new ArrayList<>();
+		String cursor = null;
+		do {
+			ReleasePage page = list(releaseNameLike, cursor, pageSize);
+			releases.addAll(page.getReleases());
+			cursor = page.getNextCursor();
+		}
+		while (cursor != null);
+		return releases;
+	}
+
 	@Override
 	public Collection<Release> history(String releaseName) {
 		ParameterizedTypeReference<HateoasResponseWrapper<ReleasesResponseWrapper>> typeReference =
@@ -463,6 +592,16 @@ public class DefaultSkipperClient implements SkipperClient {
 		this.restTemplate.delete(url);
 	}
 
+	private ObjectMapper getObjectMapper() {
+		// use the mapper configured for the rest template to read domain classes the same way
+		for (HttpMessageConverter<?> converter : this.restTemplate.getMessageConverters()) {
+			if (converter instanceof MappingJackson2HttpMessageConverter) {
+				return ((MappingJackson2HttpMessageConverter) converter).getObjectMapper();
+			}
+		}
+		return new ObjectMapper();
+	}
+
 	protected static class HateoasResponseWrapper<T> {
 		private T embedded;
 
@@ -15,20 +15,25 @@
  */
 package org.springframework.cloud.skipper.client;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.springframework.cloud.deployer.spi.app.DeploymentState;
 import org.springframework.cloud.skipper.domain.AboutResource;
+import org.springframework.cloud.skipper.domain.BatchUpgradeResult;
 import org.springframework.cloud.skipper.domain.CancelRequest;
 import org.springframework.cloud.skipper.domain.CancelResponse;
 import org.springframework.cloud.skipper.domain.Deployer;
 import org.springframework.cloud.skipper.domain.Info;
 import org.springframework.cloud.skipper.domain.InstallRequest;
 import org.springframework.cloud.skipper.domain.LogInfo;
+import org.springframework.cloud.skipper.domain.Operation;
 import org.springframework.cloud.skipper.domain.PackageMetadata;
 import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.ReleasePage;
 import org.springframework.cloud.skipper.domain.Repository;
 import org.springframework.cloud.skipper.domain.RollbackRequest;
 import org.springframework.cloud.skipper.domain.ScaleRequest;
@@ -82,6 +87,66 @@ public interface SkipperClient {
 	 */
 	Release upgrade(UpgradeRequest upgradeRequest);
 
+	/**
+	 * Install the package asynchronously.
+	 * @param installRequest the package install request
+	 * @return the pending install {@link Operation}
+	 * @see #waitFor(String, Duration)
+	 */
+	Operation installAsync(InstallRequest installRequest);
+
+	/**
+	 * Upgrade a release asynchronously.
+	 * @param upgradeRequest the request to upgrade the release
+	 * @return the pending upgrade {@link Operation}
+	 * @see #waitFor(String, Duration)
+	 */
+	Operation upgradeAsync(UpgradeRequest upgradeRequest);
+
+	/**
+	 * Rollback a specific release asynchronously.
+	 * @param rollbackRequest the rollback request
+	 * @return the pending rollback {@link Operation}
+	 * @see #waitFor(String, Duration)
+	 */
+	Operation rollbackAsync(RollbackRequest rollbackRequest);
+
+	/**
+	 * Return an asynchronous operation.
+	 * @param operationId the operation id
+	 * @return the operation
+	 */
+	Operation operation(String operationId);
+
+	/**
+	 * Wait for an asynchronous operation to be done.
+	 * @param operationId the operation id
+	 * @param timeout the max time to wait
+	 * @return the succeeded or failed operation
+	 * @throws SkipperServerException if the operation is not done within the timeout
+	 */
+	Operation waitFor(String operationId, Duration timeout);
+
+	/**
+	 * Upgrade releases in a batch, passing results of upgrades to the consumer as they
+	 * complete. An upgrade is complete once its new release is either deployed or failed.
+	 * @param batchId the id of the batch used to cancel it, or null to let the server
+	 * generate one, which is then known from results only
+	 * @param upgradeRequests the requests to upgrade the releases
+	 * @param resultConsumer the consumer of upgrade results
+	 * @return the results of all upgrades
+	 * @see #cancelUpgradeAll(String)
+	 */
+	List<BatchUpgradeResult> upgradeAll(String batchId, List<UpgradeRequest> upgradeRequests,
+			Consumer<BatchUpgradeResult> resultConsumer);
+
+	/**
+	 * Cancel a running batch upgrade.
+	 * @param batchId the id of the batch
+	 * @return the cancel response, accepted if the batch was running
+	 */
+	CancelResponse cancelUpgradeAll(String batchId);
+
 	/**
 	 * Upload the package.
 	 *
@@ -139,6 +204,26 @@ public interface SkipperClient {
 	 */
 	List<Release> list(String releaseNameLike);
 
+	/**
+	 * List a page of the latest version of releases with status of deployed or failed.
+	 *
+	 * @param releaseNameLike the wildcard name of releases to search for
+	 * @param cursor the cursor returned with a previous page or null for the first page
+	 * @param pageSize the maximum number of releases in a page
+	 * @return the page of matching releases
+	 */
+	ReleasePage list(String releaseNameLike, String cursor, int pageSize);
+
+	/**
+	 * List the latest version of releases with status of deployed or failed, fetching
+	 * releases from the server in pages of a given size.
+	 *
+	 * @param releaseNameLike the wildcard name of releases to search for
+	 * @param pageSize the maximum number of releases fetched in a single request
+	 * @return the list of all matching releases
+	 */
+	List<Release> list(String releaseNameLike, int pageSize);
+
 	/**
 	 * List all releases for the given release name.
 	 *
@@ -21,6 +21,7 @@ import java.util.Map;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.springframework.cloud.skipper.OperationNotFoundException;
 import org.springframework.cloud.skipper.PackageDeleteException;
 import org.springframework.cloud.skipper.ReleaseNotFoundException;
 import org.springframework.cloud.skipper.ReleaseUpgradeException;
@@ -76,6 +77,9 @@ public class SkipperClientResponseErrorHandler extends DefaultResponseErrorHandl
 		else if (ObjectUtils.nullSafeEquals(exceptionClazz, ReleaseUpgradeException.class.getName())) {
 			handleReleaseUpgradeException(map);
 		}
+		else if (ObjectUtils.nullSafeEquals(exceptionClazz, OperationNotFoundException.class.getName())) {
+			handleOperationNotFoundException(map);
+		}
 		else if (ObjectUtils.nullSafeEquals(exceptionClazz, SkipperException.class.getName())) {
 			handleSkipperException(map);
 		}
@@ -103,6 +107,13 @@ public class SkipperClientResponseErrorHandler extends DefaultResponseErrorHandl
 		}
 	}
 
+	private void handleOperationNotFoundException(Map<String, String> map) {
+		String operationId = map.get("operationId");
+		if (StringUtils.hasText(operationId)) {
+			throw new OperationNotFoundException(operationId);
+		}
+	}
+
 	private void handleReleaseUpgradeException(Map<String, String> map) {
 		String message = map.get("message");
 		throw new ReleaseUpgradeException(StringUtils.hasText(message) ? message : "");
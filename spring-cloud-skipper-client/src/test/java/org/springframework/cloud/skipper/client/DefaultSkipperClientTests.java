@@ -16,6 +16,8 @@
 package org.springframework.cloud.skipper.client;
 
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -24,10 +26,14 @@ import org.junit.Test;
 import org.springframework.cloud.skipper.PackageDeleteException;
 import org.springframework.cloud.skipper.ReleaseNotFoundException;
 import org.springframework.cloud.skipper.SkipperException;
+import org.springframework.cloud.skipper.domain.BatchUpgradeResult;
+import org.springframework.cloud.skipper.domain.BatchUpgradeResult.Outcome;
+import org.springframework.cloud.skipper.domain.CancelResponse;
 import org.springframework.cloud.skipper.domain.Info;
 import org.springframework.cloud.skipper.domain.LogInfo;
 import org.springframework.cloud.skipper.domain.Release;
 import org.springframework.cloud.skipper.domain.ScaleRequest;
+import org.springframework.cloud.skipper.domain.UpgradeRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.client.MockRestServiceServer;
@@ -210,4 +216,60 @@ public class DefaultSkipperClientTests {
 		List<Release> list = skipperClient.list(null);
 		assertThat(list).isEmpty();
 	}
+
+	@Test
+	public void testReleaseListPaged() {
+		RestTemplate restTemplate = new RestTemplate();
+		SkipperClient skipperClient = new DefaultSkipperClient("", restTemplate);
+
+		MockRestServiceServer mockServer = MockRestServiceServer.bindTo(restTemplate).build();
+		mockServer.expect(requestTo("/release/page?name=log&size=1")).andRespond(withSuccess(
+				"{\"releases\":[{\"name\":\"log1\",\"version\":1}],\"nextCursor\":\"bG9nMTox\"}",
+				MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("/release/page?name=log&cursor=bG9nMTox&size=1")).andRespond(withSuccess(
+				"{\"releases\":[{\"name\":\"log2\",\"version\":3}]}", MediaType.APPLICATION_JSON));
+
+		List<Release> list = skipperClient.list("log", 1);
+		mockServer.verify();
+
+		assertThat(list).extracting("name").containsExactly("log1", "log2");
+	}
+
+	@Test
+	public void testUpgradeAllStreamsResults() {
+		RestTemplate restTemplate = new RestTemplate();
+		SkipperClient skipperClient = new DefaultSkipperClient("", restTemplate);
+
+		MockRestServiceServer mockServer = MockRestServiceServer.bindTo(restTemplate).build();
+		mockServer.expect(requestTo("/release/upgrade/batch"))
+				.andExpect(content().json("{\"batchId\":\"batch1\"}"))
+				.andRespond(withSuccess(
+						"{\"batchId\":\"batch1\",\"releaseName\":\"log2\",\"outcome\":\"FAILED\"}\n"
+								+ "{\"batchId\":\"batch1\",\"releaseName\":\"log1\",\"outcome\":\"SUCCEEDED\"}\n",
+						MediaType.APPLICATION_NDJSON));
+
+		List<BatchUpgradeResult> consumed = new ArrayList<>();
+		List<BatchUpgradeResult> results = skipperClient.upgradeAll("batch1",
+				Arrays.asList(new UpgradeRequest(), new UpgradeRequest()), consumed::add);
+		mockServer.verify();
+
+		assertThat(results).extracting("releaseName").containsExactly("log2", "log1");
+		assertThat(results).extracting("outcome").containsExactly(Outcome.FAILED, Outcome.SUCCEEDED);
+		assertThat(consumed).isEqualTo(results);
+	}
+
+	@Test
+	public void testCancelUpgradeAll() {
+		RestTemplate restTemplate = new RestTemplate();
+		SkipperClient skipperClient = new DefaultSkipperClient("", restTemplate);
+
+		MockRestServiceServer mockServer = MockRestServiceServer.bindTo(restTemplate).build();
+		mockServer.expect(requestTo("/release/upgrade/batch/batch1/cancel"))
+				.andRespond(withSuccess("{\"accepted\":true}", MediaType.APPLICATION_JSON));
+
+		CancelResponse response = skipperClient.cancelUpgradeAll("batch1");
+		mockServer.verify();
+
+		assertThat(response.getAccepted()).isTrue();
+	}
 }
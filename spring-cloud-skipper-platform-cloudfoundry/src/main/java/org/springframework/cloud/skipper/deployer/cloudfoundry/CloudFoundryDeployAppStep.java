@@ -92,7 +92,7 @@ public class CloudFoundryDeployAppStep {
 		// Deploy the application
 		String applicationName = applicationManifest.getName();
 		Map<String, String> appDeploymentData = new HashMap<>();
-		appDeploymentData.put(applicationManifest.getName(), applicationManifest.toString());
+		appDeploymentData.put(applicationName, applicationName);
 		this.platformCloudFoundryOperations.getCloudFoundryOperations(replacingRelease.getPlatformName())
 				.applications().pushManifest(
 				PushApplicationManifestRequest.builder()
@@ -30,6 +30,7 @@ import org.cloudfoundry.operations.applications.ScaleApplicationRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import org.springframework.cloud.deployer.spi.app.DeploymentState;
 import org.springframework.cloud.skipper.domain.LogInfo;
@@ -38,6 +39,7 @@ import org.springframework.cloud.skipper.domain.ScaleRequest;
 import org.springframework.cloud.skipper.domain.SkipperManifestKind;
 import org.springframework.cloud.skipper.domain.Status;
 import org.springframework.cloud.skipper.domain.StatusCode;
+import org.springframework.cloud.skipper.server.deployer.PlatformRequestLimiter;
 import org.springframework.cloud.skipper.server.deployer.ReleaseAnalysisReport;
 import org.springframework.cloud.skipper.server.deployer.ReleaseManager;
 import org.springframework.cloud.skipper.server.domain.AppDeployerData;
@@ -70,17 +72,21 @@ public class CloudFoundryReleaseManager implements ReleaseManager {
 
 	private final CloudFoundryManifestApplicationDeployer cfManifestApplicationDeployer;
 
+	private final PlatformRequestLimiter platformRequestLimiter;
+
 	public CloudFoundryReleaseManager(ReleaseRepository releaseRepository,
 			AppDeployerDataRepository appDeployerDataRepository,
 			CloudFoundryReleaseAnalyzer cloudFoundryReleaseAnalyzer,
 			PlatformCloudFoundryOperations platformCloudFoundryOperations,
-			CloudFoundryManifestApplicationDeployer cfManifestApplicationDeployer
+			CloudFoundryManifestApplicationDeployer cfManifestApplicationDeployer,
+			PlatformRequestLimiter platformRequestLimiter
 	) {
 		this.releaseRepository = releaseRepository;
 		this.appDeployerDataRepository = appDeployerDataRepository;
 		this.cloudFoundryReleaseAnalyzer = cloudFoundryReleaseAnalyzer;
 		this.platformCloudFoundryOperations = platformCloudFoundryOperations;
 		this.cfManifestApplicationDeployer = cfManifestApplicationDeployer;
+		this.platformRequestLimiter = platformRequestLimiter;
 	}
 
 	@Override
@@ -96,7 +102,7 @@ public class CloudFoundryReleaseManager implements ReleaseManager {
 		// Deploy the application
 		String applicationName = applicationManifest.getName();
 		Map<String, String> appDeploymentData = new HashMap<>();
-		appDeploymentData.put(applicationManifest.getName(), applicationManifest.toString());
+		appDeploymentData.put(applicationName, applicationName);
 		this.platformCloudFoundryOperations.getCloudFoundryOperations(newRelease.getPlatformName())
 				.applications().pushManifest(
 				PushApplicationManifestRequest.builder()
@@ -169,7 +175,8 @@ public class CloudFoundryReleaseManager implements ReleaseManager {
 	@Override
 	public Mono<Release> statusReactive(Release release) {
 		// TODO: should convert to full reactive chain
-		return Mono.defer(() -> Mono.just(status(release)));
+		return this.platformRequestLimiter.limit(release.getPlatformName(),
+				Mono.fromCallable(() -> status(release)).subscribeOn(Schedulers.boundedElastic()));
 	}
 
 	public Release delete(Release release) {
@@ -17,6 +17,7 @@ package org.springframework.cloud.skipper.deployer.cloudfoundry;
 
 import org.springframework.cloud.deployer.resource.support.DelegatingResourceLoader;
 import org.springframework.cloud.skipper.domain.CloudFoundryApplicationManifestReader;
+import org.springframework.cloud.skipper.server.deployer.PlatformRequestLimiter;
 import org.springframework.cloud.skipper.server.deployer.ReleaseManagerFactory;
 import org.springframework.cloud.skipper.server.repository.jpa.AppDeployerDataRepository;
 import org.springframework.cloud.skipper.server.repository.jpa.ReleaseRepository;
@@ -37,9 +38,10 @@ public class CloudFoundrySkipperServerConfiguration {
 			AppDeployerDataRepository appDeployerDataRepository,
 			CloudFoundryReleaseAnalyzer cloudFoundryReleaseAnalyzer,
 			PlatformCloudFoundryOperations platformCloudFoundryOperations,
-			CloudFoundryManifestApplicationDeployer cfManifestApplicationDeployer) {
+			CloudFoundryManifestApplicationDeployer cfManifestApplicationDeployer,
+			PlatformRequestLimiter platformRequestLimiter) {
 		return new CloudFoundryReleaseManager(releaseRepository, appDeployerDataRepository, cloudFoundryReleaseAnalyzer,
-				platformCloudFoundryOperations, cfManifestApplicationDeployer);
+				platformCloudFoundryOperations, cfManifestApplicationDeployer, platformRequestLimiter);
 	}
 
 	@Bean
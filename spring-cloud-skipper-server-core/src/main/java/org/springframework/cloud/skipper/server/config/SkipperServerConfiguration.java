@@ -19,11 +19,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -35,12 +39,14 @@ import org.springframework.cloud.deployer.resource.docker.DockerResourceLoader;
 import org.springframework.cloud.deployer.resource.maven.MavenProperties;
 import org.springframework.cloud.deployer.resource.maven.MavenResourceLoader;
 import org.springframework.cloud.deployer.resource.support.DelegatingResourceLoader;
+import org.springframework.cloud.skipper.domain.PackageBlobCache;
 import org.springframework.cloud.skipper.domain.SpringCloudDeployerApplicationManifestReader;
 import org.springframework.cloud.skipper.io.DefaultPackageReader;
 import org.springframework.cloud.skipper.io.DefaultPackageWriter;
 import org.springframework.cloud.skipper.io.PackageReader;
 import org.springframework.cloud.skipper.io.PackageWriter;
 import org.springframework.cloud.skipper.server.controller.AboutController;
+import org.springframework.cloud.skipper.server.controller.OperationController;
 import org.springframework.cloud.skipper.server.controller.PackageController;
 import org.springframework.cloud.skipper.server.controller.ReleaseController;
 import org.springframework.cloud.skipper.server.controller.RootController;
@@ -48,18 +54,26 @@ import org.springframework.cloud.skipper.server.controller.SkipperErrorAttribute
 import org.springframework.cloud.skipper.server.controller.VersionInfoProperties;
 import org.springframework.cloud.skipper.server.db.migration.SkipperFlywayConfigurationCustomizer;
 import org.springframework.cloud.skipper.server.db.migration.SkipperFlywayMigrationStrategy;
+import org.springframework.cloud.skipper.server.deployer.AppDeploymentExecutor;
 import org.springframework.cloud.skipper.server.deployer.AppDeploymentRequestFactory;
 import org.springframework.cloud.skipper.server.deployer.DefaultReleaseManager;
 import org.springframework.cloud.skipper.server.deployer.DefaultReleaseManagerFactory;
+import org.springframework.cloud.skipper.server.deployer.DeploymentStateCache;
+import org.springframework.cloud.skipper.server.deployer.DeploymentStateEventSource;
+import org.springframework.cloud.skipper.server.deployer.PlatformRequestLimiter;
 import org.springframework.cloud.skipper.server.deployer.ReleaseAnalyzer;
 import org.springframework.cloud.skipper.server.deployer.ReleaseManager;
 import org.springframework.cloud.skipper.server.deployer.ReleaseManagerFactory;
+import org.springframework.cloud.skipper.server.deployer.strategies.CanaryUpgradeProperties;
+import org.springframework.cloud.skipper.server.deployer.strategies.CanaryUpgradeStrategy;
 import org.springframework.cloud.skipper.server.deployer.strategies.DefaultUpgradeStrategyFactory;
 import org.springframework.cloud.skipper.server.deployer.strategies.DeleteStep;
 import org.springframework.cloud.skipper.server.deployer.strategies.DeployAppStep;
 import org.springframework.cloud.skipper.server.deployer.strategies.HandleHealthCheckStep;
 import org.springframework.cloud.skipper.server.deployer.strategies.HealthCheckProperties;
 import org.springframework.cloud.skipper.server.deployer.strategies.HealthCheckStep;
+import org.springframework.cloud.skipper.server.deployer.strategies.RollingUpgradeProperties;
+import org.springframework.cloud.skipper.server.deployer.strategies.RollingUpgradeStrategy;
 import org.springframework.cloud.skipper.server.deployer.strategies.SimpleRedBlackUpgradeStrategy;
 import org.springframework.cloud.skipper.server.deployer.strategies.UpgradeStrategy;
 import org.springframework.cloud.skipper.server.deployer.strategies.UpgradeStrategyFactory;
@@ -67,30 +81,43 @@ import org.springframework.cloud.skipper.server.index.PackageMetadataResourcePro
 import org.springframework.cloud.skipper.server.index.PackageSummaryResourceProcessor;
 import org.springframework.cloud.skipper.server.index.SkipperLinksResourceProcessor;
 import org.springframework.cloud.skipper.server.repository.jpa.AppDeployerDataRepository;
+import org.springframework.cloud.skipper.server.repository.jpa.AppDeploymentRepository;
+import org.springframework.cloud.skipper.server.repository.jpa.OperationRepository;
 import org.springframework.cloud.skipper.server.repository.jpa.PackageMetadataRepository;
 import org.springframework.cloud.skipper.server.repository.jpa.ReleaseRepository;
 import org.springframework.cloud.skipper.server.repository.jpa.RepositoryRepository;
 import org.springframework.cloud.skipper.server.repository.map.DeployerRepository;
+import org.springframework.cloud.skipper.server.service.AppDeploymentMigrationService;
+import org.springframework.cloud.skipper.server.service.BatchUpgradeService;
+import org.springframework.cloud.skipper.server.service.DeploymentStateIngestionService;
+import org.springframework.cloud.skipper.server.service.LobReencodingService;
+import org.springframework.cloud.skipper.server.service.OperationService;
+import org.springframework.cloud.skipper.server.service.PackageBlobMigrationService;
 import org.springframework.cloud.skipper.server.service.PackageMetadataService;
 import org.springframework.cloud.skipper.server.service.PackageService;
 import org.springframework.cloud.skipper.server.service.ReleaseReportService;
 import org.springframework.cloud.skipper.server.service.ReleaseService;
+import org.springframework.cloud.skipper.server.service.ReleaseStatePollingHealthIndicator;
 import org.springframework.cloud.skipper.server.service.ReleaseStateUpdateService;
+import org.springframework.cloud.skipper.server.service.ReleaseStatusSnapshotStore;
 import org.springframework.cloud.skipper.server.service.RepositoryInitializationService;
 import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService;
 import org.springframework.cloud.skipper.server.statemachine.StateMachineConfiguration;
 import org.springframework.cloud.skipper.server.statemachine.StateMachineExecutorConfiguration;
 import org.springframework.cloud.skipper.server.statemachine.StateMachinePersistConfiguration;
+import org.springframework.cloud.skipper.support.codec.LobCodecs;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.data.map.repository.config.EnableMapRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 /**
@@ -104,7 +131,8 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
  */
 @Configuration
 @EnableConfigurationProperties({ SkipperServerProperties.class, VersionInfoProperties.class,
-		LocalPlatformProperties.class, HealthCheckProperties.class })
+		LocalPlatformProperties.class, HealthCheckProperties.class, RollingUpgradeProperties.class,
+		CanaryUpgradeProperties.class })
 @EntityScan({ "org.springframework.cloud.skipper.domain", "org.springframework.cloud.skipper.server.domain" })
 @EnableMapRepositories(basePackages = "org.springframework.cloud.skipper.server.repository.map")
 @EnableJpaRepositories(basePackages = "org.springframework.cloud.skipper.server.repository.jpa")
@@ -152,14 +180,23 @@ public class SkipperServerConfiguration implements AsyncConfigurer {
 
 	@Bean
 	public ReleaseController releaseController(ReleaseService releaseService,
-			SkipperStateMachineService skipperStateMachineService) {
-		return new ReleaseController(releaseService, skipperStateMachineService);
+			SkipperStateMachineService skipperStateMachineService, OperationService operationService,
+			BatchUpgradeService batchUpgradeService) {
+		return new ReleaseController(releaseService, skipperStateMachineService, operationService,
+				batchUpgradeService);
 	}
 
 	@Bean
 	public PackageController packageController(PackageService packageService,
-			PackageMetadataService packageMetadataService, SkipperStateMachineService skipperStateMachineService) {
-		return new PackageController(packageService, packageMetadataService, skipperStateMachineService);
+			PackageMetadataService packageMetadataService, SkipperStateMachineService skipperStateMachineService,
+			OperationService operationService) {
+		return new PackageController(packageService, packageMetadataService, skipperStateMachineService,
+				operationService);
+	}
+
+	@Bean
+	public OperationController operationController(OperationService operationService) {
+		return new OperationController(operationService);
 	}
 
 	@Bean
@@ -183,6 +220,19 @@ public class SkipperServerConfiguration implements AsyncConfigurer {
 				releaseRepository);
 	}
 
+	@Bean
+	public BatchUpgradeService batchUpgradeService(SkipperStateMachineService skipperStateMachineService,
+			ReleaseRepository releaseRepository, SkipperServerProperties skipperServerProperties) {
+		return new BatchUpgradeService(skipperStateMachineService, releaseRepository,
+				skipperServerProperties.getBatchUpgrades());
+	}
+
+	@Bean
+	public OperationService operationService(OperationRepository operationRepository,
+			SkipperServerProperties skipperServerProperties) {
+		return new OperationService(operationRepository, skipperServerProperties.getOperations());
+	}
+
 	@Bean
 	public PackageService packageService(RepositoryRepository repositoryRepository,
 			PackageMetadataRepository packageMetadataRepository,
@@ -218,20 +268,69 @@ public class SkipperServerConfiguration implements AsyncConfigurer {
 		return new DefaultUpgradeStrategyFactory(strategies);
 	}
 
+	@Bean
+	public ReleaseStatusSnapshotStore releaseStatusSnapshotStore(SkipperServerProperties skipperServerProperties) {
+		return new ReleaseStatusSnapshotStore(skipperServerProperties.getStatusSnapshots());
+	}
+
 	@Bean
 	public ReleaseService releaseService(PackageMetadataRepository packageMetadataRepository,
 			ReleaseRepository releaseRepository, PackageService packageService,
 			ReleaseManagerFactory releaseManagerFactory, DeployerRepository deployerRepository,
-			PackageMetadataService packageMetadataService) {
+			PackageMetadataService packageMetadataService, ReleaseStatusSnapshotStore releaseStatusSnapshotStore,
+			PlatformTransactionManager transactionManager) {
 		return new ReleaseService(packageMetadataRepository, releaseRepository, packageService, releaseManagerFactory,
-				deployerRepository, packageMetadataService);
+				deployerRepository, packageMetadataService, releaseStatusSnapshotStore, transactionManager);
+	}
+
+	@Bean
+	public PackageBlobCache packageBlobCache(DataSource dataSource, LobCodecs lobCodecs) {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		return new PackageBlobCache(256, hash -> jdbcTemplate
+				.queryForList("select data from skipper_package_blob where hash = ?", String.class, hash)
+				.stream()
+				.findFirst()
+				.map(lobCodecs::decode)
+				.orElse(null));
+	}
+
+	@Bean
+	public LobCodecs lobCodecs(SkipperServerProperties skipperServerProperties) {
+		LobCodecs lobCodecs = new LobCodecs();
+		for (Map.Entry<String, String> entry : skipperServerProperties.getLobCompression().getColumns()
+				.entrySet()) {
+			lobCodecs.setColumnCodec(entry.getKey(), entry.getValue());
+		}
+		return lobCodecs;
 	}
 
 	@Bean
 	@ConditionalOnProperty(prefix = "spring.cloud.skipper.server", name = "enableReleaseStateUpdateService", matchIfMissing = true)
 	public ReleaseStateUpdateService releaseStateUpdateService(ReleaseManagerFactory releaseManagerFactory,
-			ReleaseRepository releaseRepository) {
-		return new ReleaseStateUpdateService(releaseManagerFactory, releaseRepository);
+			ReleaseRepository releaseRepository, DataSource dataSource, LobCodecs lobCodecs,
+			SkipperServerProperties skipperServerProperties, ReleaseStatusSnapshotStore releaseStatusSnapshotStore) {
+		return new ReleaseStateUpdateService(releaseManagerFactory, releaseRepository, dataSource, lobCodecs,
+				skipperServerProperties.getReleaseStatePolling(), releaseStatusSnapshotStore);
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "spring.cloud.skipper.server", name = "enableReleaseStateUpdateService", matchIfMissing = true)
+	public DeploymentStateIngestionService deploymentStateIngestionService(
+			ObjectProvider<DeploymentStateEventSource> deploymentStateEventSources,
+			AppDeploymentRepository appDeploymentRepository, ReleaseRepository releaseRepository,
+			ReleaseStateUpdateService releaseStateUpdateService, SkipperStateMachineService skipperStateMachineService,
+			SkipperServerProperties skipperServerProperties) {
+		return new DeploymentStateIngestionService(
+				deploymentStateEventSources.orderedStream().collect(Collectors.toList()), appDeploymentRepository,
+				releaseRepository, releaseStateUpdateService, skipperStateMachineService,
+				skipperServerProperties.getDeploymentStateIngestion());
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "spring.cloud.skipper.server", name = "enableReleaseStateUpdateService", matchIfMissing = true)
+	public ReleaseStatePollingHealthIndicator releaseStatePollingHealthIndicator(
+			ReleaseStateUpdateService releaseStateUpdateService) {
+		return new ReleaseStatePollingHealthIndicator(releaseStateUpdateService);
 	}
 
 	@Bean
@@ -243,17 +342,56 @@ public class SkipperServerConfiguration implements AsyncConfigurer {
 				packageMetadataService, skipperServerProperties);
 	}
 
+	@Bean
+	public LobReencodingService lobReencodingService(DataSource dataSource, LobCodecs lobCodecs,
+			PackageBlobMigrationService packageBlobMigrationService,
+			SkipperServerProperties skipperServerProperties) {
+		return new LobReencodingService(dataSource, lobCodecs, packageBlobMigrationService,
+				skipperServerProperties.getLobCompression());
+	}
+
+	@Bean
+	public PackageBlobMigrationService packageBlobMigrationService(DataSource dataSource, LobCodecs lobCodecs) {
+		return new PackageBlobMigrationService(dataSource, lobCodecs, 100);
+	}
+
+	@Bean
+	public AppDeploymentMigrationService appDeploymentMigrationService(
+			AppDeployerDataRepository appDeployerDataRepository) {
+		return new AppDeploymentMigrationService(appDeployerDataRepository);
+	}
+
 	// Deployer Package
 
+	@Bean
+	public PlatformRequestLimiter platformRequestLimiter(SkipperServerProperties skipperServerProperties) {
+		return new PlatformRequestLimiter(skipperServerProperties.getPlatformRequestLimits());
+	}
+
+	@Bean
+	public AppDeploymentExecutor appDeploymentExecutor(SkipperServerProperties skipperServerProperties) {
+		return new AppDeploymentExecutor(skipperServerProperties.getAppDeployments());
+	}
+
+	@Bean
+	public DeploymentStateCache deploymentStateCache(SkipperServerProperties skipperServerProperties,
+			PlatformRequestLimiter platformRequestLimiter) {
+		return new DeploymentStateCache(skipperServerProperties.getStateCache(), platformRequestLimiter);
+	}
+
 	@Bean
 	public DefaultReleaseManager defaultReleaseManager(ReleaseRepository releaseRepository,
 			AppDeployerDataRepository appDeployerDataRepository,
 			DeployerRepository deployerRepository,
 			ReleaseAnalyzer releaseAnalyzer,
 			AppDeploymentRequestFactory appDeploymentRequestFactory,
-			SpringCloudDeployerApplicationManifestReader applicationManifestReader) {
+			SpringCloudDeployerApplicationManifestReader applicationManifestReader,
+			DeploymentStateCache deploymentStateCache,
+			PlatformRequestLimiter platformRequestLimiter,
+			AppDeploymentExecutor appDeploymentExecutor) {
 		return new DefaultReleaseManager(releaseRepository, appDeployerDataRepository, deployerRepository,
-				releaseAnalyzer, appDeploymentRequestFactory, applicationManifestReader);
+				releaseAnalyzer, appDeploymentRequestFactory, applicationManifestReader, deploymentStateCache,
+				platformRequestLimiter, appDeploymentExecutor);
 	}
 
 	@Bean
@@ -262,8 +400,9 @@ public class SkipperServerConfiguration implements AsyncConfigurer {
 	}
 
 	@Bean
-	public DeleteStep deleteStep(ReleaseRepository releaseRepository, DeployerRepository deployerRepository) {
-		return new DeleteStep(releaseRepository, deployerRepository);
+	public DeleteStep deleteStep(ReleaseRepository releaseRepository, DeployerRepository deployerRepository,
+			AppDeploymentExecutor appDeploymentExecutor) {
+		return new DeleteStep(releaseRepository, deployerRepository, appDeploymentExecutor);
 	}
 
 	@Bean
@@ -274,6 +413,24 @@ public class SkipperServerConfiguration implements AsyncConfigurer {
 				deployAppStep);
 	}
 
+	@Bean
+	public UpgradeStrategy rollingUpgradeStrategy(HealthCheckStep healthCheckStep,
+			HandleHealthCheckStep healthCheckAndDeleteStep, DeployAppStep deployAppStep, DeleteStep deleteStep,
+			AppDeployerDataRepository appDeployerDataRepository, RollingUpgradeProperties rollingUpgradeProperties) {
+		return new RollingUpgradeStrategy(healthCheckStep, healthCheckAndDeleteStep, deployAppStep, deleteStep,
+				appDeployerDataRepository, rollingUpgradeProperties);
+	}
+
+	@Bean
+	public UpgradeStrategy canaryUpgradeStrategy(HealthCheckStep healthCheckStep,
+			HandleHealthCheckStep healthCheckAndDeleteStep, DeployAppStep deployAppStep,
+			ReleaseManagerFactory releaseManagerFactory,
+			SpringCloudDeployerApplicationManifestReader applicationManifestReader,
+			CanaryUpgradeProperties canaryUpgradeProperties) {
+		return new CanaryUpgradeStrategy(healthCheckStep, healthCheckAndDeleteStep, deployAppStep,
+				releaseManagerFactory, applicationManifestReader, canaryUpgradeProperties);
+	}
+
 	@Bean
 	public HealthCheckStep healthCheckStep(AppDeployerDataRepository appDeployerDataRepository,
 			DeployerRepository deployerRepository,
@@ -286,9 +443,10 @@ public class SkipperServerConfiguration implements AsyncConfigurer {
 	public DeployAppStep DeployAppStep(DeployerRepository deployerRepository,
 			AppDeploymentRequestFactory appDeploymentRequestFactory,
 			AppDeployerDataRepository appDeployerDataRepository, ReleaseRepository releaseRepository,
-			SpringCloudDeployerApplicationManifestReader applicationManifestReader) {
+			SpringCloudDeployerApplicationManifestReader applicationManifestReader,
+			AppDeploymentExecutor appDeploymentExecutor) {
 		return new DeployAppStep(deployerRepository, appDeploymentRequestFactory, appDeployerDataRepository,
-				releaseRepository, applicationManifestReader);
+				releaseRepository, applicationManifestReader, appDeploymentExecutor);
 	}
 
 	@Bean
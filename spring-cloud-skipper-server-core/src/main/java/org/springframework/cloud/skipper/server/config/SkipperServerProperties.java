@@ -48,6 +48,30 @@ public class SkipperServerProperties {
 
 	private DeployerProperties deployerProperties = new DeployerProperties();
 
+	private LobCompression lobCompression = new LobCompression();
+
+	private ReleaseStatePolling releaseStatePolling = new ReleaseStatePolling();
+
+	private StateCache stateCache = new StateCache();
+
+	private PlatformRequestLimits platformRequestLimits = new PlatformRequestLimits();
+
+	private StatusSnapshots statusSnapshots = new StatusSnapshots();
+
+	private DeploymentStateIngestion deploymentStateIngestion = new DeploymentStateIngestion();
+
+	private Operations operations = new Operations();
+
+	private StateMachineExecutor stateMachineExecutor = new StateMachineExecutor();
+
+	private StateMachinePool stateMachinePool = new StateMachinePool();
+
+	private CommandQueue commandQueue = new CommandQueue();
+
+	private BatchUpgrades batchUpgrades = new BatchUpgrades();
+
+	private AppDeployments appDeployments = new AppDeployments();
+
 	public Map<String, PackageRepository> getPackageRepositories() {
 		return packageRepositories;
 	}
@@ -80,6 +104,102 @@ public class SkipperServerProperties {
 		this.deployerProperties = deployerProperties;
 	}
 
+	public LobCompression getLobCompression() {
+		return lobCompression;
+	}
+
+	public void setLobCompression(LobCompression lobCompression) {
+		this.lobCompression = lobCompression;
+	}
+
+	public ReleaseStatePolling getReleaseStatePolling() {
+		return releaseStatePolling;
+	}
+
+	public void setReleaseStatePolling(ReleaseStatePolling releaseStatePolling) {
+		this.releaseStatePolling = releaseStatePolling;
+	}
+
+	public StateCache getStateCache() {
+		return stateCache;
+	}
+
+	public void setStateCache(StateCache stateCache) {
+		this.stateCache = stateCache;
+	}
+
+	public PlatformRequestLimits getPlatformRequestLimits() {
+		return platformRequestLimits;
+	}
+
+	public void setPlatformRequestLimits(PlatformRequestLimits platformRequestLimits) {
+		this.platformRequestLimits = platformRequestLimits;
+	}
+
+	public StatusSnapshots getStatusSnapshots() {
+		return statusSnapshots;
+	}
+
+	public void setStatusSnapshots(StatusSnapshots statusSnapshots) {
+		this.statusSnapshots = statusSnapshots;
+	}
+
+	public DeploymentStateIngestion getDeploymentStateIngestion() {
+		return deploymentStateIngestion;
+	}
+
+	public void setDeploymentStateIngestion(DeploymentStateIngestion deploymentStateIngestion) {
+		this.deploymentStateIngestion = deploymentStateIngestion;
+	}
+
+	public Operations getOperations() {
+		return operations;
+	}
+
+	public void setOperations(Operations operations) {
+		this.operations = operations;
+	}
+
+	public StateMachineExecutor getStateMachineExecutor() {
+		return stateMachineExecutor;
+	}
+
+	public void setStateMachineExecutor(StateMachineExecutor stateMachineExecutor) {
+		this.stateMachineExecutor = stateMachineExecutor;
+	}
+
+	public StateMachinePool getStateMachinePool() {
+		return stateMachinePool;
+	}
+
+	public void setStateMachinePool(StateMachinePool stateMachinePool) {
+		this.stateMachinePool = stateMachinePool;
+	}
+
+	public CommandQueue getCommandQueue() {
+		return commandQueue;
+	}
+
+	public void setCommandQueue(CommandQueue commandQueue) {
+		this.commandQueue = commandQueue;
+	}
+
+	public BatchUpgrades getBatchUpgrades() {
+		return batchUpgrades;
+	}
+
+	public void setBatchUpgrades(BatchUpgrades batchUpgrades) {
+		this.batchUpgrades = batchUpgrades;
+	}
+
+	public AppDeployments getAppDeployments() {
+		return appDeployments;
+	}
+
+	public void setAppDeployments(AppDeployments appDeployments) {
+		this.appDeployments = appDeployments;
+	}
+
 	public static class PackageRepository {
 
 		private String url;
@@ -168,4 +288,651 @@ public class SkipperServerProperties {
 			this.groupExcludes = groupExcludes;
 		}
 	}
+
+	public static class LobCompression {
+
+		/**
+		 * Codec per large text column. Keys are package-blob-data, release-package,
+		 * manifest-data, status-platform-status and app-deployer-data, values are gzip,
+		 * deflate or none.
+		 */
+		private Map<String, String> columns = new HashMap<>();
+
+		/**
+		 * Flag indicating if existing rows should be re-encoded with configured codecs in
+		 * the background after the server has started.
+		 */
+		private boolean reencodeOnStartup;
+
+		/**
+		 * Number of rows read at a time when re-encoding existing rows.
+		 */
+		private int reencodeBatchSize = 100;
+
+		public Map<String, String> getColumns() {
+			return columns;
+		}
+
+		public void setColumns(Map<String, String> columns) {
+			this.columns = columns;
+		}
+
+		public boolean isReencodeOnStartup() {
+			return reencodeOnStartup;
+		}
+
+		public void setReencodeOnStartup(boolean reencodeOnStartup) {
+			this.reencodeOnStartup = reencodeOnStartup;
+		}
+
+		public int getReencodeBatchSize() {
+			return reencodeBatchSize;
+		}
+
+		public void setReencodeBatchSize(int reencodeBatchSize) {
+			this.reencodeBatchSize = reencodeBatchSize;
+		}
+	}
+
+	public static class ReleaseStatePolling {
+
+		/**
+		 * Interval releases are polled with after they were deployed or their state changed.
+		 * This is also the interval the poll schedule is checked with.
+		 */
+		private long minIntervalInMillis = 5000;
+
+		/**
+		 * Upper bound for the interval of releases whose state has not changed.
+		 */
+		private long maxIntervalInMillis = 600000;
+
+		/**
+		 * Factor the interval of a release is multiplied with every time its state has not
+		 * changed.
+		 */
+		private double backoffMultiplier = 2;
+
+		/**
+		 * Time after a deploy during which a release is polled with the minimum interval.
+		 */
+		private long recentDeployWindowInMillis = 120000;
+
+		/**
+		 * Interval the latest deployed or failed releases are loaded with to schedule polls
+		 * of new releases and to drop releases which are no longer the latest ones.
+		 */
+		private long reconcileIntervalInMillis = 30000;
+
+		/**
+		 * Maximum number of releases of a platform polled concurrently.
+		 */
+		private int workers = 4;
+
+		/**
+		 * Time after which a poll of a release is considered failed.
+		 */
+		private long timeoutInMillis = 30000;
+
+		/**
+		 * Number of consecutive failed polls after which polls of a platform are skipped.
+		 */
+		private int failureThreshold = 3;
+
+		/**
+		 * Time polls of a platform are skipped for after consecutive failures.
+		 */
+		private long coolDownInMillis = 60000;
+
+		public long getMinIntervalInMillis() {
+			return minIntervalInMillis;
+		}
+
+		public void setMinIntervalInMillis(long minIntervalInMillis) {
+			this.minIntervalInMillis = minIntervalInMillis;
+		}
+
+		public long getMaxIntervalInMillis() {
+			return maxIntervalInMillis;
+		}
+
+		public void setMaxIntervalInMillis(long maxIntervalInMillis) {
+			this.maxIntervalInMillis = maxIntervalInMillis;
+		}
+
+		public double getBackoffMultiplier() {
+			return backoffMultiplier;
+		}
+
+		public void setBackoffMultiplier(double backoffMultiplier) {
+			this.backoffMultiplier = backoffMultiplier;
+		}
+
+		public long getRecentDeployWindowInMillis() {
+			return recentDeployWindowInMillis;
+		}
+
+		public void setRecentDeployWindowInMillis(long recentDeployWindowInMillis) {
+			this.recentDeployWindowInMillis = recentDeployWindowInMillis;
+		}
+
+		public long getReconcileIntervalInMillis() {
+			return reconcileIntervalInMillis;
+		}
+
+		public void setReconcileIntervalInMillis(long reconcileIntervalInMillis) {
+			this.reconcileIntervalInMillis = reconcileIntervalInMillis;
+		}
+
+		public int getWorkers() {
+			return workers;
+		}
+
+		public void setWorkers(int workers) {
+			this.workers = workers;
+		}
+
+		public long getTimeoutInMillis() {
+			return timeoutInMillis;
+		}
+
+		public void setTimeoutInMillis(long timeoutInMillis) {
+			this.timeoutInMillis = timeoutInMillis;
+		}
+
+		public int getFailureThreshold() {
+			return failureThreshold;
+		}
+
+		public void setFailureThreshold(int failureThreshold) {
+			this.failureThreshold = failureThreshold;
+		}
+
+		public long getCoolDownInMillis() {
+			return coolDownInMillis;
+		}
+
+		public void setCoolDownInMillis(long coolDownInMillis) {
+			this.coolDownInMillis = coolDownInMillis;
+		}
+	}
+
+	public static class StateCache {
+
+		/**
+		 * Time deployment states computed by multi state app deployers are cached for.
+		 */
+		private long ttlInMillis = 60000;
+
+		/**
+		 * Time after which a cached deployment state is refreshed in the background when
+		 * accessed. Refreshing is disabled if not less than the ttl.
+		 */
+		private long refreshInMillis = 30000;
+
+		/**
+		 * Maximum number of cached deployment states.
+		 */
+		private long maximumSize = 10000;
+
+		public long getTtlInMillis() {
+			return ttlInMillis;
+		}
+
+		public void setTtlInMillis(long ttlInMillis) {
+			this.ttlInMillis = ttlInMillis;
+		}
+
+		public long getRefreshInMillis() {
+			return refreshInMillis;
+		}
+
+		public void setRefreshInMillis(long refreshInMillis) {
+			this.refreshInMillis = refreshInMillis;
+		}
+
+		public long getMaximumSize() {
+			return maximumSize;
+		}
+
+		public void setMaximumSize(long maximumSize) {
+			this.maximumSize = maximumSize;
+		}
+	}
+
+	public static class PlatformRequestLimits {
+
+		/**
+		 * Limits of platform accounts not configured explicitly.
+		 */
+		private PlatformRequestLimit defaults = new PlatformRequestLimit();
+
+		/**
+		 * Limits keyed by platform account name.
+		 */
+		private Map<String, PlatformRequestLimit> platforms = new HashMap<>();
+
+		public PlatformRequestLimit getDefaults() {
+			return defaults;
+		}
+
+		public void setDefaults(PlatformRequestLimit defaults) {
+			this.defaults = defaults;
+		}
+
+		public Map<String, PlatformRequestLimit> getPlatforms() {
+			return platforms;
+		}
+
+		public void setPlatforms(Map<String, PlatformRequestLimit> platforms) {
+			this.platforms = platforms;
+		}
+	}
+
+	public static class PlatformRequestLimit {
+
+		/**
+		 * Maximum number of requests sent to a platform concurrently.
+		 */
+		private int maxConcurrency = 16;
+
+		/**
+		 * Maximum number of requests per second sent to a platform, unlimited if not
+		 * positive.
+		 */
+		private double permitsPerSecond;
+
+		public int getMaxConcurrency() {
+			return maxConcurrency;
+		}
+
+		public void setMaxConcurrency(int maxConcurrency) {
+			this.maxConcurrency = maxConcurrency;
+		}
+
+		public double getPermitsPerSecond() {
+			return permitsPerSecond;
+		}
+
+		public void setPermitsPerSecond(double permitsPerSecond) {
+			this.permitsPerSecond = permitsPerSecond;
+		}
+	}
+
+	public static class StatusSnapshots {
+
+		/**
+		 * Max age of status snapshots served without revalidation when a status query
+		 * doesn't ask for a max staleness.
+		 */
+		private long maxStalenessInMillis = 10000;
+
+		/**
+		 * Time after the max staleness during which a status snapshot is still served while
+		 * it's revalidated in the background.
+		 */
+		private long staleWhileRevalidateInMillis = 60000;
+
+		public long getMaxStalenessInMillis() {
+			return maxStalenessInMillis;
+		}
+
+		public void setMaxStalenessInMillis(long maxStalenessInMillis) {
+			this.maxStalenessInMillis = maxStalenessInMillis;
+		}
+
+		public long getStaleWhileRevalidateInMillis() {
+			return staleWhileRevalidateInMillis;
+		}
+
+		public void setStaleWhileRevalidateInMillis(long staleWhileRevalidateInMillis) {
+			this.staleWhileRevalidateInMillis = staleWhileRevalidateInMillis;
+		}
+	}
+
+	public static class DeploymentStateIngestion {
+
+		/**
+		 * Time within which pushed deployment state events are coalesced before they're
+		 * applied to releases.
+		 */
+		private long coalesceWindowInMillis = 500;
+
+		/**
+		 * Max number of pushed deployment state events applied at once.
+		 */
+		private int maxBatchSize = 500;
+
+		public long getCoalesceWindowInMillis() {
+			return coalesceWindowInMillis;
+		}
+
+		public void setCoalesceWindowInMillis(long coalesceWindowInMillis) {
+			this.coalesceWindowInMillis = coalesceWindowInMillis;
+		}
+
+		public int getMaxBatchSize() {
+			return maxBatchSize;
+		}
+
+		public void setMaxBatchSize(int maxBatchSize) {
+			this.maxBatchSize = maxBatchSize;
+		}
+	}
+
+	public static class Operations {
+
+		/**
+		 * Number of workers running asynchronous release operations.
+		 */
+		private int workers = 8;
+
+		/**
+		 * Max number of asynchronous release operations waiting for a worker before new
+		 * operations are rejected.
+		 */
+		private int queueCapacity = 100;
+
+		public int getWorkers() {
+			return workers;
+		}
+
+		public void setWorkers(int workers) {
+			this.workers = workers;
+		}
+
+		public int getQueueCapacity() {
+			return queueCapacity;
+		}
+
+		public void setQueueCapacity(int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+		}
+	}
+
+	public static class StateMachineExecutor {
+
+		/**
+		 * Policies for tasks of release state machines which the executor can't take.
+		 */
+		public enum RejectionPolicy {
+
+			/**
+			 * Fail the task.
+			 */
+			ABORT,
+
+			/**
+			 * Run the task in the thread submitting it.
+			 */
+			CALLER_RUNS
+		}
+
+		/**
+		 * Number of threads kept to run tasks of release state machines.
+		 */
+		private int corePoolSize = 8;
+
+		/**
+		 * Max number of threads running tasks of release state machines.
+		 */
+		private int maxPoolSize = 256;
+
+		/**
+		 * Max number of tasks waiting for a thread. With zero capacity new threads are
+		 * started up to the max pool size instead of queueing tasks.
+		 */
+		private int queueCapacity = 0;
+
+		/**
+		 * Time threads over the core pool size are kept idle before they're stopped.
+		 */
+		private long keepAliveInMillis = 60000;
+
+		/**
+		 * Policy for tasks submitted when all threads are busy and the queue is full.
+		 */
+		private RejectionPolicy rejectionPolicy = RejectionPolicy.CALLER_RUNS;
+
+		/**
+		 * Flag to run every task in a virtual thread of its own instead of a pool, if
+		 * available on the JVM.
+		 */
+		private boolean virtualThreads;
+
+		public int getCorePoolSize() {
+			return corePoolSize;
+		}
+
+		public void setCorePoolSize(int corePoolSize) {
+			this.corePoolSize = corePoolSize;
+		}
+
+		public int getMaxPoolSize() {
+			return maxPoolSize;
+		}
+
+		public void setMaxPoolSize(int maxPoolSize) {
+			this.maxPoolSize = maxPoolSize;
+		}
+
+		public int getQueueCapacity() {
+			return queueCapacity;
+		}
+
+		public void setQueueCapacity(int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+		}
+
+		public long getKeepAliveInMillis() {
+			return keepAliveInMillis;
+		}
+
+		public void setKeepAliveInMillis(long keepAliveInMillis) {
+			this.keepAliveInMillis = keepAliveInMillis;
+		}
+
+		public RejectionPolicy getRejectionPolicy() {
+			return rejectionPolicy;
+		}
+
+		public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+			this.rejectionPolicy = rejectionPolicy;
+		}
+
+		public boolean isVirtualThreads() {
+			return virtualThreads;
+		}
+
+		public void setVirtualThreads(boolean virtualThreads) {
+			this.virtualThreads = virtualThreads;
+		}
+	}
+
+	public static class StateMachinePool {
+
+		/**
+		 * Max number of release state machines kept in memory. Least recently used idle
+		 * machines are released when the pool grows over this size.
+		 */
+		private int maxSize = 1000;
+
+		/**
+		 * Time after which an idle release state machine is released from memory.
+		 */
+		private long maxIdleInMillis = 600000;
+
+		/**
+		 * Interval of checks for idle release state machines.
+		 */
+		private long evictionIntervalInMillis = 60000;
+
+		/**
+		 * Flag to restore state machines of releases with operations in progress at startup.
+		 */
+		private boolean prewarm = true;
+
+		public int getMaxSize() {
+			return maxSize;
+		}
+
+		public void setMaxSize(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		public long getStatusPollIntervalInMillis() {
+			return statusPollIntervalInMillis;
+		}
+
+		public void setStatusPollIntervalInMillis(long statusPollIntervalInMillis) {
+			this.statusPollIntervalInMillis = statusPollIntervalInMillis;
+		}
+
+		public long getStatusTimeoutInMillis() {
+			return statusTimeoutInMillis;
+		}
+
+		public void setStatusTimeoutInMillis(long statusTimeoutInMillis) {
+			this.statusTimeoutInMillis = statusTimeoutInMillis;
+		}
+
+		public long getMaxIdleInMillis() {
+			return maxIdleInMillis;
+		}
+
+		public void setMaxIdleInMillis(long maxIdleInMillis) {
+			this.maxIdleInMillis = maxIdleInMillis;
+		}
+
+		public long getEvictionIntervalInMillis() {
+			return evictionIntervalInMillis;
+		}
+
+		public void setEvictionIntervalInMillis(long evictionIntervalInMillis) {
+			this.evictionIntervalInMillis = evictionIntervalInMillis;
+		}
+
+		public boolean isPrewarm() {
+			return prewarm;
+		}
+
+		public void setPrewarm(boolean prewarm) {
+			this.prewarm = prewarm;
+		}
+	}
+
+	public static class CommandQueue {
+
+		/**
+		 * Max number of commands of a release waiting for its state machine to be ready.
+		 */
+		private int maxDepth = 10;
+
+		/**
+		 * Max time a command waits for the state machine of its release to be ready.
+		 */
+		private long maxWaitInMillis = 600000;
+
+		public int getMaxDepth() {
+			return maxDepth;
+		}
+
+		public void setMaxDepth(int maxDepth) {
+			this.maxDepth = maxDepth;
+		}
+
+		public long getMaxWaitInMillis() {
+			return maxWaitInMillis;
+		}
+
+		public void setMaxWaitInMillis(long maxWaitInMillis) {
+			this.maxWaitInMillis = maxWaitInMillis;
+		}
+	}
+
+	public static class BatchUpgrades {
+
+		/**
+		 * Max number of releases of a batch upgraded at the same time.
+		 */
+		private int parallelism = 4;
+
+		/**
+		 * Max number of upgrades in a batch.
+		 */
+		private int maxSize = 500;
+
+		/**
+		 * Interval the status of a new release is checked with to find out if its upgrade
+		 * has finished.
+		 */
+		private long statusPollIntervalInMillis = 2000;
+
+		/**
+		 * Time after which an upgrade of a batch which hasn't finished is reported failed.
+		 */
+		private long statusTimeoutInMillis = 1800000;
+
+		public int getParallelism() {
+			return parallelism;
+		}
+
+		public void setParallelism(int parallelism) {
+			this.parallelism = parallelism;
+		}
+
+		public int getMaxSize() {
+			return maxSize;
+		}
+
+		public void setMaxSize(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		public long getStatusPollIntervalInMillis() {
+			return statusPollIntervalInMillis;
+		}
+
+		public void setStatusPollIntervalInMillis(long statusPollIntervalInMillis) {
+			this.statusPollIntervalInMillis = statusPollIntervalInMillis;
+		}
+
+		public long getStatusTimeoutInMillis() {
+			return statusTimeoutInMillis;
+		}
+
+		public void setStatusTimeoutInMillis(long statusTimeoutInMillis) {
+			this.statusTimeoutInMillis = statusTimeoutInMillis;
+		}
+	}
+
+	public static class AppDeployments {
+
+		/**
+		 * Max number of apps of a release deployed or undeployed at the same time.
+		 */
+		private int parallelism = 4;
+
+		/**
+		 * Max time to wait for a single app to undeploy. An undeploy which timed out is
+		 * reported as failed but may still be running on the platform.
+		 */
+		private long undeployTimeoutInMillis = 60000;
+
+		public int getParallelism() {
+			return parallelism;
+		}
+
+		public void setParallelism(int parallelism) {
+			this.parallelism = parallelism;
+		}
+
+		public long getUndeployTimeoutInMillis() {
+			return undeployTimeoutInMillis;
+		}
+
+		public void setUndeployTimeoutInMillis(long undeployTimeoutInMillis) {
+			this.undeployTimeoutInMillis = undeployTimeoutInMillis;
+		}
+	}
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.controller;
+
+import org.springframework.cloud.skipper.OperationNotFoundException;
+import org.springframework.cloud.skipper.domain.Operation;
+import org.springframework.cloud.skipper.server.controller.support.OperationResourceAssembler;
+import org.springframework.cloud.skipper.server.service.OperationService;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for following asynchronous release operations.
+ */
+@RestController
+@RequestMapping("/api/operations")
+public class OperationController {
+
+	private final OperationService operationService;
+
+	private final OperationResourceAssembler operationResourceAssembler = new OperationResourceAssembler();
+
+	public OperationController(OperationService operationService) {
+		this.operationService = operationService;
+	}
+
+	@RequestMapping(path = "/{id}", method = RequestMethod.GET)
+	@ResponseStatus(HttpStatus.OK)
+	public EntityModel<Operation> operation(@PathVariable("id") String id) {
+		return this.operationResourceAssembler.toModel(this.operationService.get(id));
+	}
+
+	@ResponseStatus(value = HttpStatus.NOT_FOUND, reason = "Operation not found")
+	@ExceptionHandler(OperationNotFoundException.class)
+	public void handleOperationNotFoundException() {
+		// needed for server not to log 500 errors
+	}
+}
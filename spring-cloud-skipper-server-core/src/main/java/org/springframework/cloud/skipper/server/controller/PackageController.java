@@ -20,11 +20,15 @@ import org.springframework.cloud.skipper.ReleaseNotFoundException;
 import org.springframework.cloud.skipper.SkipperException;
 import org.springframework.cloud.skipper.domain.InstallProperties;
 import org.springframework.cloud.skipper.domain.InstallRequest;
+import org.springframework.cloud.skipper.domain.Operation;
+import org.springframework.cloud.skipper.domain.OperationType;
 import org.springframework.cloud.skipper.domain.PackageMetadata;
 import org.springframework.cloud.skipper.domain.Release;
 import org.springframework.cloud.skipper.domain.UploadRequest;
+import org.springframework.cloud.skipper.server.controller.support.OperationResourceAssembler;
 import org.springframework.cloud.skipper.server.controller.support.PackageMetadataResourceAssembler;
 import org.springframework.cloud.skipper.server.controller.support.ReleaseResourceAssembler;
+import org.springframework.cloud.skipper.server.service.OperationService;
 import org.springframework.cloud.skipper.server.service.PackageMetadataService;
 import org.springframework.cloud.skipper.server.service.PackageService;
 import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService;
@@ -32,6 +36,7 @@ import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.RepresentationModel;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -58,15 +63,20 @@ public class PackageController {
 
 	private final PackageMetadataService packageMetadataService;
 
+	private final OperationService operationService;
+
 	private PackageMetadataResourceAssembler packageMetadataResourceAssembler = new PackageMetadataResourceAssembler();
 
 	private ReleaseResourceAssembler releaseResourceAssembler = new ReleaseResourceAssembler();
 
+	private OperationResourceAssembler operationResourceAssembler = new OperationResourceAssembler();
+
 	public PackageController(PackageService packageService, PackageMetadataService packageMetadataService,
-			SkipperStateMachineService skipperStateMachineService) {
+			SkipperStateMachineService skipperStateMachineService, OperationService operationService) {
 		this.packageService = packageService;
 		this.packageMetadataService = packageMetadataService;
 		this.skipperStateMachineService = skipperStateMachineService;
+		this.operationService = operationService;
 	}
 
 	@RequestMapping(method = RequestMethod.GET)
@@ -100,6 +110,21 @@ public class PackageController {
 		return this.releaseResourceAssembler.toModel(this.skipperStateMachineService.installRelease(id, installProperties));
 	}
 
+	@RequestMapping(path = "/install", method = RequestMethod.POST, params = "async=true")
+	public ResponseEntity<EntityModel<Operation>> installAsync(@RequestBody InstallRequest installRequest) {
+		return this.operationResourceAssembler.toAcceptedResponse(() -> this.operationService.submit(
+				OperationType.INSTALL, installRequest.getInstallProperties().getReleaseName(),
+				() -> this.skipperStateMachineService.installRelease(installRequest)));
+	}
+
+	@RequestMapping(path = "/install/{id}", method = RequestMethod.POST, params = "async=true")
+	public ResponseEntity<EntityModel<Operation>> installAsync(@PathVariable("id") Long id,
+			@RequestBody InstallProperties installProperties) {
+		return this.operationResourceAssembler.toAcceptedResponse(() -> this.operationService.submit(
+				OperationType.INSTALL, installProperties.getReleaseName(),
+				() -> this.skipperStateMachineService.installRelease(id, installProperties)));
+	}
+
 	@RequestMapping(path = "/{name}", method = RequestMethod.DELETE)
 	@ResponseStatus(HttpStatus.OK)
 	public void packageDelete(@PathVariable("name") String name) {
@@ -18,28 +18,38 @@ package org.springframework.cloud.skipper.server.controller;
 import java.util.List;
 import java.util.Map;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.deployer.spi.app.DeploymentState;
+import org.springframework.cloud.skipper.InvalidPageRequestException;
 import org.springframework.cloud.skipper.PackageDeleteException;
 import org.springframework.cloud.skipper.ReleaseNotFoundException;
 import org.springframework.cloud.skipper.ReleaseUpgradeException;
 import org.springframework.cloud.skipper.SkipperException;
+import org.springframework.cloud.skipper.domain.BatchUpgradeRequest;
+import org.springframework.cloud.skipper.domain.BatchUpgradeResult;
 import org.springframework.cloud.skipper.domain.CancelRequest;
 import org.springframework.cloud.skipper.domain.CancelResponse;
 import org.springframework.cloud.skipper.domain.DeleteProperties;
 import org.springframework.cloud.skipper.domain.Info;
 import org.springframework.cloud.skipper.domain.LogInfo;
 import org.springframework.cloud.skipper.domain.Manifest;
+import org.springframework.cloud.skipper.domain.Operation;
+import org.springframework.cloud.skipper.domain.OperationType;
 import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.ReleasePage;
 import org.springframework.cloud.skipper.domain.RollbackRequest;
 import org.springframework.cloud.skipper.domain.ScaleRequest;
 import org.springframework.cloud.skipper.domain.UpgradeRequest;
 import org.springframework.cloud.skipper.server.controller.support.InfoResourceAssembler;
 import org.springframework.cloud.skipper.server.controller.support.ManifestResourceAssembler;
+import org.springframework.cloud.skipper.server.controller.support.OperationResourceAssembler;
 import org.springframework.cloud.skipper.server.controller.support.ReleaseResourceAssembler;
 import org.springframework.cloud.skipper.server.controller.support.SimpleResourceAssembler;
+import org.springframework.cloud.skipper.server.service.BatchUpgradeService;
+import org.springframework.cloud.skipper.server.service.OperationService;
 import org.springframework.cloud.skipper.server.service.ReleaseService;
 import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService;
 import org.springframework.hateoas.CollectionModel;
@@ -47,6 +57,8 @@ import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.RepresentationModel;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -71,9 +83,12 @@ public class ReleaseController {
 
 	private final ReleaseService releaseService;
 	private final SkipperStateMachineService skipperStateMachineService;
+	private final OperationService operationService;
+	private final BatchUpgradeService batchUpgradeService;
 	private final ReleaseResourceAssembler releaseResourceAssembler = new ReleaseResourceAssembler();
 	private final ManifestResourceAssembler manifestResourceAssembler = new ManifestResourceAssembler();
 	private final InfoResourceAssembler infoResourceAssembler = new InfoResourceAssembler();
+	private final OperationResourceAssembler operationResourceAssembler = new OperationResourceAssembler();
 
 	@Value("${info.app.name:#{null}}")
 	private String appName;
@@ -81,9 +96,12 @@ public class ReleaseController {
 	private String appVersion;
 
 	public ReleaseController(ReleaseService releaseService,
-			SkipperStateMachineService skipperStateMachineService) {
+			SkipperStateMachineService skipperStateMachineService, OperationService operationService,
+			BatchUpgradeService batchUpgradeService) {
 		this.releaseService = releaseService;
 		this.skipperStateMachineService = skipperStateMachineService;
+		this.operationService = operationService;
+		this.batchUpgradeService = batchUpgradeService;
 	}
 
 	@RequestMapping(method = RequestMethod.GET)
@@ -114,14 +132,16 @@ public class ReleaseController {
 
 	@RequestMapping(path = "/statuses", method = RequestMethod.GET)
 	@ResponseStatus(HttpStatus.OK)
-	public Mono<Map<String, Info>> statuses(@RequestParam("names") String[] names) {
-		return this.releaseService.statusReactive(names);
+	public Mono<Map<String, Info>> statuses(@RequestParam("names") String[] names,
+			@RequestParam(value = "maxStaleness", required = false) Long maxStaleness) {
+		return this.releaseService.statusReactive(names, maxStaleness);
 	}
 
 	@RequestMapping(path = "/states", method = RequestMethod.GET)
 	@ResponseStatus(HttpStatus.OK)
-	public Mono<Map<String, Map<String, DeploymentState>>> states(@RequestParam("names") String[] names) {
-		return this.releaseService.states(names);
+	public Mono<Map<String, Map<String, DeploymentState>>> states(@RequestParam("names") String[] names,
+			@RequestParam(value = "maxStaleness", required = false) Long maxStaleness) {
+		return this.releaseService.states(names, maxStaleness);
 	}
 
 	@RequestMapping(path = "/status/{name}", method = RequestMethod.GET)
@@ -175,6 +195,25 @@ public class ReleaseController {
 		return this.releaseResourceAssembler.toModel(release);
 	}
 
+	@RequestMapping(path = "/upgrade", method = RequestMethod.POST, params = "async=true")
+	public ResponseEntity<EntityModel<Operation>> upgradeAsync(@RequestBody UpgradeRequest upgradeRequest) {
+		return this.operationResourceAssembler.toAcceptedResponse(() -> this.operationService.submit(
+				OperationType.UPGRADE, upgradeRequest.getUpgradeProperties().getReleaseName(),
+				() -> this.skipperStateMachineService.upgradeRelease(upgradeRequest)));
+	}
+
+	@RequestMapping(path = "/upgrade/batch", method = RequestMethod.POST, produces = MediaType.APPLICATION_NDJSON_VALUE)
+	@ResponseStatus(HttpStatus.OK)
+	public Flux<BatchUpgradeResult> upgradeBatch(@RequestBody BatchUpgradeRequest batchUpgradeRequest) {
+		return this.batchUpgradeService.upgrade(batchUpgradeRequest);
+	}
+
+	@RequestMapping(path = "/upgrade/batch/{batchId}/cancel", method = RequestMethod.POST)
+	@ResponseStatus(HttpStatus.OK)
+	public CancelResponse cancelBatch(@PathVariable("batchId") String batchId) {
+		return new CancelResponse(this.batchUpgradeService.cancel(batchId));
+	}
+
 	@RequestMapping(path = "/rollback", method = RequestMethod.POST)
 	@ResponseStatus(HttpStatus.CREATED)
 	public EntityModel<Release> rollback(@RequestBody RollbackRequest rollbackRequest) {
@@ -182,6 +221,13 @@ public class ReleaseController {
 		return this.releaseResourceAssembler.toModel(release);
 	}
 
+	@RequestMapping(path = "/rollback", method = RequestMethod.POST, params = "async=true")
+	public ResponseEntity<EntityModel<Operation>> rollbackAsync(@RequestBody RollbackRequest rollbackRequest) {
+		return this.operationResourceAssembler.toAcceptedResponse(() -> this.operationService.submit(
+				OperationType.ROLLBACK, rollbackRequest.getReleaseName(),
+				() -> this.skipperStateMachineService.rollbackRelease(rollbackRequest)));
+	}
+
 	@RequestMapping(path = "/rollback/{name}/{version}", method = RequestMethod.POST)
 	@ResponseStatus(HttpStatus.CREATED)
 	@Deprecated
@@ -234,6 +280,24 @@ public class ReleaseController {
 		return resources;
 	}
 
+	@RequestMapping(path = "/page", method = RequestMethod.GET)
+	@ResponseStatus(HttpStatus.OK)
+	public ReleasePage page(@RequestParam(value = "name", required = false) String releaseName,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "size", defaultValue = "100") int size) {
+		ReleaseService.validatePageSize(size);
+		return this.releaseService.list(releaseName, cursor, size);
+	}
+
+	@RequestMapping(path = "/stream", method = RequestMethod.GET, produces = MediaType.APPLICATION_NDJSON_VALUE)
+	@ResponseStatus(HttpStatus.OK)
+	public Flux<Release> stream(@RequestParam(value = "name", required = false) String releaseName,
+			@RequestParam(value = "size", defaultValue = "100") int size) {
+		// validated here as errors of the returned flux can't change the response status
+		ReleaseService.validatePageSize(size);
+		return this.releaseService.listStream(releaseName, size);
+	}
+
 	@ResponseStatus(value = HttpStatus.NOT_FOUND, reason = "Release not found")
 	@ExceptionHandler(ReleaseNotFoundException.class)
 	public void handleReleaseNotFoundException() {
@@ -258,6 +322,12 @@ public class ReleaseController {
 		// needed for server not to log 500 errors
 	}
 
+	@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid page request")
+	@ExceptionHandler(InvalidPageRequestException.class)
+	public void handleInvalidPageRequestException() {
+		// needed for server not to log 500 errors
+	}
+
 	/**
 	 * @author Mark Pollack
 	 */
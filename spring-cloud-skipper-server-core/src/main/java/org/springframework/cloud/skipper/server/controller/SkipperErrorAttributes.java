@@ -21,6 +21,7 @@ import org.springframework.boot.web.error.ErrorAttributeOptions;
 import org.springframework.boot.web.error.ErrorAttributeOptions.Include;
 import org.springframework.boot.web.servlet.error.DefaultErrorAttributes;
 import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.cloud.skipper.OperationNotFoundException;
 import org.springframework.cloud.skipper.PackageDeleteException;
 import org.springframework.cloud.skipper.ReleaseNotFoundException;
 import org.springframework.cloud.skipper.SkipperException;
@@ -60,6 +61,10 @@ public class SkipperErrorAttributes extends DefaultErrorAttributes {
 				}
 				errorAttributes.put("message", error.getMessage());
 			}
+			else if (error instanceof OperationNotFoundException) {
+				errorAttributes.put("operationId", ((OperationNotFoundException) error).getOperationId());
+				errorAttributes.put("message", error.getMessage());
+			}
 			else if (error instanceof PackageDeleteException) {
 				errorAttributes.put("message", error.getMessage());
 			}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.controller.support;
+
+import java.util.function.Supplier;
+
+import org.springframework.cloud.skipper.domain.Operation;
+import org.springframework.cloud.skipper.server.controller.OperationController;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Assembles {@link Operation} resources linking to themselves.
+ */
+public class OperationResourceAssembler extends SimpleResourceAssembler<Operation> {
+
+	/**
+	 * Creates a response for an accepted operation with its location.
+	 *
+	 * @param operation the submitting of the operation
+	 * @return the response
+	 */
+	public ResponseEntity<EntityModel<Operation>> toAcceptedResponse(Supplier<Operation> operation) {
+		EntityModel<Operation> resource = toModel(operation.get());
+		return ResponseEntity.status(HttpStatus.ACCEPTED)
+				.location(resource.getRequiredLink(IanaLinkRelations.SELF).toUri())
+				.body(resource);
+	}
+
+	@Override
+	protected void addLinks(EntityModel<Operation> resource) {
+		super.addLinks(resource);
+		resource.add(linkTo(methodOn(OperationController.class).operation(resource.getContent().getId()))
+				.withSelfRel());
+	}
+}
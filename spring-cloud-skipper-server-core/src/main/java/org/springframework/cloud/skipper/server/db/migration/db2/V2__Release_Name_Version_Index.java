@@ -0,0 +1,35 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.db.migration.db2;
+
+import java.util.Arrays;
+
+import org.springframework.cloud.dataflow.common.flyway.AbstractMigration;
+import org.springframework.cloud.dataflow.common.flyway.SqlCommand;
+
+/**
+ * Adds unique index for release name and version.
+ */
+public class V2__Release_Name_Version_Index extends AbstractMigration {
+
+	public final static String CREATE_INX_REL_NAME_VERSION_INDEX =
+			"create unique index idx_rel_name_version on skipper_release (name, version)";
+
+	public V2__Release_Name_Version_Index() {
+		super(Arrays.asList(
+				SqlCommand.from(CREATE_INX_REL_NAME_VERSION_INDEX)));
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.db.migration.mysql;
+
+import java.util.Arrays;
+
+import org.springframework.cloud.dataflow.common.flyway.AbstractMigration;
+import org.springframework.cloud.dataflow.common.flyway.SqlCommand;
+
+/**
+ * Adds content addressed package blob table referenced from releases.
+ */
+public class V3__Package_Blob extends AbstractMigration {
+
+	public final static String CREATE_SKIPPER_PACKAGE_BLOB_TABLE =
+			"create table skipper_package_blob (\n" +
+			"    hash varchar(64) not null,\n" +
+			"    data longtext,\n" +
+			"    primary key (hash)\n" +
+			")";
+
+	public final static String ALTER_SKIPPER_RELEASE_ADD_PKG_HASH =
+			"alter table skipper_release add column pkg_hash varchar(64)";
+
+	public final static String CREATE_FK_RELEASE_PKG_BLOB =
+			"alter table skipper_release\n" +
+			"    add constraint fk_release_pkg_blob\n" +
+			"    foreign key (pkg_hash)\n" +
+			"    references skipper_package_blob (hash)";
+
+	public V3__Package_Blob() {
+		super(Arrays.asList(
+				SqlCommand.from(CREATE_SKIPPER_PACKAGE_BLOB_TABLE),
+				SqlCommand.from(ALTER_SKIPPER_RELEASE_ADD_PKG_HASH),
+				SqlCommand.from(CREATE_FK_RELEASE_PKG_BLOB)));
+	}
+}
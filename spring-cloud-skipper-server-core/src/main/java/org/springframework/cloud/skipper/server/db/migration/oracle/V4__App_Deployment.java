@@ -0,0 +1,62 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.db.migration.oracle;
+
+import java.util.Arrays;
+
+import org.springframework.cloud.dataflow.common.flyway.AbstractMigration;
+import org.springframework.cloud.dataflow.common.flyway.SqlCommand;
+
+/**
+ * Adds app deployment table holding application deployment ids of releases.
+ */
+public class V4__App_Deployment extends AbstractMigration {
+
+	public final static String CREATE_SKIPPER_APP_DEPLOYMENT_TABLE =
+			"create table skipper_app_deployment (\n" +
+			"    id number(19,0) not null,\n" +
+			"    app_name varchar2(255 char),\n" +
+			"    deployment_id varchar2(255 char),\n" +
+			"    release_name varchar2(255 char),\n" +
+			"    release_version number(10,0),\n" +
+			"    app_deployer_data_id number(19,0) not null,\n" +
+			"    primary key (id)\n" +
+			")";
+
+	public final static String CREATE_IDX_APP_DEPLOYMENT_RELEASE =
+			"create index idx_app_deployment_release on skipper_app_deployment (release_name, release_version)";
+
+	public final static String CREATE_IDX_APP_DEPL_DEPLOYMENT_ID =
+			"create index idx_app_depl_deployment_id on skipper_app_deployment (deployment_id)";
+
+	public final static String CREATE_IDX_APP_DEPLOYER_DATA_RELEASE =
+			"create index idx_app_deployer_data_release on skipper_app_deployer_data (release_name, release_version)";
+
+	public final static String CREATE_FK_APP_DEPLOYMENT_DATA =
+			"alter table skipper_app_deployment\n" +
+			"    add constraint fk_app_deployment_data\n" +
+			"    foreign key (app_deployer_data_id)\n" +
+			"    references skipper_app_deployer_data";
+
+	public V4__App_Deployment() {
+		super(Arrays.asList(
+				SqlCommand.from(CREATE_SKIPPER_APP_DEPLOYMENT_TABLE),
+				SqlCommand.from(CREATE_IDX_APP_DEPLOYMENT_RELEASE),
+				SqlCommand.from(CREATE_IDX_APP_DEPL_DEPLOYMENT_ID),
+				SqlCommand.from(CREATE_IDX_APP_DEPLOYER_DATA_RELEASE),
+				SqlCommand.from(CREATE_FK_APP_DEPLOYMENT_DATA)));
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.db.migration.postgresql;
+
+import java.util.Arrays;
+
+import org.springframework.cloud.dataflow.common.flyway.AbstractMigration;
+import org.springframework.cloud.dataflow.common.flyway.SqlCommand;
+
+/**
+ * Adds operation table holding asynchronous release operations.
+ */
+public class V5__Operation extends AbstractMigration {
+
+	public final static String CREATE_SKIPPER_OPERATION_TABLE =
+			"create table skipper_operation (\n" +
+			"    id varchar(36) not null,\n" +
+			"    type varchar(255),\n" +
+			"    state varchar(255),\n" +
+			"    release_name varchar(255),\n" +
+			"    release_version int4,\n" +
+			"    message varchar(2048),\n" +
+			"    created timestamp,\n" +
+			"    updated timestamp,\n" +
+			"    primary key (id)\n" +
+			")";
+
+	public final static String CREATE_IDX_OPERATION_RELEASE =
+			"create index idx_operation_release on skipper_operation (release_name)";
+
+	public V5__Operation() {
+		super(Arrays.asList(
+				SqlCommand.from(CREATE_SKIPPER_OPERATION_TABLE),
+				SqlCommand.from(CREATE_IDX_OPERATION_RELEASE)));
+	}
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.deployer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.cloud.deployer.spi.app.AppDeployer;
+import org.springframework.cloud.deployer.spi.core.AppDeploymentRequest;
+import org.springframework.cloud.skipper.SkipperException;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.AppDeployments;
+import org.springframework.util.Assert;
+
+/**
+ * Deploys and undeploys the apps of a release to a platform at the same time, up to the
+ * configured parallelism. Deploys and undeploys don't take permits of the
+ * {@link PlatformRequestLimiter}, so that changes to releases can't hold back status
+ * polling of the platform and status polling can't hold back changes.
+ * <p>
+ * If an app fails to deploy, apps not yet deployed are skipped and apps already
+ * deployed are undeployed, so that a failed deploy doesn't leave part of the release
+ * running.
+ */
+public class AppDeploymentExecutor {
+
+	private static final Logger logger = LoggerFactory.getLogger(AppDeploymentExecutor.class);
+
+	private final AppDeployments properties;
+
+	/**
+	 * Instantiates a new app deployment executor.
+	 *
+	 * @param properties the app deployments properties
+	 */
+	public AppDeploymentExecutor(AppDeployments properties) {
+		Assert.notNull(properties, "'properties' must be set");
+		this.properties = properties;
+	}
+
+	/**
+	 * Deploys apps of a release.
+	 *
+	 * @param platformName the platform name
+	 * @param appDeployer the app deployer of the platform
+	 * @param appDeploymentRequests the deployment requests keyed by app name
+	 * @return the deployment ids keyed by app name, in the order of the requests
+	 * @throws SkipperException if any app failed to deploy
+	 */
+	public Map<String, String> deploy(String platformName, AppDeployer appDeployer,
+			Map<String, AppDeploymentRequest> appDeploymentRequests) {
+		AtomicBoolean failed = new AtomicBoolean();
+		List<DeployResult> results = Flux.fromIterable(appDeploymentRequests.entrySet())
+			.flatMapSequential(entry -> deploy(platformName, appDeployer, entry.getKey(), entry.getValue(), failed),
+					getParallelism())
+			.collectList()
+			.block();
+
+		Map<String, String> appNameDeploymentIdMap = new LinkedHashMap<>();
+		DeployResult failure = null;
+		for (DeployResult result : results) {
+			if (result.deployed) {
+				appNameDeploymentIdMap.put(result.appName, result.deploymentId);
+			}
+			else if (result.error != null && failure == null) {
+				failure = result;
+			}
+		}
+		if (failure != null) {
+			logger.info("Undeploying apps {} after a failed deploy", appNameDeploymentIdMap.keySet());
+			undeploy(platformName, appDeployer, appNameDeploymentIdMap);
+			throw new SkipperException(String.format("Could not deploy app [%s] to platform [%s]. Error Message = [%s]",
+					failure.appName, platformName, failure.error.getMessage()), failure.error);
+		}
+		return appNameDeploymentIdMap;
+	}
+
+	private Mono<DeployResult> deploy(String platformName, AppDeployer appDeployer, String appName,
+			AppDeploymentRequest appDeploymentRequest, AtomicBoolean failed) {
+		return Mono.fromCallable(() -> {
+				if (failed.get()) {
+					logger.debug("Skipping deploy of app {} as another app failed to deploy", appName);
+					return new DeployResult(appName, false, null, null);
+				}
+				logger.debug("Deploying app {} to platform {}", appName, platformName);
+				return new DeployResult(appName, true, appDeployer.deploy(appDeploymentRequest), null);
+			})
+			.subscribeOn(Schedulers.boundedElastic())
+			.onErrorResume(e -> {
+				logger.warn("Could not deploy app " + appName + " to platform " + platformName, e);
+				failed.set(true);
+				return Mono.just(new DeployResult(appName, false, null, e));
+			});
+	}
+
+	/**
+	 * Undeploys apps of a release. Every app is undeployed even if others fail, failures
+	 * are reported in the results of the apps. Undeploy times are recorded as
+	 * {@code skipper.app.undeploy} tagged with the platform name and the result.
+	 * <p>
+	 * An undeploy which times out is reported as failed and its thread is interrupted, but
+	 * app deployers blocked on platform calls may not react to interrupts, so the undeploy
+	 * may still be running, and even succeed, after this method returns. Such undeploys
+	 * no longer count towards the parallelism.
+	 *
+	 * @param platformName the platform name
+	 * @param appDeployer the app deployer of the platform
+	 * @param appNameDeploymentIdMap the deployment ids keyed by app name
+	 * @return the undeploy results keyed by app name, in the order of the deployment ids
+	 */
+	public Map<String, UndeployResult> undeploy(String platformName, AppDeployer appDeployer,
+			Map<String, String> appNameDeploymentIdMap) {
+		List<UndeployResult> results = Flux.fromIterable(appNameDeploymentIdMap.entrySet())
+			.filter(entry -> entry.getValue() != null)
+			.flatMapSequential(entry -> undeploy(platformName, appDeployer, entry.getKey(), entry.getValue()),
+					getParallelism())
+			.collectList()
+			.block();
+		Map<String, UndeployResult> appNameResultMap = new LinkedHashMap<>();
+		for (UndeployResult result : results) {
+			appNameResultMap.put(result.getAppName(), result);
+		}
+		return appNameResultMap;
+	}
+
+	/**
+	 * Describes the failed undeploys of apps.
+	 *
+	 * @param results the undeploy results
+	 * @return the descriptions of the failed undeploys, empty if all apps were undeployed
+	 */
+	public static List<String> describeFailures(Map<String, UndeployResult> results) {
+		List<String> failures = new ArrayList<>();
+		for (UndeployResult result : results.values()) {
+			if (!result.isSuccess()) {
+				failures.add(String.format("%s [%s]", result.getAppName(), result.getError().getMessage()));
+			}
+		}
+		return failures;
+	}
+
+	private Mono<UndeployResult> undeploy(String platformName, AppDeployer appDeployer, String appName,
+			String deploymentId) {
+		long timeout = this.properties.getUndeployTimeoutInMillis();
+		return Mono.defer(() -> {
+			long start = System.nanoTime();
+			Mono<Void> call = Mono.<Void>fromRunnable(() -> {
+					logger.debug("Undeploying app {} with deploymentId {} from platform {}", appName, deploymentId,
+							platformName);
+					appDeployer.undeploy(deploymentId);
+				})
+				.subscribeOn(Schedulers.boundedElastic());
+			if (timeout > 0) {
+				call = call.timeout(Duration.ofMillis(timeout));
+			}
+			return call
+				.then(Mono.fromCallable(() -> new UndeployResult(appName, deploymentId, null)))
+				.onErrorResume(e -> {
+					Throwable error = e instanceof TimeoutException
+							? new SkipperException(String.format("Undeploy of app [%s] timed out after %sms",
+									appName, timeout), e)
+							: e;
+					logger.error(String.format("Exception undeploying the application with the deploymentId %s. "
+							+ "Exception message: %s", deploymentId, error.getMessage()));
+					return Mono.just(new UndeployResult(appName, deploymentId, error));
+				})
+				.doOnNext(result -> Timer.builder("skipper.app.undeploy")
+					.tag("platform", platformName)
+					.tag("result", result.isSuccess() ? "success" : "failure")
+					.register(Metrics.globalRegistry)
+					.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+		});
+	}
+
+	private int getParallelism() {
+		return Math.max(this.properties.getParallelism(), 1);
+	}
+
+	private static class DeployResult {
+
+		private final String appName;
+
+		private final boolean deployed;
+
+		private final String deploymentId;
+
+		private final Throwable error;
+
+		DeployResult(String appName, boolean deployed, String deploymentId, Throwable error) {
+			this.appName = appName;
+			this.deployed = deployed;
+			this.deploymentId = deploymentId;
+			this.error = error;
+		}
+	}
+
+	/**
+	 * Result of undeploying a single app.
+	 */
+	public static class UndeployResult {
+
+		private final String appName;
+
+		private final String deploymentId;
+
+		private final Throwable error;
+
+		UndeployResult(String appName, String deploymentId, Throwable error) {
+			this.appName = appName;
+			this.deploymentId = deploymentId;
+			this.error = error;
+		}
+
+		public String getAppName() {
+			return appName;
+		}
+
+		public String getDeploymentId() {
+			return deploymentId;
+		}
+
+		public boolean isSuccess() {
+			return error == null;
+		}
+
+		/**
+		 * Gets the error of a failed undeploy.
+		 *
+		 * @return the error, or null if the app was undeployed
+		 */
+		public Throwable getError() {
+			return error;
+		}
+	}
+}
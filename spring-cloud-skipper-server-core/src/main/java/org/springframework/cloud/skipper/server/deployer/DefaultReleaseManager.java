@@ -20,14 +20,13 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
-import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
@@ -53,6 +52,7 @@ import org.springframework.cloud.skipper.domain.SpringCloudDeployerApplicationMa
 import org.springframework.cloud.skipper.domain.SpringCloudDeployerApplicationSpec;
 import org.springframework.cloud.skipper.domain.Status;
 import org.springframework.cloud.skipper.domain.StatusCode;
+import org.springframework.cloud.skipper.server.deployer.AppDeploymentExecutor.UndeployResult;
 import org.springframework.cloud.skipper.server.domain.AppDeployerData;
 import org.springframework.cloud.skipper.server.repository.jpa.AppDeployerDataRepository;
 import org.springframework.cloud.skipper.server.repository.jpa.ReleaseRepository;
@@ -60,7 +60,6 @@ import org.springframework.cloud.skipper.server.repository.map.DeployerRepositor
 import org.springframework.cloud.skipper.server.util.ArgumentSanitizer;
 import org.springframework.cloud.skipper.server.util.ConfigValueUtils;
 import org.springframework.cloud.skipper.server.util.ManifestUtils;
-import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
@@ -93,29 +92,27 @@ public class DefaultReleaseManager implements ReleaseManager {
 
 	private final SpringCloudDeployerApplicationManifestReader applicationManifestReader;
 
-	private final LoadingCache<CacheKey, Mono<Map<String, DeploymentState>>> cache = Caffeine.newBuilder()
-			.expireAfterWrite(60, TimeUnit.SECONDS)
-			.build(k -> {
-				logger.debug("Building new deploymentStateMap mono");
-				if (k.getAppDeployer() instanceof MultiStateAppDeployer) {
-					MultiStateAppDeployer multiAppDeployer = (MultiStateAppDeployer) k.getAppDeployer();
-					return multiAppDeployer.statesReactive(k.getDeploymentIds().toArray(new String[0])).cache();
-				}
-				// it wasn't MultiStateAppDeployer so we just return empty
-				return Mono.just(new HashMap<>());
-			});
+	private final DeploymentStateCache deploymentStateCache;
+
+	private final PlatformRequestLimiter platformRequestLimiter;
 
+	private final AppDeploymentExecutor appDeploymentExecutor;
 
 	public DefaultReleaseManager(ReleaseRepository releaseRepository,
 			AppDeployerDataRepository appDeployerDataRepository, DeployerRepository deployerRepository,
 			ReleaseAnalyzer releaseAnalyzer, AppDeploymentRequestFactory appDeploymentRequestFactory,
-			SpringCloudDeployerApplicationManifestReader applicationManifestReader) {
+			SpringCloudDeployerApplicationManifestReader applicationManifestReader,
+			DeploymentStateCache deploymentStateCache, PlatformRequestLimiter platformRequestLimiter,
+			AppDeploymentExecutor appDeploymentExecutor) {
 		this.releaseRepository = releaseRepository;
 		this.appDeployerDataRepository = appDeployerDataRepository;
 		this.deployerRepository = deployerRepository;
 		this.releaseAnalyzer = releaseAnalyzer;
 		this.appDeploymentRequestFactory = appDeploymentRequestFactory;
 		this.applicationManifestReader = applicationManifestReader;
+		this.deploymentStateCache = deploymentStateCache;
+		this.platformRequestLimiter = platformRequestLimiter;
+		this.appDeploymentExecutor = appDeploymentExecutor;
 	}
 
 	@Override
@@ -132,29 +129,31 @@ public class DefaultReleaseManager implements ReleaseManager {
 				.read(release.getManifest().getData());
 		AppDeployer appDeployer = this.deployerRepository.findByNameRequired(release.getPlatformName())
 				.getAppDeployer();
-		Map<String, String> appNameDeploymentIdMap = new HashMap<>();
+		Map<String, AppDeploymentRequest> appDeploymentRequests = new LinkedHashMap<>();
 		for (SpringCloudDeployerApplicationManifest springCloudDeployerApplicationManifest : applicationSpecList) {
 			AppDeploymentRequest appDeploymentRequest = this.appDeploymentRequestFactory.createAppDeploymentRequest(
 					springCloudDeployerApplicationManifest,
 					release.getName(),
 					String.valueOf(release.getVersion()));
-			try {
-				String deploymentId = appDeployer.deploy(appDeploymentRequest);
-				appNameDeploymentIdMap
-						.put(springCloudDeployerApplicationManifest.getApplicationName(), deploymentId);
-			}
-			catch (Exception e) {
-				// Update Status in DB
-				Status status = new Status();
-				status.setStatusCode(StatusCode.FAILED);
-				release.getInfo().setStatus(status);
-				release.getInfo().setDescription("Install failed");
-				throw new SkipperException(String.format("Could not install AppDeployRequest [%s] " +
-								" to platform [%s].  Error Message = [%s]",
-						appDeploymentRequest.toString(),
-						release.getPlatformName(),
-						e.getMessage()), e);
-			}
+			appDeploymentRequests.put(springCloudDeployerApplicationManifest.getApplicationName(),
+					appDeploymentRequest);
+		}
+		Map<String, String> appNameDeploymentIdMap;
+		try {
+			appNameDeploymentIdMap = this.appDeploymentExecutor.deploy(release.getPlatformName(), appDeployer,
+					appDeploymentRequests);
+		}
+		catch (Exception e) {
+			// Update Status in DB
+			Status status = new Status();
+			status.setStatusCode(StatusCode.FAILED);
+			release.getInfo().setStatus(status);
+			release.getInfo().setDescription("Install failed");
+			throw new SkipperException(String.format("Could not install release [%s] to platform [%s].  " +
+							"Error Message = [%s]",
+					release.getName(),
+					release.getPlatformName(),
+					e.getMessage()), e);
 		}
 
 		saveAppDeployerData(release, appNameDeploymentIdMap);
@@ -261,6 +260,7 @@ public class DefaultReleaseManager implements ReleaseManager {
 	public Mono<Map<String, Map<String, DeploymentState>>> deploymentState(List<Release> releases) {
 		return Mono.defer(() -> {
 				Map<AppDeployer, List<String>> appDeployerDeploymentIds = new HashMap<>();
+				Map<AppDeployer, String> appDeployerPlatformNames = new HashMap<>();
 				Map<String, List<String>> releaseDeploymentIds = new HashMap<>();
 				for (Release release: releases) {
 					List<String> deploymentIds = null;
@@ -275,6 +275,7 @@ public class DefaultReleaseManager implements ReleaseManager {
 						}
 						else {
 							deploymentIds = appDeployerData.getDeploymentIds();
+							appDeployerPlatformNames.put(appDeployer, release.getPlatformName());
 							if (appDeployerDeploymentIds.containsKey(appDeployer)) {
 								appDeployerDeploymentIds.get(appDeployer).addAll(deploymentIds);
 							}
@@ -285,16 +286,27 @@ public class DefaultReleaseManager implements ReleaseManager {
 						}
 					}
 				}
-				return Mono.zip(Mono.just(appDeployerDeploymentIds), Mono.just(releaseDeploymentIds));
+				return Mono.zip(Mono.just(appDeployerDeploymentIds), Mono.just(releaseDeploymentIds),
+						Mono.just(appDeployerPlatformNames));
 			})
 			.flatMap(t -> {
 				Mono<Map<String, DeploymentState>> deploymentStates = Flux.fromIterable(t.getT1().entrySet())
 					.flatMap(e -> {
-						Mono<Map<String, DeploymentState>> fallback = Flux.fromIterable(e.getValue())
-							.flatMap(ee -> e.getKey().statusReactive(ee))
-							.collectMap(AppStatus::getDeploymentId, AppStatus::getState);
-						Mono<Map<String, DeploymentState>> cachedEntry = cache.get(CacheKey.of(e.getValue(), e.getKey()));
-						return cachedEntry.flatMap(m -> m.isEmpty() ? fallback : Mono.just(m));
+						String platformName = t.getT3().get(e.getKey());
+						return this.deploymentStateCache.getStates(platformName, e.getKey(), e.getValue())
+							.flatMap(cached -> {
+								// ask for states of deployments not known to the cache one by one
+								List<String> missing = e.getValue().stream()
+									.filter(deploymentId -> !cached.containsKey(deploymentId))
+									.collect(Collectors.toList());
+								if (missing.isEmpty()) {
+									return Mono.just(cached);
+								}
+								return Flux.fromIterable(missing)
+									.flatMap(ee -> this.platformRequestLimiter.limit(platformName,
+											Mono.defer(() -> e.getKey().statusReactive(ee))))
+									.collectMap(AppStatus::getDeploymentId, AppStatus::getState, () -> cached);
+							});
 					})
 					.reduce(new HashMap<String, DeploymentState>(), (to, from) -> {
 						to.putAll(from);
@@ -342,11 +354,14 @@ public class DefaultReleaseManager implements ReleaseManager {
 				return Flux.fromIterable(appNameDeploymentIdMap.entrySet())
 					.flatMap(nameDeploymentId -> {
 						String deploymentId = nameDeploymentId.getValue();
-						return appDeployer.statusReactive(deploymentId);
+						return this.platformRequestLimiter.limit(release.getPlatformName(),
+								Mono.defer(() -> appDeployer.statusReactive(deploymentId)));
 					})
 					.map(appStatus -> copyStatus(appStatus))
 					.flatMap(appStatus -> {
-						return Mono.zip(Mono.just(appStatus), cache.get(CacheKey.of(deploymentIds, appDeployer)));
+						return Mono.zip(Mono.just(appStatus),
+								this.deploymentStateCache.getStates(release.getPlatformName(), appDeployer,
+										deploymentIds));
 					})
 					.map(zip -> {
 						AppStatus appStatus = zip.getT1();
@@ -547,22 +562,19 @@ public class DefaultReleaseManager implements ReleaseManager {
 				.getAppDeployer();
 		AppDeployerData appDeployerData = this.appDeployerDataRepository
 				.findByReleaseNameAndReleaseVersionRequired(release.getName(), release.getVersion());
-		List<String> deploymentIds = (appDeployerData != null) ? appDeployerData.getDeploymentIds() : Collections.EMPTY_LIST;
-		logger.debug("DeploymentIds to undeploy {}", deploymentIds);
-		if (!deploymentIds.isEmpty()) {
-			for (String deploymentId : deploymentIds) {
-				try {
-					appDeployer.undeploy(deploymentId);
-				}
-				catch (Exception e) {
-					logger.error(String.format("Exception undeploying the application with the deploymentId %s. "
-							+ "Exception message: %s", deploymentId, e.getMessage()));
-				}
-			}
+		Map<String, String> appNameDeploymentIdMap = (appDeployerData != null) ?
+				appDeployerData.getDeploymentDataAsMap() : Collections.EMPTY_MAP;
+		logger.debug("DeploymentIds to undeploy {}", appNameDeploymentIdMap.values());
+		if (!appNameDeploymentIdMap.isEmpty()) {
+			Map<String, UndeployResult> results = this.appDeploymentExecutor.undeploy(release.getPlatformName(),
+					appDeployer, appNameDeploymentIdMap);
+			List<String> failures = AppDeploymentExecutor.describeFailures(results);
 			Status deletedStatus = new Status();
 			deletedStatus.setStatusCode(StatusCode.DELETED);
 			release.getInfo().setStatus(deletedStatus);
-			release.getInfo().setDescription("Delete complete");
+			release.getInfo().setDescription(failures.isEmpty() ? "Delete complete"
+					: "Delete complete, could not undeploy apps "
+							+ StringUtils.collectionToDelimitedString(failures, ", "));
 			this.releaseRepository.save(release);
 		}
 		return release;
@@ -609,68 +621,4 @@ public class DefaultReleaseManager implements ReleaseManager {
 			return this.attributes;
 		}
 	}
-
-	/**
-	 * Used as a cache key with Caffeine and actual key is a 'key'. Deployement ids
-	 * and app deployer is just used with this key class so that cache can build
-	 * entry as it need those two to create cf operation.
-	 */
-	private static class CacheKey {
-		private final List<String> deploymentIds;
-		private final AppDeployer appDeployer;
-		private final String key;
-
-		CacheKey(List<String> deploymentIds, AppDeployer appDeployer) {
-			Assert.notNull(deploymentIds, "'deploymentIds' cannot be null");
-			Assert.notNull(appDeployer, "'appDeployer' cannot be null");
-			this.deploymentIds = deploymentIds;
-			this.appDeployer = appDeployer;
-			List<String> keyList = new ArrayList<>(deploymentIds);
-			Collections.sort(keyList);
-			this.key = StringUtils.collectionToCommaDelimitedString(keyList);
-		}
-
-		static CacheKey of(List<String> deploymentIds, AppDeployer appDeployer) {
-			return new CacheKey(deploymentIds, appDeployer);
-		}
-
-		public List<String> getDeploymentIds() {
-			return deploymentIds;
-		}
-
-		public AppDeployer getAppDeployer() {
-			return appDeployer;
-		}
-
-		@Override
-		public int hashCode() {
-			final int prime = 31;
-			int result = 1;
-			result = prime * result + ((appDeployer == null) ? 0 : appDeployer.hashCode());
-			return result;
-		}
-
-		@Override
-		public boolean equals(Object obj) {
-			if (this == obj) {
-				return true;
-			}
-			if (obj == null) {
-				return false;
-			}
-			if (getClass() != obj.getClass()) {
-				return false;
-			}
-			CacheKey other = (CacheKey) obj;
-			if (appDeployer == null) {
-				if (other.appDeployer != null) {
-					return false;
-				}
-			}
-			else if (!appDeployer.equals(other.appDeployer)) {
-				return false;
-			}
-			return true;
-		}
-	}
 }
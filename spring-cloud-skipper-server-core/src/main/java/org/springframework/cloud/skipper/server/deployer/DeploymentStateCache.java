@@ -0,0 +1,211 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.deployer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.deployer.spi.app.AppDeployer;
+import org.springframework.cloud.deployer.spi.app.DeploymentState;
+import org.springframework.cloud.deployer.spi.app.MultiStateAppDeployer;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.StateCache;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Cache of deployment states computed by {@link MultiStateAppDeployer}s, keyed by app
+ * deployer and deployment id. States of ids which are not cached are loaded with a single
+ * {@link MultiStateAppDeployer#statesReactive(String...)} call per app deployer, limited
+ * by the {@link PlatformRequestLimiter} of the platform, and entries are refreshed in the
+ * background before they expire.
+ * <p>
+ * Cache statistics are exposed as {@code skipper.deployment.states} cache metrics.
+ */
+public class DeploymentStateCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(DeploymentStateCache.class);
+
+	private final AsyncLoadingCache<Key, DeploymentState> cache;
+
+	/**
+	 * Instantiates a new deployment state cache.
+	 *
+	 * @param properties the cache properties
+	 * @param platformRequestLimiter the platform request limiter
+	 */
+	public DeploymentStateCache(StateCache properties, PlatformRequestLimiter platformRequestLimiter) {
+		Assert.notNull(properties, "'properties' must be set");
+		Assert.notNull(platformRequestLimiter, "'platformRequestLimiter' must be set");
+		Caffeine<Object, Object> builder = Caffeine.newBuilder()
+				.maximumSize(properties.getMaximumSize())
+				.expireAfterWrite(properties.getTtlInMillis(), TimeUnit.MILLISECONDS)
+				.recordStats();
+		if (properties.getRefreshInMillis() > 0 && properties.getRefreshInMillis() < properties.getTtlInMillis()) {
+			builder.refreshAfterWrite(properties.getRefreshInMillis(), TimeUnit.MILLISECONDS);
+		}
+		this.cache = builder.buildAsync(new StatesLoader(platformRequestLimiter));
+		CaffeineCacheMetrics.monitor(Metrics.globalRegistry, this.cache.synchronous(), "skipper.deployment.states");
+	}
+
+	/**
+	 * Gets states of deployments known to the app deployer. Deployments without a known
+	 * state are not contained in the returned map, which is always empty if the app
+	 * deployer is not a {@link MultiStateAppDeployer}.
+	 *
+	 * @param platformName the platform name of the app deployer
+	 * @param appDeployer the app deployer
+	 * @param deploymentIds the deployment ids
+	 * @return the states keyed by deployment id
+	 */
+	public Mono<Map<String, DeploymentState>> getStates(String platformName, AppDeployer appDeployer,
+			Collection<String> deploymentIds) {
+		if (!(appDeployer instanceof MultiStateAppDeployer) || deploymentIds.isEmpty()) {
+			return Mono.just(new HashMap<>());
+		}
+		MultiStateAppDeployer multiStateAppDeployer = (MultiStateAppDeployer) appDeployer;
+		List<Key> keys = new ArrayList<>(deploymentIds.size());
+		for (String deploymentId : new LinkedHashSet<>(deploymentIds)) {
+			keys.add(new Key(platformName, multiStateAppDeployer, deploymentId));
+		}
+		return Mono.fromFuture(() -> this.cache.getAll(keys))
+			.map(states -> {
+				Map<String, DeploymentState> deploymentStates = new HashMap<>();
+				states.forEach((key, state) -> deploymentStates.put(key.getDeploymentId(), state));
+				return deploymentStates;
+			});
+	}
+
+	/**
+	 * Loads states of all missing deployments of an app deployer with a single call.
+	 */
+	private static class StatesLoader implements AsyncCacheLoader<Key, DeploymentState> {
+
+		private final PlatformRequestLimiter platformRequestLimiter;
+
+		StatesLoader(PlatformRequestLimiter platformRequestLimiter) {
+			this.platformRequestLimiter = platformRequestLimiter;
+		}
+
+		@Override
+		public CompletableFuture<DeploymentState> asyncLoad(Key key, Executor executor) {
+			return asyncLoadAll(Collections.singleton(key), executor).thenApply(states -> states.get(key));
+		}
+
+		@Override
+		public CompletableFuture<Map<Key, DeploymentState>> asyncLoadAll(Iterable<? extends Key> keys,
+				Executor executor) {
+			Map<MultiStateAppDeployer, Set<String>> deploymentIds = new IdentityHashMap<>();
+			Map<MultiStateAppDeployer, String> platformNames = new IdentityHashMap<>();
+			for (Key key : keys) {
+				deploymentIds.computeIfAbsent(key.getAppDeployer(), d -> new LinkedHashSet<>())
+						.add(key.getDeploymentId());
+				platformNames.put(key.getAppDeployer(), key.getPlatformName());
+			}
+			List<CompletableFuture<Map<Key, DeploymentState>>> futures = new ArrayList<>();
+			deploymentIds.forEach((appDeployer, ids) -> {
+				logger.debug("Loading deployment states of {}", StringUtils.collectionToCommaDelimitedString(ids));
+				String platformName = platformNames.get(appDeployer);
+				Mono<Map<String, DeploymentState>> request = Mono
+						.defer(() -> appDeployer.statesReactive(StringUtils.toStringArray(ids)));
+				futures.add(this.platformRequestLimiter.limit(platformName, request)
+					.map(states -> {
+						Map<Key, DeploymentState> loaded = new HashMap<>();
+						states.forEach((deploymentId, state) -> {
+							if (state != null) {
+								loaded.put(new Key(platformName, appDeployer, deploymentId), state);
+							}
+						});
+						return loaded;
+					})
+					.defaultIfEmpty(new HashMap<>())
+					.toFuture());
+			});
+			return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(v -> {
+				Map<Key, DeploymentState> states = new HashMap<>();
+				futures.forEach(future -> states.putAll(future.join()));
+				return states;
+			});
+		}
+	}
+
+	/**
+	 * Cache key of a deployment id of an app deployer. App deployers are compared by
+	 * identity as deployers of different platforms may be equal, and the platform name is
+	 * only carried along for the loader.
+	 */
+	private static class Key {
+
+		private final String platformName;
+
+		private final MultiStateAppDeployer appDeployer;
+
+		private final String deploymentId;
+
+		Key(String platformName, MultiStateAppDeployer appDeployer, String deploymentId) {
+			this.platformName = platformName;
+			this.appDeployer = appDeployer;
+			this.deploymentId = deploymentId;
+		}
+
+		String getPlatformName() {
+			return platformName;
+		}
+
+		MultiStateAppDeployer getAppDeployer() {
+			return appDeployer;
+		}
+
+		String getDeploymentId() {
+			return deploymentId;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(appDeployer) + deploymentId.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return appDeployer == other.appDeployer && deploymentId.equals(other.deploymentId);
+		}
+	}
+}
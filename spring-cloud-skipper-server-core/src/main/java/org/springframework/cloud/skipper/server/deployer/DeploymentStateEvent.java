@@ -0,0 +1,88 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.deployer;
+
+import org.springframework.cloud.deployer.spi.app.AppStatus;
+import org.springframework.cloud.deployer.spi.app.DeploymentState;
+import org.springframework.util.Assert;
+
+/**
+ * Change of the state of an application deployed on a platform.
+ *
+ * @see DeploymentStateEventSource
+ */
+public class DeploymentStateEvent {
+
+	private final String platformName;
+
+	private final AppStatus appStatus;
+
+	private final long timestamp;
+
+	/**
+	 * Instantiates a new deployment state event.
+	 *
+	 * @param platformName the name of the platform the application is deployed on
+	 * @param appStatus the new status of the application
+	 * @param timestamp the time of the change
+	 */
+	public DeploymentStateEvent(String platformName, AppStatus appStatus, long timestamp) {
+		Assert.hasText(platformName, "'platformName' must be set");
+		Assert.notNull(appStatus, "'appStatus' must be set");
+		this.platformName = platformName;
+		this.appStatus = appStatus;
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * Creates an event of a platform which only knows the state of the application.
+	 *
+	 * @param platformName the name of the platform the application is deployed on
+	 * @param deploymentId the deployment id of the application
+	 * @param state the new state of the application
+	 * @return the event
+	 */
+	public static DeploymentStateEvent of(String platformName, String deploymentId, DeploymentState state) {
+		return new DeploymentStateEvent(platformName, AppStatus.of(deploymentId).generalState(state).build(),
+				System.currentTimeMillis());
+	}
+
+	public String getPlatformName() {
+		return platformName;
+	}
+
+	public String getDeploymentId() {
+		return appStatus.getDeploymentId();
+	}
+
+	public AppStatus getAppStatus() {
+		return appStatus;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	@Override
+	public String toString() {
+		return "DeploymentStateEvent{" +
+				"platformName='" + platformName + '\'' +
+				", deploymentId='" + getDeploymentId() + '\'' +
+				", state=" + appStatus.getState() +
+				", timestamp=" + timestamp +
+				'}';
+	}
+}
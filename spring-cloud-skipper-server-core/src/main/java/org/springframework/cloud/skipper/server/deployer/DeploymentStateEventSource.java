@@ -0,0 +1,37 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.deployer;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Source of deployment state changes pushed by a platform, used to update statuses of
+ * releases without polling the platform. Polling of release states remains as a
+ * reconciliation of missed events.
+ *
+ * @see DeploymentStateEvent
+ * @see org.springframework.cloud.skipper.server.service.DeploymentStateIngestionService
+ */
+public interface DeploymentStateEventSource {
+
+	/**
+	 * Gets the deployment state changes of the platform. The returned flux is subscribed to
+	 * once, and subscribed to again after an error.
+	 *
+	 * @return the deployment state events
+	 */
+	Flux<DeploymentStateEvent> events();
+}
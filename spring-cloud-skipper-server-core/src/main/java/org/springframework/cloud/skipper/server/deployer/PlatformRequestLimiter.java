@@ -0,0 +1,244 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.deployer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.PlatformRequestLimit;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.PlatformRequestLimits;
+import org.springframework.util.Assert;
+
+/**
+ * Limits requests sent to platforms, such as status calls of app deployers, with a
+ * maximum number of concurrent requests and a token bucket rate limit per platform
+ * account. Requests exceeding the limits are queued in order.
+ * <p>
+ * Queued and in flight requests are exposed as {@code skipper.platform.requests} gauges
+ * tagged with the platform name.
+ */
+public class PlatformRequestLimiter {
+
+	private final PlatformRequestLimits limits;
+
+	private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+	/**
+	 * Instantiates a new platform request limiter.
+	 *
+	 * @param limits the limits of platforms
+	 */
+	public PlatformRequestLimiter(PlatformRequestLimits limits) {
+		Assert.notNull(limits, "'limits' must be set");
+		this.limits = limits;
+	}
+
+	/**
+	 * Limits a request sent to a platform. The request is subscribed to once the limits of
+	 * the platform allow it.
+	 *
+	 * @param platformName the platform name
+	 * @param request the request
+	 * @param <T> the type of the request result
+	 * @return the limited request
+	 */
+	public <T> Mono<T> limit(String platformName, Mono<T> request) {
+		return this.limiters.computeIfAbsent(platformName, this::createLimiter).limit(request);
+	}
+
+	private Limiter createLimiter(String platformName) {
+		PlatformRequestLimit limit = this.limits.getPlatforms().getOrDefault(platformName, this.limits.getDefaults());
+		Limiter limiter = new Limiter(limit.getMaxConcurrency(), limit.getPermitsPerSecond());
+		Metrics.gauge("skipper.platform.requests", Tags.of("platform", platformName, "state", "queued"), limiter,
+				Limiter::getQueued);
+		Metrics.gauge("skipper.platform.requests", Tags.of("platform", platformName, "state", "inflight"), limiter,
+				Limiter::getInFlight);
+		return limiter;
+	}
+
+	/**
+	 * Limiter of a single platform.
+	 */
+	private static class Limiter {
+
+		private final int maxConcurrency;
+
+		private final double permitsPerSecond;
+
+		private final Queue<Request<?>> queue = new ArrayDeque<>();
+
+		private int inFlight;
+
+		private double tokens;
+
+		private long refilled = System.nanoTime();
+
+		private boolean drainScheduled;
+
+		Limiter(int maxConcurrency, double permitsPerSecond) {
+			Assert.isTrue(maxConcurrency > 0, "'maxConcurrency' must be greater than zero");
+			this.maxConcurrency = maxConcurrency;
+			this.permitsPerSecond = permitsPerSecond;
+			this.tokens = getBurst();
+		}
+
+		<T> Mono<T> limit(Mono<T> request) {
+			return Mono.create(sink -> {
+				Request<T> queued = new Request<>(request, sink, this::release);
+				sink.onCancel(queued::cancel);
+				synchronized (this) {
+					this.queue.add(queued);
+				}
+				drain();
+			});
+		}
+
+		synchronized int getQueued() {
+			return this.queue.size();
+		}
+
+		synchronized int getInFlight() {
+			return this.inFlight;
+		}
+
+		private void release() {
+			synchronized (this) {
+				this.inFlight--;
+			}
+			drain();
+		}
+
+		private void drain() {
+			List<Request<?>> ready = new ArrayList<>();
+			synchronized (this) {
+				while (this.inFlight < this.maxConcurrency && !this.queue.isEmpty()) {
+					if (this.queue.peek().isCancelled()) {
+						this.queue.poll();
+						continue;
+					}
+					long wait = acquireToken();
+					if (wait > 0) {
+						if (!this.drainScheduled) {
+							this.drainScheduled = true;
+							Schedulers.parallel().schedule(() -> {
+								synchronized (this) {
+									this.drainScheduled = false;
+								}
+								drain();
+							}, wait, TimeUnit.NANOSECONDS);
+						}
+						break;
+					}
+					this.inFlight++;
+					ready.add(this.queue.poll());
+				}
+			}
+			// subscribe outside of the lock as requests may complete synchronously
+			ready.forEach(Request::start);
+		}
+
+		/**
+		 * Takes a token from the bucket.
+		 *
+		 * @return zero if a token was taken, otherwise nanos until one is available
+		 */
+		private long acquireToken() {
+			if (this.permitsPerSecond <= 0) {
+				return 0;
+			}
+			long now = System.nanoTime();
+			this.tokens = Math.min(getBurst(), this.tokens + (now - this.refilled) * this.permitsPerSecond / 1e9);
+			this.refilled = now;
+			if (this.tokens >= 1) {
+				this.tokens--;
+				return 0;
+			}
+			return (long) Math.ceil((1 - this.tokens) * 1e9 / this.permitsPerSecond);
+		}
+
+		private double getBurst() {
+			return Math.max(1, this.permitsPerSecond);
+		}
+	}
+
+	/**
+	 * Request waiting for, or holding, a permit of a limiter.
+	 */
+	private static class Request<T> {
+
+		private final Mono<T> request;
+
+		private final MonoSink<T> sink;
+
+		private final Runnable release;
+
+		private final AtomicBoolean cancelled = new AtomicBoolean();
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private volatile Disposable subscription;
+
+		Request(Mono<T> request, MonoSink<T> sink, Runnable release) {
+			this.request = request;
+			this.sink = sink;
+			this.release = release;
+		}
+
+		boolean isCancelled() {
+			return this.cancelled.get();
+		}
+
+		void start() {
+			if (isCancelled()) {
+				release();
+				return;
+			}
+			this.subscription = this.request
+				.doFinally(signal -> release())
+				.subscribe(this.sink::success, this.sink::error, this.sink::success);
+			if (isCancelled()) {
+				this.subscription.dispose();
+			}
+		}
+
+		void cancel() {
+			this.cancelled.set(true);
+			Disposable subscription = this.subscription;
+			if (subscription != null) {
+				subscription.dispose();
+			}
+		}
+
+		private void release() {
+			if (this.released.compareAndSet(false, true)) {
+				this.release.run();
+			}
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.deployer.strategies;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties of the {@link CanaryUpgradeStrategy}.
+ */
+@ConfigurationProperties("spring.cloud.skipper.server.strategies.canary")
+public class CanaryUpgradeProperties {
+
+	private int initialCount = 1; // instances of the new app deployed first
+
+	private int stepCount = 1; // instances moved from the old app to the new app in one step
+
+	private long soakTimeInMillis = 60000; // 1 minute, time to stay healthy before the next step
+
+	public int getInitialCount() {
+		return initialCount;
+	}
+
+	public void setInitialCount(int initialCount) {
+		this.initialCount = initialCount;
+	}
+
+	public int getStepCount() {
+		return stepCount;
+	}
+
+	public void setStepCount(int stepCount) {
+		this.stepCount = stepCount;
+	}
+
+	public long getSoakTimeInMillis() {
+		return soakTimeInMillis;
+	}
+
+	public void setSoakTimeInMillis(long soakTimeInMillis) {
+		this.soakTimeInMillis = soakTimeInMillis;
+	}
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.deployer.strategies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.ScaleRequest;
+import org.springframework.cloud.skipper.domain.ScaleRequest.ScaleRequestItem;
+import org.springframework.cloud.skipper.domain.SkipperManifestKind;
+import org.springframework.cloud.skipper.domain.SpringCloudDeployerApplicationManifest;
+import org.springframework.cloud.skipper.domain.SpringCloudDeployerApplicationManifestReader;
+import org.springframework.cloud.skipper.domain.StatusCode;
+import org.springframework.cloud.skipper.server.deployer.DefaultReleaseManager;
+import org.springframework.cloud.skipper.server.deployer.ReleaseAnalysisReport;
+import org.springframework.cloud.skipper.server.deployer.ReleaseManagerFactory;
+import org.springframework.cloud.skipper.server.util.ManifestUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Deploys the changed apps with {@link CanaryUpgradeProperties#getInitialCount()}
+ * instances next to the old apps. Once the new apps have been healthy for the soak time,
+ * {@link CanaryUpgradeProperties#getStepCount()} instances are moved from the old apps to
+ * the new apps using the scale support of the release manager, and the new apps are
+ * soaked again, until they have the instance count given in the manifest. The upgrade is
+ * then accepted and the old apps are deleted. If the new apps fail, or the upgrade is
+ * cancelled, the old apps are scaled back to their instance count and the new apps are
+ * deleted. Selected in an upgrade request with the name {@value #NAME}.
+ * <p>
+ * The new apps are soaked before every step and once more before the upgrade is
+ * accepted, and the upgrade timeout is extended by the time of all these soaks so that
+ * only the time apps take to become healthy counts against it.
+ * <p>
+ * Steps of upgrades in progress are kept in memory, so after a server restart the steps
+ * of an upgrade in progress start again from the first step.
+ */
+public class CanaryUpgradeStrategy implements UpgradeStrategy {
+
+	/**
+	 * Name of the strategy.
+	 */
+	public static final String NAME = "canary";
+
+	private final Logger logger = LoggerFactory.getLogger(CanaryUpgradeStrategy.class);
+
+	private final Map<String, Canary> canaries = new ConcurrentHashMap<>();
+
+	private final HealthCheckStep healthCheckStep;
+
+	private final HandleHealthCheckStep handleHealthCheckStep;
+
+	private final DeployAppStep deployAppStep;
+
+	private final ReleaseManagerFactory releaseManagerFactory;
+
+	private final SpringCloudDeployerApplicationManifestReader applicationManifestReader;
+
+	private final CanaryUpgradeProperties properties;
+
+	public CanaryUpgradeStrategy(HealthCheckStep healthCheckStep, HandleHealthCheckStep handleHealthCheckStep,
+			DeployAppStep deployAppStep, ReleaseManagerFactory releaseManagerFactory,
+			SpringCloudDeployerApplicationManifestReader applicationManifestReader,
+			CanaryUpgradeProperties properties) {
+		this.healthCheckStep = healthCheckStep;
+		this.handleHealthCheckStep = handleHealthCheckStep;
+		this.deployAppStep = deployAppStep;
+		this.releaseManagerFactory = releaseManagerFactory;
+		this.applicationManifestReader = applicationManifestReader;
+		this.properties = properties;
+	}
+
+	@Override
+	public Collection<String> getSupportedKinds() {
+		return Arrays.asList(SkipperManifestKind.SpringBootApp.name(),
+				SkipperManifestKind.SpringCloudDeployerApplication.name());
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public void deployApps(Release existingRelease, Release replacingRelease, ReleaseAnalysisReport releaseAnalysisReport) {
+		this.canaries.remove(getKey(replacingRelease));
+		List<String> applicationNamesToUpgrade = releaseAnalysisReport.getApplicationNamesToUpgrade();
+		Map<String, Map<String, String>> deploymentProperties = new HashMap<>();
+		for (Map.Entry<String, Integer> count : getCounts(replacingRelease, applicationNamesToUpgrade).entrySet()) {
+			deploymentProperties.put(count.getKey(), Collections.singletonMap(
+					DefaultReleaseManager.SPRING_CLOUD_DEPLOYER_COUNT, String.valueOf(getCount(count.getValue(), 0))));
+		}
+		logger.info("Deploying canary apps {} of release {}-v{}", applicationNamesToUpgrade,
+				replacingRelease.getName(), replacingRelease.getVersion());
+		this.deployAppStep.deployApps(existingRelease, replacingRelease, applicationNamesToUpgrade,
+				deploymentProperties);
+	}
+
+	@Override
+	public boolean checkStatus(Release replacingRelease) {
+		return this.healthCheckStep.isHealthy(replacingRelease);
+	}
+
+	@Override
+	public HealthCheckResult checkHealth(Release replacingRelease) {
+		return this.healthCheckStep.checkHealth(replacingRelease);
+	}
+
+	@Override
+	public HealthCheckResult checkHealth(Release existingRelease, Release replacingRelease,
+			ReleaseAnalysisReport releaseAnalysisReport) {
+		if (replacingRelease.getInfo() != null && replacingRelease.getInfo().getStatus() != null
+				&& replacingRelease.getInfo().getStatus().getStatusCode() == StatusCode.FAILED) {
+			return HealthCheckResult.FAILED;
+		}
+		Canary canary = this.canaries.computeIfAbsent(getKey(replacingRelease), key -> new Canary());
+		HealthCheckResult result = this.healthCheckStep.checkHealth(replacingRelease);
+		if (result != HealthCheckResult.HEALTHY) {
+			canary.healthySince = null;
+			return result;
+		}
+		long now = System.currentTimeMillis();
+		if (canary.healthySince == null) {
+			canary.healthySince = now;
+		}
+		if (now - canary.healthySince < this.properties.getSoakTimeInMillis()) {
+			return HealthCheckResult.PENDING;
+		}
+
+		List<String> applicationNamesToUpgrade = releaseAnalysisReport.getApplicationNamesToUpgrade();
+		Map<String, Integer> existingCounts = getCounts(existingRelease, applicationNamesToUpgrade);
+		int step = canary.step + 1;
+		List<ScaleRequestItem> replacingItems = new ArrayList<>();
+		List<ScaleRequestItem> existingItems = new ArrayList<>();
+		for (Map.Entry<String, Integer> count : getCounts(replacingRelease, applicationNamesToUpgrade).entrySet()) {
+			int replacingCount = getCount(count.getValue(), step);
+			if (replacingCount == getCount(count.getValue(), step - 1)) {
+				continue;
+			}
+			replacingItems.add(new ScaleRequestItem(count.getKey(), replacingCount));
+			int movedCount = replacingCount - getCount(count.getValue(), 0);
+			Integer existingCount = existingCounts.get(count.getKey());
+			// old apps keep at least one instance until they're deleted
+			if (existingCount != null && existingCount - movedCount > 0) {
+				existingItems.add(new ScaleRequestItem(count.getKey(), existingCount - movedCount));
+			}
+		}
+		if (replacingItems.isEmpty()) {
+			// all instances moved, old apps are deleted when the upgrade is accepted
+			this.canaries.remove(getKey(replacingRelease));
+			return HealthCheckResult.HEALTHY;
+		}
+
+		try {
+			logger.info("Scaling apps of release {}-v{} to {}", replacingRelease.getName(),
+					replacingRelease.getVersion(), replacingItems);
+			scale(replacingRelease, replacingItems);
+			logger.info("Scaling apps of release {}-v{} to {}", existingRelease.getName(),
+					existingRelease.getVersion(), existingItems);
+			scale(existingRelease, existingItems);
+		}
+		catch (Exception e) {
+			logger.warn("Could not scale apps of release " + replacingRelease.getName(), e);
+			return HealthCheckResult.FAILED;
+		}
+		canary.step = step;
+		canary.healthySince = null;
+		return HealthCheckResult.PENDING;
+	}
+
+	@Override
+	public long getUpgradeTimeoutExtension(Release existingRelease, Release replacingRelease,
+			ReleaseAnalysisReport releaseAnalysisReport) {
+		int steps = 0;
+		for (Integer count : getCounts(replacingRelease, releaseAnalysisReport.getApplicationNamesToUpgrade())
+				.values()) {
+			steps = Math.max(steps, getSteps(count));
+		}
+		return (steps + 1) * this.properties.getSoakTimeInMillis();
+	}
+
+	@Override
+	public void accept(Release existingRelease, Release replacingRelease,
+			ReleaseAnalysisReport releaseAnalysisReport, boolean rollback) {
+		this.canaries.remove(getKey(replacingRelease));
+		this.handleHealthCheckStep.handleHealthCheck(true, existingRelease,
+				releaseAnalysisReport.getApplicationNamesToUpgrade(), replacingRelease, null, false, rollback);
+	}
+
+	@Override
+	public void cancel(Release existingRelease, Release replacingRelease, ReleaseAnalysisReport releaseAnalysisReport,
+			Long timeout, boolean cancel, boolean rollback) {
+		this.canaries.remove(getKey(replacingRelease));
+		List<String> applicationNamesToUpgrade = releaseAnalysisReport.getApplicationNamesToUpgrade();
+		List<ScaleRequestItem> existingItems = new ArrayList<>();
+		for (Map.Entry<String, Integer> count : getCounts(existingRelease, applicationNamesToUpgrade).entrySet()) {
+			existingItems.add(new ScaleRequestItem(count.getKey(), count.getValue()));
+		}
+		try {
+			logger.info("Scaling back apps of release {}-v{} to {}", existingRelease.getName(),
+					existingRelease.getVersion(), existingItems);
+			scale(existingRelease, existingItems);
+		}
+		catch (Exception e) {
+			logger.warn("Could not scale back apps of release " + existingRelease.getName(), e);
+		}
+		this.handleHealthCheckStep.handleHealthCheck(false, existingRelease, applicationNamesToUpgrade,
+				replacingRelease, timeout, cancel, rollback);
+	}
+
+	// instance count of a new app after the given number of steps
+	private int getCount(int count, int step) {
+		int initialCount = Math.min(Math.max(this.properties.getInitialCount(), 1), count);
+		long stepCount = Math.max(this.properties.getStepCount(), 1);
+		return (int) Math.min(initialCount + step * stepCount, count);
+	}
+
+	// number of steps until a new app has all its instances
+	private int getSteps(int count) {
+		int steps = 0;
+		while (getCount(count, steps) < count) {
+			steps++;
+		}
+		return steps;
+	}
+
+	private Map<String, Integer> getCounts(Release release, List<String> applicationNames) {
+		Map<String, Integer> counts = new HashMap<>();
+		for (SpringCloudDeployerApplicationManifest applicationManifest : this.applicationManifestReader
+				.read(release.getManifest().getData())) {
+			if (applicationNames.contains(applicationManifest.getApplicationName())) {
+				Map<String, String> deploymentProperties = applicationManifest.getSpec().getDeploymentProperties();
+				String count = deploymentProperties != null
+						? deploymentProperties.get(DefaultReleaseManager.SPRING_CLOUD_DEPLOYER_COUNT)
+						: null;
+				counts.put(applicationManifest.getApplicationName(),
+						StringUtils.hasText(count) ? Integer.valueOf(count.trim()) : 1);
+			}
+		}
+		return counts;
+	}
+
+	private void scale(Release release, List<ScaleRequestItem> items) {
+		if (items.isEmpty()) {
+			return;
+		}
+		String kind = ManifestUtils.resolveKind(release.getManifest().getData());
+		this.releaseManagerFactory.getReleaseManager(kind).scale(release, new ScaleRequest(items));
+	}
+
+	private static String getKey(Release release) {
+		return release.getName() + "-v" + release.getVersion();
+	}
+
+	private static class Canary {
+
+		private volatile int step;
+
+		private volatile Long healthySince;
+	}
+}
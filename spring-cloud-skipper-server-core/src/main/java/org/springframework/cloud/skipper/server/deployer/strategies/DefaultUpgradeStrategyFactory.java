@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.springframework.cloud.skipper.SkipperException;
+import org.springframework.util.StringUtils;
 
 /**
  * Default implementation of a {@link UpgradeStrategyFactory} returning
@@ -30,13 +31,13 @@ import org.springframework.cloud.skipper.SkipperException;
  */
 public class DefaultUpgradeStrategyFactory implements UpgradeStrategyFactory {
 
-	private final Map<String, UpgradeStrategy> strategies = new HashMap<>();
+	private final Map<String, Map<String, UpgradeStrategy>> strategies = new HashMap<>();
 
 	public DefaultUpgradeStrategyFactory(List<UpgradeStrategy> strategies) {
 		if (strategies != null) {
 			for (UpgradeStrategy strategy : strategies) {
 				for (String kind : strategy.getSupportedKinds()) {
-					this.strategies.put(kind, strategy);
+					this.strategies.computeIfAbsent(kind, k -> new HashMap<>()).put(strategy.getName(), strategy);
 				}
 			}
 		}
@@ -44,10 +45,19 @@ public class DefaultUpgradeStrategyFactory implements UpgradeStrategyFactory {
 
 	@Override
 	public UpgradeStrategy getUpgradeStrategy(String kind) {
-		UpgradeStrategy strategy = strategies.get(kind);
+		return getUpgradeStrategy(kind, null);
+	}
+
+	@Override
+	public UpgradeStrategy getUpgradeStrategy(String kind, String name) {
+		Map<String, UpgradeStrategy> kindStrategies = strategies.get(kind);
+		if (kindStrategies == null) {
+			throw new SkipperException("No update strategy available for '" + kind + "'");
+		}
+		UpgradeStrategy strategy = kindStrategies.get(StringUtils.hasText(name) ? name : UpgradeStrategy.DEFAULT_NAME);
 		if (strategy != null) {
 			return strategy;
 		}
-		throw new SkipperException("No update strategy available for '" + kind + "'");
+		throw new SkipperException("No update strategy '" + name + "' available for '" + kind + "'");
 	}
 }
@@ -16,6 +16,7 @@
 package org.springframework.cloud.skipper.server.deployer.strategies;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -23,12 +24,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.cloud.deployer.spi.app.AppDeployer;
+import org.springframework.cloud.skipper.SkipperException;
 import org.springframework.cloud.skipper.domain.Release;
 import org.springframework.cloud.skipper.domain.Status;
 import org.springframework.cloud.skipper.domain.StatusCode;
+import org.springframework.cloud.skipper.server.deployer.AppDeploymentExecutor;
+import org.springframework.cloud.skipper.server.deployer.AppDeploymentExecutor.UndeployResult;
 import org.springframework.cloud.skipper.server.domain.AppDeployerData;
 import org.springframework.cloud.skipper.server.repository.jpa.ReleaseRepository;
 import org.springframework.cloud.skipper.server.repository.map.DeployerRepository;
+import org.springframework.util.StringUtils;
 
 /**
  * Responsible for deleting the provided list of applications and updating the status of
@@ -43,9 +48,13 @@ public class DeleteStep {
 
 	private final DeployerRepository deployerRepository;
 
-	public DeleteStep(ReleaseRepository releaseRepository, DeployerRepository deployerRepository) {
+	private final AppDeploymentExecutor appDeploymentExecutor;
+
+	public DeleteStep(ReleaseRepository releaseRepository, DeployerRepository deployerRepository,
+			AppDeploymentExecutor appDeploymentExecutor) {
 		this.releaseRepository = releaseRepository;
 		this.deployerRepository = deployerRepository;
+		this.appDeploymentExecutor = appDeploymentExecutor;
 	}
 
 	public Release delete(Release release, AppDeployerData existingAppDeployerData,
@@ -56,14 +65,23 @@ public class DeleteStep {
 		Map<String, String> appNamesAndDeploymentIds = (existingAppDeployerData!= null) ?
 				existingAppDeployerData.getDeploymentDataAsMap() : Collections.emptyMap();
 
+		Map<String, String> appNamesAndDeploymentIdsToDelete = new LinkedHashMap<>();
 		for (Map.Entry<String, String> appNameAndDeploymentId : appNamesAndDeploymentIds.entrySet()) {
 			if (applicationNamesToDelete.contains(appNameAndDeploymentId.getKey())) {
 				logger.debug("For Release name {}, undeploying existing app {}", release.getName(),
 						appNameAndDeploymentId.getKey());
-				// simply attempt to undeploy and let caller stack to handle errors if any
-				appDeployer.undeploy(appNameAndDeploymentId.getValue());
+				appNamesAndDeploymentIdsToDelete.put(appNameAndDeploymentId.getKey(),
+						appNameAndDeploymentId.getValue());
 			}
 		}
+		Map<String, UndeployResult> results = this.appDeploymentExecutor.undeploy(release.getPlatformName(),
+				appDeployer, appNamesAndDeploymentIdsToDelete);
+		List<String> failures = AppDeploymentExecutor.describeFailures(results);
+		if (!failures.isEmpty()) {
+			// all apps were attempted, let caller stack to handle errors
+			throw new SkipperException(String.format("Could not undeploy apps of release [%s]: %s",
+					release.getName(), StringUtils.collectionToDelimitedString(failures, ", ")));
+		}
 
 		if (setStatus) {
 			Status deletedStatus = new Status();
@@ -18,6 +18,7 @@ package org.springframework.cloud.skipper.server.deployer.strategies;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -28,6 +29,7 @@ import org.springframework.cloud.skipper.domain.SpringCloudDeployerApplicationMa
 import org.springframework.cloud.skipper.domain.SpringCloudDeployerApplicationManifestReader;
 import org.springframework.cloud.skipper.domain.Status;
 import org.springframework.cloud.skipper.domain.StatusCode;
+import org.springframework.cloud.skipper.server.deployer.AppDeploymentExecutor;
 import org.springframework.cloud.skipper.server.deployer.AppDeploymentRequestFactory;
 import org.springframework.cloud.skipper.server.deployer.ReleaseAnalysisReport;
 import org.springframework.cloud.skipper.server.domain.AppDeployerData;
@@ -56,14 +58,18 @@ public class DeployAppStep {
 
 	private final SpringCloudDeployerApplicationManifestReader applicationManifestReader;
 
+	private final AppDeploymentExecutor appDeploymentExecutor;
+
 	public DeployAppStep(DeployerRepository deployerRepository, AppDeploymentRequestFactory appDeploymentRequestFactory,
 			AppDeployerDataRepository appDeployerDataRepository, ReleaseRepository releaseRepository,
-			SpringCloudDeployerApplicationManifestReader applicationManifestReader) {
+			SpringCloudDeployerApplicationManifestReader applicationManifestReader,
+			AppDeploymentExecutor appDeploymentExecutor) {
 		this.deployerRepository = deployerRepository;
 		this.appDeploymentRequestFactory = appDeploymentRequestFactory;
 		this.appDeployerDataRepository = appDeployerDataRepository;
 		this.releaseRepository = releaseRepository;
 		this.applicationManifestReader = applicationManifestReader;
+		this.appDeploymentExecutor = appDeploymentExecutor;
 	}
 
 	@Transactional
@@ -77,7 +83,7 @@ public class DeployAppStep {
 
 			// Deploy the application
 			Map<String, String> appNameDeploymentIdMap = deploy(replacingRelease, applicationNamesToUpgrade,
-					appDeployer);
+					Collections.emptyMap(), appDeployer);
 
 			// Carry over the applicationDeployment information for apps that were not updated.
 			carryOverAppDeploymentIds(existingRelease, appNameDeploymentIdMap);
@@ -102,6 +108,95 @@ public class DeployAppStep {
 		return applicationNamesToUpgrade;
 	}
 
+	/**
+	 * Deploys a batch of the apps to upgrade in the replacing release, adding them to the
+	 * deployments of the replacing release. Deployments of the apps not yet upgraded are
+	 * carried over from the existing release by the first batch.
+	 *
+	 * @param existingRelease the existing release
+	 * @param replacingRelease the replacing release
+	 * @param applicationNamesToUpgrade the names of the apps in the batch
+	 * @return the names of the apps in the batch
+	 */
+	@Transactional
+	public List<String> deployApps(Release existingRelease, Release replacingRelease,
+			List<String> applicationNamesToUpgrade) {
+		return deployApps(existingRelease, replacingRelease, applicationNamesToUpgrade, Collections.emptyMap());
+	}
+
+	/**
+	 * Deploys a batch of the apps to upgrade in the replacing release as
+	 * {@link #deployApps(Release, Release, List)} does, overriding deployment properties
+	 * of the apps given in the manifest.
+	 *
+	 * @param existingRelease the existing release
+	 * @param replacingRelease the replacing release
+	 * @param applicationNamesToUpgrade the names of the apps in the batch
+	 * @param deploymentProperties the deployment properties to override, keyed by app name
+	 * @return the names of the apps in the batch
+	 */
+	@Transactional
+	public List<String> deployApps(Release existingRelease, Release replacingRelease,
+			List<String> applicationNamesToUpgrade, Map<String, Map<String, String>> deploymentProperties) {
+		try {
+			AppDeployer appDeployer = this.deployerRepository.findByNameRequired(replacingRelease.getPlatformName())
+					.getAppDeployer();
+			Map<String, String> appNameDeploymentIdMap = deploy(replacingRelease, applicationNamesToUpgrade,
+					deploymentProperties, appDeployer);
+
+			AppDeployerData appDeployerData = this.appDeployerDataRepository.findByReleaseNameAndReleaseVersion(
+					replacingRelease.getName(), replacingRelease.getVersion());
+			if (appDeployerData == null) {
+				carryOverAppDeploymentIds(existingRelease, appNameDeploymentIdMap);
+				appDeployerData = new AppDeployerData();
+				appDeployerData.setReleaseName(replacingRelease.getName());
+				appDeployerData.setReleaseVersion(replacingRelease.getVersion());
+			}
+			else {
+				Map<String, String> replacingAppNamesAndDeploymentIds = appDeployerData.getDeploymentDataAsMap();
+				replacingAppNamesAndDeploymentIds.putAll(appNameDeploymentIdMap);
+				appNameDeploymentIdMap = replacingAppNamesAndDeploymentIds;
+			}
+			appDeployerData.setDeploymentDataUsingMap(appNameDeploymentIdMap);
+			this.appDeployerDataRepository.save(appDeployerData);
+		}
+		catch (DataAccessException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			Status status = new Status();
+			status.setStatusCode(StatusCode.FAILED);
+			replacingRelease.getInfo().setStatus(status);
+			replacingRelease.getInfo().setDescription("Could not deploy app.");
+			this.releaseRepository.save(replacingRelease);
+		}
+		return applicationNamesToUpgrade;
+	}
+
+	/**
+	 * Deploys again apps of the existing release which were already undeployed, adding them
+	 * back to the deployments of the existing release.
+	 *
+	 * @param existingRelease the existing release
+	 * @param applicationNamesToRestore the names of the apps to deploy again
+	 */
+	@Transactional
+	public void restoreApps(Release existingRelease, List<String> applicationNamesToRestore) {
+		if (applicationNamesToRestore.isEmpty()) {
+			return;
+		}
+		AppDeployer appDeployer = this.deployerRepository.findByNameRequired(existingRelease.getPlatformName())
+				.getAppDeployer();
+		Map<String, String> appNameDeploymentIdMap = deploy(existingRelease, applicationNamesToRestore,
+				Collections.emptyMap(), appDeployer);
+		AppDeployerData appDeployerData = this.appDeployerDataRepository.findByReleaseNameAndReleaseVersionRequired(
+				existingRelease.getName(), existingRelease.getVersion());
+		Map<String, String> existingAppNamesAndDeploymentIds = appDeployerData.getDeploymentDataAsMap();
+		existingAppNamesAndDeploymentIds.putAll(appNameDeploymentIdMap);
+		appDeployerData.setDeploymentDataUsingMap(existingAppNamesAndDeploymentIds);
+		this.appDeployerDataRepository.save(appDeployerData);
+	}
+
 	private void carryOverAppDeploymentIds(Release existingRelease, Map<String, String> appNameDeploymentIdMap) {
 		AppDeployerData existingAppDeployerData = this.appDeployerDataRepository
 				.findByReleaseNameAndReleaseVersionRequired(
@@ -117,25 +212,32 @@ public class DeployAppStep {
 		}
 	}
 
-	private Map<String, String> deploy(Release replacingRelease, List<String> applicationNamesToUpgrade,
-			AppDeployer appDeployer) {
+	private Map<String, String> deploy(Release release, List<String> applicationNamesToDeploy,
+			Map<String, Map<String, String>> deploymentProperties, AppDeployer appDeployer) {
 		List<? extends SpringCloudDeployerApplicationManifest> applicationSpecList = this.applicationManifestReader
-				.read(replacingRelease
-						.getManifest().getData());
+				.read(release.getManifest().getData());
 
-		Map<String, String> appNameDeploymentIdMap = new HashMap<>();
+		Map<String, AppDeploymentRequest> appDeploymentRequests = new LinkedHashMap<>();
 		for (SpringCloudDeployerApplicationManifest applicationManifest : applicationSpecList) {
-			if (applicationNamesToUpgrade.contains(applicationManifest.getApplicationName())) {
+			if (applicationNamesToDeploy.contains(applicationManifest.getApplicationName())) {
 				AppDeploymentRequest appDeploymentRequest = appDeploymentRequestFactory.createAppDeploymentRequest(
-						applicationManifest, replacingRelease.getName(),
-						String.valueOf(replacingRelease.getVersion()));
-				// =============
-				// DEPLOY DEPLOY
-				// =============
-				String deploymentId = appDeployer.deploy(appDeploymentRequest);
-				appNameDeploymentIdMap.put(applicationManifest.getApplicationName(), deploymentId);
+						applicationManifest, release.getName(), String.valueOf(release.getVersion()));
+				Map<String, String> appDeploymentProperties = deploymentProperties
+						.get(applicationManifest.getApplicationName());
+				if (appDeploymentProperties != null) {
+					Map<String, String> properties = new HashMap<>(appDeploymentRequest.getDeploymentProperties());
+					properties.putAll(appDeploymentProperties);
+					appDeploymentRequest = new AppDeploymentRequest(appDeploymentRequest.getDefinition(),
+							appDeploymentRequest.getResource(), properties,
+							appDeploymentRequest.getCommandlineArguments());
+				}
+				appDeploymentRequests.put(applicationManifest.getApplicationName(), appDeploymentRequest);
 			}
 		}
-		return appNameDeploymentIdMap;
+		// =============
+		// DEPLOY DEPLOY
+		// =============
+		return this.appDeploymentExecutor.deploy(release.getPlatformName(), appDeployer,
+				appDeploymentRequests);
 	}
 }
@@ -25,7 +25,11 @@ public class HealthCheckProperties {
 
 	private long timeoutInMillis = 300000; // 5 minutes
 
-	private long sleepInMillis = 5000; // 5 seconds
+	private long sleepInMillis = 5000; // 5 seconds, max time between health checks
+
+	private long initialIntervalInMillis = 500;
+
+	private double backoffMultiplier = 2;
 
 	public long getTimeoutInMillis() {
 		return timeoutInMillis;
@@ -42,4 +46,34 @@ public class HealthCheckProperties {
 	public void setSleepInMillis(long sleepInMillis) {
 		this.sleepInMillis = sleepInMillis;
 	}
+
+	public long getInitialIntervalInMillis() {
+		return initialIntervalInMillis;
+	}
+
+	public void setInitialIntervalInMillis(long initialIntervalInMillis) {
+		this.initialIntervalInMillis = initialIntervalInMillis;
+	}
+
+	public double getBackoffMultiplier() {
+		return backoffMultiplier;
+	}
+
+	public void setBackoffMultiplier(double backoffMultiplier) {
+		this.backoffMultiplier = backoffMultiplier;
+	}
+
+	/**
+	 * Gets the time to wait before a health check. Checks start at the initial interval
+	 * which grows by the backoff multiplier after every check up to the sleep time.
+	 *
+	 * @param attempt the number of the check, starting from 1
+	 * @return the time to wait before the check
+	 */
+	public long getIntervalInMillis(int attempt) {
+		long maxInterval = Math.max(this.sleepInMillis, 1);
+		double interval = Math.max(this.initialIntervalInMillis, 1)
+				* Math.pow(Math.max(this.backoffMultiplier, 1), Math.max(attempt - 1, 0));
+		return (long) Math.min(interval, maxInterval);
+	}
 }
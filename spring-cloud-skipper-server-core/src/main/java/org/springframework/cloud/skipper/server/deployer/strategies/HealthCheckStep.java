@@ -20,9 +20,11 @@ import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import org.springframework.cloud.deployer.spi.app.AppDeployer;
-import org.springframework.cloud.deployer.spi.app.AppStatus;
 import org.springframework.cloud.deployer.spi.app.DeploymentState;
 import org.springframework.cloud.skipper.domain.Release;
 import org.springframework.cloud.skipper.domain.SpringCloudDeployerApplicationManifestReader;
@@ -51,6 +53,18 @@ public class HealthCheckStep {
 	}
 
 	public boolean isHealthy(Release replacingRelease) {
+		return checkHealth(replacingRelease) == HealthCheckResult.HEALTHY;
+	}
+
+	/**
+	 * Checks the status of all apps in the replacing release in parallel. The release is
+	 * healthy when every app is deployed and failed as soon as any app is failed, without
+	 * waiting for the status of the other apps.
+	 *
+	 * @param replacingRelease the replacing release
+	 * @return the result of the health check
+	 */
+	public HealthCheckResult checkHealth(Release replacingRelease) {
 		AppDeployerData replacingAppDeployerData = this.appDeployerDataRepository
 				.findByReleaseNameAndReleaseVersionRequired(
 						replacingRelease.getName(), replacingRelease.getVersion());
@@ -61,18 +75,38 @@ public class HealthCheckStep {
 				.getAppDeployer();
 		logger.debug("Getting status for apps in replacing release {}-v{}", replacingRelease.getName(),
 				replacingRelease.getVersion());
-		// Check all apps and don't go beyond first failed as that is not needed,
-		// assume healthy otherwise
-		return appNamesAndDeploymentIds.entrySet().stream()
-			.map(e -> {
-				logger.debug("Checking status for appName={}, deploymentId={}", e.getKey(), e.getValue());
-				AppStatus status = appDeployer.status(e.getValue());
-				logger.debug("Got status {} for appName={}, deploymentId={}",
-						status != null ? status.getState() : null, e.getKey(), e.getValue());
-				return status.getState() == DeploymentState.deployed;
-			})
-			.filter(deployed -> !deployed)
-			.findFirst()
-			.orElse(true);
+		HealthCheckResult result = Flux.fromIterable(appNamesAndDeploymentIds.entrySet())
+			.flatMap(e -> Mono.defer(() -> {
+					logger.debug("Checking status for appName={}, deploymentId={}", e.getKey(), e.getValue());
+					return appDeployer.statusReactive(e.getValue());
+				})
+				.subscribeOn(Schedulers.boundedElastic())
+				.map(status -> {
+					logger.debug("Got status {} for appName={}, deploymentId={}", status.getState(), e.getKey(),
+							e.getValue());
+					return toHealthCheckResult(status.getState());
+				})
+				.defaultIfEmpty(HealthCheckResult.PENDING))
+			// no need to wait for other apps once one has failed
+			.takeUntil(appResult -> appResult == HealthCheckResult.FAILED)
+			.reduce(HealthCheckResult.HEALTHY, HealthCheckStep::combine)
+			.block();
+		logger.debug("Health check of replacing release {}-v{} is {}", replacingRelease.getName(),
+				replacingRelease.getVersion(), result);
+		return result;
+	}
+
+	private static HealthCheckResult toHealthCheckResult(DeploymentState state) {
+		if (state == DeploymentState.deployed) {
+			return HealthCheckResult.HEALTHY;
+		}
+		return state == DeploymentState.failed ? HealthCheckResult.FAILED : HealthCheckResult.PENDING;
+	}
+
+	private static HealthCheckResult combine(HealthCheckResult result, HealthCheckResult appResult) {
+		if (result == HealthCheckResult.FAILED || appResult == HealthCheckResult.FAILED) {
+			return HealthCheckResult.FAILED;
+		}
+		return result == HealthCheckResult.PENDING ? result : appResult;
 	}
 }
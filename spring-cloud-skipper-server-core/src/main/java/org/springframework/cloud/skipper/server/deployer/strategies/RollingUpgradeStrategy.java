@@ -0,0 +1,210 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.deployer.strategies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cloud.skipper.SkipperException;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.SkipperManifestKind;
+import org.springframework.cloud.skipper.domain.StatusCode;
+import org.springframework.cloud.skipper.server.deployer.ReleaseAnalysisReport;
+import org.springframework.cloud.skipper.server.domain.AppDeployerData;
+import org.springframework.cloud.skipper.server.repository.jpa.AppDeployerDataRepository;
+
+/**
+ * Upgrades the changed apps in batches of {@link RollingUpgradeProperties#getBatchSize()}
+ * apps, so that at most one batch of apps is running in both versions at the same time.
+ * The next batch is deployed once the apps of the previous batch are healthy and their
+ * old versions are deleted. If a batch isn't healthy, the remaining batches are not
+ * deployed, the apps already upgraded are rolled back to their old versions and the new
+ * apps are deleted. Selected in an upgrade request with the name {@value #NAME}.
+ */
+public class RollingUpgradeStrategy implements UpgradeStrategy {
+
+	/**
+	 * Name of the strategy.
+	 */
+	public static final String NAME = "rolling";
+
+	private final Logger logger = LoggerFactory.getLogger(RollingUpgradeStrategy.class);
+
+	private final HealthCheckStep healthCheckStep;
+
+	private final HandleHealthCheckStep handleHealthCheckStep;
+
+	private final DeployAppStep deployAppStep;
+
+	private final DeleteStep deleteStep;
+
+	private final AppDeployerDataRepository appDeployerDataRepository;
+
+	private final RollingUpgradeProperties properties;
+
+	public RollingUpgradeStrategy(HealthCheckStep healthCheckStep, HandleHealthCheckStep handleHealthCheckStep,
+			DeployAppStep deployAppStep, DeleteStep deleteStep, AppDeployerDataRepository appDeployerDataRepository,
+			RollingUpgradeProperties properties) {
+		this.healthCheckStep = healthCheckStep;
+		this.handleHealthCheckStep = handleHealthCheckStep;
+		this.deployAppStep = deployAppStep;
+		this.deleteStep = deleteStep;
+		this.appDeployerDataRepository = appDeployerDataRepository;
+		this.properties = properties;
+	}
+
+	@Override
+	public Collection<String> getSupportedKinds() {
+		return Arrays.asList(SkipperManifestKind.SpringBootApp.name(),
+				SkipperManifestKind.SpringCloudDeployerApplication.name());
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public void deployApps(Release existingRelease, Release replacingRelease, ReleaseAnalysisReport releaseAnalysisReport) {
+		List<String> batch = nextBatch(releaseAnalysisReport.getApplicationNamesToUpgrade());
+		logger.info("Upgrading apps {} of release {}-v{}", batch, replacingRelease.getName(),
+				replacingRelease.getVersion());
+		this.deployAppStep.deployApps(existingRelease, replacingRelease, batch);
+	}
+
+	@Override
+	public boolean checkStatus(Release replacingRelease) {
+		return this.healthCheckStep.isHealthy(replacingRelease);
+	}
+
+	@Override
+	public HealthCheckResult checkHealth(Release replacingRelease) {
+		return this.healthCheckStep.checkHealth(replacingRelease);
+	}
+
+	@Override
+	public HealthCheckResult checkHealth(Release existingRelease, Release replacingRelease,
+			ReleaseAnalysisReport releaseAnalysisReport) {
+		if (isFailed(replacingRelease)) {
+			return HealthCheckResult.FAILED;
+		}
+		HealthCheckResult result = this.healthCheckStep.checkHealth(replacingRelease);
+		if (result != HealthCheckResult.HEALTHY) {
+			return result;
+		}
+		List<String> applicationNamesToUpgrade = releaseAnalysisReport.getApplicationNamesToUpgrade();
+		AppDeployerData existingAppDeployerData = this.appDeployerDataRepository
+				.findByReleaseNameAndReleaseVersionRequired(existingRelease.getName(), existingRelease.getVersion());
+		Map<String, String> existingDeployments = existingAppDeployerData.getDeploymentDataAsMap();
+		Map<String, String> replacingDeployments = getDeployments(replacingRelease);
+
+		List<String> pending = new ArrayList<>();
+		List<String> upgraded = new ArrayList<>();
+		for (String appName : applicationNamesToUpgrade) {
+			if (!replacingDeployments.containsKey(appName)
+					|| Objects.equals(replacingDeployments.get(appName), existingDeployments.get(appName))) {
+				pending.add(appName);
+			}
+			else if (existingDeployments.containsKey(appName)) {
+				upgraded.add(appName);
+			}
+		}
+		if (pending.isEmpty()) {
+			// old versions of the last batch are deleted when the upgrade is accepted
+			return HealthCheckResult.HEALTHY;
+		}
+
+		try {
+			logger.info("Deleting upgraded apps {} from existing release {}-v{}", upgraded,
+					existingRelease.getName(), existingRelease.getVersion());
+			this.deleteStep.delete(existingRelease, existingAppDeployerData, upgraded, false);
+		}
+		catch (SkipperException e) {
+			logger.warn("Could not delete upgraded apps of existing release " + existingRelease.getName(), e);
+			return HealthCheckResult.FAILED;
+		}
+		existingDeployments.keySet().removeAll(upgraded);
+		existingAppDeployerData.setDeploymentDataUsingMap(existingDeployments);
+		this.appDeployerDataRepository.save(existingAppDeployerData);
+
+		List<String> batch = nextBatch(pending);
+		logger.info("Upgrading apps {} of release {}-v{}", batch, replacingRelease.getName(),
+				replacingRelease.getVersion());
+		this.deployAppStep.deployApps(existingRelease, replacingRelease, batch);
+		return isFailed(replacingRelease) ? HealthCheckResult.FAILED : HealthCheckResult.PENDING;
+	}
+
+	@Override
+	public void accept(Release existingRelease, Release replacingRelease,
+			ReleaseAnalysisReport releaseAnalysisReport, boolean rollback) {
+		// apps of earlier batches are no longer in the existing release, so this deletes
+		// only the old versions of the last batch
+		this.handleHealthCheckStep.handleHealthCheck(true, existingRelease,
+				releaseAnalysisReport.getApplicationNamesToUpgrade(), replacingRelease, null, false, rollback);
+	}
+
+	@Override
+	public void cancel(Release existingRelease, Release replacingRelease, ReleaseAnalysisReport releaseAnalysisReport,
+			Long timeout, boolean cancel, boolean rollback) {
+		Map<String, String> existingDeployments = this.appDeployerDataRepository
+				.findByReleaseNameAndReleaseVersionRequired(existingRelease.getName(), existingRelease.getVersion())
+				.getDeploymentDataAsMap();
+		Map<String, String> replacingDeployments = getDeployments(replacingRelease);
+		List<String> upgraded = new ArrayList<>();
+		List<String> deployed = new ArrayList<>();
+		for (String appName : releaseAnalysisReport.getApplicationNamesToUpgrade()) {
+			if (!existingDeployments.containsKey(appName)) {
+				upgraded.add(appName);
+			}
+			if (replacingDeployments.containsKey(appName)
+					&& !Objects.equals(replacingDeployments.get(appName), existingDeployments.get(appName))) {
+				deployed.add(appName);
+			}
+		}
+		if (!upgraded.isEmpty()) {
+			logger.info("Rolling back upgraded apps {} of existing release {}-v{}", upgraded,
+					existingRelease.getName(), existingRelease.getVersion());
+			this.deployAppStep.restoreApps(existingRelease, upgraded);
+		}
+		this.handleHealthCheckStep.handleHealthCheck(false, existingRelease, deployed, replacingRelease, timeout,
+				cancel, rollback);
+	}
+
+	private List<String> nextBatch(List<String> applicationNames) {
+		int batchSize = Math.max(this.properties.getBatchSize(), 1);
+		return new ArrayList<>(applicationNames.subList(0, Math.min(batchSize, applicationNames.size())));
+	}
+
+	private Map<String, String> getDeployments(Release replacingRelease) {
+		AppDeployerData replacingAppDeployerData = this.appDeployerDataRepository
+				.findByReleaseNameAndReleaseVersion(replacingRelease.getName(), replacingRelease.getVersion());
+		return replacingAppDeployerData != null ? replacingAppDeployerData.getDeploymentDataAsMap()
+				: new HashMap<>();
+	}
+
+	private static boolean isFailed(Release release) {
+		return release.getInfo() != null && release.getInfo().getStatus() != null
+				&& release.getInfo().getStatus().getStatusCode() == StatusCode.FAILED;
+	}
+}
@@ -61,6 +61,11 @@ public class SimpleRedBlackUpgradeStrategy implements UpgradeStrategy {
 		return this.healthCheckStep.isHealthy(replacingRelease);
 	}
 
+	@Override
+	public HealthCheckResult checkHealth(Release replacingRelease) {
+		return this.healthCheckStep.checkHealth(replacingRelease);
+	}
+
 	@Override
 	public void accept(Release existingRelease, Release replacingRelease,
 			ReleaseAnalysisReport releaseAnalysisReport, boolean rollback) {
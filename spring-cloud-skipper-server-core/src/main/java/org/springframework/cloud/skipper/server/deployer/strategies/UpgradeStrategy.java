@@ -28,12 +28,67 @@ import org.springframework.cloud.skipper.server.deployer.ReleaseAnalysisReport;
  */
 public interface UpgradeStrategy {
 
+	/**
+	 * Name of the strategy used when an upgrade doesn't ask for a strategy.
+	 */
+	String DEFAULT_NAME = "redblack";
+
 	Collection<String> getSupportedKinds();
 
+	/**
+	 * Gets the name used to select the strategy in an upgrade request.
+	 *
+	 * @return the strategy name
+	 */
+	default String getName() {
+		return DEFAULT_NAME;
+	}
+
 	void deployApps(Release existingRelease, Release replacingRelease, ReleaseAnalysisReport releaseAnalysisReport);
 
 	boolean checkStatus(Release replacingRelease);
 
+	/**
+	 * Checks the health of the replacing release, telling apart apps which are still
+	 * deploying from apps which have failed. Defaults to {@link #checkStatus(Release)},
+	 * which never reports failures.
+	 *
+	 * @param replacingRelease the replacing release
+	 * @return the result of the health check
+	 */
+	default HealthCheckResult checkHealth(Release replacingRelease) {
+		return checkStatus(replacingRelease) ? HealthCheckResult.HEALTHY : HealthCheckResult.PENDING;
+	}
+
+	/**
+	 * Checks the health of the replacing release during an upgrade. Strategies upgrading
+	 * apps in steps continue the upgrade here and report it pending until the last step
+	 * is healthy. Defaults to {@link #checkHealth(Release)}.
+	 *
+	 * @param existingRelease the existing release
+	 * @param replacingRelease the replacing release
+	 * @param releaseAnalysisReport the release analysis report
+	 * @return the result of the health check
+	 */
+	default HealthCheckResult checkHealth(Release existingRelease, Release replacingRelease,
+			ReleaseAnalysisReport releaseAnalysisReport) {
+		return checkHealth(replacingRelease);
+	}
+
+	/**
+	 * Gets the time the upgrade timeout is extended by for an upgrade, for strategies
+	 * which wait on purpose while upgrading. Defaults to zero.
+	 *
+	 * @param existingRelease the existing release
+	 * @param replacingRelease the replacing release
+	 * @param releaseAnalysisReport the release analysis report
+	 * @return the extension in milliseconds
+	 */
+	default long getUpgradeTimeoutExtension(Release existingRelease, Release replacingRelease,
+			ReleaseAnalysisReport releaseAnalysisReport) {
+		return 0;
+	}
+
 	void accept(Release existingRelease, Release replacingRelease, ReleaseAnalysisReport releaseAnalysisReport,
 			boolean rollback);
 
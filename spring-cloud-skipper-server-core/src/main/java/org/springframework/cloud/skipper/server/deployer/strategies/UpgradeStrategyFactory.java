@@ -30,4 +30,13 @@ public interface UpgradeStrategyFactory {
 	 * @return the resolved upgrade strategy
 	 */
 	UpgradeStrategy getUpgradeStrategy(String kind);
+
+	/**
+	 * Resolve {@link UpgradeStrategy} with a name for an {@code application kind}.
+	 *
+	 * @param kind the application kind
+	 * @param name the strategy name, or null for the default strategy of the kind
+	 * @return the resolved upgrade strategy
+	 */
+	UpgradeStrategy getUpgradeStrategy(String kind, String name);
 }
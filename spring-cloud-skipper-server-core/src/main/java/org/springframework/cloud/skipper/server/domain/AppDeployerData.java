@@ -16,13 +16,20 @@
 package org.springframework.cloud.skipper.server.domain;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+import javax.persistence.CascadeType;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.ForeignKey;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
 import javax.persistence.Lob;
+import javax.persistence.OneToMany;
+import javax.persistence.OrderBy;
 import javax.persistence.Table;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -32,26 +39,39 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.springframework.cloud.skipper.SkipperException;
 import org.springframework.cloud.skipper.domain.AbstractEntity;
+import org.springframework.cloud.skipper.support.codec.CompressedLobConverter;
 
 /**
  * Entity that contains deployment data for the given release identified by the release
  * name and version.
  *
- * The deployment data is a JSON serialized Map containing the application name and
- * deployment id.
+ * The deployment data maps the application name to the deployment id and is stored as
+ * {@link AppDeployment} rows. Data stored before that as a JSON serialized Map is still
+ * read until it is migrated.
  *
  * @author Mark Pollack
  */
 @Entity
-@Table(name = "SkipperAppDeployerData")
+@Table(name = "SkipperAppDeployerData", indexes = {
+		@Index(name = "idx_app_deployer_data_release", columnList = "releaseName,releaseVersion") })
 public class AppDeployerData extends AbstractEntity {
 
+	private static final ObjectMapper objectMapper = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
 	private String releaseName;
 
 	private Integer releaseVersion;
 
-	// Store deployment Ids associated with the given release.
+	@OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@JoinColumn(name = "app_deployer_data_id", nullable = false,
+			foreignKey = @ForeignKey(name = "fk_app_deployment_data"))
+	@OrderBy("id")
+	private List<AppDeployment> deployments = new ArrayList<>();
+
+	// Deployment ids associated with the given release before they were stored as rows.
 	@Lob
+	@Convert(converter = CompressedLobConverter.AppDeployerData.class)
 	private String deploymentData;
 
 	public AppDeployerData() {
@@ -63,6 +83,7 @@ public class AppDeployerData extends AbstractEntity {
 
 	public void setReleaseName(String releaseName) {
 		this.releaseName = releaseName;
+		this.deployments.forEach(deployment -> deployment.setReleaseName(releaseName));
 	}
 
 	public Integer getReleaseVersion() {
@@ -71,28 +92,43 @@ public class AppDeployerData extends AbstractEntity {
 
 	public void setReleaseVersion(Integer releaseVersion) {
 		this.releaseVersion = releaseVersion;
+		this.deployments.forEach(deployment -> deployment.setReleaseVersion(releaseVersion));
+	}
+
+	public List<AppDeployment> getDeployments() {
+		return deployments;
 	}
 
+	/**
+	 * Get the deployment data as JSON serialized Map.
+	 * @return the deployment data
+	 */
 	public String getDeploymentData() {
-		return deploymentData;
+		try {
+			return objectMapper.writeValueAsString(getDeploymentDataAsMap());
+		}
+		catch (JsonProcessingException e) {
+			throw new SkipperException("Could not serialize appNameDeploymentIdMap", e);
+		}
 	}
 
+	/**
+	 * Set the deployment data from a JSON serialized Map.
+	 * @param deploymentData the deployment data
+	 */
 	public void setDeploymentData(String deploymentData) {
-		this.deploymentData = deploymentData;
+		setDeploymentDataUsingMap(readDeploymentData(deploymentData));
 	}
 
 	public Map<String, String> getDeploymentDataAsMap() {
-		try {
-			ObjectMapper mapper = new ObjectMapper();
-			mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-			TypeReference<Map<String, String>> typeRef = new TypeReference<Map<String, String>>() {
-			};
-			return (this.deploymentData != null) ? mapper.readValue(this.deploymentData, typeRef) :
-					Collections.EMPTY_MAP;
+		if (this.deployments.isEmpty() && this.deploymentData != null) {
+			return readDeploymentData(this.deploymentData);
 		}
-		catch (Exception e) {
-			throw new SkipperException("Could not parse appNameDeploymentIdMap JSON:" + this.deploymentData, e);
+		Map<String, String> appNameDeploymentIdMap = new LinkedHashMap<>();
+		for (AppDeployment deployment : this.deployments) {
+			appNameDeploymentIdMap.put(deployment.getAppName(), deployment.getDeploymentId());
 		}
+		return appNameDeploymentIdMap;
 	}
 
 	/**
@@ -100,22 +136,38 @@ public class AppDeployerData extends AbstractEntity {
 	 * @param appNameDeploymentIdMap Map that has the application name as a key and the deployment as a value.
 	 */
 	public void setDeploymentDataUsingMap(Map<String, String> appNameDeploymentIdMap) {
-		ObjectMapper objectMapper = new ObjectMapper();
-		try {
-			setDeploymentData(objectMapper.writeValueAsString(appNameDeploymentIdMap));
-		}
-		catch (JsonProcessingException e) {
-			throw new SkipperException("Could not serialize appNameDeploymentIdMap", e);
+		this.deployments.clear();
+		this.deploymentData = null;
+		if (appNameDeploymentIdMap != null) {
+			for (Map.Entry<String, String> entry : appNameDeploymentIdMap.entrySet()) {
+				this.deployments.add(new AppDeployment(this.releaseName, this.releaseVersion, entry.getKey(),
+						entry.getValue()));
+			}
 		}
 	}
 
 	public List<String> getDeploymentIds() {
-		if (this.deploymentData != null) {
-			Map<String, String> appNameDeploymentIdMap = this.getDeploymentDataAsMap();
-			return appNameDeploymentIdMap.values().stream().collect(Collectors.toList());
+		return new ArrayList<>(getDeploymentDataAsMap().values());
+	}
+
+	/**
+	 * Check if the deployment data is still stored as JSON serialized Map.
+	 * @return true if the deployment data has not been migrated to rows
+	 */
+	public boolean isLegacyDeploymentData() {
+		return this.deployments.isEmpty() && this.deploymentData != null;
+	}
+
+	private static Map<String, String> readDeploymentData(String deploymentData) {
+		if (deploymentData == null) {
+			return new LinkedHashMap<>();
 		}
-		else {
-			return new ArrayList<>();
+		try {
+			return objectMapper.readValue(deploymentData, new TypeReference<LinkedHashMap<String, String>>() {
+			});
+		}
+		catch (Exception e) {
+			throw new SkipperException("Could not parse appNameDeploymentIdMap JSON:" + deploymentData, e);
 		}
 	}
 
@@ -124,7 +176,7 @@ public class AppDeployerData extends AbstractEntity {
 		return "AppDeployerData{" +
 				"releaseName='" + releaseName + '\'' +
 				", releaseVersion=" + releaseVersion +
-				", deploymentData='" + deploymentData + '\'' +
+				", deploymentData='" + getDeploymentDataAsMap() + '\'' +
 				'}';
 	}
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.springframework.cloud.skipper.domain.NonVersionedAbstractEntity;
+
+/**
+ * Entity mapping an application of a release, identified by the release name and
+ * version, to the id it was deployed with on a platform.
+ *
+ * @see AppDeployerData
+ */
+@Entity
+@Table(name = "SkipperAppDeployment", indexes = {
+		@Index(name = "idx_app_deployment_release", columnList = "releaseName,releaseVersion"),
+		@Index(name = "idx_app_depl_deployment_id", columnList = "deploymentId") })
+public class AppDeployment extends NonVersionedAbstractEntity {
+
+	/**
+	 * Maximum length of a deployment id.
+	 */
+	public static final int DEPLOYMENT_ID_LENGTH = 255;
+
+	private String releaseName;
+
+	private Integer releaseVersion;
+
+	private String appName;
+
+	@Column(length = DEPLOYMENT_ID_LENGTH)
+	private String deploymentId;
+
+	public AppDeployment() {
+	}
+
+	public AppDeployment(String releaseName, Integer releaseVersion, String appName, String deploymentId) {
+		this.releaseName = releaseName;
+		this.releaseVersion = releaseVersion;
+		this.appName = appName;
+		this.deploymentId = deploymentId;
+	}
+
+	public String getReleaseName() {
+		return releaseName;
+	}
+
+	public void setReleaseName(String releaseName) {
+		this.releaseName = releaseName;
+	}
+
+	public Integer getReleaseVersion() {
+		return releaseVersion;
+	}
+
+	public void setReleaseVersion(Integer releaseVersion) {
+		this.releaseVersion = releaseVersion;
+	}
+
+	public String getAppName() {
+		return appName;
+	}
+
+	public void setAppName(String appName) {
+		this.appName = appName;
+	}
+
+	public String getDeploymentId() {
+		return deploymentId;
+	}
+
+	public void setDeploymentId(String deploymentId) {
+		this.deploymentId = deploymentId;
+	}
+
+	@Override
+	public String toString() {
+		return "AppDeployment{" +
+				"releaseName='" + releaseName + '\'' +
+				", releaseVersion=" + releaseVersion +
+				", appName='" + appName + '\'' +
+				", deploymentId='" + deploymentId + '\'' +
+				'}';
+	}
+}
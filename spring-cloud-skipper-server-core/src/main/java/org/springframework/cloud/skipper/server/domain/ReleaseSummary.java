@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.domain;
+
+import org.springframework.cloud.skipper.domain.StatusCode;
+
+/**
+ * Defines summary information of a release, only the name, version, platform name and
+ * status code. Used with read-only queries which don't need to load the package and
+ * config values stored with a release.
+ */
+public interface ReleaseSummary {
+
+	String getName();
+
+	int getVersion();
+
+	String getPlatformName();
+
+	StatusCode getStatusCode();
+}
@@ -15,6 +15,8 @@
  */
 package org.springframework.cloud.skipper.server.repository.jpa;
 
+import java.util.List;
+
 import org.springframework.cloud.skipper.server.domain.AppDeployerData;
 import org.springframework.data.keyvalue.repository.KeyValueRepository;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
@@ -32,4 +34,12 @@ public interface AppDeployerDataRepository
 	@Transactional(readOnly = true)
 	AppDeployerData findByReleaseNameAndReleaseVersion(String releaseName, Integer releaseVersion);
 
+	/**
+	 * Find app deployer data still storing deployment data as JSON serialized Map.
+	 * @param id the id after which to look for
+	 * @return the list of app deployer data ordered by id
+	 */
+	@Transactional(readOnly = true)
+	List<AppDeployerData> findFirst100ByDeploymentDataIsNotNullAndIdGreaterThanOrderById(Long id);
+
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.repository.jpa;
+
+import java.util.List;
+
+import org.springframework.cloud.skipper.server.domain.AppDeployment;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository for looking up application deployments of releases.
+ */
+@RepositoryRestResource(exported = false)
+@Transactional(readOnly = true)
+public interface AppDeploymentRepository extends Repository<AppDeployment, Long> {
+
+	/**
+	 * Find the application deployments of a release.
+	 * @param releaseName the name of the release
+	 * @param releaseVersion the version of the release
+	 * @return the list of application deployments
+	 */
+	List<AppDeployment> findByReleaseNameAndReleaseVersion(String releaseName, Integer releaseVersion);
+
+	/**
+	 * Find the application deployments using a deployment id, newest release version
+	 * first. Multiple releases share a deployment id if an application was not changed by
+	 * an upgrade.
+	 * @param deploymentId the deployment id
+	 * @return the list of application deployments
+	 */
+	List<AppDeployment> findByDeploymentIdOrderByReleaseVersionDesc(String deploymentId);
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.repository.jpa;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.cloud.skipper.domain.Operation;
+import org.springframework.cloud.skipper.domain.OperationState;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository for asynchronous release operations.
+ */
+@RepositoryRestResource(exported = false)
+@Transactional
+public interface OperationRepository extends CrudRepository<Operation, String> {
+
+	/**
+	 * Find the operations in any of the given states.
+	 * @param states the operation states
+	 * @return the list of operations
+	 */
+	@Transactional(readOnly = true)
+	List<Operation> findByStateIn(Collection<OperationState> states);
+}
@@ -15,10 +15,14 @@
  */
 package org.springframework.cloud.skipper.server.repository.jpa;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.cloud.skipper.domain.Release;
 import org.springframework.cloud.skipper.domain.StatusCode;
+import org.springframework.cloud.skipper.server.domain.ReleaseSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.keyvalue.repository.KeyValueRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
@@ -67,6 +71,18 @@ public interface ReleaseRepository extends KeyValueRepository<Release, Long>, Re
 	@RestResource(exported = false)
 	Release findTopByNameOrderByVersionDesc(@Param("name") String name);
 
+	/**
+	 * Return a release by its name and version. Backed by the unique index on
+	 * release name and version.
+	 *
+	 * @param name the release name
+	 * @param version the release version
+	 * @return the release or {@code null} if not found
+	 */
+	@Transactional(readOnly = true)
+	@RestResource(exported = false)
+	Release findOneByNameAndVersion(@Param("name") String name, @Param("version") int version);
+
 	@Transactional(readOnly = true)
 	@RestResource(exported = false)
 	Release findTopByNameAndInfoStatusStatusCodeNotOrderByVersionDesc(@Param("name") String name,
@@ -76,6 +92,75 @@ public interface ReleaseRepository extends KeyValueRepository<Release, Long>, Re
 	@RestResource(exported = false)
 	List<Release> findByNameIgnoreCaseContaining(@Param("name") String name);
 
+	/**
+	 * Return summaries of all versions of a release in descending version order. Summary
+	 * doesn't contain the package, so the package data is not read from the database.
+	 *
+	 * @param name the release name
+	 * @return the release summaries
+	 */
+	@Transactional(readOnly = true)
+	@RestResource(exported = false)
+	@Query("select r.name as name, r.version as version, r.platformName as platformName, "
+			+ "s.statusCode as statusCode from Release r join r.info i join i.status s "
+			+ "where r.name = :name order by r.version desc")
+	List<ReleaseSummary> findSummariesByNameOrderByVersionDesc(@Param("name") String name);
+
+	/**
+	 * Return the latest release, among the releases having one of the given status codes,
+	 * for each release name.
+	 *
+	 * @param statusCodes the status codes to match
+	 * @return the latest matching release per release name ordered by name
+	 */
+	@Transactional(readOnly = true)
+	@RestResource(exported = false)
+	@Query("select r from Release r where r.info.status.statusCode in :statusCodes and r.version = "
+			+ "(select max(r2.version) from Release r2 where r2.name = r.name "
+			+ "and r2.info.status.statusCode in :statusCodes) order by r.name")
+	List<Release> findLatestByStatusCodeIn(@Param("statusCodes") Collection<StatusCode> statusCodes);
+
+	/**
+	 * Return the latest release, among the releases having one of the given status codes,
+	 * for each release name containing the given name ignoring case.
+	 *
+	 * @param name the name to match
+	 * @param statusCodes the status codes to match
+	 * @return the latest matching release per release name ordered by name
+	 */
+	@Transactional(readOnly = true)
+	@RestResource(exported = false)
+	@Query("select r from Release r where upper(r.name) like upper(concat('%', :name, '%')) "
+			+ "and r.info.status.statusCode in :statusCodes and r.version = "
+			+ "(select max(r2.version) from Release r2 where r2.name = r.name "
+			+ "and r2.info.status.statusCode in :statusCodes) order by r.name")
+	List<Release> findLatestByNameIgnoreCaseContainingAndStatusCodeIn(@Param("name") String name,
+			@Param("statusCodes") Collection<StatusCode> statusCodes);
+
+	/**
+	 * Return the latest release, among the releases having one of the given status codes,
+	 * for each release name containing the given name ignoring case. Only releases
+	 * ordered after the given name and version are returned, which allows to page over
+	 * releases with a keyset instead of an offset.
+	 *
+	 * @param name the name to match
+	 * @param statusCodes the status codes to match
+	 * @param afterName the name of the last release of a previous page
+	 * @param afterVersion the version of the last release of a previous page
+	 * @param pageable the pageable limiting returned releases
+	 * @return the latest matching release per release name ordered by name and version
+	 */
+	@Transactional(readOnly = true)
+	@RestResource(exported = false)
+	@Query("select r from Release r where upper(r.name) like upper(concat('%', :name, '%')) "
+			+ "and (r.name > :afterName or (r.name = :afterName and r.version > :afterVersion)) "
+			+ "and r.info.status.statusCode in :statusCodes and r.version = "
+			+ "(select max(r2.version) from Release r2 where r2.name = r.name "
+			+ "and r2.info.status.statusCode in :statusCodes) order by r.name, r.version")
+	List<Release> findLatestByNameIgnoreCaseContainingAndStatusCodeInAfter(@Param("name") String name,
+			@Param("statusCodes") Collection<StatusCode> statusCodes, @Param("afterName") String afterName,
+			@Param("afterVersion") int afterVersion, Pageable pageable);
+
 	/**
 	 * Return all releases that are associated with the provided package and repository id in decending
 	 * version order.
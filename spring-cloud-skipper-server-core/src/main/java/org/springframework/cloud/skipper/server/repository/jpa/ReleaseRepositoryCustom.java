@@ -28,6 +28,16 @@ import org.springframework.data.rest.core.annotation.RestResource;
  */
 public interface ReleaseRepositoryCustom {
 
+	/**
+	 * Save the release. The package of the release is stored in a
+	 * {@link org.springframework.cloud.skipper.domain.PackageBlob} shared with other
+	 * releases having identical package content.
+	 * @param release the release to save
+	 * @return the saved release
+	 */
+	@RestResource(exported = false)
+	Release save(Release release);
+
 	/**
 	 * Find the latest in time, release object, by name.
 	 * @param releaseName the name of the release
@@ -88,7 +98,8 @@ public interface ReleaseRepositoryCustom {
 	List<Release> findReleaseRevisions(String releaseName, Integer revisions);
 
 	/**
-	 * Find the latest status (deployed or failed) of the release, by the name.
+	 * Find the latest status (deployed or failed) of the release, by the name. Only the
+	 * newest deployed or failed revision of each release is returned.
 	 * @param releaseName the name is the wildcard expression
 	 * @return list of releases (by the given name) that has the latest revision with the
 	 * state either deployed or failed.
@@ -97,7 +108,23 @@ public interface ReleaseRepositoryCustom {
 	List<Release> findLatestDeployedOrFailed(String releaseName);
 
 	/**
-	 * Find the latest status (deployed or failed) of all the releases.
+	 * Find a page of the latest status (deployed or failed) of the releases, by the name.
+	 * Releases are ordered by name and version and only releases after the given name and
+	 * version are returned.
+	 *
+	 * @param releaseName the name is the wildcard expression
+	 * @param afterName the name of the last release of a previous page
+	 * @param afterVersion the version of the last release of a previous page
+	 * @param limit the maximum number of releases to return
+	 * @return list of releases (by the given name) that has the latest revision with the
+	 * state either deployed or failed.
+	 */
+	@RestResource(exported = false)
+	List<Release> findLatestDeployedOrFailed(String releaseName, String afterName, int afterVersion, int limit);
+
+	/**
+	 * Find the latest status (deployed or failed) of all the releases. Only the newest
+	 * deployed or failed revision of each release is returned.
 	 *
 	 * @return list of releases that has the latest revision with the state either deployed or
 	 * failed.
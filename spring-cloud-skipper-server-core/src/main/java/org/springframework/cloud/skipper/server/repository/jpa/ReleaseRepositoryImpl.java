@@ -15,13 +15,24 @@
  */
 package org.springframework.cloud.skipper.server.repository.jpa;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.skipper.ReleaseNotFoundException;
+import org.springframework.cloud.skipper.domain.PackageBlob;
 import org.springframework.cloud.skipper.domain.Release;
 import org.springframework.cloud.skipper.domain.StatusCode;
+import org.springframework.cloud.skipper.server.domain.ReleaseSummary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * @author Mark Pollack
@@ -29,9 +40,66 @@ import org.springframework.cloud.skipper.domain.StatusCode;
  */
 public class ReleaseRepositoryImpl implements ReleaseRepositoryCustom {
 
+	private static final List<StatusCode> DEPLOYED_OR_FAILED = Arrays.asList(StatusCode.DEPLOYED,
+			StatusCode.FAILED);
+
 	@Autowired
 	private ReleaseRepository releaseRepository;
 
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Override
+	public Release save(Release release) {
+		PackageBlob pkgBlob = release.getPkgBlob();
+		if (pkgBlob != null && !this.entityManager.contains(pkgBlob)) {
+			PackageBlob existingBlob = this.entityManager.find(PackageBlob.class, pkgBlob.getHash());
+			if (existingBlob != null) {
+				release.setPkgBlob(existingBlob);
+			}
+			else {
+				insertIfAbsent(pkgBlob);
+				release.setPkgBlob(this.entityManager.getReference(PackageBlob.class, pkgBlob.getHash()));
+			}
+		}
+		if (release.getId() == null) {
+			this.entityManager.persist(release);
+			return release;
+		}
+		return this.entityManager.merge(release);
+	}
+
+	/**
+	 * Inserts a package blob in its own transaction, so that releases of the same package
+	 * saved concurrently don't fail on the blob primary key. A blob stored concurrently by
+	 * another transaction is found by its hash once the insert fails.
+	 */
+	private void insertIfAbsent(PackageBlob pkgBlob) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+		transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		try {
+			transactionTemplate.execute(status -> {
+				if (this.entityManager.find(PackageBlob.class, pkgBlob.getHash()) == null) {
+					this.entityManager.persist(pkgBlob);
+					this.entityManager.flush();
+				}
+				return null;
+			});
+		}
+		catch (PersistenceException | DataAccessException e) {
+			// check in a new transaction as the current one may not see the stored blob yet
+			transactionTemplate.setReadOnly(true);
+			Boolean stored = transactionTemplate.execute(
+					status -> this.entityManager.find(PackageBlob.class, pkgBlob.getHash()) != null);
+			if (!Boolean.TRUE.equals(stored)) {
+				throw e;
+			}
+		}
+	}
+
 	@Override
 	public Release findLatestRelease(String releaseName) {
 		Release latestRelease = this.releaseRepository.findTopByNameOrderByVersionDesc(releaseName);
@@ -43,10 +111,10 @@ public class ReleaseRepositoryImpl implements ReleaseRepositoryCustom {
 
 	@Override
 	public Release findLatestDeployedRelease(String releaseName) {
-		List<Release> releases = this.releaseRepository.findByNameOrderByVersionDesc(releaseName);
-		for (Release release : releases) {
-			if (release.getInfo().getStatus().getStatusCode().equals(StatusCode.DEPLOYED)) {
-				return release;
+		List<ReleaseSummary> releases = this.releaseRepository.findSummariesByNameOrderByVersionDesc(releaseName);
+		for (ReleaseSummary release : releases) {
+			if (StatusCode.DEPLOYED.equals(release.getStatusCode())) {
+				return findByNameAndVersion(releaseName, release.getVersion());
 			}
 		}
 		throw new ReleaseNotFoundException(releaseName);
@@ -54,11 +122,11 @@ public class ReleaseRepositoryImpl implements ReleaseRepositoryCustom {
 
 	@Override
 	public Release findLatestReleaseForUpdate(String releaseName) {
-		List<Release> releases = this.releaseRepository.findByNameOrderByVersionDesc(releaseName);
-		for (Release release : releases) {
-			if (release.getInfo().getStatus().getStatusCode().equals(StatusCode.DEPLOYED) ||
-					release.getInfo().getStatus().getStatusCode().equals(StatusCode.DELETED)) {
-				return release;
+		List<ReleaseSummary> releases = this.releaseRepository.findSummariesByNameOrderByVersionDesc(releaseName);
+		for (ReleaseSummary release : releases) {
+			if (StatusCode.DEPLOYED.equals(release.getStatusCode()) ||
+					StatusCode.DELETED.equals(release.getStatusCode())) {
+				return findByNameAndVersion(releaseName, release.getVersion());
 			}
 		}
 		throw new ReleaseNotFoundException(releaseName);
@@ -66,13 +134,16 @@ public class ReleaseRepositoryImpl implements ReleaseRepositoryCustom {
 
 	@Override
 	public Release findReleaseToRollback(String releaseName) {
-		Release latestRelease = this.releaseRepository.findLatestReleaseForUpdate(releaseName);
-		List<Release> releases = this.releaseRepository.findByNameOrderByVersionDesc(releaseName);
-		for (Release release : releases) {
-			if ((release.getInfo().getStatus().getStatusCode().equals(StatusCode.DEPLOYED) ||
-					release.getInfo().getStatus().getStatusCode().equals(StatusCode.DELETED)) &&
-					release.getVersion() != latestRelease.getVersion()) {
-				return release;
+		// skip the latest release for update and return the next one
+		boolean latestFound = false;
+		List<ReleaseSummary> releases = this.releaseRepository.findSummariesByNameOrderByVersionDesc(releaseName);
+		for (ReleaseSummary release : releases) {
+			if (StatusCode.DEPLOYED.equals(release.getStatusCode()) ||
+					StatusCode.DELETED.equals(release.getStatusCode())) {
+				if (latestFound) {
+					return findByNameAndVersion(releaseName, release.getVersion());
+				}
+				latestFound = true;
 			}
 		}
 		throw new ReleaseNotFoundException(releaseName);
@@ -80,15 +151,7 @@ public class ReleaseRepositoryImpl implements ReleaseRepositoryCustom {
 
 	@Override
 	public Release findByNameAndVersion(String releaseName, int version) {
-		Iterable<Release> releases = this.releaseRepository.findAll();
-
-		Release matchingRelease = null;
-		for (Release release : releases) {
-			if (release.getName().equals(releaseName) && release.getVersion() == version) {
-				matchingRelease = release;
-				break;
-			}
-		}
+		Release matchingRelease = this.releaseRepository.findOneByNameAndVersion(releaseName, version);
 		if (matchingRelease == null) {
 			throw new ReleaseNotFoundException(releaseName, version);
 		}
@@ -105,23 +168,21 @@ public class ReleaseRepositoryImpl implements ReleaseRepositoryCustom {
 
 	@Override
 	public List<Release> findLatestDeployedOrFailed(String releaseName) {
-		return getDeployedOrFailed(this.releaseRepository.findByNameIgnoreCaseContaining(releaseName));
+		return this.releaseRepository.findLatestByNameIgnoreCaseContainingAndStatusCodeIn(releaseName,
+				DEPLOYED_OR_FAILED);
 	}
 
 	@Override
-	public List<Release> findLatestDeployedOrFailed() {
-		return getDeployedOrFailed(this.releaseRepository.findAll());
+	public List<Release> findLatestDeployedOrFailed(String releaseName, String afterName, int afterVersion,
+			int limit) {
+		return this.releaseRepository.findLatestByNameIgnoreCaseContainingAndStatusCodeInAfter(
+				releaseName != null ? releaseName : "", DEPLOYED_OR_FAILED, afterName != null ? afterName : "",
+				afterVersion, PageRequest.of(0, limit));
 	}
 
-	private List<Release> getDeployedOrFailed(Iterable<Release> allReleases) {
-		List<Release> releases = new ArrayList<>();
-		for (Release release : allReleases) {
-			StatusCode releaseStatusCode = release.getInfo().getStatus().getStatusCode();
-			if (releaseStatusCode.equals(StatusCode.DEPLOYED) || releaseStatusCode.equals(StatusCode.FAILED)) {
-				releases.add(release);
-			}
-		}
-		return releases;
+	@Override
+	public List<Release> findLatestDeployedOrFailed() {
+		return this.releaseRepository.findLatestByStatusCodeIn(DEPLOYED_OR_FAILED);
 	}
 
 	@Override
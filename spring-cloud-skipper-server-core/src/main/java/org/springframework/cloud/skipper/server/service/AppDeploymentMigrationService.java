@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.skipper.server.domain.AppDeployerData;
+import org.springframework.cloud.skipper.server.domain.AppDeployment;
+import org.springframework.cloud.skipper.server.repository.jpa.AppDeployerDataRepository;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Moves deployment data stored as JSON serialized Map into {@link AppDeployment} rows.
+ * App deployer data is processed in batches ordered by id in a background thread after
+ * the server has started. Data which is not yet migrated is still readable, so the
+ * server is usable while this is running.
+ */
+public class AppDeploymentMigrationService {
+
+	private static final Logger logger = LoggerFactory.getLogger(AppDeploymentMigrationService.class);
+
+	private final AppDeployerDataRepository appDeployerDataRepository;
+
+	public AppDeploymentMigrationService(AppDeployerDataRepository appDeployerDataRepository) {
+		this.appDeployerDataRepository = appDeployerDataRepository;
+	}
+
+	@EventListener
+	public void initialize(ApplicationReadyEvent event) {
+		Thread thread = new Thread(() -> {
+			try {
+				migrate();
+			}
+			catch (Exception e) {
+				logger.warn("Migration of app deployer data into app deployments failed", e);
+			}
+		}, "skipper-app-deployment-migration");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Migrates all app deployer data still storing deployment data as JSON.
+	 *
+	 * @return the number of migrated app deployer data
+	 */
+	public long migrate() {
+		long start = System.currentTimeMillis();
+		long count = 0;
+		Long lastId = 0L;
+		List<AppDeployerData> batch;
+		do {
+			batch = this.appDeployerDataRepository.findFirst100ByDeploymentDataIsNotNullAndIdGreaterThanOrderById(lastId);
+			for (AppDeployerData appDeployerData : batch) {
+				lastId = appDeployerData.getId();
+				if (!appDeployerData.isLegacyDeploymentData()) {
+					continue;
+				}
+				Map<String, String> appNameDeploymentIdMap = new LinkedHashMap<>();
+				appDeployerData.getDeploymentDataAsMap().forEach((appName, deploymentId) -> {
+					// cloud foundry used to store its application manifest instead of the app name
+					appNameDeploymentIdMap.put(appName,
+							deploymentId != null && deploymentId.length() > AppDeployment.DEPLOYMENT_ID_LENGTH
+									? appName : deploymentId);
+				});
+				appDeployerData.setDeploymentDataUsingMap(appNameDeploymentIdMap);
+				this.appDeployerDataRepository.save(appDeployerData);
+				count++;
+			}
+		}
+		while (!batch.isEmpty());
+		if (count > 0) {
+			logger.info("Migrated deployment data of {} releases into app deployments in {}ms", count,
+					System.currentTimeMillis() - start);
+		}
+		return count;
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.cloud.skipper.SkipperException;
+import org.springframework.cloud.skipper.domain.BatchUpgradeRequest;
+import org.springframework.cloud.skipper.domain.BatchUpgradeResult;
+import org.springframework.cloud.skipper.domain.BatchUpgradeResult.Outcome;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.StatusCode;
+import org.springframework.cloud.skipper.domain.UpgradeRequest;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.BatchUpgrades;
+import org.springframework.cloud.skipper.server.repository.jpa.ReleaseRepository;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Upgrades multiple releases in a batch. Upgrades are sent to the state machines of their
+ * releases with bounded parallelism and their results are emitted as they complete.
+ * <p>
+ * An upgrade is complete once its new release has been checked for health and is either
+ * deployed or failed, which is found by polling the status of the new release.
+ * <p>
+ * A running batch is cancelled with its batch id. Upgrades which haven't started yet are
+ * then skipped and cancel events are sent to releases whose upgrades have started, which
+ * rolls back upgrades still waiting for their apps to become healthy.
+ */
+public class BatchUpgradeService {
+
+	private static final Logger logger = LoggerFactory.getLogger(BatchUpgradeService.class);
+
+	private final SkipperStateMachineService skipperStateMachineService;
+
+	private final ReleaseRepository releaseRepository;
+
+	private final BatchUpgrades properties;
+
+	private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+
+	/**
+	 * Instantiates a new batch upgrade service.
+	 *
+	 * @param skipperStateMachineService the skipper state machine service
+	 * @param releaseRepository the release repository
+	 * @param properties the batch upgrade properties
+	 */
+	public BatchUpgradeService(SkipperStateMachineService skipperStateMachineService,
+			ReleaseRepository releaseRepository, BatchUpgrades properties) {
+		Assert.notNull(skipperStateMachineService, "'skipperStateMachineService' must be set");
+		Assert.notNull(releaseRepository, "'releaseRepository' must be set");
+		Assert.notNull(properties, "'properties' must be set");
+		Assert.isTrue(properties.getParallelism() > 0, "'parallelism' must be greater than zero");
+		Assert.isTrue(properties.getStatusPollIntervalInMillis() > 0,
+				"'statusPollIntervalInMillis' must be greater than zero");
+		this.skipperStateMachineService = skipperStateMachineService;
+		this.releaseRepository = releaseRepository;
+		this.properties = properties;
+	}
+
+	/**
+	 * Upgrades the releases of a batch. A batch id is generated if the request doesn't
+	 * have one.
+	 *
+	 * @param batchUpgradeRequest the batch upgrade request
+	 * @return the results of upgrades in the order they complete
+	 */
+	public Flux<BatchUpgradeResult> upgrade(BatchUpgradeRequest batchUpgradeRequest) {
+		Assert.notNull(batchUpgradeRequest, "'batchUpgradeRequest' must be set");
+		int size = batchUpgradeRequest.getUpgradeRequests() != null ? batchUpgradeRequest.getUpgradeRequests().size()
+				: 0;
+		if (size > this.properties.getMaxSize()) {
+			throw new SkipperException("Batch of " + size + " upgrades is larger than the max size of "
+					+ this.properties.getMaxSize());
+		}
+		String batchId = StringUtils.hasText(batchUpgradeRequest.getBatchId()) ? batchUpgradeRequest.getBatchId()
+				: UUID.randomUUID().toString();
+		Batch batch = new Batch(batchId);
+		if (this.batches.putIfAbsent(batchId, batch) != null) {
+			throw new SkipperException("Batch " + batchId + " is already running");
+		}
+		logger.info("Upgrading {} releases in batch {}", size, batchId);
+		return Flux.fromIterable(size > 0 ? batchUpgradeRequest.getUpgradeRequests()
+				: Collections.<UpgradeRequest>emptyList())
+				.flatMap(upgradeRequest -> upgrade(batch, upgradeRequest), this.properties.getParallelism())
+				.doFinally(signal -> this.batches.remove(batchId, batch));
+	}
+
+	/**
+	 * Cancels a running batch.
+	 *
+	 * @param batchId the batch id
+	 * @return true if the batch was running
+	 */
+	public boolean cancel(String batchId) {
+		Batch batch = this.batches.get(batchId);
+		if (batch == null) {
+			return false;
+		}
+		batch.cancelled = true;
+		for (String releaseName : batch.started) {
+			try {
+				this.skipperStateMachineService.cancelRelease(releaseName);
+			}
+			catch (Exception e) {
+				logger.warn("Unable to cancel upgrade of release {} in batch {}", releaseName, batchId, e);
+			}
+		}
+		logger.info("Cancelled batch {}", batchId);
+		return true;
+	}
+
+	private Mono<BatchUpgradeResult> upgrade(Batch batch, UpgradeRequest upgradeRequest) {
+		String releaseName = upgradeRequest.getUpgradeProperties() != null
+				? upgradeRequest.getUpgradeProperties().getReleaseName()
+				: null;
+		return Mono.defer(() -> {
+			if (batch.cancelled) {
+				return Mono.just(new BatchUpgradeResult(batch.id, releaseName, Outcome.CANCELLED, null,
+						"Batch was cancelled"));
+			}
+			batch.started.add(releaseName);
+			Release release = this.skipperStateMachineService.upgradeRelease(upgradeRequest);
+			return awaitUpgrade(batch, releaseName, release.getVersion());
+		})
+			.subscribeOn(Schedulers.boundedElastic())
+			.onErrorResume(e -> Mono.just(new BatchUpgradeResult(batch.id, releaseName, Outcome.FAILED, null,
+					e.getMessage() != null ? e.getMessage() : e.toString())));
+	}
+
+	private Mono<BatchUpgradeResult> awaitUpgrade(Batch batch, String releaseName, int version) {
+		Duration interval = Duration.ofMillis(this.properties.getStatusPollIntervalInMillis());
+		return Mono.fromCallable(() -> this.releaseRepository.findByNameAndVersion(releaseName, version))
+			.filter(release -> getStatusCode(release) != StatusCode.UNKNOWN)
+			.repeatWhenEmpty(repeat -> repeat.delayElements(interval, Schedulers.boundedElastic()))
+			.timeout(Duration.ofMillis(this.properties.getStatusTimeoutInMillis()), Mono.error(() ->
+					new SkipperException("Timed out waiting for upgrade of release " + releaseName + " to finish")))
+			.map(release -> {
+				if (getStatusCode(release) == StatusCode.DEPLOYED) {
+					return new BatchUpgradeResult(batch.id, releaseName, Outcome.SUCCEEDED, release, null);
+				}
+				if (batch.cancelled) {
+					return new BatchUpgradeResult(batch.id, releaseName, Outcome.CANCELLED, release,
+							"Upgrade was cancelled");
+				}
+				String description = release.getInfo().getDescription();
+				return new BatchUpgradeResult(batch.id, releaseName, Outcome.FAILED, release,
+						StringUtils.hasText(description) ? description
+								: "Upgrade of release " + releaseName + " failed");
+			});
+	}
+
+	private static StatusCode getStatusCode(Release release) {
+		if (release.getInfo() == null || release.getInfo().getStatus() == null
+				|| release.getInfo().getStatus().getStatusCode() == null) {
+			return StatusCode.UNKNOWN;
+		}
+		return release.getInfo().getStatus().getStatusCode();
+	}
+
+	private static class Batch {
+
+		private final String id;
+
+		private final Set<String> started = ConcurrentHashMap.newKeySet();
+
+		private volatile boolean cancelled;
+
+		Batch(String id) {
+			this.id = id;
+		}
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.deployer.spi.app.AppStatus;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.Status;
+import org.springframework.cloud.skipper.domain.StatusCode;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.DeploymentStateIngestion;
+import org.springframework.cloud.skipper.server.deployer.DeploymentStateEvent;
+import org.springframework.cloud.skipper.server.deployer.DeploymentStateEventSource;
+import org.springframework.cloud.skipper.server.domain.AppDeployment;
+import org.springframework.cloud.skipper.server.repository.jpa.AppDeploymentRepository;
+import org.springframework.cloud.skipper.server.repository.jpa.ReleaseRepository;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService;
+import org.springframework.context.event.EventListener;
+import org.springframework.util.Assert;
+
+/**
+ * Applies deployment state changes pushed by {@link DeploymentStateEventSource}s to
+ * statuses of releases.
+ * <p>
+ * Events are coalesced per deployment id within a short window, keeping the latest
+ * event, and mapped to the latest versions of releases through their
+ * {@link AppDeployment}s. Statuses of deployed and failed releases are updated with the
+ * pushed application statuses and written by the {@link ReleaseStateUpdateService}.
+ * Releases being upgraded get their target apps checked right away instead of on the
+ * next periodic check.
+ */
+public class DeploymentStateIngestionService implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(DeploymentStateIngestionService.class);
+
+	private final List<DeploymentStateEventSource> sources;
+
+	private final AppDeploymentRepository appDeploymentRepository;
+
+	private final ReleaseRepository releaseRepository;
+
+	private final ReleaseStateUpdateService releaseStateUpdateService;
+
+	private final SkipperStateMachineService skipperStateMachineService;
+
+	private final DeploymentStateIngestion properties;
+
+	private final Counter receivedCounter = Metrics.counter("skipper.deployment.state.events", "result", "received");
+
+	private final Counter coalescedCounter = Metrics.counter("skipper.deployment.state.events", "result", "coalesced");
+
+	private final Counter unmatchedCounter = Metrics.counter("skipper.deployment.state.events", "result", "unmatched");
+
+	private final Counter appliedCounter = Metrics.counter("skipper.deployment.state.events", "result", "applied");
+
+	private Scheduler scheduler;
+
+	private Disposable subscription;
+
+	/**
+	 * Instantiates a new deployment state ingestion service.
+	 *
+	 * @param sources the deployment state event sources
+	 * @param appDeploymentRepository the app deployment repository
+	 * @param releaseRepository the release repository
+	 * @param releaseStateUpdateService the service writing release statuses
+	 * @param skipperStateMachineService the skipper state machine service
+	 * @param properties the ingestion properties
+	 */
+	public DeploymentStateIngestionService(List<DeploymentStateEventSource> sources,
+			AppDeploymentRepository appDeploymentRepository, ReleaseRepository releaseRepository,
+			ReleaseStateUpdateService releaseStateUpdateService, SkipperStateMachineService skipperStateMachineService,
+			DeploymentStateIngestion properties) {
+		Assert.notNull(sources, "'sources' must be set");
+		Assert.notNull(appDeploymentRepository, "'appDeploymentRepository' must be set");
+		Assert.notNull(releaseRepository, "'releaseRepository' must be set");
+		Assert.notNull(releaseStateUpdateService, "'releaseStateUpdateService' must be set");
+		Assert.notNull(skipperStateMachineService, "'skipperStateMachineService' must be set");
+		Assert.notNull(properties, "'properties' must be set");
+		Assert.isTrue(properties.getMaxBatchSize() > 0, "'maxBatchSize' must be greater than zero");
+		this.sources = sources;
+		this.appDeploymentRepository = appDeploymentRepository;
+		this.releaseRepository = releaseRepository;
+		this.releaseStateUpdateService = releaseStateUpdateService;
+		this.skipperStateMachineService = skipperStateMachineService;
+		this.properties = properties;
+	}
+
+	@EventListener
+	public synchronized void initialize(ApplicationReadyEvent event) {
+		if (this.sources.isEmpty() || this.subscription != null) {
+			return;
+		}
+		logger.info("Ingesting deployment state events of {} sources", this.sources.size());
+		this.scheduler = Schedulers.newSingle("skipper-deployment-state-ingestion", true);
+		this.subscription = Flux.fromIterable(this.sources)
+			.flatMap(this::events)
+			.bufferTimeout(this.properties.getMaxBatchSize(),
+					Duration.ofMillis(this.properties.getCoalesceWindowInMillis()))
+			.publishOn(this.scheduler)
+			.subscribe(events -> {
+				try {
+					ingest(events);
+				}
+				catch (Exception e) {
+					logger.warn("Could not ingest {} deployment state events", events.size(), e);
+				}
+			});
+	}
+
+	@Override
+	public synchronized void destroy() {
+		if (this.subscription != null) {
+			this.subscription.dispose();
+			this.scheduler.dispose();
+		}
+	}
+
+	/**
+	 * Applies a batch of deployment state events.
+	 *
+	 * @param events the events in the order they were received
+	 */
+	public void ingest(List<DeploymentStateEvent> events) {
+		this.receivedCounter.increment(events.size());
+		Map<String, DeploymentStateEvent> coalesced = new LinkedHashMap<>();
+		for (DeploymentStateEvent event : events) {
+			coalesced.merge(event.getPlatformName() + ":" + event.getDeploymentId(), event,
+					(existing, replacing) -> existing.getTimestamp() > replacing.getTimestamp() ? existing
+							: replacing);
+		}
+		this.coalescedCounter.increment(events.size() - coalesced.size());
+
+		// latest releases keyed by name with the pushed statuses of their apps
+		Map<String, Release> releases = new LinkedHashMap<>();
+		Map<String, List<AppStatus>> appStatuses = new LinkedHashMap<>();
+		for (DeploymentStateEvent event : coalesced.values()) {
+			boolean matched = false;
+			for (AppDeployment appDeployment : this.appDeploymentRepository
+					.findByDeploymentIdOrderByReleaseVersionDesc(event.getDeploymentId())) {
+				Release release = releases.computeIfAbsent(appDeployment.getReleaseName(),
+						name -> this.releaseRepository.findTopByNameOrderByVersionDesc(name));
+				if (release != null && release.getVersion() == appDeployment.getReleaseVersion()
+						&& event.getPlatformName().equals(release.getPlatformName())) {
+					appStatuses.computeIfAbsent(release.getName(), name -> new ArrayList<>())
+						.add(event.getAppStatus());
+					matched = true;
+				}
+			}
+			if (!matched) {
+				logger.debug("No latest release found for {}", event);
+				this.unmatchedCounter.increment();
+			}
+		}
+
+		List<Release> updated = new ArrayList<>();
+		for (Map.Entry<String, List<AppStatus>> entry : appStatuses.entrySet()) {
+			Release release = releases.get(entry.getKey());
+			Status status = release.getInfo() != null ? release.getInfo().getStatus() : null;
+			if (status == null || status.getStatusCode() == null) {
+				continue;
+			}
+			this.appliedCounter.increment(entry.getValue().size());
+			if (status.getStatusCode() == StatusCode.UNKNOWN) {
+				// release is being upgraded, let the upgrade check its target apps
+				logger.debug("Checking upgrade of {}-v{}", release.getName(), release.getVersion());
+				this.skipperStateMachineService.checkUpgrade(release.getName());
+			}
+			else if (status.getStatusCode() != StatusCode.DELETED && status.getId() != null) {
+				status.setPlatformStatusAsAppStatusList(merge(status.getAppStatusList(), entry.getValue()));
+				updated.add(release);
+			}
+		}
+		if (!updated.isEmpty()) {
+			this.releaseStateUpdateService.updatePushed(updated);
+		}
+	}
+
+	private Flux<DeploymentStateEvent> events(DeploymentStateEventSource source) {
+		return Flux.defer(source::events)
+			.doOnError(e -> logger.warn("Deployment state events of {} failed", source, e))
+			.retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofMinutes(1)));
+	}
+
+	private static List<AppStatus> merge(List<AppStatus> current, List<AppStatus> pushed) {
+		Map<String, AppStatus> merged = new LinkedHashMap<>();
+		for (AppStatus appStatus : current) {
+			merged.put(appStatus.getDeploymentId(), appStatus);
+		}
+		for (AppStatus appStatus : pushed) {
+			merged.put(appStatus.getDeploymentId(), appStatus);
+		}
+		return new ArrayList<>(merged.values());
+	}
+}
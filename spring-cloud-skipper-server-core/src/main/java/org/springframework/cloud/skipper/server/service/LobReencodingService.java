@@ -0,0 +1,173 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties;
+import org.springframework.cloud.skipper.support.codec.LobCodecs;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Re-encodes existing values of large text columns with codecs currently configured in
+ * {@link LobCodecs}. Rows are processed in batches ordered by their key so that the
+ * whole table is never loaded at once. Rows whose encoding differs from the configured
+ * one are locked, read again and rewritten within a transaction, so a value written
+ * concurrently by the server is never replaced with a stale one.
+ * <p>
+ * Re-encoding starts once {@link PackageBlobMigrationService} has finished, which leaves
+ * no package JSON in releases and writes package blobs with the configured codec.
+ */
+public class LobReencodingService {
+
+	private static final Logger logger = LoggerFactory.getLogger(LobReencodingService.class);
+
+	private static final String[][] COLUMNS = {
+			{ LobCodecs.PACKAGE_BLOB_DATA, "skipper_package_blob", "hash", "data" },
+			{ LobCodecs.MANIFEST_DATA, "skipper_manifest", "id", "data" },
+			{ LobCodecs.STATUS_PLATFORM_STATUS, "skipper_status", "id", "platform_status" },
+			{ LobCodecs.APP_DEPLOYER_DATA, "skipper_app_deployer_data", "id", "deployment_data" } };
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final LobCodecs lobCodecs;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final PackageBlobMigrationService packageBlobMigrationService;
+
+	private final SkipperServerProperties.LobCompression lobCompression;
+
+	public LobReencodingService(DataSource dataSource, LobCodecs lobCodecs,
+			PackageBlobMigrationService packageBlobMigrationService,
+			SkipperServerProperties.LobCompression lobCompression) {
+		Assert.isTrue(lobCompression.getReencodeBatchSize() > 0, "reencodeBatchSize must be positive");
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.lobCodecs = lobCodecs;
+		this.jdbcTemplate.setMaxRows(lobCompression.getReencodeBatchSize());
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		this.packageBlobMigrationService = packageBlobMigrationService;
+		this.lobCompression = lobCompression;
+	}
+
+	@EventListener
+	public void initialize(ApplicationReadyEvent event) {
+		if (!this.lobCompression.isReencodeOnStartup()) {
+			return;
+		}
+		Thread thread = new Thread(() -> {
+			try {
+				this.packageBlobMigrationService.awaitMigration();
+				reencode();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			catch (Exception e) {
+				logger.warn("Re-encoding of existing rows failed", e);
+			}
+		}, "skipper-lob-reencode");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Re-encodes all rows of all supported columns.
+	 *
+	 * @return the number of rewritten rows
+	 */
+	public long reencode() {
+		long total = 0;
+		for (String[] column : COLUMNS) {
+			total += reencode(column[0], column[1], column[2], column[3]);
+		}
+		return total;
+	}
+
+	private long reencode(String column, String table, String idColumn, String columnName) {
+		String select = "select " + idColumn + ", " + columnName + " from " + table;
+		String selectFirst = select + " order by " + idColumn;
+		String selectNext = select + " where " + idColumn + " > ? order by " + idColumn;
+		String lock = "update " + table + " set " + columnName + " = " + columnName + " where " + idColumn + " = ?";
+		String selectLocked = "select " + columnName + " from " + table + " where " + idColumn + " = ?";
+		String update = "update " + table + " set " + columnName + " = ? where " + idColumn + " = ?";
+		long start = System.currentTimeMillis();
+		long count = 0;
+		Object lastId = null;
+		while (true) {
+			List<Object> ids = new ArrayList<>();
+			List<Object> candidates = new ArrayList<>();
+			RowCallbackHandler handler = rs -> {
+				Object id = rs.getObject(1);
+				ids.add(id);
+				if (!this.lobCodecs.isEncodedForColumn(column, rs.getString(2))) {
+					candidates.add(id);
+				}
+			};
+			if (lastId == null) {
+				this.jdbcTemplate.query(selectFirst, handler);
+			}
+			else {
+				this.jdbcTemplate.query(selectNext, handler, lastId);
+			}
+			if (!candidates.isEmpty()) {
+				Integer rewritten = this.transactionTemplate
+						.execute(status -> rewrite(column, lock, selectLocked, update, candidates));
+				count += rewritten != null ? rewritten : 0;
+			}
+			if (ids.size() < this.lobCompression.getReencodeBatchSize()) {
+				break;
+			}
+			lastId = ids.get(ids.size() - 1);
+		}
+		logger.info("Re-encoded {} rows of {}.{} with codec '{}' in {}ms", count, table, columnName,
+				this.lobCodecs.getColumnCodec(column), System.currentTimeMillis() - start);
+		return count;
+	}
+
+	private int rewrite(String column, String lock, String selectLocked, String update, List<Object> ids) {
+		List<Object[]> batch = new ArrayList<>();
+		for (Object id : ids) {
+			// a no-op update locks the row on every supported database until the
+			// transaction ends, so the value read next can't be changed before it's rewritten
+			this.jdbcTemplate.update(lock, id);
+			List<String> values = this.jdbcTemplate.queryForList(selectLocked, String.class, id);
+			if (values.isEmpty()) {
+				continue;
+			}
+			String value = values.get(0);
+			if (!this.lobCodecs.isEncodedForColumn(column, value)) {
+				batch.add(new Object[] { this.lobCodecs.encode(column, this.lobCodecs.decode(value)), id });
+			}
+		}
+		if (!batch.isEmpty()) {
+			this.jdbcTemplate.batchUpdate(update, batch);
+		}
+		return batch.size();
+	}
+}
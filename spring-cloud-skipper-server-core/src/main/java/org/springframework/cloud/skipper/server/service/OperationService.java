@@ -0,0 +1,156 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.skipper.OperationNotFoundException;
+import org.springframework.cloud.skipper.SkipperException;
+import org.springframework.cloud.skipper.domain.Operation;
+import org.springframework.cloud.skipper.domain.OperationState;
+import org.springframework.cloud.skipper.domain.OperationType;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.Operations;
+import org.springframework.cloud.skipper.server.repository.jpa.OperationRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * Runs release operations asynchronously, so that requests don't need to wait for
+ * deployments. Every operation is recorded as an {@link Operation} which is updated as
+ * the operation runs and can be looked up with its id until it's done.
+ * <p>
+ * Operations are run by a bounded pool of workers and rejected once its queue is full.
+ * Operations which were not done when the server stopped are failed when it starts
+ * again.
+ */
+public class OperationService implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(OperationService.class);
+
+	private final OperationRepository operationRepository;
+
+	private final ThreadPoolTaskExecutor executor;
+
+	/**
+	 * Instantiates a new operation service.
+	 *
+	 * @param operationRepository the operation repository
+	 * @param operations the operation properties
+	 */
+	public OperationService(OperationRepository operationRepository, Operations operations) {
+		Assert.notNull(operationRepository, "'operationRepository' must be set");
+		Assert.notNull(operations, "'operations' must be set");
+		Assert.isTrue(operations.getWorkers() > 0, "'workers' must be greater than zero");
+		this.operationRepository = operationRepository;
+		this.executor = new ThreadPoolTaskExecutor();
+		this.executor.setCorePoolSize(operations.getWorkers());
+		this.executor.setMaxPoolSize(operations.getWorkers());
+		this.executor.setQueueCapacity(operations.getQueueCapacity());
+		this.executor.setThreadNamePrefix("skipper-operation-");
+		this.executor.initialize();
+	}
+
+	@EventListener
+	public void initialize(ApplicationReadyEvent event) {
+		List<Operation> interrupted = this.operationRepository
+				.findByStateIn(Arrays.asList(OperationState.PENDING, OperationState.RUNNING));
+		for (Operation operation : interrupted) {
+			operation.setState(OperationState.FAILED);
+			operation.setMessage("Operation was interrupted by a server restart, check the release status");
+			operation.setUpdated(new Date());
+			this.operationRepository.save(operation);
+		}
+		if (!interrupted.isEmpty()) {
+			logger.info("Failed {} operations interrupted by a server restart", interrupted.size());
+		}
+	}
+
+	@Override
+	public void destroy() {
+		this.executor.shutdown();
+	}
+
+	/**
+	 * Submits an operation to be run asynchronously.
+	 *
+	 * @param type the operation type
+	 * @param releaseName the name of the release the operation is run for
+	 * @param operation the operation returning the resulting release
+	 * @return the pending operation
+	 */
+	public Operation submit(OperationType type, String releaseName, Supplier<Release> operation) {
+		Operation submitted = this.operationRepository
+				.save(new Operation(UUID.randomUUID().toString(), type, releaseName));
+		try {
+			this.executor.execute(() -> run(submitted.getId(), operation));
+		}
+		catch (TaskRejectedException e) {
+			update(submitted.getId(), OperationState.FAILED, null, "Too many operations are running");
+			throw new SkipperException("Too many operations are running, try again later", e);
+		}
+		logger.debug("Submitted {}", submitted);
+		return submitted;
+	}
+
+	/**
+	 * Gets an operation.
+	 *
+	 * @param id the operation id
+	 * @return the operation
+	 * @throws OperationNotFoundException if operation doesn't exist
+	 */
+	public Operation get(String id) {
+		return this.operationRepository.findById(id).orElseThrow(() -> new OperationNotFoundException(id));
+	}
+
+	private void run(String id, Supplier<Release> operation) {
+		update(id, OperationState.RUNNING, null, null);
+		try {
+			Release release = operation.get();
+			update(id, OperationState.SUCCEEDED, release != null ? release.getVersion() : null, null);
+		}
+		catch (Exception e) {
+			logger.warn("Operation {} failed", id, e);
+			update(id, OperationState.FAILED, null, e.getMessage() != null ? e.getMessage() : e.toString());
+		}
+	}
+
+	private void update(String id, OperationState state, Integer releaseVersion, String message) {
+		Operation operation = get(id);
+		operation.setState(state);
+		if (releaseVersion != null) {
+			operation.setReleaseVersion(releaseVersion);
+		}
+		if (message != null && message.length() > Operation.MESSAGE_LENGTH) {
+			message = message.substring(0, Operation.MESSAGE_LENGTH);
+		}
+		operation.setMessage(message);
+		operation.setUpdated(new Date());
+		this.operationRepository.save(operation);
+	}
+}
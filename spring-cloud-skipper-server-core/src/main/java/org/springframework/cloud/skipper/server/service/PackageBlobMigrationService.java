@@ -0,0 +1,142 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.skipper.domain.PackageBlob;
+import org.springframework.cloud.skipper.support.codec.LobCodecs;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Moves package JSON of releases stored before packages were kept in
+ * {@link PackageBlob}s into shared blobs. Releases are processed in batches ordered by
+ * id in a background thread after the server has started. Releases which are not yet
+ * migrated are still readable, so the server is usable while this is running.
+ */
+public class PackageBlobMigrationService {
+
+	private static final Logger logger = LoggerFactory.getLogger(PackageBlobMigrationService.class);
+
+	private static final String SELECT_RELEASES = "select id, pkg_json_string from skipper_release "
+			+ "where id > ? and pkg_hash is null and pkg_json_string is not null order by id";
+
+	private static final String COUNT_BLOBS = "select count(*) from skipper_package_blob where hash = ?";
+
+	private static final String INSERT_BLOB = "insert into skipper_package_blob (hash, data) values (?, ?)";
+
+	private static final String UPDATE_RELEASE = "update skipper_release set pkg_hash = ?, pkg_json_string = null "
+			+ "where id = ? and pkg_hash is null";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final LobCodecs lobCodecs;
+
+	private final int batchSize;
+
+	private final CountDownLatch finished = new CountDownLatch(1);
+
+	public PackageBlobMigrationService(DataSource dataSource, LobCodecs lobCodecs, int batchSize) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.lobCodecs = lobCodecs;
+		this.jdbcTemplate.setMaxRows(batchSize);
+		this.batchSize = batchSize;
+	}
+
+	@EventListener
+	public void initialize(ApplicationReadyEvent event) {
+		Thread thread = new Thread(() -> {
+			try {
+				migrate();
+			}
+			catch (Exception e) {
+				logger.warn("Migration of release packages into package blobs failed", e);
+			}
+			finally {
+				this.finished.countDown();
+			}
+		}, "skipper-package-blob-migration");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Waits until the migration started after the server has started is finished,
+	 * whether it succeeded or not.
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void awaitMigration() throws InterruptedException {
+		this.finished.await();
+	}
+
+	/**
+	 * Migrates all releases not yet referencing a package blob.
+	 *
+	 * @return the number of migrated releases
+	 */
+	public long migrate() {
+		long start = System.currentTimeMillis();
+		long count = 0;
+		long lastId = 0;
+		while (true) {
+			List<Long> ids = new ArrayList<>();
+			List<String> values = new ArrayList<>();
+			this.jdbcTemplate.query(SELECT_RELEASES, rs -> {
+				ids.add(rs.getLong(1));
+				values.add(rs.getString(2));
+			}, lastId);
+			for (int i = 0; i < ids.size(); i++) {
+				PackageBlob pkgBlob = PackageBlob.from(PackageBlob.read(this.lobCodecs.decode(values.get(i))));
+				saveBlob(pkgBlob);
+				count += this.jdbcTemplate.update(UPDATE_RELEASE, pkgBlob.getHash(), ids.get(i));
+			}
+			if (ids.size() < this.batchSize) {
+				break;
+			}
+			lastId = ids.get(ids.size() - 1);
+		}
+		if (count > 0) {
+			logger.info("Migrated packages of {} releases into package blobs in {}ms", count,
+					System.currentTimeMillis() - start);
+		}
+		return count;
+	}
+
+	private void saveBlob(PackageBlob pkgBlob) {
+		Integer existing = this.jdbcTemplate.queryForObject(COUNT_BLOBS, Integer.class, pkgBlob.getHash());
+		if (existing != null && existing > 0) {
+			return;
+		}
+		try {
+			this.jdbcTemplate.update(INSERT_BLOB, pkgBlob.getHash(),
+					this.lobCodecs.encode(LobCodecs.PACKAGE_BLOB_DATA, pkgBlob.getData()));
+		}
+		catch (DuplicateKeyException e) {
+			// stored concurrently by a release save
+		}
+	}
+}
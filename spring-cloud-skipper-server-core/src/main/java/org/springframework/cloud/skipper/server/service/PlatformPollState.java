@@ -0,0 +1,178 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.TreeSet;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * State of release status polling of a single platform account. Each platform polls on its
+ * own bounded scheduler, so a slow platform can't take workers of others, and has a
+ * circuit breaker which skips polls of the platform for a cool-down period after
+ * consecutive failures. Releases whose last poll failed or was skipped keep their last
+ * known status and are reported as stale.
+ */
+public class PlatformPollState {
+
+	/**
+	 * States of the circuit breaker of a platform.
+	 */
+	public enum CircuitState {
+
+		/**
+		 * Releases of the platform are polled.
+		 */
+		CLOSED,
+
+		/**
+		 * Polls of the platform are skipped until the cool-down period is over.
+		 */
+		OPEN,
+
+		/**
+		 * Cool-down period is over and the next poll results decide if the circuit closes.
+		 */
+		HALF_OPEN
+	}
+
+	private final String platformName;
+
+	private final int failureThreshold;
+
+	private final long coolDownInMillis;
+
+	private final Scheduler scheduler;
+
+	private final Set<String> staleReleases = new TreeSet<>();
+
+	private CircuitState circuitState = CircuitState.CLOSED;
+
+	private int consecutiveFailures;
+
+	private long openUntil;
+
+	private Date lastSuccess;
+
+	private Date lastFailure;
+
+	private String lastError;
+
+	PlatformPollState(String platformName, int workers, int failureThreshold, long coolDownInMillis) {
+		this.platformName = platformName;
+		this.failureThreshold = failureThreshold;
+		this.coolDownInMillis = coolDownInMillis;
+		this.scheduler = Schedulers.newBoundedElastic(workers, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE,
+				"skipper-release-state-" + platformName, 60, true);
+	}
+
+	public String getPlatformName() {
+		return platformName;
+	}
+
+	public synchronized CircuitState getCircuitState() {
+		return circuitState;
+	}
+
+	public synchronized int getConsecutiveFailures() {
+		return consecutiveFailures;
+	}
+
+	public synchronized Date getLastSuccess() {
+		return lastSuccess;
+	}
+
+	public synchronized Date getLastFailure() {
+		return lastFailure;
+	}
+
+	public synchronized String getLastError() {
+		return lastError;
+	}
+
+	public synchronized Set<String> getStaleReleases() {
+		return new TreeSet<>(staleReleases);
+	}
+
+	Scheduler getScheduler() {
+		return scheduler;
+	}
+
+	synchronized long getOpenUntil() {
+		return openUntil;
+	}
+
+	/**
+	 * Checks if releases of the platform may be polled. An open circuit becomes half open
+	 * once its cool-down period is over.
+	 *
+	 * @param now the current time
+	 * @return true if releases may be polled
+	 */
+	synchronized boolean allowPoll(long now) {
+		if (this.circuitState == CircuitState.OPEN && now >= this.openUntil) {
+			this.circuitState = CircuitState.HALF_OPEN;
+		}
+		return this.circuitState != CircuitState.OPEN;
+	}
+
+	/**
+	 * Records a successful poll of a release, which closes the circuit.
+	 *
+	 * @param releaseName the name of the polled release
+	 * @param now the current time, from the same clock as given to {@link #allowPoll(long)}
+	 */
+	synchronized void recordSuccess(String releaseName, long now) {
+		this.circuitState = CircuitState.CLOSED;
+		this.consecutiveFailures = 0;
+		this.lastSuccess = new Date(now);
+		this.staleReleases.remove(releaseName);
+	}
+
+	/**
+	 * Records a failed poll of a release. The circuit opens for the cool-down period once
+	 * the failure threshold is reached or if a poll of a half open circuit fails.
+	 *
+	 * @param releaseName the name of the polled release
+	 * @param error the cause of the failure
+	 * @param now the current time, from the same clock as given to {@link #allowPoll(long)}
+	 */
+	synchronized void recordFailure(String releaseName, Throwable error, long now) {
+		this.consecutiveFailures++;
+		this.lastFailure = new Date(now);
+		this.lastError = error.toString();
+		this.staleReleases.add(releaseName);
+		if (this.circuitState == CircuitState.HALF_OPEN || this.consecutiveFailures >= this.failureThreshold) {
+			this.circuitState = CircuitState.OPEN;
+			this.openUntil = now + this.coolDownInMillis;
+		}
+	}
+
+	synchronized void markStale(String releaseName) {
+		this.staleReleases.add(releaseName);
+	}
+
+	synchronized void retainReleases(Set<String> releaseNames) {
+		this.staleReleases.retainAll(releaseNames);
+	}
+
+	void dispose() {
+		this.scheduler.dispose();
+	}
+}
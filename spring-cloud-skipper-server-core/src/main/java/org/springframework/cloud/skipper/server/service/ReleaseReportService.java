@@ -16,7 +16,14 @@
 package org.springframework.cloud.skipper.server.service;
 
 import java.util.Map;
-
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 
@@ -43,10 +50,30 @@ import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 /**
+ * Creates {@link ReleaseAnalysisReport}s for upgrades. A report is fully computed only
+ * once per replacing release and kept in a store keyed by release name and version, so
+ * that the periodic upgrade checks and the final accept/cancel steps don't need to
+ * download the package and render the manifest again. Releases within a reused report
+ * are reloaded from the database so that callers always work with current entity
+ * versions.
+ *
  * @author Mark Pollack
  */
 public class ReleaseReportService {
 
+	private static final Logger log = LoggerFactory.getLogger(ReleaseReportService.class);
+
+	private static final String REPORT_METER_NAME = "skipper.release.report";
+
+	private final Counter rebuiltCounter = Metrics.counter(REPORT_METER_NAME, "result", "rebuilt");
+
+	private final Counter reusedCounter = Metrics.counter(REPORT_METER_NAME, "result", "reused");
+
+	private final Cache<String, ReleaseAnalysisReport> reports = Caffeine.newBuilder()
+			.expireAfterAccess(1, TimeUnit.HOURS)
+			.maximumSize(1000)
+			.build();
+
 	private final PackageMetadataRepository packageMetadataRepository;
 
 	private final ReleaseRepository releaseRepository;
@@ -67,7 +94,9 @@ public class ReleaseReportService {
 
 	/**
 	 * Merges the configuration values for the replacing release, creates the manfiest, and
-	 * creates the Report for the next stage of upgrading a Release.
+	 * creates the Report for the next stage of upgrading a Release. If not an initial
+	 * report creation, a previously created report for the same replacing release is
+	 * reused if available.
 	 *
 	 * @param upgradeRequest containing the {@link UpgradeProperties} and
 	 * {@link PackageIdentifier} for the update.
@@ -82,8 +111,16 @@ public class ReleaseReportService {
 		Assert.notNull(upgradeRequest.getUpgradeProperties(), "UpgradeProperties can not be null");
 		Assert.notNull(upgradeRequest.getPackageIdentifier(), "PackageIdentifier can not be null");
 		UpgradeProperties upgradeProperties = upgradeRequest.getUpgradeProperties();
-		Release existingRelease = this.releaseRepository.findLatestReleaseForUpdate(upgradeProperties.getReleaseName());
 		Release latestRelease = this.releaseRepository.findLatestRelease(upgradeProperties.getReleaseName());
+		if (!initial) {
+			ReleaseAnalysisReport storedReport = this.reports
+					.getIfPresent(reportKey(latestRelease.getName(), latestRelease.getVersion()));
+			if (storedReport != null) {
+				this.reusedCounter.increment();
+				return reuseReport(storedReport, latestRelease);
+			}
+		}
+		Release existingRelease = this.releaseRepository.findLatestReleaseForUpdate(upgradeProperties.getReleaseName());
 		PackageIdentifier packageIdentifier = upgradeRequest.getPackageIdentifier();
 		PackageMetadata packageMetadata = this.packageMetadataRepository.findByNameAndOptionalVersionRequired(
 				packageIdentifier.getPackageName(),
@@ -115,8 +152,36 @@ public class ReleaseReportService {
 		// TODO: should check both releases
 		String kind = ManifestUtils.resolveKind(existingRelease.getManifest().getData());
 		ReleaseManager releaseManager = this.releaseManagerFactory.getReleaseManager(kind);
-		return releaseManager.createReport(existingRelease, replacingRelease, initial, upgradeRequest.isForce(),
-				upgradeRequest.getAppNames());
+		ReleaseAnalysisReport releaseAnalysisReport = releaseManager.createReport(existingRelease, replacingRelease,
+				initial, upgradeRequest.isForce(), upgradeRequest.getAppNames());
+		this.rebuiltCounter.increment();
+		this.reports.put(reportKey(replacingRelease.getName(), replacingRelease.getVersion()), releaseAnalysisReport);
+		return releaseAnalysisReport;
+	}
+
+	/**
+	 * Removes a stored report of a replacing release as its upgrade has been either
+	 * accepted or cancelled.
+	 *
+	 * @param releaseAnalysisReport the release analysis report
+	 */
+	public void evictReport(ReleaseAnalysisReport releaseAnalysisReport) {
+		Release replacingRelease = releaseAnalysisReport.getReplacingRelease();
+		this.reports.invalidate(reportKey(replacingRelease.getName(), replacingRelease.getVersion()));
+	}
+
+	private ReleaseAnalysisReport reuseReport(ReleaseAnalysisReport storedReport, Release latestRelease) {
+		log.debug("Reusing release analysis report for {}-v{}", latestRelease.getName(), latestRelease.getVersion());
+		Release existingRelease = storedReport.getExistingRelease();
+		if (existingRelease.getId() != null) {
+			existingRelease = this.releaseRepository.findById(existingRelease.getId()).orElse(existingRelease);
+		}
+		return new ReleaseAnalysisReport(storedReport.getApplicationNamesToUpgrade(),
+				storedReport.getReleaseDifference(), existingRelease, latestRelease);
+	}
+
+	private static String reportKey(String releaseName, int releaseVersion) {
+		return releaseName + "-v" + releaseVersion;
 	}
 
 	private Release updateReplacingReleaseConfigValues(Release targetRelease, Release replacingRelease) {
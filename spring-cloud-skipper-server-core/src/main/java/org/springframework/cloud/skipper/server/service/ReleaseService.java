@@ -15,8 +15,11 @@
  */
 package org.springframework.cloud.skipper.server.service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,8 +27,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 import org.springframework.cloud.deployer.spi.app.DeploymentState;
+import org.springframework.cloud.skipper.InvalidPageRequestException;
 import org.springframework.cloud.skipper.PackageDeleteException;
 import org.springframework.cloud.skipper.ReleaseNotFoundException;
 import org.springframework.cloud.skipper.SkipperException;
@@ -38,6 +45,7 @@ import org.springframework.cloud.skipper.domain.Package;
 import org.springframework.cloud.skipper.domain.PackageIdentifier;
 import org.springframework.cloud.skipper.domain.PackageMetadata;
 import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.ReleasePage;
 import org.springframework.cloud.skipper.domain.ScaleRequest;
 import org.springframework.cloud.skipper.domain.StatusCode;
 import org.springframework.cloud.skipper.server.deployer.ReleaseAnalysisReport;
@@ -49,7 +57,9 @@ import org.springframework.cloud.skipper.server.repository.map.DeployerRepositor
 import org.springframework.cloud.skipper.server.util.ArgumentSanitizer;
 import org.springframework.cloud.skipper.server.util.ConfigValueUtils;
 import org.springframework.cloud.skipper.server.util.ManifestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
@@ -67,6 +77,11 @@ import org.springframework.util.StringUtils;
  */
 public class ReleaseService {
 
+	/**
+	 * Maximum number of releases returned in a single page.
+	 */
+	public static final int MAX_PAGE_SIZE = 1000;
+
 	private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
 	private final PackageMetadataRepository packageMetadataRepository;
@@ -81,18 +96,26 @@ public class ReleaseService {
 
 	private PackageMetadataService packageMetadataService;
 
+	private final ReleaseStatusSnapshotStore releaseStatusSnapshotStore;
+
+	private final PlatformTransactionManager transactionManager;
+
 	public ReleaseService(PackageMetadataRepository packageMetadataRepository,
 			ReleaseRepository releaseRepository,
 			PackageService packageService,
 			ReleaseManagerFactory releaseManagerFactory,
 			DeployerRepository deployerRepository,
-			PackageMetadataService packageMetadataService) {
+			PackageMetadataService packageMetadataService,
+			ReleaseStatusSnapshotStore releaseStatusSnapshotStore,
+			PlatformTransactionManager transactionManager) {
 		this.packageMetadataRepository = packageMetadataRepository;
 		this.releaseRepository = releaseRepository;
 		this.packageService = packageService;
 		this.releaseManagerFactory = releaseManagerFactory;
 		this.deployerRepository = deployerRepository;
 		this.packageMetadataService = packageMetadataService;
+		this.releaseStatusSnapshotStore = releaseStatusSnapshotStore;
+		this.transactionManager = transactionManager;
 	}
 
 	/**
@@ -196,6 +219,7 @@ public class ReleaseService {
 		String kind = ManifestUtils.resolveKind(release.getManifest().getData());
 		ReleaseManager releaseManager = this.releaseManagerFactory.getReleaseManager(kind);
 		Release releaseToReturn = releaseManager.install(release);
+		this.releaseStatusSnapshotStore.put(releaseToReturn);
 		return releaseToReturn;
 	}
 
@@ -239,7 +263,9 @@ public class ReleaseService {
 		}
 		String kind = ManifestUtils.resolveKind(releaseToDelete.getManifest().getData());
 		ReleaseManager releaseManager = this.releaseManagerFactory.getReleaseManager(kind);
-		return releaseManager.delete(releaseToDelete);
+		Release deletedRelease = releaseManager.delete(releaseToDelete);
+		this.releaseStatusSnapshotStore.put(deletedRelease);
+		return deletedRelease;
 	}
 
 	/**
@@ -250,17 +276,35 @@ public class ReleaseService {
 	 */
 	@Transactional
 	public Mono<Map<String, Info>> statusReactive(String[] releaseNames) {
+		return statusReactive(releaseNames, null);
+	}
+
+	/**
+	 * Return the current statuses of the releases, using status snapshots not older than
+	 * the given max staleness.
+	 *
+	 * @param releaseNames array of release names
+	 * @param maxStalenessInMillis max age of used status snapshots, or null to use the
+	 * default and serve older snapshots while they're revalidated
+	 * @return The latest state of the release as stored in the database
+	 * @see ReleaseStatusSnapshotStore
+	 */
+	@Transactional
+	public Mono<Map<String, Info>> statusReactive(String[] releaseNames, Long maxStalenessInMillis) {
 		return Flux.fromArray(releaseNames)
 			.flatMap(releaseName -> {
 				Release release = this.releaseRepository.findTopByNameOrderByVersionDesc(releaseName);
 				return Mono.justOrEmpty(release);
 			})
 			.flatMap(release -> {
-				String kind = ManifestUtils.resolveKind(release.getManifest().getData());
-				ReleaseManager releaseManager = this.releaseManagerFactory.getReleaseManager(kind);
-				return releaseManager.statusReactive(release);
+				ReleaseStatusSnapshotStore.Snapshot snapshot = this.releaseStatusSnapshotStore.get(release,
+						maxStalenessInMillis, () -> revalidate(release));
+				if (snapshot != null) {
+					return Mono.just(Tuples.of(release.getName(), snapshot.toInfo(release.getInfo())));
+				}
+				return computeStatus(release).map(r -> Tuples.of(r.getName(), r.getInfo()));
 			})
-			.collectMap(release -> release.getName(), release -> release.getInfo());
+			.collectMap(Tuple2::getT1, Tuple2::getT2);
 	}
 
 	/**
@@ -271,8 +315,33 @@ public class ReleaseService {
 	 */
 	@Transactional
 	public Mono<Map<String, Map<String, DeploymentState>>> states(String[] releaseNames) {
+		return states(releaseNames, null);
+	}
+
+	/**
+	 * Return the current deployment states of the releases, using status snapshots not older
+	 * than the given max staleness.
+	 *
+	 * @param releaseNames array of release names
+	 * @param maxStalenessInMillis max age of used status snapshots, or null to use the
+	 * default and serve older snapshots while they're revalidated
+	 * @return The latest state of the release as stored in the database
+	 * @see ReleaseStatusSnapshotStore
+	 */
+	@Transactional
+	public Mono<Map<String, Map<String, DeploymentState>>> states(String[] releaseNames, Long maxStalenessInMillis) {
+		Map<String, Map<String, DeploymentState>> snapshotStates = new HashMap<>();
 		return Flux.fromArray(releaseNames)
 			.flatMap(releaseName -> Mono.justOrEmpty(this.releaseRepository.findTopByNameOrderByVersionDesc(releaseName)))
+			.filter(release -> {
+				ReleaseStatusSnapshotStore.Snapshot snapshot = this.releaseStatusSnapshotStore.get(release,
+						maxStalenessInMillis, () -> revalidate(release));
+				if (snapshot != null) {
+					snapshotStates.put(release.getName(), snapshot.getDeploymentStates());
+					return false;
+				}
+				return true;
+			})
 			.collectMultimap(release -> {
 				String kind = ManifestUtils.resolveKind(release.getManifest().getData());
 				return this.releaseManagerFactory.getReleaseManager(kind);
@@ -280,13 +349,41 @@ public class ReleaseService {
 			.flatMap(m -> {
 				return Flux.fromIterable(m.entrySet())
 					.flatMap(e -> e.getKey().deploymentState(new ArrayList<>(e.getValue())))
-					.reduce((to, from) -> {
+					.reduce(snapshotStates, (to, from) -> {
 						to.putAll(from);
 						return to;
 					});
 			});
 	}
 
+	private Mono<Release> computeStatus(Release release) {
+		String kind = ManifestUtils.resolveKind(release.getManifest().getData());
+		ReleaseManager releaseManager = this.releaseManagerFactory.getReleaseManager(kind);
+		return releaseManager.statusReactive(release).doOnNext(this.releaseStatusSnapshotStore::put);
+	}
+
+	/**
+	 * Refreshes the status snapshot of a release in the background after an operation,
+	 * such as accepting, cancelling or rolling back an upgrade, has changed its apps.
+	 *
+	 * @param release the latest release
+	 * @see ReleaseStatusSnapshotStore
+	 */
+	public void refreshStatusSnapshot(Release release) {
+		computeStatus(release)
+			.subscribeOn(Schedulers.boundedElastic())
+			.subscribe(r -> {
+			}, e -> logger.warn("Could not refresh status of release " + release.getName(), e));
+	}
+
+	private void revalidate(Release release) {
+		computeStatus(release)
+			.subscribeOn(Schedulers.boundedElastic())
+			.doFinally(signal -> this.releaseStatusSnapshotStore.revalidated(release.getName()))
+			.subscribe(r -> {
+			}, e -> logger.warn("Could not revalidate status of release " + release.getName(), e));
+	}
+
 	/**
 	 * Return the current status of the release
 	 * @param releaseName the name of the release
@@ -441,4 +538,90 @@ public class ReleaseService {
 		return this.releaseRepository.findLatestDeployedOrFailed();
 	}
 
+	/**
+	 * Get a page of the latest revision of releases with status of deployed or failed
+	 * state. Releases are ordered by name and paged using the name and version of the
+	 * last release of a previous page encoded into a cursor token.
+	 *
+	 * @param releaseNameLike the wildcard name of releases to search for, may be null
+	 * @param cursor the cursor returned with a previous page, null for a first page
+	 * @param pageSize the maximum number of releases in a page
+	 * @return the page of matching releases
+	 * @throws InvalidPageRequestException if the page size is out of range or the cursor is
+	 * invalid
+	 */
+	@Transactional(readOnly = true)
+	public ReleasePage list(String releaseNameLike, String cursor, int pageSize) {
+		validatePageSize(pageSize);
+		return findPage(releaseNameLike, cursor, pageSize);
+	}
+
+	/**
+	 * Stream the latest revision of releases with status of deployed or failed state.
+	 * Releases are read in batches of a given size so that the whole list is never held
+	 * in memory. Every batch is read in a read-only transaction of its own.
+	 *
+	 * @param releaseNameLike the wildcard name of releases to search for, may be null
+	 * @param batchSize the number of releases to read from the database at a time
+	 * @return the flux of matching releases
+	 * @throws InvalidPageRequestException if the batch size is out of range
+	 */
+	public Flux<Release> listStream(String releaseNameLike, int batchSize) {
+		validatePageSize(batchSize);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+		transactionTemplate.setReadOnly(true);
+		return Mono.fromSupplier(() -> transactionTemplate.execute(
+				status -> findPage(releaseNameLike, null, batchSize)))
+				.expand(page -> page.getNextCursor() != null
+						? Mono.fromSupplier(() -> transactionTemplate.execute(
+								status -> findPage(releaseNameLike, page.getNextCursor(), batchSize)))
+						: Mono.empty())
+				.concatMapIterable(ReleasePage::getReleases)
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	/**
+	 * Checks that a page size is within the allowed range.
+	 *
+	 * @param pageSize the page size
+	 * @throws InvalidPageRequestException if the page size is out of range
+	 */
+	public static void validatePageSize(int pageSize) {
+		if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+			throw new InvalidPageRequestException(
+					"Page size must be between 1 and " + MAX_PAGE_SIZE + " but was " + pageSize);
+		}
+	}
+
+	private ReleasePage findPage(String releaseNameLike, String cursor, int pageSize) {
+		String afterName = "";
+		int afterVersion = 0;
+		if (StringUtils.hasText(cursor)) {
+			try {
+				String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+				int index = decoded.lastIndexOf(':');
+				afterName = decoded.substring(0, index);
+				afterVersion = Integer.parseInt(decoded.substring(index + 1));
+			}
+			catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+				throw new InvalidPageRequestException("Invalid release list cursor " + cursor, e);
+			}
+		}
+		// fetch one extra release to find out if there is a next page
+		List<Release> releases = this.releaseRepository.findLatestDeployedOrFailed(releaseNameLike, afterName,
+				afterVersion, pageSize + 1);
+		String nextCursor = null;
+		if (releases.size() > pageSize) {
+			releases = new ArrayList<>(releases.subList(0, pageSize));
+			Release last = releases.get(pageSize - 1);
+			nextCursor = encodeCursor(last.getName(), last.getVersion());
+		}
+		return new ReleasePage(releases, nextCursor);
+	}
+
+	private static String encodeCursor(String releaseName, int releaseVersion) {
+		String value = releaseName + ":" + releaseVersion;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+
 }
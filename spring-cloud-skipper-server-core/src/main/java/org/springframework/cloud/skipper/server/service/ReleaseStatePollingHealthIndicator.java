@@ -0,0 +1,52 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+
+/**
+ * Reports release state polling of every platform, including its circuit state and
+ * releases whose status is stale. Platforms which can't be polled don't make the server
+ * unhealthy as only status updates of their releases are affected.
+ */
+public class ReleaseStatePollingHealthIndicator extends AbstractHealthIndicator {
+
+	private final ReleaseStateUpdateService releaseStateUpdateService;
+
+	public ReleaseStatePollingHealthIndicator(ReleaseStateUpdateService releaseStateUpdateService) {
+		super("Release state polling health check failed");
+		this.releaseStateUpdateService = releaseStateUpdateService;
+	}
+
+	@Override
+	protected void doHealthCheck(Health.Builder builder) {
+		builder.up();
+		for (PlatformPollState platform : this.releaseStateUpdateService.getPlatformPollStates()) {
+			Map<String, Object> details = new LinkedHashMap<>();
+			details.put("circuitState", platform.getCircuitState());
+			details.put("consecutiveFailures", platform.getConsecutiveFailures());
+			details.put("lastSuccess", platform.getLastSuccess());
+			details.put("lastFailure", platform.getLastFailure());
+			details.put("lastError", platform.getLastError());
+			details.put("staleReleases", platform.getStaleReleases());
+			builder.withDetail(platform.getPlatformName(), details);
+		}
+	}
+}
@@ -15,123 +15,457 @@
  */
 package org.springframework.cloud.skipper.server.service;
 
-import java.util.Date;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cloud.skipper.domain.Info;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.Status;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.ReleaseStatePolling;
 import org.springframework.cloud.skipper.server.deployer.ReleaseManager;
 import org.springframework.cloud.skipper.server.deployer.ReleaseManagerFactory;
 import org.springframework.cloud.skipper.server.repository.jpa.ReleaseRepository;
 import org.springframework.cloud.skipper.server.util.ManifestUtils;
+import org.springframework.cloud.skipper.support.codec.LobCodecs;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
 /**
  * Service which schedules background updates for applications known to
  * {@link ReleaseRepository}.
+ * <p>
+ * The latest deployed or failed releases are loaded from the repository with the
+ * reconcile interval, which is longer than the interval the poll schedule is checked
+ * with, as loading them is more expensive than polling the releases due.
+ * <p>
+ * Every release has its own next poll time kept in a priority queue. Releases are polled
+ * with the minimum interval after they were deployed or their state changed, and back off
+ * exponentially up to the maximum interval while their state stays the same.
+ * <p>
+ * Releases of each platform are polled by a bounded pool of workers of their own with a
+ * timeout, and polls of a platform are skipped for a cool-down period after consecutive
+ * failures. See {@link PlatformPollState}.
+ * <p>
+ * Platform statuses are only written when their fingerprint has changed, and changed
+ * statuses of a single update are written with one batched statement.
+ * <p>
+ * Statuses pushed by platforms are written the same way, see
+ * {@link DeploymentStateIngestionService}. Releases which had a status pushed since their
+ * last poll and whose poll found no change are polled with the maximum interval, so
+ * polling only reconciles missed events.
  *
  * @author Janne Valkealahti
  * @author Glenn Renfro
  *
  */
-public class ReleaseStateUpdateService {
+public class ReleaseStateUpdateService implements DisposableBean {
 
 	private static final Logger log = LoggerFactory.getLogger(ReleaseStateUpdateService.class);
 
+	private static final String UPDATE_PLATFORM_STATUS = "update skipper_status set platform_status = ? where id = ?";
+
 	private final ReleaseManagerFactory releaseManagerFactory;
 
 	private final ReleaseRepository releaseRepository;
 
-	private long nextFullPoll;
+	private final JdbcTemplate jdbcTemplate;
+
+	private final LobCodecs lobCodecs;
+
+	private final ReleaseStatePolling polling;
+
+	private final ReleaseStatusSnapshotStore releaseStatusSnapshotStore;
+
+	private final Clock clock;
+
+	private final Map<String, PlatformPollState> platforms = new ConcurrentHashMap<>();
+
+	// names of releases which had a status pushed since their last poll
+	private final Set<String> pushed = ConcurrentHashMap.newKeySet();
+
+	// platform status fingerprints keyed by status id as last written or loaded
+	private final Map<Long, String> fingerprints = new ConcurrentHashMap<>();
+
+	// poll schedule of latest releases keyed by release name, guarded by this
+	private final Map<String, PollEntry> entries = new HashMap<>();
+
+	private final PriorityQueue<PollEntry> queue = new PriorityQueue<>(
+			Comparator.comparingLong(PollEntry::getNextPoll));
+
+	private final Counter polledCounter = Metrics.counter("skipper.release.state.update", "result", "polled");
+
+	private final Counter changedCounter = Metrics.counter("skipper.release.state.update", "result", "changed");
 
-	private boolean initialPoll = true;
+	private final Counter writtenCounter = Metrics.counter("skipper.release.state.update", "result", "written");
+
+	private volatile int scheduled;
+
+	private volatile int queueDepth;
+
+	private volatile long queueLag;
+
+	/**
+	 * Instantiates a new release state update service.
+	 *
+	 * @param releaseManagerFactory the release manager factory
+	 * @param releaseRepository the release repository
+	 * @param dataSource the data source statuses are written to
+	 * @param lobCodecs the codecs platform statuses are encoded with
+	 * @param polling the polling properties
+	 * @param releaseStatusSnapshotStore the store polled statuses are kept in
+	 */
+	public ReleaseStateUpdateService(ReleaseManagerFactory releaseManagerFactory,
+			ReleaseRepository releaseRepository, DataSource dataSource, LobCodecs lobCodecs,
+			ReleaseStatePolling polling, ReleaseStatusSnapshotStore releaseStatusSnapshotStore) {
+		this(releaseManagerFactory, releaseRepository, dataSource, lobCodecs, polling, releaseStatusSnapshotStore,
+				Clock.systemUTC());
+	}
 
 	/**
 	 * Instantiates a new release state update service.
 	 *
 	 * @param releaseManagerFactory the release manager factory
 	 * @param releaseRepository the release repository
+	 * @param dataSource the data source statuses are written to
+	 * @param lobCodecs the codecs platform statuses are encoded with
+	 * @param polling the polling properties
+	 * @param releaseStatusSnapshotStore the store polled statuses are kept in
+	 * @param clock the clock poll times are based on
 	 */
 	public ReleaseStateUpdateService(ReleaseManagerFactory releaseManagerFactory,
-			ReleaseRepository releaseRepository) {
+			ReleaseRepository releaseRepository, DataSource dataSource, LobCodecs lobCodecs,
+			ReleaseStatePolling polling, ReleaseStatusSnapshotStore releaseStatusSnapshotStore, Clock clock) {
 		Assert.notNull(releaseManagerFactory, "'releaseManagerFactory' must be set");
 		Assert.notNull(releaseRepository, "'releaseRepository' must be set");
+		Assert.notNull(dataSource, "'dataSource' must be set");
+		Assert.notNull(lobCodecs, "'lobCodecs' must be set");
+		Assert.notNull(polling, "'polling' must be set");
+		Assert.notNull(releaseStatusSnapshotStore, "'releaseStatusSnapshotStore' must be set");
+		Assert.notNull(clock, "'clock' must be set");
+		Assert.isTrue(polling.getWorkers() > 0, "'workers' must be greater than zero");
+		Assert.isTrue(polling.getFailureThreshold() > 0, "'failureThreshold' must be greater than zero");
 		this.releaseManagerFactory = releaseManagerFactory;
 		this.releaseRepository = releaseRepository;
-		this.nextFullPoll = getNextFullPoll();
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.lobCodecs = lobCodecs;
+		this.polling = polling;
+		this.releaseStatusSnapshotStore = releaseStatusSnapshotStore;
+		this.clock = clock;
+		Metrics.gauge("skipper.release.state.scheduled", this, s -> s.scheduled);
+		Metrics.gauge("skipper.release.state.queue.depth", this, s -> s.queueDepth);
+		Metrics.gauge("skipper.release.state.queue.lag", this, s -> s.queueLag);
 		log.info("Setting up ReleaseStateUpdateService");
 	}
 
-	@Scheduled(initialDelay = 5000, fixedRate = 5000)
-	@Transactional
+	@Scheduled(initialDelay = 5000,
+			fixedRateString = "${spring.cloud.skipper.server.release-state-polling.min-interval-in-millis:5000}")
 	public synchronized void updateReactively() {
 		log.debug("Scheduled update state method running...");
-		long now = System.currentTimeMillis();
-
-		boolean fullPoll = now > this.nextFullPoll;
-		if (fullPoll) {
-			// setup next full poll
-			this.nextFullPoll = getNextFullPoll();
-			log.debug("Setup next full poll at {}", new Date(this.nextFullPoll));
-		}
-
-		boolean doInitialPoll = initialPoll;
-		if (initialPoll) {
-			log.debug("Looks like first invocation, forcing polling as initialPoll");
-			initialPoll = false;
-		}
-
-		Flux.fromIterable(this.releaseRepository.findLatestDeployedOrFailed())
-			.flatMap(release -> {
-				Info info = release.getInfo();
-				if (info == null) {
-					log.error("Info can not be null for release {}", release);
-					return Mono.empty();
-				}
-				else if (info.getLastDeployed() == null) {
-					log.error("Info.LastDeployed can not be null for release {}", release);
-					return Mono.empty();
-				}
-				boolean isNewApp = (info.getLastDeployed().getTime() > (now - 120000));
-				log.debug("Considering updating state for {}-v{}", release.getName(), release.getVersion());
-				log.debug("fullPoll = {}, isNewApp = {}, doInitialPoll = {}", fullPoll, isNewApp, doInitialPoll);
-				boolean poll = fullPoll || (isNewApp) || doInitialPoll;
-				if (poll) {
-					String kind = ManifestUtils.resolveKind(release.getManifest().getData());
-					ReleaseManager releaseManager = this.releaseManagerFactory.getReleaseManager(kind);
-					return releaseManager.statusReactive(release);
-				}
-				else {
-					log.debug("Not updating state for {}-v{}", release.getName(), release.getVersion());
-					return Mono.empty();
-				}
+		long now = this.clock.millis();
+
+		List<PollEntry> due = new ArrayList<>();
+		while (!this.queue.isEmpty() && this.queue.peek().getNextPoll() <= now) {
+			due.add(this.queue.poll());
+		}
+		this.scheduled = this.entries.size();
+		this.queueDepth = due.size();
+		this.queueLag = due.isEmpty() ? 0 : now - due.get(0).getNextPoll();
+		if (due.isEmpty()) {
+			return;
+		}
+		List<PollEntry> polls = new ArrayList<>();
+		for (PollEntry entry : due) {
+			PlatformPollState platform = getPlatform(entry.getRelease().getPlatformName());
+			if (platform.allowPoll(now)) {
+				polls.add(entry);
+			}
+			else {
+				// keep last known state until platform is polled again
+				log.debug("Skipping state update for {}-v{} of unavailable platform {}",
+						entry.getRelease().getName(), entry.getRelease().getVersion(), platform.getPlatformName());
+				platform.markStale(entry.getRelease().getName());
+				entry.schedule(entry.getInterval(), platform.getOpenUntil());
+				this.queue.add(entry);
+			}
+		}
+		log.debug("Polling state of {} of {} releases", polls.size(), this.entries.size());
+
+		// framework don't yet know how to handle reactive types, meaning we can't just
+		// fire and forget with subscribe() as it would mess up times between invocations.
+		// block was kinda recommended by framework guys. polls have a timeout so a slow
+		// platform can't hold back updates of others forever.
+		Flux.fromIterable(polls)
+			.flatMap(this::poll)
+			.collectList()
+			.block();
+
+		long polled = this.clock.millis();
+		List<Status> changed = new ArrayList<>();
+		for (PollEntry entry : polls) {
+			if (entry.isChanged()) {
+				changed.add(entry.getRelease().getInfo().getStatus());
+			}
+			reschedule(entry, polled);
+		}
+		if (!changed.isEmpty()) {
+			writeStatuses(changed);
+		}
+	}
+
+	/**
+	 * Synchronizes the poll schedule with the latest deployed or failed releases. New and
+	 * redeployed releases are due immediately while releases which are no longer the
+	 * latest ones are dropped.
+	 */
+	@Scheduled(initialDelay = 5000,
+			fixedDelayString = "${spring.cloud.skipper.server.release-state-polling.reconcile-interval-in-millis:30000}")
+	public synchronized void reconcile() {
+		log.debug("Scheduled reconcile method running...");
+		reconcile(this.clock.millis());
+	}
+
+	/**
+	 * Writes platform statuses pushed for the latest versions of releases.
+	 *
+	 * @param releases the releases with updated platform statuses
+	 */
+	public void updatePushed(Collection<Release> releases) {
+		List<Status> changed = new ArrayList<>();
+		for (Release release : releases) {
+			Status status = release.getInfo().getStatus();
+			this.pushed.add(release.getName());
+			this.releaseStatusSnapshotStore.put(release);
+			if (isChanged(release, this.fingerprints.get(status.getId()))) {
+				changed.add(status);
+			}
+		}
+		if (!changed.isEmpty()) {
+			writeStatuses(changed);
+		}
+	}
+
+	/**
+	 * Gets polling states of platforms which have had releases polled.
+	 *
+	 * @return the platform poll states
+	 */
+	public Collection<PlatformPollState> getPlatformPollStates() {
+		return this.platforms.values();
+	}
+
+	@Override
+	public void destroy() {
+		this.platforms.values().forEach(PlatformPollState::dispose);
+	}
+
+	private PlatformPollState getPlatform(String platformName) {
+		return this.platforms.computeIfAbsent(platformName, name -> new PlatformPollState(name,
+				this.polling.getWorkers(), this.polling.getFailureThreshold(), this.polling.getCoolDownInMillis()));
+	}
+
+	private void reconcile(long now) {
+		Set<String> names = new HashSet<>();
+		Set<Long> statusIds = new HashSet<>();
+		for (Release release : this.releaseRepository.findLatestDeployedOrFailed()) {
+			Info info = release.getInfo();
+			if (info == null) {
+				log.error("Info can not be null for release {}", release);
+				continue;
+			}
+			else if (info.getLastDeployed() == null) {
+				log.error("Info.LastDeployed can not be null for release {}", release);
+				continue;
+			}
+			else if (info.getStatus() == null || info.getStatus().getId() == null) {
+				log.debug("Not updating state for {}-v{}", release.getName(), release.getVersion());
+				continue;
+			}
+			names.add(release.getName());
+			statusIds.add(info.getStatus().getId());
+			PollEntry entry = this.entries.get(release.getName());
+			if (entry != null && entry.isSameDeployment(release)) {
+				entry.setRelease(release);
+				continue;
+			}
+			log.debug("Scheduling state updates for {}-v{}", release.getName(), release.getVersion());
+			if (entry != null) {
+				this.queue.remove(entry);
+			}
+			entry = new PollEntry(release, this.polling.getMinIntervalInMillis(), now);
+			this.entries.put(release.getName(), entry);
+			this.queue.add(entry);
+		}
+		this.entries.keySet().retainAll(names);
+		this.pushed.retainAll(names);
+		this.queue.removeIf(entry -> !names.contains(entry.getRelease().getName()));
+		this.platforms.values().forEach(platform -> platform.retainReleases(names));
+		// forget releases which are no longer the latest ones
+		this.fingerprints.keySet().retainAll(statusIds);
+	}
+
+	private Mono<PollEntry> poll(PollEntry entry) {
+		Release release = entry.getRelease();
+		Status status = release.getInfo().getStatus();
+		String previous = this.fingerprints.computeIfAbsent(status.getId(),
+				id -> status.getPlatformStatusFingerprint());
+		log.debug("Updating state for {}-v{}", release.getName(), release.getVersion());
+		String kind = ManifestUtils.resolveKind(release.getManifest().getData());
+		ReleaseManager releaseManager = this.releaseManagerFactory.getReleaseManager(kind);
+		PlatformPollState platform = getPlatform(release.getPlatformName());
+		return Mono.defer(() -> releaseManager.statusReactive(release))
+			.subscribeOn(platform.getScheduler())
+			.timeout(Duration.ofMillis(this.polling.getTimeoutInMillis()))
+			.doOnNext(r -> {
+				this.polledCounter.increment();
+				entry.setChanged(isChanged(r, previous));
+				this.releaseStatusSnapshotStore.put(r);
 			})
-			.doOnNext(release -> {
-				log.debug("New Release state {} {}", release.getName(), release.getInfo().getStatus(),
-				release.getInfo().getStatus() != null
-						? release.getInfo().getStatus().getPlatformStatusPrettyPrint()
-						: "");
-				// TODO: should not block in a side effect but we don't have reactive db access
-				this.releaseRepository.save(release);
+			.doOnSuccess(r -> platform.recordSuccess(release.getName(), this.clock.millis()))
+			.onErrorResume(e -> {
+				log.warn("Could not update state for {}-v{}", release.getName(), release.getVersion(), e);
+				platform.recordFailure(release.getName(), e, this.clock.millis());
+				return Mono.empty();
 			})
-			// framework don't yet know how to handle reactive types, meaning we can't just
-			// fire and forget with subscribe() as it would mess up times between invocations.
-			// block was kinda recommended by framework guys.
-			.blockLast();
+			.then(Mono.just(entry));
+	}
+
+	private void reschedule(PollEntry entry, long now) {
+		long interval;
+		boolean pushed = this.pushed.remove(entry.getRelease().getName());
+		if (entry.isChanged()
+				|| entry.getLastDeployed() > now - this.polling.getRecentDeployWindowInMillis()) {
+			interval = this.polling.getMinIntervalInMillis();
+		}
+		else if (pushed) {
+			interval = this.polling.getMaxIntervalInMillis();
+		}
+		else {
+			interval = Math.min((long) (entry.getInterval() * this.polling.getBackoffMultiplier()),
+					this.polling.getMaxIntervalInMillis());
+		}
+		// spread polls of releases which backed off at the same time
+		long jitter = ThreadLocalRandom.current().nextLong(interval / 10 + 1);
+		entry.schedule(interval, now + interval + jitter);
+		this.queue.add(entry);
+	}
+
+	private boolean isChanged(Release release, String previous) {
+		Status status = release.getInfo().getStatus();
+		String fingerprint = status.getPlatformStatusFingerprint();
+		if (fingerprint.equals(previous)) {
+			log.debug("State of {}-v{} not changed", release.getName(), release.getVersion());
+			return false;
+		}
+		log.debug("New Release state {} {}", release.getName(), status.getPlatformStatusPrettyPrint());
+		this.changedCounter.increment();
+		return true;
+	}
+
+	private void writeStatuses(List<Status> statuses) {
+		List<Object[]> args = new ArrayList<>(statuses.size());
+		for (Status status : statuses) {
+			args.add(new Object[] {
+					this.lobCodecs.encode(LobCodecs.STATUS_PLATFORM_STATUS, status.getPlatformStatus()), status.getId() });
+		}
+		int[] counts = this.jdbcTemplate.batchUpdate(UPDATE_PLATFORM_STATUS, args);
+		int written = 0;
+		for (int i = 0; i < counts.length; i++) {
+			Status status = statuses.get(i);
+			// drivers may report success without a row count
+			if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+				written++;
+				this.fingerprints.put(status.getId(), status.getPlatformStatusFingerprint());
+			}
+		}
+		this.writtenCounter.increment(written);
+		log.debug("Wrote {} of {} changed release states", written, statuses.size());
 	}
 
 	/**
-	 * Return next poll time in future in 5 minute intervals.
-	 *
-	 * @return estimate of next full poll time
+	 * Poll schedule of a single release.
 	 */
-	private long getNextFullPoll() {
-		long next = System.currentTimeMillis() + 600000;
-		return next - (next % 600000);
+	private static class PollEntry {
+
+		private Release release;
+
+		private final int version;
+
+		private final long lastDeployed;
+
+		private long interval;
+
+		private long nextPoll;
+
+		private volatile boolean changed;
+
+		PollEntry(Release release, long interval, long nextPoll) {
+			this.release = release;
+			this.version = release.getVersion();
+			this.lastDeployed = release.getInfo().getLastDeployed().getTime();
+			this.interval = interval;
+			this.nextPoll = nextPoll;
+		}
+
+		boolean isSameDeployment(Release release) {
+			return this.version == release.getVersion()
+					&& this.lastDeployed == release.getInfo().getLastDeployed().getTime();
+		}
+
+		Release getRelease() {
+			return release;
+		}
+
+		void setRelease(Release release) {
+			this.release = release;
+		}
+
+		long getLastDeployed() {
+			return lastDeployed;
+		}
+
+		long getInterval() {
+			return interval;
+		}
+
+		long getNextPoll() {
+			return nextPoll;
+		}
+
+		boolean isChanged() {
+			return changed;
+		}
+
+		void setChanged(boolean changed) {
+			this.changed = changed;
+		}
+
+		void schedule(long interval, long nextPoll) {
+			this.interval = interval;
+			this.nextPoll = nextPoll;
+			this.changed = false;
+		}
 	}
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+
+import org.springframework.cloud.deployer.spi.app.AppStatus;
+import org.springframework.cloud.deployer.spi.app.DeploymentState;
+import org.springframework.cloud.skipper.domain.Info;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.Status;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.StatusSnapshots;
+import org.springframework.util.Assert;
+
+/**
+ * Keeps the last platform status computed for the latest version of every release, as
+ * computed by the release state poller or by release operations, so that status queries
+ * don't need to go to the platform every time.
+ * <p>
+ * A snapshot is used as is while it's not older than the requested max staleness. When no
+ * max staleness is requested, older snapshots are still used within the stale while
+ * revalidate period while a single revalidation of the release is running in the
+ * background. A requested max staleness is never exceeded. Hits, stale hits and misses
+ * are counted as {@code skipper.release.status.snapshot} and ages of used snapshots are
+ * recorded as {@code skipper.release.status.snapshot.age}.
+ */
+public class ReleaseStatusSnapshotStore {
+
+	private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+	private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+	private final StatusSnapshots properties;
+
+	private final Counter hitCounter = Metrics.counter("skipper.release.status.snapshot", "result", "hit");
+
+	private final Counter staleCounter = Metrics.counter("skipper.release.status.snapshot", "result", "stale");
+
+	private final Counter missCounter = Metrics.counter("skipper.release.status.snapshot", "result", "miss");
+
+	private final DistributionSummary ageSummary = DistributionSummary.builder("skipper.release.status.snapshot.age")
+			.baseUnit("milliseconds")
+			.register(Metrics.globalRegistry);
+
+	public ReleaseStatusSnapshotStore(StatusSnapshots properties) {
+		Assert.notNull(properties, "'properties' must be set");
+		this.properties = properties;
+		Metrics.gauge("skipper.release.status.snapshot.size", this.snapshots, Map::size);
+	}
+
+	/**
+	 * Stores the status of a release, replacing the snapshot of older versions.
+	 *
+	 * @param release the release with a computed status
+	 */
+	public void put(Release release) {
+		if (release == null || release.getInfo() == null || release.getInfo().getStatus() == null) {
+			return;
+		}
+		Status status = release.getInfo().getStatus();
+		Snapshot snapshot = new Snapshot(release.getVersion(), status.getPlatformStatus(),
+				System.currentTimeMillis());
+		this.snapshots.merge(release.getName(), snapshot,
+				(existing, replacing) -> existing.getVersion() > replacing.getVersion() ? existing : replacing);
+	}
+
+	/**
+	 * Gets a usable snapshot of a release. If no max staleness is given and the snapshot is
+	 * stale but within the stale while revalidate period, the revalidation is run unless
+	 * one is already running for the release, in which case it must call
+	 * {@link #revalidated(String)} when done.
+	 *
+	 * @param release the latest release
+	 * @param maxStalenessInMillis max age of a used snapshot, or null to use the default
+	 * max staleness and stale while revalidate period
+	 * @param revalidation the revalidation of the release
+	 * @return the snapshot, or null if the status needs to be computed
+	 */
+	public Snapshot get(Release release, Long maxStalenessInMillis, Runnable revalidation) {
+		Snapshot snapshot = this.snapshots.get(release.getName());
+		if (snapshot == null || snapshot.getVersion() != release.getVersion()) {
+			this.missCounter.increment();
+			return null;
+		}
+		long maxStaleness = maxStalenessInMillis != null ? maxStalenessInMillis
+				: this.properties.getMaxStalenessInMillis();
+		long staleWhileRevalidate = maxStalenessInMillis != null ? 0
+				: this.properties.getStaleWhileRevalidateInMillis();
+		long age = snapshot.getAge();
+		if (age <= maxStaleness) {
+			this.hitCounter.increment();
+		}
+		else if (staleWhileRevalidate > 0 && age <= maxStaleness + staleWhileRevalidate) {
+			this.staleCounter.increment();
+			if (this.revalidating.add(release.getName())) {
+				try {
+					revalidation.run();
+				}
+				catch (RuntimeException e) {
+					revalidated(release.getName());
+					throw e;
+				}
+			}
+		}
+		else {
+			this.missCounter.increment();
+			return null;
+		}
+		this.ageSummary.record(age);
+		return snapshot;
+	}
+
+	/**
+	 * Marks the revalidation of a release as done.
+	 *
+	 * @param releaseName the release name
+	 */
+	public void revalidated(String releaseName) {
+		this.revalidating.remove(releaseName);
+	}
+
+	/**
+	 * Platform status of a single version of a release.
+	 */
+	public static class Snapshot {
+
+		private final int version;
+
+		private final String platformStatus;
+
+		private final long timestamp;
+
+		Snapshot(int version, String platformStatus, long timestamp) {
+			this.version = version;
+			this.platformStatus = platformStatus;
+			this.timestamp = timestamp;
+		}
+
+		public int getVersion() {
+			return version;
+		}
+
+		public long getAge() {
+			return System.currentTimeMillis() - timestamp;
+		}
+
+		/**
+		 * Creates an info of the release using the snapshot platform status without
+		 * modifying the given info.
+		 *
+		 * @param info the info of the release
+		 * @return the info with the snapshot platform status
+		 */
+		public Info toInfo(Info info) {
+			Info copy = new Info();
+			copy.setFirstDeployed(info.getFirstDeployed());
+			copy.setLastDeployed(info.getLastDeployed());
+			copy.setDeleted(info.getDeleted());
+			copy.setDescription(info.getDescription());
+			Status status = new Status();
+			status.setStatusCode(info.getStatus().getStatusCode());
+			status.setPlatformStatus(this.platformStatus);
+			copy.setStatus(status);
+			return copy;
+		}
+
+		/**
+		 * Gets the deployment states of the snapshot.
+		 *
+		 * @return the states keyed by deployment id
+		 */
+		public Map<String, DeploymentState> getDeploymentStates() {
+			Status status = new Status();
+			status.setPlatformStatus(this.platformStatus);
+			Map<String, DeploymentState> states = new HashMap<>();
+			for (AppStatus appStatus : status.getAppStatusList()) {
+				states.put(appStatus.getDeploymentId(), appStatus.getState());
+			}
+			return states;
+		}
+	}
+}
@@ -68,6 +68,18 @@ public abstract class AbstractUpgradeStartAction extends AbstractAction {
 		return releaseAnalysisReport;
 	}
 
+	/**
+	 * Gets the name of the upgrade strategy asked in the upgrade request.
+	 *
+	 * @param context the state context
+	 * @return the upgrade strategy name, or null to use the default strategy
+	 */
+	protected String getUpgradeStrategyName(StateContext<SkipperStates, SkipperEvents> context) {
+		UpgradeRequest upgradeRequest = context.getExtendedState().get(SkipperEventHeaders.UPGRADE_REQUEST,
+				UpgradeRequest.class);
+		return upgradeRequest != null ? upgradeRequest.getUpgradeStrategy() : null;
+	}
+
 	protected boolean handlesInitialReport() {
 		return false;
 	}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.statemachine;
+
+import java.util.LinkedList;
+import java.util.function.BooleanSupplier;
+
+import org.springframework.cloud.skipper.SkipperException;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService.SkipperEvents;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService.SkipperStates;
+import org.springframework.messaging.Message;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+/**
+ * FIFO queue of commands sent to the state machine of a single release. The command at
+ * the head of the queue is dispatched once the machine is ready for it and stays at the
+ * head until it's done, so commands of a release never race each other. A command added
+ * right after a not yet dispatched command of the same kind replaces its message, and
+ * callers of both get the result of the replacing command.
+ */
+class ReleaseCommandQueue {
+
+	private final LinkedList<Command> commands = new LinkedList<>();
+
+	/**
+	 * Adds a command to the queue, or coalesces it with the last queued command.
+	 *
+	 * @param message the message of the command
+	 * @param statesToWait the states where the command is done
+	 * @param maxDepth the max number of queued commands
+	 * @return the queued command
+	 */
+	synchronized Command offer(Message<SkipperEvents> message, SkipperStates[] statesToWait, int maxDepth) {
+		Command last = this.commands.peekLast();
+		if (last != null && !last.dispatched && isCoalescable(last.message, message)) {
+			last.message = message;
+			return last;
+		}
+		if (this.commands.size() >= maxDepth) {
+			throw new SkipperException("Too many commands queued for release, unable to do " + message.getPayload());
+		}
+		Command command = new Command(message, statesToWait);
+		this.commands.add(command);
+		return command;
+	}
+
+	/**
+	 * Waits until the command is at the head of the queue and the machine is ready for it,
+	 * marking it dispatched.
+	 *
+	 * @param command the command
+	 * @param ready the check if the machine is ready
+	 * @param deadline the time until which the command may wait
+	 * @return true if the command was dispatched, false if it has to wait more
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	synchronized boolean dispatch(Command command, BooleanSupplier ready, long deadline)
+			throws InterruptedException {
+		if (this.commands.peekFirst() == command && ready.getAsBoolean()) {
+			command.dispatched = true;
+			return true;
+		}
+		long remaining = deadline - System.currentTimeMillis();
+		if (remaining <= 0) {
+			complete(command);
+			throw new SkipperException("Statemachine is not in state ready to do " + command.message.getPayload());
+		}
+		// recheck at least every second in case the machine was replaced while waiting
+		wait(Math.min(remaining, 1000));
+		return false;
+	}
+
+	/**
+	 * Removes the command from the queue, letting the next command to be dispatched.
+	 *
+	 * @param command the command
+	 */
+	synchronized void complete(Command command) {
+		this.commands.remove(command);
+		notifyAll();
+	}
+
+	/**
+	 * Wakes up commands waiting for the machine to be ready.
+	 */
+	synchronized void signal() {
+		notifyAll();
+	}
+
+	synchronized int size() {
+		return this.commands.size();
+	}
+
+	synchronized boolean isEmpty() {
+		return this.commands.isEmpty();
+	}
+
+	private static boolean isCoalescable(Message<SkipperEvents> queued, Message<SkipperEvents> message) {
+		// scaling is absolute, so only the latest of consecutive scale requests matters
+		return queued.getPayload() == SkipperEvents.SCALE && message.getPayload() == SkipperEvents.SCALE;
+	}
+
+	/**
+	 * Command waiting for the state machine of its release.
+	 */
+	static class Command {
+
+		private final Message<SkipperEvents> initialMessage;
+
+		private final SkipperStates[] statesToWait;
+
+		private final SettableListenableFuture<Release> result = new SettableListenableFuture<>();
+
+		private final long created = System.nanoTime();
+
+		private volatile Message<SkipperEvents> message;
+
+		private boolean dispatched;
+
+		Command(Message<SkipperEvents> message, SkipperStates[] statesToWait) {
+			this.initialMessage = message;
+			this.message = message;
+			this.statesToWait = statesToWait;
+		}
+
+		/**
+		 * Checks if the command was created for a message, in which case its caller
+		 * dispatches it. Callers of coalesced messages only wait for its result.
+		 *
+		 * @param message the message
+		 * @return true if the command was created for the message
+		 */
+		boolean isCreatedFor(Message<SkipperEvents> message) {
+			return this.initialMessage == message;
+		}
+
+		Message<SkipperEvents> getMessage() {
+			return message;
+		}
+
+		SkipperStates[] getStatesToWait() {
+			return statesToWait;
+		}
+
+		SettableListenableFuture<Release> getResult() {
+			return result;
+		}
+
+		long getCreated() {
+			return created;
+		}
+	}
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.statemachine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.StateMachinePool;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService.SkipperEvents;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService.SkipperStates;
+import org.springframework.context.event.EventListener;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachinePersist;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.data.jpa.JpaRepositoryStateMachine;
+import org.springframework.statemachine.data.jpa.JpaStateMachineRepository;
+import org.springframework.statemachine.service.DefaultStateMachineService;
+import org.springframework.util.Assert;
+
+/**
+ * {@link DefaultStateMachineService} keeping a bounded number of release state machines
+ * in memory. Machines idle in {@link SkipperStates#INITIAL} state longer than the max idle
+ * time are released, as are the least recently used idle machines when the pool grows over
+ * its max size. Machines in any other state are busy with an operation and are never
+ * released, so the pool may grow over its max size while all of its machines are busy.
+ * <p>
+ * Machines of releases with operations in progress are restored at startup, so that the
+ * operations continue without waiting for the next request of the release. Acquire times
+ * are recorded as {@code skipper.statemachine.acquire}, tagged with whether the machine
+ * was pooled or needed to be restored, the pool size as {@code skipper.statemachine.pool.size}
+ * and released machines as {@code skipper.statemachine.pool.evictions}.
+ */
+public class SkipperStateMachinePool extends DefaultStateMachineService<SkipperStates, SkipperEvents> {
+
+	private static final Logger log = LoggerFactory.getLogger(SkipperStateMachinePool.class);
+
+	private final Map<String, PooledStateMachine> pooled = new ConcurrentHashMap<>();
+
+	private final StateMachinePool properties;
+
+	private final JpaStateMachineRepository jpaStateMachineRepository;
+
+	private final Timer pooledAcquireTimer = Timer.builder("skipper.statemachine.acquire")
+			.tag("result", "pooled")
+			.register(Metrics.globalRegistry);
+
+	private final Timer restoredAcquireTimer = Timer.builder("skipper.statemachine.acquire")
+			.tag("result", "restored")
+			.register(Metrics.globalRegistry);
+
+	private final Counter idleEvictionCounter = Metrics.counter("skipper.statemachine.pool.evictions", "reason",
+			"idle");
+
+	private final Counter sizeEvictionCounter = Metrics.counter("skipper.statemachine.pool.evictions", "reason",
+			"size");
+
+	private final Scheduler scheduler;
+
+	private final Disposable eviction;
+
+	/**
+	 * Time a machine is kept after it's acquired even if it's idle, so it isn't released
+	 * between its acquire and the event sent to it.
+	 */
+	private long acquireGracePeriodInMillis = 1000;
+
+	/**
+	 * Instantiates a new skipper state machine pool.
+	 *
+	 * @param stateMachineFactory the state machine factory
+	 * @param stateMachinePersist the state machine persist
+	 * @param jpaStateMachineRepository the repository of persisted machines, or null if
+	 * machines aren't restored at startup
+	 * @param properties the pool properties
+	 */
+	public SkipperStateMachinePool(StateMachineFactory<SkipperStates, SkipperEvents> stateMachineFactory,
+			StateMachinePersist<SkipperStates, SkipperEvents, String> stateMachinePersist,
+			JpaStateMachineRepository jpaStateMachineRepository, StateMachinePool properties) {
+		super(stateMachineFactory, stateMachinePersist);
+		Assert.notNull(properties, "'properties' must be set");
+		this.properties = properties;
+		this.jpaStateMachineRepository = jpaStateMachineRepository;
+		Metrics.gauge("skipper.statemachine.pool.size", this.pooled, Map::size);
+		this.scheduler = Schedulers.newSingle("skipper-statemachine-pool", true);
+		this.eviction = this.scheduler.schedulePeriodically(this::evictIdle,
+				properties.getEvictionIntervalInMillis(), properties.getEvictionIntervalInMillis(),
+				TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public synchronized StateMachine<SkipperStates, SkipperEvents> acquireStateMachine(String machineId,
+			boolean start) {
+		long startTime = System.nanoTime();
+		PooledStateMachine pooledStateMachine = this.pooled.get(machineId);
+		StateMachine<SkipperStates, SkipperEvents> stateMachine = super.acquireStateMachine(machineId, start);
+		Timer timer = pooledStateMachine != null ? this.pooledAcquireTimer : this.restoredAcquireTimer;
+		timer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+		if (pooledStateMachine == null || pooledStateMachine.stateMachine != stateMachine) {
+			pooledStateMachine = new PooledStateMachine(stateMachine);
+			this.pooled.put(machineId, pooledStateMachine);
+			evictOverSize(machineId);
+		}
+		pooledStateMachine.lastAccess = System.currentTimeMillis();
+		return stateMachine;
+	}
+
+	@Override
+	public synchronized void releaseStateMachine(String machineId) {
+		this.pooled.remove(machineId);
+		super.releaseStateMachine(machineId);
+	}
+
+	@Override
+	public synchronized void releaseStateMachine(String machineId, boolean stop) {
+		this.pooled.remove(machineId);
+		super.releaseStateMachine(machineId, stop);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		this.eviction.dispose();
+		this.scheduler.dispose();
+		super.destroy();
+	}
+
+	/**
+	 * Restores machines of releases which have operations in progress.
+	 *
+	 * @param event the application ready event
+	 */
+	@EventListener
+	public void prewarm(ApplicationReadyEvent event) {
+		if (!this.properties.isPrewarm() || this.jpaStateMachineRepository == null) {
+			return;
+		}
+		for (JpaRepositoryStateMachine persisted : this.jpaStateMachineRepository.findAll()) {
+			if (persisted.getState() == null || SkipperStates.INITIAL.name().equals(persisted.getState())) {
+				continue;
+			}
+			try {
+				log.info("Restoring state machine of release {} in state {}", persisted.getMachineId(),
+						persisted.getState());
+				acquireStateMachine(persisted.getMachineId());
+			}
+			catch (Exception e) {
+				log.warn("Unable to restore state machine of release " + persisted.getMachineId(), e);
+			}
+		}
+	}
+
+	/**
+	 * Releases machines which have been idle longer than the max idle time.
+	 */
+	synchronized void evictIdle() {
+		long idleSince = System.currentTimeMillis() - this.properties.getMaxIdleInMillis();
+		for (Map.Entry<String, PooledStateMachine> entry : new ArrayList<>(this.pooled.entrySet())) {
+			if (isIdle(entry.getValue()) && entry.getValue().lastAccess <= idleSince) {
+				log.debug("Releasing idle state machine of release {}", entry.getKey());
+				releaseStateMachine(entry.getKey(), true);
+				this.idleEvictionCounter.increment();
+			}
+		}
+	}
+
+	int getSize() {
+		return this.pooled.size();
+	}
+
+	void setAcquireGracePeriodInMillis(long acquireGracePeriodInMillis) {
+		this.acquireGracePeriodInMillis = acquireGracePeriodInMillis;
+	}
+
+	private boolean isIdle(PooledStateMachine pooledStateMachine) {
+		if (System.currentTimeMillis() - pooledStateMachine.lastAccess < this.acquireGracePeriodInMillis) {
+			return false;
+		}
+		StateMachine<SkipperStates, SkipperEvents> stateMachine = pooledStateMachine.stateMachine;
+		return stateMachine.getState() != null && stateMachine.getState().getId() == SkipperStates.INITIAL;
+	}
+
+	private void evictOverSize(String acquiredMachineId) {
+		int over = this.pooled.size() - this.properties.getMaxSize();
+		if (over <= 0) {
+			return;
+		}
+		List<Map.Entry<String, PooledStateMachine>> candidates = new ArrayList<>();
+		for (Map.Entry<String, PooledStateMachine> entry : this.pooled.entrySet()) {
+			if (!entry.getKey().equals(acquiredMachineId) && isIdle(entry.getValue())) {
+				candidates.add(entry);
+			}
+		}
+		candidates.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+		for (int i = 0; i < over && i < candidates.size(); i++) {
+			log.debug("Releasing least recently used state machine of release {}", candidates.get(i).getKey());
+			releaseStateMachine(candidates.get(i).getKey(), true);
+			this.sizeEvictionCounter.increment();
+		}
+	}
+
+	private static class PooledStateMachine {
+
+		private final StateMachine<SkipperStates, SkipperEvents> stateMachine;
+
+		private volatile long lastAccess;
+
+		PooledStateMachine(StateMachine<SkipperStates, SkipperEvents> stateMachine) {
+			this.stateMachine = stateMachine;
+		}
+	}
+}
@@ -16,8 +16,14 @@
 package org.springframework.cloud.skipper.server.statemachine;
 
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,6 +36,7 @@ import org.springframework.cloud.skipper.domain.Release;
 import org.springframework.cloud.skipper.domain.RollbackRequest;
 import org.springframework.cloud.skipper.domain.ScaleRequest;
 import org.springframework.cloud.skipper.domain.UpgradeRequest;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.CommandQueue;
 import org.springframework.cloud.skipper.server.deployer.ReleaseAnalysisReport;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
@@ -39,6 +46,7 @@ import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.listener.StateMachineListener;
 import org.springframework.statemachine.listener.StateMachineListenerAdapter;
 import org.springframework.statemachine.service.StateMachineService;
+import org.springframework.statemachine.state.State;
 import org.springframework.statemachine.transition.Transition;
 import org.springframework.statemachine.transition.TransitionKind;
 import org.springframework.util.Assert;
@@ -46,6 +54,12 @@ import org.springframework.util.concurrent.SettableListenableFuture;
 
 /**
  * Service class for state machine hiding its operational logic.
+ * <p>
+ * Operations of a release wait in a {@link ReleaseCommandQueue} until its machine is back
+ * in {@link SkipperStates#INITIAL} state instead of getting rejected while the machine is
+ * busy. Queued commands are published as {@code skipper.release.command.queue.depth},
+ * their wait times as {@code skipper.release.command.queue.wait} and coalesced commands as
+ * {@code skipper.release.command.queue.coalesced}.
  *
  * @author Janne Valkealahti
  *
@@ -58,14 +72,38 @@ public class SkipperStateMachineService {
 
 	private final StateMachineService<SkipperStates, SkipperEvents> stateMachineService;
 
+	private final CommandQueue commandQueueProperties;
+
+	private final Map<String, ReleaseCommandQueue> commandQueues = new ConcurrentHashMap<>();
+
+	private final Timer commandWaitTimer = Timer.builder("skipper.release.command.queue.wait")
+			.register(Metrics.globalRegistry);
+
+	private final Counter coalescedCounter = Metrics.counter("skipper.release.command.queue.coalesced");
+
 	/**
 	 * Instantiates a new skipper state machine service.
 	 *
 	 * @param stateMachineService the state machine service
 	 */
 	public SkipperStateMachineService(StateMachineService<SkipperStates, SkipperEvents> stateMachineService) {
+		this(stateMachineService, new CommandQueue());
+	}
+
+	/**
+	 * Instantiates a new skipper state machine service.
+	 *
+	 * @param stateMachineService the state machine service
+	 * @param commandQueueProperties the command queue properties
+	 */
+	public SkipperStateMachineService(StateMachineService<SkipperStates, SkipperEvents> stateMachineService,
+			CommandQueue commandQueueProperties) {
 		Assert.notNull(stateMachineService, "'stateMachineService' must be set");
+		Assert.notNull(commandQueueProperties, "'commandQueueProperties' must be set");
 		this.stateMachineService = stateMachineService;
+		this.commandQueueProperties = commandQueueProperties;
+		Metrics.gauge("skipper.release.command.queue.depth", this.commandQueues,
+				queues -> queues.values().stream().mapToInt(ReleaseCommandQueue::size).sum());
 	}
 
 	/**
@@ -167,6 +205,21 @@ public class SkipperStateMachineService {
 		return handleMessageAndCheckAccept(message, releaseName);
 	}
 
+	/**
+	 * Send an event to check target apps of an upgrade without waiting for the next
+	 * periodic check.
+	 *
+	 * @param releaseName the release name
+	 * @return true if event were sent
+	 */
+	public boolean checkUpgrade(String releaseName) {
+		Message<SkipperEvents> message = MessageBuilder
+				.withPayload(SkipperEvents.UPGRADE_CHECK)
+				.setHeader(SkipperEventHeaders.RELEASE_NAME, releaseName)
+				.build();
+		return handleMessageAndCheckAccept(message, releaseName);
+	}
+
 	private Release installReleaseInternal(InstallRequest installRequest, Long id, InstallProperties installProperties) {
 		String releaseName = installRequest != null ? installRequest.getInstallProperties().getReleaseName()
 				: installProperties.getReleaseName();
@@ -193,6 +246,86 @@ public class SkipperStateMachineService {
 	}
 
 	private Release handleMessageAndWait(Message<SkipperEvents> message, String machineId, SkipperStates... statesToWait) {
+		ReleaseCommandQueue.Command[] offered = new ReleaseCommandQueue.Command[1];
+		ReleaseCommandQueue queue = this.commandQueues.compute(machineId, (name, existing) -> {
+			ReleaseCommandQueue commandQueue = existing != null ? existing : new ReleaseCommandQueue();
+			offered[0] = commandQueue.offer(message, statesToWait, this.commandQueueProperties.getMaxDepth());
+			return commandQueue;
+		});
+		ReleaseCommandQueue.Command command = offered[0];
+		if (!command.isCreatedFor(message)) {
+			// coalesced with a queued command, whose caller dispatches it
+			this.coalescedCounter.increment();
+			return waitFor(command.getResult());
+		}
+		try {
+			awaitDispatch(queue, command, machineId);
+			this.commandWaitTimer.record(System.nanoTime() - command.getCreated(), TimeUnit.NANOSECONDS);
+			Release release = sendMessageAndWait(command.getMessage(), machineId, command.getStatesToWait());
+			command.getResult().set(release);
+			return release;
+		}
+		catch (RuntimeException e) {
+			command.getResult().setException(e);
+			throw e;
+		}
+		finally {
+			queue.complete(command);
+			this.commandQueues.computeIfPresent(machineId, (name, existing) -> existing.isEmpty() ? null : existing);
+		}
+	}
+
+	private void awaitDispatch(ReleaseCommandQueue queue, ReleaseCommandQueue.Command command, String machineId) {
+		long deadline = System.currentTimeMillis() + this.commandQueueProperties.getMaxWaitInMillis();
+		StateMachineListener<SkipperStates, SkipperEvents> listener = new StateMachineListenerAdapter<SkipperStates, SkipperEvents>() {
+
+			@Override
+			public void stateEntered(State<SkipperStates, SkipperEvents> state) {
+				if (state.getId() == SkipperStates.INITIAL) {
+					queue.signal();
+				}
+			}
+		};
+		boolean dispatched = false;
+		while (!dispatched) {
+			// machine may get released from a pool while waiting, so acquire it on every check
+			StateMachine<SkipperStates, SkipperEvents> stateMachine = stateMachineService.acquireStateMachine(machineId);
+			stateMachine.addStateListener(listener);
+			try {
+				dispatched = queue.dispatch(command, () -> isReady(stateMachine), deadline);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SkipperException("Interrupted waiting for statemachine to do " + command.getMessage().getPayload(), e);
+			}
+			finally {
+				stateMachine.removeStateListener(listener);
+			}
+		}
+	}
+
+	private static boolean isReady(StateMachine<SkipperStates, SkipperEvents> stateMachine) {
+		return stateMachine.getState() != null && stateMachine.getState().getId() == SkipperStates.INITIAL;
+	}
+
+	private static Release waitFor(SettableListenableFuture<Release> future) {
+		try {
+			return future.get();
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof SkipperException) {
+				// throw as SkipperException
+				throw (SkipperException) e.getCause();
+			}
+			throw new SkipperException("Error waiting to get Release from a statemachine", e);
+		}
+		catch (Exception e) {
+			throw new SkipperException("Error waiting to get Release from a statemachine", e);
+		}
+	}
+
+	private Release sendMessageAndWait(Message<SkipperEvents> message, String machineId,
+			SkipperStates... statesToWait) {
 		// machine gets acquired fully started
 		StateMachine<SkipperStates, SkipperEvents> stateMachine = stateMachineService.acquireStateMachine(machineId);
 
@@ -235,19 +368,7 @@ public class SkipperStateMachineService {
 		// return exception. this simply happens when we are
 		// i.e. upgrading and delete request comes in.
 		if (stateMachine.sendEvent(message)) {
-			try {
-				return future.get();
-			}
-			catch (ExecutionException e) {
-				if (e.getCause() instanceof SkipperException) {
-					// throw as SkipperException
-					throw (SkipperException) e.getCause();
-				}
-				throw new SkipperException("Error waiting to get Release from a statemachine", e);
-			}
-			catch (Exception e) {
-				throw new SkipperException("Error waiting to get Release from a statemachine", e);
-			}
+			return waitFor(future);
 		}
 		else {
 			throw new SkipperException("Statemachine is not in state ready to do " + message.getPayload());
@@ -454,7 +575,13 @@ public class SkipperStateMachineService {
 		/**
 		 * Main level event instructing a rollback request.
 		 */
-		ROLLBACK;
+		ROLLBACK,
+
+		/**
+		 * While being on {@link SkipperStates#UPGRADE_WAIT_TARGET_APPS}, this event can be
+		 * used to check the status of target apps without waiting for the next check.
+		 */
+		UPGRADE_CHECK;
 	}
 
 	/**
@@ -504,6 +631,11 @@ public class SkipperStateMachineService {
 		 */
 		public static final String RELEASE_NAME = "RELEASE_NAME";
 
+		/**
+		 * Header for the attempt number of a scheduled upgrade check.
+		 */
+		public static final String UPGRADE_CHECK_ATTEMPT = "UPGRADE_CHECK_ATTEMPT";
+
 		/**
 		 * Header for rollback version.
 		 */
@@ -565,6 +697,11 @@ public class SkipperStateMachineService {
 		/**
 		 * Variable internally used in a an upgrade state for current status.
 		 */
-		UPGRADE_STATUS;
+		UPGRADE_STATUS,
+
+		/**
+		 * Variable internally used in a an upgrade state for the number of scheduled checks.
+		 */
+		UPGRADE_CHECK_ATTEMPT;
 	}
 }
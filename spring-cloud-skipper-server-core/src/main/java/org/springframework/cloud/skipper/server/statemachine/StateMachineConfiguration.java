@@ -18,7 +18,9 @@ package org.springframework.cloud.skipper.server.statemachine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties;
 import org.springframework.cloud.skipper.server.deployer.strategies.HealthCheckProperties;
 import org.springframework.cloud.skipper.server.deployer.strategies.UpgradeStrategyFactory;
 import org.springframework.cloud.skipper.server.repository.jpa.ReleaseRepository;
@@ -38,10 +40,10 @@ import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.statemachine.config.builders.StateMachineConfigurationConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
+import org.springframework.statemachine.data.jpa.JpaStateMachineRepository;
 import org.springframework.statemachine.guard.Guard;
 import org.springframework.statemachine.listener.StateMachineListenerAdapter;
 import org.springframework.statemachine.persist.StateMachineRuntimePersister;
-import org.springframework.statemachine.service.DefaultStateMachineService;
 import org.springframework.statemachine.service.StateMachineService;
 import org.springframework.statemachine.state.State;
 import org.springframework.statemachine.transition.TransitionConflictPolicy;
@@ -58,11 +60,11 @@ public class StateMachineConfiguration {
 	private static final Logger log = LoggerFactory.getLogger(StateMachineConfiguration.class);
 
 	private static long adjustTimerPeriod(HealthCheckProperties healthCheckProperties) {
-		// keep hard coded default as 1000ms and use sleepInMillis from documented
-		// setting for now. Just make sure value is positive as otherwise
-		// machine would go crazy.
+		// checks are scheduled by the wait action, timer only keeps machines
+		// restored in a wait state checking. keep hard coded default as 1000ms
+		// and make sure value is positive as otherwise machine would go crazy.
 		if (healthCheckProperties != null && healthCheckProperties.getSleepInMillis() > 0) {
-			return healthCheckProperties.getSleepInMillis();
+			return healthCheckProperties.getSleepInMillis() * 2;
 		}
 		else {
 			return 1000;
@@ -146,7 +148,7 @@ public class StateMachineConfiguration {
 						.initial(SkipperStates.UPGRADE_START)
 						.stateEntry(SkipperStates.UPGRADE_START, upgradeStartAction())
 						.stateEntry(SkipperStates.UPGRADE_DEPLOY_TARGET_APPS, upgradeDeployTargetAppsAction())
-						.state(SkipperStates.UPGRADE_WAIT_TARGET_APPS)
+						.stateEntry(SkipperStates.UPGRADE_WAIT_TARGET_APPS, upgradeWaitTargetAppsAction())
 						.state(SkipperStates.UPGRADE_CHECK_TARGET_APPS, SkipperEvents.UPGRADE_CANCEL)
 						.stateEntry(SkipperStates.UPGRADE_CHECK_TARGET_APPS, upgradeCheckTargetAppsAction())
 						.stateEntry(SkipperStates.UPGRADE_DEPLOY_TARGET_APPS_SUCCEED, upgradeDeployTargetAppsSucceedAction())
@@ -246,6 +248,21 @@ public class StateMachineConfiguration {
 					.source(SkipperStates.UPGRADE_WAIT_TARGET_APPS).target(SkipperStates.UPGRADE_CHECK_CHOICE)
 					.timer(adjustTimerPeriod(healthCheckProperties))
 					.and()
+				.withExternal()
+					// check scheduled by the wait action, target apps were checked
+					// before the wait and choice can act on the result
+					.source(SkipperStates.UPGRADE_WAIT_TARGET_APPS).target(SkipperStates.UPGRADE_CHECK_CHOICE)
+					.event(SkipperEvents.UPGRADE_CHECK)
+					.guard(upgradeScheduledCheckGuard())
+					.and()
+				.withExternal()
+					// check target apps right away when their state is known to have changed,
+					// letting the choice act on the result without waiting for the timer
+					.source(SkipperStates.UPGRADE_WAIT_TARGET_APPS).target(SkipperStates.UPGRADE_CHECK_CHOICE)
+					.event(SkipperEvents.UPGRADE_CHECK)
+					.guard(upgradeRequestedCheckGuard())
+					.action(upgradeCheckTargetAppsAction())
+					.and()
 				.withExternal()
 					.source(SkipperStates.UPGRADE_CHECK_TARGET_APPS).target(SkipperStates.UPGRADE_WAIT_TARGET_APPS)
 					.and()
@@ -360,6 +377,27 @@ public class StateMachineConfiguration {
 			return new UpgradeDeployTargetAppsAction(releaseReportService, upgradeStrategyFactory, healthCheckProperties);
 		}
 
+		@Bean
+		public UpgradeWaitTargetAppsAction upgradeWaitTargetAppsAction() {
+			return new UpgradeWaitTargetAppsAction(healthCheckProperties);
+		}
+
+		@Bean
+		public Guard<SkipperStates, SkipperEvents> upgradeScheduledCheckGuard() {
+			// only accept the check scheduled for the current wait
+			return context -> {
+				Integer attempt = context.getMessageHeaders().get(SkipperEventHeaders.UPGRADE_CHECK_ATTEMPT,
+						Integer.class);
+				return attempt != null && attempt.equals(
+						context.getExtendedState().get(SkipperVariables.UPGRADE_CHECK_ATTEMPT, Integer.class));
+			};
+		}
+
+		@Bean
+		public Guard<SkipperStates, SkipperEvents> upgradeRequestedCheckGuard() {
+			return context -> !context.getMessageHeaders().containsKey(SkipperEventHeaders.UPGRADE_CHECK_ATTEMPT);
+		}
+
 		@Bean
 		public UpgradeCheckTargetAppsAction upgradeCheckTargetAppsAction() {
 			return new UpgradeCheckTargetAppsAction(releaseReportService, upgradeStrategyFactory);
@@ -387,12 +425,12 @@ public class StateMachineConfiguration {
 
 		@Bean
 		public UpgradeCancelAction upgradeCancelAction() {
-			return new UpgradeCancelAction(releaseReportService, upgradeStrategyFactory);
+			return new UpgradeCancelAction(releaseReportService, upgradeStrategyFactory, releaseService);
 		}
 
 		@Bean
 		public UpgradeDeleteSourceAppsAction upgradeDeleteSourceAppsAction() {
-			return new UpgradeDeleteSourceAppsAction(releaseReportService, upgradeStrategyFactory);
+			return new UpgradeDeleteSourceAppsAction(releaseReportService, upgradeStrategyFactory, releaseService);
 		}
 
 		@Bean
@@ -434,13 +472,19 @@ public class StateMachineConfiguration {
 		@Bean
 		public StateMachineService<SkipperStates, SkipperEvents> stateMachineService(
 				StateMachineFactory<SkipperStates, SkipperEvents> stateMachineFactory,
-				StateMachinePersist<SkipperStates, SkipperEvents, String> stateMachinePersist) {
-			return new DefaultStateMachineService<>(stateMachineFactory, stateMachinePersist);
+				StateMachinePersist<SkipperStates, SkipperEvents, String> stateMachinePersist,
+				ObjectProvider<JpaStateMachineRepository> jpaStateMachineRepository,
+				ObjectProvider<SkipperServerProperties> skipperServerProperties) {
+			return new SkipperStateMachinePool(stateMachineFactory, stateMachinePersist,
+					jpaStateMachineRepository.getIfAvailable(),
+					skipperServerProperties.getIfAvailable(SkipperServerProperties::new).getStateMachinePool());
 		}
 
 		@Bean
-		public SkipperStateMachineService skipperStateMachineService(StateMachineService<SkipperStates, SkipperEvents> stateMachineService) {
-			return new SkipperStateMachineService(stateMachineService);
+		public SkipperStateMachineService skipperStateMachineService(StateMachineService<SkipperStates, SkipperEvents> stateMachineService,
+				ObjectProvider<SkipperServerProperties> skipperServerProperties) {
+			return new SkipperStateMachineService(stateMachineService,
+					skipperServerProperties.getIfAvailable(SkipperServerProperties::new).getCommandQueue());
 		}
 	}
 }
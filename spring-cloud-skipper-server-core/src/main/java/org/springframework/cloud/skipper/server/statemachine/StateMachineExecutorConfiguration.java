@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 the original author or authors.
+ * Copyright 2017-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,9 +15,20 @@
  */
 package org.springframework.cloud.skipper.server.statemachine;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.StateMachineExecutor;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.StateMachineExecutor.RejectionPolicy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**
@@ -30,10 +41,50 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 @Configuration
 public class StateMachineExecutorConfiguration {
 
+	private static final Logger log = LoggerFactory.getLogger(StateMachineExecutorConfiguration.class);
+
 	@Bean
-	public TaskExecutor skipperStateMachineTaskExecutor() {
+	public TaskExecutor skipperStateMachineTaskExecutor(SkipperServerProperties skipperServerProperties) {
+		return createTaskExecutor(skipperServerProperties.getStateMachineExecutor());
+	}
+
+	/**
+	 * Creates an executor for release state machines with its usage published as metrics.
+	 * See {@link StateMachineExecutorMetrics}.
+	 *
+	 * @param properties the executor properties
+	 * @return the executor
+	 */
+	public static TaskExecutor createTaskExecutor(StateMachineExecutor properties) {
+		if (properties.isVirtualThreads()) {
+			ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+			if (virtualThreads != null) {
+				ConcurrentTaskExecutor executor = new ConcurrentTaskExecutor(virtualThreads);
+				executor.setTaskDecorator(new StateMachineExecutorMetrics(null));
+				return executor;
+			}
+			log.warn("Virtual threads are not available on this JVM, using a thread pool for state machines");
+		}
 		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-		executor.setCorePoolSize(4);
+		executor.setCorePoolSize(properties.getCorePoolSize());
+		executor.setMaxPoolSize(Math.max(properties.getCorePoolSize(), properties.getMaxPoolSize()));
+		executor.setQueueCapacity(properties.getQueueCapacity());
+		executor.setKeepAliveSeconds((int) Math.max(1, properties.getKeepAliveInMillis() / 1000));
+		executor.setRejectedExecutionHandler(properties.getRejectionPolicy() == RejectionPolicy.CALLER_RUNS
+				? new ThreadPoolExecutor.CallerRunsPolicy() : new ThreadPoolExecutor.AbortPolicy());
+		executor.setThreadNamePrefix("skipper-statemachine-");
+		executor.setTaskDecorator(new StateMachineExecutorMetrics(executor));
+		executor.initialize();
 		return executor;
 	}
+
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			// only available on jdk 21 and later
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
 }
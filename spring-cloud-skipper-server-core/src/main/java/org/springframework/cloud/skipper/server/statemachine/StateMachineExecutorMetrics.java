@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.statemachine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Publishes usage of the release state machine executor. Tasks waiting for a thread and
+ * running tasks are published as {@code skipper.statemachine.executor.tasks} and the
+ * time tasks waited for a thread as {@code skipper.statemachine.executor.queue.wait}.
+ * Saturation of a thread pool, its active threads relative to its max pool size, is
+ * published as {@code skipper.statemachine.executor.saturation}.
+ */
+class StateMachineExecutorMetrics implements TaskDecorator {
+
+	private final AtomicInteger queued = new AtomicInteger();
+
+	private final AtomicInteger running = new AtomicInteger();
+
+	private final Timer queueWait = Timer.builder("skipper.statemachine.executor.queue.wait")
+			.register(Metrics.globalRegistry);
+
+	/**
+	 * Instantiates a new state machine executor metrics.
+	 *
+	 * @param pool the thread pool, or null if tasks don't run in a pool
+	 */
+	StateMachineExecutorMetrics(ThreadPoolTaskExecutor pool) {
+		Metrics.gauge("skipper.statemachine.executor.tasks",
+				Tags.of("state", "queued"), this.queued);
+		Metrics.gauge("skipper.statemachine.executor.tasks",
+				Tags.of("state", "running"), this.running);
+		if (pool != null) {
+			Metrics.gauge("skipper.statemachine.executor.saturation", pool,
+					p -> (double) p.getActiveCount() / p.getMaxPoolSize());
+		}
+	}
+
+	@Override
+	public Runnable decorate(Runnable runnable) {
+		long submitted = System.nanoTime();
+		this.queued.incrementAndGet();
+		return () -> {
+			this.queued.decrementAndGet();
+			this.queueWait.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+			this.running.incrementAndGet();
+			try {
+				runnable.run();
+			}
+			finally {
+				this.running.decrementAndGet();
+			}
+		};
+	}
+
+	int getQueued() {
+		return queued.get();
+	}
+
+	int getRunning() {
+		return running.get();
+	}
+}
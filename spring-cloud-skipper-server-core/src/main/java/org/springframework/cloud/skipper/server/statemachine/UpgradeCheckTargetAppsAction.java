@@ -19,6 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.cloud.skipper.server.deployer.ReleaseAnalysisReport;
+import org.springframework.cloud.skipper.server.deployer.strategies.HealthCheckResult;
 import org.springframework.cloud.skipper.server.deployer.strategies.UpgradeStrategy;
 import org.springframework.cloud.skipper.server.deployer.strategies.UpgradeStrategyFactory;
 import org.springframework.cloud.skipper.server.service.ReleaseReportService;
@@ -59,13 +60,16 @@ public class UpgradeCheckTargetAppsAction extends AbstractUpgradeStartAction {
 		int upgradeStatus = 0;
 		// TODO: should check both releases
 		String kind = ManifestUtils.resolveKind(releaseAnalysisReport.getReplacingRelease().getManifest().getData());
-		UpgradeStrategy upgradeStrategy = this.upgradeStrategyFactory.getUpgradeStrategy(kind);
-		boolean ok = upgradeStrategy.checkStatus(releaseAnalysisReport.getReplacingRelease());
-		log.debug("upgradeStrategy checkStatus {}", ok);
-		if (ok) {
+		UpgradeStrategy upgradeStrategy = this.upgradeStrategyFactory.getUpgradeStrategy(kind,
+				getUpgradeStrategyName(context));
+		HealthCheckResult result = upgradeStrategy.checkHealth(releaseAnalysisReport.getExistingRelease(),
+				releaseAnalysisReport.getReplacingRelease(), releaseAnalysisReport);
+		log.debug("upgradeStrategy checkHealth {}", result);
+		if (result == HealthCheckResult.HEALTHY) {
 			upgradeStatus = 1;
 		}
-		else if (!ok && cutOffTimeExceed(context)) {
+		else if (result == HealthCheckResult.FAILED || cutOffTimeExceed(context)) {
+			// failed apps won't recover, no need to wait for the cutoff
 			upgradeStatus = -1;
 		}
 		log.debug("Setting upgradeStatus {}", upgradeStatus);
@@ -20,6 +20,7 @@ import org.springframework.cloud.skipper.server.deployer.ReleaseAnalysisReport;
 import org.springframework.cloud.skipper.server.deployer.strategies.UpgradeStrategy;
 import org.springframework.cloud.skipper.server.deployer.strategies.UpgradeStrategyFactory;
 import org.springframework.cloud.skipper.server.service.ReleaseReportService;
+import org.springframework.cloud.skipper.server.service.ReleaseService;
 import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService.SkipperEventHeaders;
 import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService.SkipperEvents;
 import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService.SkipperStates;
@@ -37,15 +38,20 @@ public class UpgradeDeleteSourceAppsAction extends AbstractUpgradeStartAction {
 
 	private final UpgradeStrategyFactory upgradeStrategyFactory;
 
+	private final ReleaseService releaseService;
+
 	/**
 	 * Instantiates a new upgrade delete source apps action.
 	 *
 	 * @param releaseReportService the release report service
 	 * @param upgradeStrategyFactory the upgrade strategy factory
+	 * @param releaseService the release service
 	 */
-	public UpgradeDeleteSourceAppsAction(ReleaseReportService releaseReportService, UpgradeStrategyFactory upgradeStrategyFactory) {
+	public UpgradeDeleteSourceAppsAction(ReleaseReportService releaseReportService, UpgradeStrategyFactory upgradeStrategyFactory,
+			ReleaseService releaseService) {
 		super(releaseReportService);
 		this.upgradeStrategyFactory = upgradeStrategyFactory;
+		this.releaseService = releaseService;
 	}
 
 	@Override
@@ -59,8 +65,13 @@ public class UpgradeDeleteSourceAppsAction extends AbstractUpgradeStartAction {
 
 		// TODO: should check both releases
 		String kind = ManifestUtils.resolveKind(releaseAnalysisReport.getExistingRelease().getManifest().getData());
-		UpgradeStrategy upgradeStrategy = this.upgradeStrategyFactory.getUpgradeStrategy(kind);
+		UpgradeStrategy upgradeStrategy = this.upgradeStrategyFactory.getUpgradeStrategy(kind,
+				getUpgradeStrategyName(context));
 		upgradeStrategy.accept(releaseAnalysisReport.getExistingRelease(), releaseAnalysisReport.getReplacingRelease(),
 				releaseAnalysisReport, rollbackRequest != null);
+		// upgrade is done, stored report is not needed anymore
+		getReleaseReportService().evictReport(releaseAnalysisReport);
+		// replacing release is now the latest one, either deployed or failed
+		this.releaseService.refreshStatusSnapshot(releaseAnalysisReport.getReplacingRelease());
 	}
 }
@@ -66,15 +66,18 @@ public class UpgradeDeployTargetAppsAction extends AbstractUpgradeStartAction {
 
 		// TODO: should check both releases
 		String kind = ManifestUtils.resolveKind(releaseAnalysisReport.getExistingRelease().getManifest().getData());
-		UpgradeStrategy upgradeStrategy = this.upgradeStrategyFactory.getUpgradeStrategy(kind);
+		UpgradeStrategy upgradeStrategy = this.upgradeStrategyFactory.getUpgradeStrategy(kind,
+				getUpgradeStrategyName(context));
 		log.info("Using UpgradeStrategy {}", upgradeStrategy);
-		setUpgradeCutOffTime(context);
+		setUpgradeCutOffTime(context, upgradeStrategy.getUpgradeTimeoutExtension(
+				releaseAnalysisReport.getExistingRelease(), releaseAnalysisReport.getReplacingRelease(),
+				releaseAnalysisReport));
 		upgradeStrategy.deployApps(releaseAnalysisReport.getExistingRelease(),
 				releaseAnalysisReport.getReplacingRelease(), releaseAnalysisReport);
 		context.getExtendedState().getVariables().put(SkipperVariables.RELEASE, releaseAnalysisReport.getReplacingRelease());
 	}
 
-	private void setUpgradeCutOffTime(StateContext<SkipperStates, SkipperEvents> context) {
+	private void setUpgradeCutOffTime(StateContext<SkipperStates, SkipperEvents> context, long extension) {
 		Long upgradeTimeout = context.getExtendedState().get(SkipperEventHeaders.UPGRADE_TIMEOUT, Long.class);
 		if (upgradeTimeout == null) {
 			if (healthCheckProperties != null && healthCheckProperties.getTimeoutInMillis() > 0) {
@@ -87,6 +90,12 @@ public class UpgradeDeployTargetAppsAction extends AbstractUpgradeStartAction {
 			// not given, set it so that we can use it later for reporting
 			context.getExtendedState().getVariables().put(SkipperEventHeaders.UPGRADE_TIMEOUT, upgradeTimeout);
 		}
+		if (extension > 0) {
+			// time the strategy waits on purpose, reported as part of the timeout
+			upgradeTimeout += extension;
+			context.getExtendedState().getVariables().put(SkipperEventHeaders.UPGRADE_TIMEOUT, upgradeTimeout);
+			log.debug("Extended upgrade timeout by {}ms", extension);
+		}
 		long cutOffTime = System.currentTimeMillis() + upgradeTimeout;
 		context.getExtendedState().getVariables().put(SkipperVariables.UPGRADE_CUTOFF_TIME,
 				cutOffTime);
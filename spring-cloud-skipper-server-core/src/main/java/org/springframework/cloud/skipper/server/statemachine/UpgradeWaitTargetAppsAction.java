@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.statemachine;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.skipper.server.deployer.strategies.HealthCheckProperties;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService.SkipperEventHeaders;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService.SkipperEvents;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService.SkipperStates;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService.SkipperVariables;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateContext;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.action.Action;
+
+/**
+ * StateMachine {@link Action} scheduling the next check of target apps when waiting for
+ * them. Checks are scheduled with a backoff defined by {@link HealthCheckProperties},
+ * except that the choice is made right away once the last check was decisive. Every
+ * scheduled check carries its attempt number so that checks scheduled for earlier waits
+ * are not accepted.
+ */
+public class UpgradeWaitTargetAppsAction extends AbstractAction {
+
+	private static final Logger log = LoggerFactory.getLogger(UpgradeWaitTargetAppsAction.class);
+
+	private final HealthCheckProperties healthCheckProperties;
+
+	/**
+	 * Instantiates a new upgrade wait target apps action.
+	 *
+	 * @param healthCheckProperties the health check properties
+	 */
+	public UpgradeWaitTargetAppsAction(HealthCheckProperties healthCheckProperties) {
+		this.healthCheckProperties = healthCheckProperties;
+	}
+
+	@Override
+	protected void executeInternal(StateContext<SkipperStates, SkipperEvents> context) {
+		Integer previousAttempt = context.getExtendedState().get(SkipperVariables.UPGRADE_CHECK_ATTEMPT,
+				Integer.class);
+		int attempt = previousAttempt != null ? previousAttempt + 1 : 1;
+		context.getExtendedState().getVariables().put(SkipperVariables.UPGRADE_CHECK_ATTEMPT, attempt);
+
+		Integer upgradeStatus = context.getExtendedState().get(SkipperVariables.UPGRADE_STATUS, Integer.class);
+		long delay = upgradeStatus != null && upgradeStatus != 0 ? 0
+				: this.healthCheckProperties.getIntervalInMillis(attempt);
+		log.debug("Scheduling upgrade check attempt {} in {}ms", attempt, delay);
+
+		StateMachine<SkipperStates, SkipperEvents> stateMachine = context.getStateMachine();
+		Message<SkipperEvents> message = MessageBuilder
+				.withPayload(SkipperEvents.UPGRADE_CHECK)
+				.setHeader(SkipperEventHeaders.UPGRADE_CHECK_ATTEMPT, attempt)
+				.build();
+		Mono.delay(Duration.ofMillis(delay))
+			.subscribe(tick -> stateMachine.sendEvent(message),
+					e -> log.warn("Unable to schedule upgrade check", e));
+	}
+}
@@ -0,0 +1 @@
+create unique index idx_rel_name_version on skipper_release (name, version);
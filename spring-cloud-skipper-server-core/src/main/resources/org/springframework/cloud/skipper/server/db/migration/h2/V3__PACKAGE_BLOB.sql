@@ -0,0 +1,12 @@
+create table skipper_package_blob (
+    hash varchar(64) not null,
+    data clob,
+    primary key (hash)
+);
+
+alter table skipper_release add column pkg_hash varchar(64);
+
+alter table skipper_release
+    add constraint fk_release_pkg_blob
+    foreign key (pkg_hash)
+    references skipper_package_blob;
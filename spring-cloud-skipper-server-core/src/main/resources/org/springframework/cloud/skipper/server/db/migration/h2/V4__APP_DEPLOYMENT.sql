@@ -0,0 +1,20 @@
+create table skipper_app_deployment (
+    id bigint not null,
+    app_name varchar(255),
+    deployment_id varchar(255),
+    release_name varchar(255),
+    release_version integer,
+    app_deployer_data_id bigint not null,
+    primary key (id)
+);
+
+create index idx_app_deployment_release on skipper_app_deployment (release_name, release_version);
+
+create index idx_app_depl_deployment_id on skipper_app_deployment (deployment_id);
+
+create index idx_app_deployer_data_release on skipper_app_deployer_data (release_name, release_version);
+
+alter table skipper_app_deployment
+    add constraint fk_app_deployment_data
+    foreign key (app_deployer_data_id)
+    references skipper_app_deployer_data;
@@ -0,0 +1,13 @@
+create table skipper_operation (
+    id varchar(36) not null,
+    type varchar(255),
+    state varchar(255),
+    release_name varchar(255),
+    release_version integer,
+    message varchar(2048),
+    created timestamp,
+    updated timestamp,
+    primary key (id)
+);
+
+create index idx_operation_release on skipper_operation (release_name);
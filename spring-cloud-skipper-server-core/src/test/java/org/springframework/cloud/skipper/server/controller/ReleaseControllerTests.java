@@ -38,6 +38,7 @@ import org.springframework.cloud.skipper.domain.UpgradeProperties;
 import org.springframework.cloud.skipper.domain.UpgradeRequest;
 import org.springframework.cloud.skipper.server.deployer.DefaultReleaseManager;
 import org.springframework.cloud.skipper.server.repository.jpa.RepositoryRepository;
+import org.springframework.cloud.skipper.server.service.ReleaseService;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.annotation.DirtiesContext;
@@ -209,6 +210,18 @@ public class ReleaseControllerTests extends AbstractControllerTests {
 		assertThat(release.getVersion()).isEqualTo(2);
 	}
 
+	@Test
+	public void pageWithInvalidSizeIsBadRequest() throws Exception {
+		mockMvc.perform(get("/api/release/page").param("size", "0")).andDo(print())
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/release/page").param("size", String.valueOf(ReleaseService.MAX_PAGE_SIZE + 1)))
+				.andDo(print()).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/release/page").param("cursor", "not-a-cursor")).andDo(print())
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/release/stream").param("size", "0")).andDo(print())
+				.andExpect(status().isBadRequest());
+	}
+
 	@Test
 	public void cancelNonExistingRelease() throws Exception {
 		cancel("myLog2", HttpStatus.OK.value(), false);
@@ -20,6 +20,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
 
+import javax.sql.DataSource;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +44,7 @@ import org.springframework.cloud.deployer.resource.docker.DockerResourceLoader;
 import org.springframework.cloud.deployer.resource.maven.MavenProperties;
 import org.springframework.cloud.deployer.resource.maven.MavenResourceLoader;
 import org.springframework.cloud.deployer.resource.support.DelegatingResourceLoader;
+import org.springframework.cloud.skipper.domain.PackageBlobCache;
 import org.springframework.cloud.skipper.domain.SpringCloudDeployerApplicationManifestReader;
 import org.springframework.cloud.skipper.io.DefaultPackageReader;
 import org.springframework.cloud.skipper.io.DefaultPackageWriter;
@@ -52,23 +55,31 @@ import org.springframework.cloud.skipper.server.config.SkipperServerConfiguratio
 import org.springframework.cloud.skipper.server.config.SkipperServerPlatformConfiguration;
 import org.springframework.cloud.skipper.server.config.SkipperServerProperties;
 import org.springframework.cloud.skipper.server.controller.AboutController;
+import org.springframework.cloud.skipper.server.controller.OperationController;
 import org.springframework.cloud.skipper.server.controller.PackageController;
 import org.springframework.cloud.skipper.server.controller.ReleaseController;
 import org.springframework.cloud.skipper.server.controller.RootController;
 import org.springframework.cloud.skipper.server.controller.SkipperErrorAttributes;
 import org.springframework.cloud.skipper.server.controller.VersionInfoProperties;
+import org.springframework.cloud.skipper.server.deployer.AppDeploymentExecutor;
 import org.springframework.cloud.skipper.server.deployer.AppDeploymentRequestFactory;
 import org.springframework.cloud.skipper.server.deployer.DefaultReleaseManager;
 import org.springframework.cloud.skipper.server.deployer.DefaultReleaseManagerFactory;
+import org.springframework.cloud.skipper.server.deployer.DeploymentStateCache;
+import org.springframework.cloud.skipper.server.deployer.PlatformRequestLimiter;
 import org.springframework.cloud.skipper.server.deployer.ReleaseAnalyzer;
 import org.springframework.cloud.skipper.server.deployer.ReleaseManager;
 import org.springframework.cloud.skipper.server.deployer.ReleaseManagerFactory;
+import org.springframework.cloud.skipper.server.deployer.strategies.CanaryUpgradeProperties;
+import org.springframework.cloud.skipper.server.deployer.strategies.CanaryUpgradeStrategy;
 import org.springframework.cloud.skipper.server.deployer.strategies.DefaultUpgradeStrategyFactory;
 import org.springframework.cloud.skipper.server.deployer.strategies.DeleteStep;
 import org.springframework.cloud.skipper.server.deployer.strategies.DeployAppStep;
 import org.springframework.cloud.skipper.server.deployer.strategies.HandleHealthCheckStep;
 import org.springframework.cloud.skipper.server.deployer.strategies.HealthCheckProperties;
 import org.springframework.cloud.skipper.server.deployer.strategies.HealthCheckStep;
+import org.springframework.cloud.skipper.server.deployer.strategies.RollingUpgradeProperties;
+import org.springframework.cloud.skipper.server.deployer.strategies.RollingUpgradeStrategy;
 import org.springframework.cloud.skipper.server.deployer.strategies.SimpleRedBlackUpgradeStrategy;
 import org.springframework.cloud.skipper.server.deployer.strategies.UpgradeStrategy;
 import org.springframework.cloud.skipper.server.deployer.strategies.UpgradeStrategyFactory;
@@ -80,17 +91,22 @@ import org.springframework.cloud.skipper.server.repository.jpa.PackageMetadataRe
 import org.springframework.cloud.skipper.server.repository.jpa.ReleaseRepository;
 import org.springframework.cloud.skipper.server.repository.jpa.RepositoryRepository;
 import org.springframework.cloud.skipper.server.repository.map.DeployerRepository;
+import org.springframework.cloud.skipper.server.service.BatchUpgradeService;
+import org.springframework.cloud.skipper.server.service.OperationService;
 import org.springframework.cloud.skipper.server.service.PackageMetadataService;
 import org.springframework.cloud.skipper.server.service.PackageService;
 import org.springframework.cloud.skipper.server.service.ReleaseReportService;
 import org.springframework.cloud.skipper.server.service.ReleaseService;
 import org.springframework.cloud.skipper.server.service.ReleaseStateUpdateService;
+import org.springframework.cloud.skipper.server.service.ReleaseStatusSnapshotStore;
 import org.springframework.cloud.skipper.server.service.RepositoryInitializationService;
 import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService;
+import org.springframework.cloud.skipper.support.codec.LobCodecs;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -104,7 +120,8 @@ import static org.mockito.Mockito.mock;
  */
 @Configuration
 @EnableConfigurationProperties({ SkipperServerProperties.class, VersionInfoProperties.class,
-		LocalPlatformProperties.class, HealthCheckProperties.class })
+		LocalPlatformProperties.class, HealthCheckProperties.class, RollingUpgradeProperties.class,
+		CanaryUpgradeProperties.class })
 @EntityScan({ "org.springframework.cloud.skipper.domain",
 		"org.springframework.cloud.skipper.server.domain" })
 @EnableAsync
@@ -144,16 +161,35 @@ public class ServerDependencies implements AsyncConfigurer {
 		return mock(SkipperStateMachineService.class);
 	}
 
+	@Bean
+	public OperationService operationService() {
+		return mock(OperationService.class);
+	}
+
+	@Bean
+	public BatchUpgradeService batchUpgradeService() {
+		return mock(BatchUpgradeService.class);
+	}
+
 	@Bean
 	public ReleaseController releaseController(ReleaseService releaseService,
-			SkipperStateMachineService skipperStateMachineService) {
-		return new ReleaseController(releaseService, skipperStateMachineService);
+			SkipperStateMachineService skipperStateMachineService, OperationService operationService,
+			BatchUpgradeService batchUpgradeService) {
+		return new ReleaseController(releaseService, skipperStateMachineService, operationService,
+				batchUpgradeService);
 	}
 
 	@Bean
 	public PackageController packageController(PackageService packageService,
-			PackageMetadataService packageMetadataService, SkipperStateMachineService skipperStateMachineService) {
-		return new PackageController(packageService, packageMetadataService, skipperStateMachineService);
+			PackageMetadataService packageMetadataService, SkipperStateMachineService skipperStateMachineService,
+			OperationService operationService) {
+		return new PackageController(packageService, packageMetadataService, skipperStateMachineService,
+				operationService);
+	}
+
+	@Bean
+	public OperationController operationController(OperationService operationService) {
+		return new OperationController(operationService);
 	}
 
 	@Bean
@@ -212,11 +248,39 @@ public class ServerDependencies implements AsyncConfigurer {
 		return mock(ReleaseService.class);
 	}
 
+	@Bean
+	public ReleaseStatusSnapshotStore releaseStatusSnapshotStore(SkipperServerProperties skipperServerProperties) {
+		return new ReleaseStatusSnapshotStore(skipperServerProperties.getStatusSnapshots());
+	}
+
+	@Bean
+	public PackageBlobCache packageBlobCache(DataSource dataSource, LobCodecs lobCodecs) {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		return new PackageBlobCache(256, hash -> jdbcTemplate
+				.queryForList("select data from skipper_package_blob where hash = ?", String.class, hash)
+				.stream()
+				.findFirst()
+				.map(lobCodecs::decode)
+				.orElse(null));
+	}
+
+	@Bean
+	public LobCodecs lobCodecs(SkipperServerProperties skipperServerProperties) {
+		LobCodecs lobCodecs = new LobCodecs();
+		for (Map.Entry<String, String> entry : skipperServerProperties.getLobCompression().getColumns()
+				.entrySet()) {
+			lobCodecs.setColumnCodec(entry.getKey(), entry.getValue());
+		}
+		return lobCodecs;
+	}
+
 	@Bean
 	@ConditionalOnProperty(prefix = "spring.cloud.skipper.server", name = "enableReleaseStateUpdateService", matchIfMissing = true)
 	public ReleaseStateUpdateService releaseStateUpdateService(ReleaseManagerFactory releaseManagerFactory,
-			ReleaseRepository releaseRepository) {
-		return new ReleaseStateUpdateService(releaseManagerFactory, releaseRepository);
+			ReleaseRepository releaseRepository, DataSource dataSource, LobCodecs lobCodecs,
+			SkipperServerProperties skipperServerProperties, ReleaseStatusSnapshotStore releaseStatusSnapshotStore) {
+		return new ReleaseStateUpdateService(releaseManagerFactory, releaseRepository, dataSource, lobCodecs,
+				skipperServerProperties.getReleaseStatePolling(), releaseStatusSnapshotStore);
 	}
 
 	@Bean
@@ -230,15 +294,35 @@ public class ServerDependencies implements AsyncConfigurer {
 
 	// Deployer Package
 
+	@Bean
+	public PlatformRequestLimiter platformRequestLimiter(SkipperServerProperties skipperServerProperties) {
+		return new PlatformRequestLimiter(skipperServerProperties.getPlatformRequestLimits());
+	}
+
+	@Bean
+	public AppDeploymentExecutor appDeploymentExecutor(SkipperServerProperties skipperServerProperties) {
+		return new AppDeploymentExecutor(skipperServerProperties.getAppDeployments());
+	}
+
+	@Bean
+	public DeploymentStateCache deploymentStateCache(SkipperServerProperties skipperServerProperties,
+			PlatformRequestLimiter platformRequestLimiter) {
+		return new DeploymentStateCache(skipperServerProperties.getStateCache(), platformRequestLimiter);
+	}
+
 	@Bean
 	public DefaultReleaseManager defaultReleaseManager(ReleaseRepository releaseRepository,
 			AppDeployerDataRepository appDeployerDataRepository,
 			DeployerRepository deployerRepository,
 			ReleaseAnalyzer releaseAnalyzer,
 			AppDeploymentRequestFactory appDeploymentRequestFactory,
-			SpringCloudDeployerApplicationManifestReader applicationManifestReader) {
+			SpringCloudDeployerApplicationManifestReader applicationManifestReader,
+			DeploymentStateCache deploymentStateCache,
+			PlatformRequestLimiter platformRequestLimiter,
+			AppDeploymentExecutor appDeploymentExecutor) {
 		return new DefaultReleaseManager(releaseRepository, appDeployerDataRepository, deployerRepository,
-				releaseAnalyzer, appDeploymentRequestFactory, applicationManifestReader);
+				releaseAnalyzer, appDeploymentRequestFactory, applicationManifestReader, deploymentStateCache,
+				platformRequestLimiter, appDeploymentExecutor);
 	}
 
 	@Bean
@@ -247,8 +331,9 @@ public class ServerDependencies implements AsyncConfigurer {
 	}
 
 	@Bean
-	public DeleteStep deleteStep(ReleaseRepository releaseRepository, DeployerRepository deployerRepository) {
-		return new DeleteStep(releaseRepository, deployerRepository);
+	public DeleteStep deleteStep(ReleaseRepository releaseRepository, DeployerRepository deployerRepository,
+			AppDeploymentExecutor appDeploymentExecutor) {
+		return new DeleteStep(releaseRepository, deployerRepository, appDeploymentExecutor);
 	}
 
 	@Bean
@@ -259,6 +344,24 @@ public class ServerDependencies implements AsyncConfigurer {
 				deployAppStep);
 	}
 
+	@Bean
+	public UpgradeStrategy rollingUpgradeStrategy(HealthCheckStep healthCheckStep,
+			HandleHealthCheckStep healthCheckAndDeleteStep, DeployAppStep deployAppStep, DeleteStep deleteStep,
+			AppDeployerDataRepository appDeployerDataRepository, RollingUpgradeProperties rollingUpgradeProperties) {
+		return new RollingUpgradeStrategy(healthCheckStep, healthCheckAndDeleteStep, deployAppStep, deleteStep,
+				appDeployerDataRepository, rollingUpgradeProperties);
+	}
+
+	@Bean
+	public UpgradeStrategy canaryUpgradeStrategy(HealthCheckStep healthCheckStep,
+			HandleHealthCheckStep healthCheckAndDeleteStep, DeployAppStep deployAppStep,
+			ReleaseManagerFactory releaseManagerFactory,
+			SpringCloudDeployerApplicationManifestReader applicationManifestReader,
+			CanaryUpgradeProperties canaryUpgradeProperties) {
+		return new CanaryUpgradeStrategy(healthCheckStep, healthCheckAndDeleteStep, deployAppStep,
+				releaseManagerFactory, applicationManifestReader, canaryUpgradeProperties);
+	}
+
 	@Bean
 	public HealthCheckStep healthCheckStep(AppDeployerDataRepository appDeployerDataRepository,
 			DeployerRepository deployerRepository,
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.db.migration;
+
+import java.time.Duration;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.deployer.autoconfigure.ResourceLoadingAutoConfiguration;
+import org.springframework.cloud.skipper.domain.InstallRequest;
+import org.springframework.cloud.skipper.domain.Operation;
+import org.springframework.cloud.skipper.domain.OperationState;
+import org.springframework.cloud.skipper.domain.OperationType;
+import org.springframework.cloud.skipper.domain.PackageIdentifier;
+import org.springframework.cloud.skipper.server.AbstractIntegrationTest;
+import org.springframework.cloud.skipper.server.config.SkipperServerConfiguration;
+import org.springframework.cloud.skipper.server.config.SkipperServerPlatformConfiguration;
+import org.springframework.cloud.skipper.server.service.OperationService;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.statemachine.boot.autoconfigure.StateMachineJpaRepositoriesAutoConfiguration;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests running on the H2 schema created by the Flyway migrations, as the embedded
+ * server does, instead of the schema generated by Hibernate.
+ */
+@SpringBootTest(classes = H2FlywaySchemaTests.TestConfig.class, properties = {
+		"spring.main.allow-bean-definition-overriding=true",
+		"spring.datasource.url=jdbc:h2:mem:flywaytestdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"spring.jpa.generate-ddl=false",
+		"spring.jpa.hibernate.ddl-auto=none",
+		"spring.flyway.locations=classpath:org/springframework/cloud/skipper/server/db/migration/h2",
+		"spring.flyway.baseline-version=1",
+		"spring.flyway.baseline-on-migrate=true" })
+@ActiveProfiles({ "repo-test", "local" })
+public class H2FlywaySchemaTests extends AbstractIntegrationTest {
+
+	@Autowired
+	private OperationService operationService;
+
+	@Test
+	public void asyncInstall() throws InterruptedException {
+		String releaseName = "flywaylog";
+		InstallRequest installRequest = new InstallRequest();
+		installRequest.setInstallProperties(createInstallProperties(releaseName));
+		PackageIdentifier packageIdentifier = new PackageIdentifier();
+		packageIdentifier.setPackageName("log");
+		packageIdentifier.setPackageVersion("1.0.0");
+		installRequest.setPackageIdentifier(packageIdentifier);
+
+		Operation operation = this.operationService.submit(OperationType.INSTALL, releaseName,
+				() -> this.skipperStateMachineService.installRelease(installRequest));
+		await().atMost(Duration.ofMinutes(2)).until(
+				() -> this.operationService.get(operation.getId()).getState() != OperationState.PENDING
+						&& this.operationService.get(operation.getId()).getState() != OperationState.RUNNING);
+
+		Operation done = this.operationService.get(operation.getId());
+		assertThat(done.getState()).isEqualTo(OperationState.SUCCEEDED);
+		assertThat(done.getReleaseVersion()).isEqualTo(1);
+		assertReleaseIsDeployedSuccessfully(releaseName, 1);
+	}
+
+	@Configuration
+	@ImportAutoConfiguration(classes = { JacksonAutoConfiguration.class, DataSourceAutoConfiguration.class,
+			FlywayAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+			StateMachineJpaRepositoriesAutoConfiguration.class, SkipperServerPlatformConfiguration.class,
+			ResourceLoadingAutoConfiguration.class })
+	@Import(SkipperServerConfiguration.class)
+	@EnableWebMvc
+	static class TestConfig {
+	}
+}
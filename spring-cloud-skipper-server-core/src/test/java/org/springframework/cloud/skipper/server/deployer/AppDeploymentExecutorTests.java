@@ -0,0 +1,216 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.deployer;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.core.instrument.Metrics;
+import org.junit.Test;
+
+import org.springframework.cloud.deployer.spi.app.AppDeployer;
+import org.springframework.cloud.deployer.spi.app.AppStatus;
+import org.springframework.cloud.deployer.spi.core.AppDefinition;
+import org.springframework.cloud.deployer.spi.core.AppDeploymentRequest;
+import org.springframework.cloud.deployer.spi.core.RuntimeEnvironmentInfo;
+import org.springframework.cloud.skipper.SkipperException;
+import org.springframework.cloud.skipper.server.deployer.AppDeploymentExecutor.UndeployResult;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.AppDeployments;
+import org.springframework.core.io.ByteArrayResource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests for {@link AppDeploymentExecutor}.
+ */
+public class AppDeploymentExecutorTests {
+
+	@Test
+	public void appsAreDeployedAtTheSameTime() {
+		Map<String, AppDeploymentRequest> requests = createRequests(8);
+
+		LatencyAppDeployer serialAppDeployer = new LatencyAppDeployer(200);
+		long serialStart = System.currentTimeMillis();
+		createExecutor(1).deploy("default", serialAppDeployer, requests);
+		long serialTime = System.currentTimeMillis() - serialStart;
+
+		LatencyAppDeployer parallelAppDeployer = new LatencyAppDeployer(200);
+		long parallelStart = System.currentTimeMillis();
+		createExecutor(8).deploy("default", parallelAppDeployer, requests);
+		long parallelTime = System.currentTimeMillis() - parallelStart;
+
+		assertThat(serialTime).isGreaterThanOrEqualTo(8 * 200);
+		assertThat(parallelTime).isLessThan(serialTime / 2);
+		assertThat(parallelAppDeployer.deployed).hasSize(8);
+	}
+
+	@Test
+	public void deploymentIdsAreInOrderOfRequests() {
+		Map<String, AppDeploymentRequest> requests = createRequests(5);
+
+		Map<String, String> deploymentIds = createExecutor(5).deploy("default", new LatencyAppDeployer(50), requests);
+
+		assertThat(deploymentIds.keySet()).containsExactly("app0", "app1", "app2", "app3", "app4");
+		assertThat(deploymentIds.values()).containsExactly("app0-v1", "app1-v1", "app2-v1", "app3-v1", "app4-v1");
+	}
+
+	@Test
+	public void deployedAppsAreUndeployedWhenAppFails() {
+		Map<String, AppDeploymentRequest> requests = createRequests(4);
+		LatencyAppDeployer appDeployer = new LatencyAppDeployer(50);
+		appDeployer.failing.add("app2");
+
+		assertThatThrownBy(() -> createExecutor(4).deploy("default", appDeployer, requests))
+				.isInstanceOf(SkipperException.class)
+				.hasMessageContaining("app2");
+		assertThat(appDeployer.deployed).isNotEmpty().doesNotContain("app2-v1");
+		assertThat(appDeployer.undeployed).isEqualTo(appDeployer.deployed);
+	}
+
+	@Test
+	public void undeployFailuresAreReportedPerApp() {
+		LatencyAppDeployer appDeployer = new LatencyAppDeployer(0);
+		appDeployer.failing.add("app1-v1");
+		Map<String, String> deploymentIds = new LinkedHashMap<>();
+		deploymentIds.put("app0", "app0-v1");
+		deploymentIds.put("app1", "app1-v1");
+		deploymentIds.put("app2", "app2-v1");
+
+		Map<String, UndeployResult> results = createExecutor(3).undeploy("default", appDeployer, deploymentIds);
+
+		assertThat(results.keySet()).containsExactly("app0", "app1", "app2");
+		assertThat(results.get("app0").isSuccess()).isTrue();
+		assertThat(results.get("app1").isSuccess()).isFalse();
+		assertThat(results.get("app2").isSuccess()).isTrue();
+		assertThat(appDeployer.undeployed).containsOnly("app0-v1", "app2-v1");
+		assertThat(AppDeploymentExecutor.describeFailures(results))
+				.containsExactly("app1 [Failed to undeploy app1-v1]");
+		assertThat(Metrics.globalRegistry.find("skipper.app.undeploy").tag("result", "failure").timer())
+				.isNotNull();
+	}
+
+	@Test
+	public void undeployTimesOutPerApp() {
+		LatencyAppDeployer appDeployer = new LatencyAppDeployer(0);
+		appDeployer.undeployLatencyInMillis = 1000;
+		AppDeployments properties = new AppDeployments();
+		properties.setUndeployTimeoutInMillis(100);
+		AppDeploymentExecutor executor = new AppDeploymentExecutor(properties);
+
+		long start = System.currentTimeMillis();
+		Map<String, UndeployResult> results = executor.undeploy("default", appDeployer,
+				Collections.singletonMap("app0", "app0-v1"));
+
+		assertThat(System.currentTimeMillis() - start).isLessThan(1000);
+		assertThat(results.get("app0").isSuccess()).isFalse();
+		assertThat(results.get("app0").getError()).hasMessageContaining("timed out");
+		// the timed out undeploy keeps running
+		assertThat(appDeployer.undeployed).isEmpty();
+		await().atMost(Duration.ofSeconds(5)).untilAsserted(
+				() -> assertThat(appDeployer.undeployed).containsExactly("app0-v1"));
+	}
+
+	private static AppDeploymentExecutor createExecutor(int parallelism) {
+		AppDeployments properties = new AppDeployments();
+		properties.setParallelism(parallelism);
+		return new AppDeploymentExecutor(properties);
+	}
+
+	private static Map<String, AppDeploymentRequest> createRequests(int count) {
+		Map<String, AppDeploymentRequest> requests = new LinkedHashMap<>();
+		for (int i = 0; i < count; i++) {
+			AppDefinition appDefinition = new AppDefinition("app" + i, Collections.emptyMap());
+			requests.put("app" + i, new AppDeploymentRequest(appDefinition, new ByteArrayResource(new byte[0])));
+		}
+		return requests;
+	}
+
+	/**
+	 * {@link AppDeployer} taking the given time for every deploy like a remote platform.
+	 */
+	private static class LatencyAppDeployer implements AppDeployer {
+
+		private final long latencyInMillis;
+
+		private final Set<String> failing = ConcurrentHashMap.newKeySet();
+
+		private final Set<String> deployed = ConcurrentHashMap.newKeySet();
+
+		private final Set<String> undeployed = ConcurrentHashMap.newKeySet();
+
+		private volatile long undeployLatencyInMillis;
+
+		LatencyAppDeployer(long latencyInMillis) {
+			this.latencyInMillis = latencyInMillis;
+		}
+
+		@Override
+		public String deploy(AppDeploymentRequest request) {
+			String appName = request.getDefinition().getName();
+			sleep(this.latencyInMillis);
+			if (this.failing.contains(appName)) {
+				throw new IllegalStateException("Failed to deploy " + appName);
+			}
+			String deploymentId = appName + "-v1";
+			this.deployed.add(deploymentId);
+			return deploymentId;
+		}
+
+		@Override
+		public void undeploy(String id) {
+			// like platform calls, undeploys don't react to interrupts
+			long end = System.currentTimeMillis() + this.undeployLatencyInMillis;
+			while (System.currentTimeMillis() < end) {
+				sleep(Math.max(end - System.currentTimeMillis(), 0));
+				Thread.interrupted();
+			}
+			if (this.failing.contains(id)) {
+				throw new IllegalStateException("Failed to undeploy " + id);
+			}
+			this.undeployed.add(id);
+		}
+
+		@Override
+		public AppStatus status(String id) {
+			return AppStatus.of(id).build();
+		}
+
+		@Override
+		public RuntimeEnvironmentInfo environmentInfo() {
+			return null;
+		}
+
+		@Override
+		public String getLog(String id) {
+			return null;
+		}
+
+		private static void sleep(long millis) {
+			try {
+				Thread.sleep(millis);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
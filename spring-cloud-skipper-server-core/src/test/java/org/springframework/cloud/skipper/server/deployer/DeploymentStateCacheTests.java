@@ -0,0 +1,94 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.deployer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.deployer.spi.app.AppDeployer;
+import org.springframework.cloud.deployer.spi.app.DeploymentState;
+import org.springframework.cloud.deployer.spi.app.MultiStateAppDeployer;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.PlatformRequestLimits;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.StateCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link DeploymentStateCache}.
+ */
+public class DeploymentStateCacheTests {
+
+	private final DeploymentStateCache cache = new DeploymentStateCache(new StateCache(),
+			new PlatformRequestLimiter(new PlatformRequestLimits()));
+
+	@Test
+	public void loadsOnlyMissingDeploymentIds() {
+		MultiStateAppDeployer appDeployer = mock(MultiStateAppDeployer.class);
+		when(appDeployer.statesReactive(any(String[].class))).thenAnswer(invocation -> {
+			Map<String, DeploymentState> states = new HashMap<>();
+			for (Object deploymentId : invocation.getArguments()) {
+				states.put((String) deploymentId, DeploymentState.deployed);
+			}
+			return Mono.just(states);
+		});
+
+		assertThat(this.cache.getStates("default", appDeployer, Arrays.asList("app1", "app2")).block())
+				.containsOnly(entry("app1", DeploymentState.deployed), entry("app2", DeploymentState.deployed));
+		assertThat(this.cache.getStates("default", appDeployer, Arrays.asList("app2", "app3")).block())
+				.containsOnly(entry("app2", DeploymentState.deployed), entry("app3", DeploymentState.deployed));
+
+		verify(appDeployer).statesReactive("app1", "app2");
+		verify(appDeployer).statesReactive("app3");
+		verify(appDeployer, never()).statesReactive("app2", "app3");
+	}
+
+	@Test
+	public void deployersAreCachedSeparately() {
+		MultiStateAppDeployer appDeployer1 = mock(MultiStateAppDeployer.class);
+		MultiStateAppDeployer appDeployer2 = mock(MultiStateAppDeployer.class);
+		when(appDeployer1.statesReactive(any(String[].class)))
+				.thenReturn(Mono.just(singletonState("app1", DeploymentState.deployed)));
+		when(appDeployer2.statesReactive(any(String[].class)))
+				.thenReturn(Mono.just(singletonState("app1", DeploymentState.failed)));
+
+		assertThat(this.cache.getStates("default", appDeployer1, Arrays.asList("app1")).block())
+				.containsOnly(entry("app1", DeploymentState.deployed));
+		assertThat(this.cache.getStates("default", appDeployer2, Arrays.asList("app1")).block())
+				.containsOnly(entry("app1", DeploymentState.failed));
+	}
+
+	@Test
+	public void statesOfOtherDeployersAreEmpty() {
+		AppDeployer appDeployer = mock(AppDeployer.class);
+		assertThat(this.cache.getStates("default", appDeployer, Arrays.asList("app1")).block()).isEmpty();
+	}
+
+	private static Map<String, DeploymentState> singletonState(String deploymentId, DeploymentState state) {
+		Map<String, DeploymentState> states = new HashMap<>();
+		states.put(deploymentId, state);
+		return states;
+	}
+}
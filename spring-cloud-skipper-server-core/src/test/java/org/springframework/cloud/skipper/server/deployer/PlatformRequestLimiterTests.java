@@ -0,0 +1,88 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.deployer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.PlatformRequestLimit;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.PlatformRequestLimits;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PlatformRequestLimiter}.
+ */
+public class PlatformRequestLimiterTests {
+
+	@Test
+	public void requestsAreQueuedOverMaxConcurrency() {
+		PlatformRequestLimiter limiter = createLimiter(1, 0);
+		Sinks.One<String> first = Sinks.one();
+		AtomicReference<String> firstResult = new AtomicReference<>();
+		AtomicReference<String> secondResult = new AtomicReference<>();
+		AtomicInteger subscribed = new AtomicInteger();
+
+		limiter.limit("test", first.asMono()).subscribe(firstResult::set);
+		limiter.limit("test", Mono.fromCallable(() -> {
+			subscribed.incrementAndGet();
+			return "second";
+		})).subscribe(secondResult::set);
+		assertThat(subscribed.get()).isEqualTo(0);
+		assertThat(secondResult.get()).isNull();
+
+		first.tryEmitValue("first");
+		assertThat(firstResult.get()).isEqualTo("first");
+		assertThat(subscribed.get()).isEqualTo(1);
+		assertThat(secondResult.get()).isEqualTo("second");
+	}
+
+	@Test
+	public void platformsAreLimitedSeparately() {
+		PlatformRequestLimiter limiter = createLimiter(1, 0);
+		Sinks.One<String> blocked = Sinks.one();
+		limiter.limit("test", blocked.asMono()).subscribe();
+		assertThat(limiter.limit("other", Mono.just("other")).block()).isEqualTo("other");
+	}
+
+	@Test
+	public void requestsAreRateLimited() {
+		PlatformRequestLimiter limiter = createLimiter(10, 20);
+		long start = System.currentTimeMillis();
+		List<Integer> results = Flux.range(0, 30)
+			.flatMap(i -> limiter.limit("test", Mono.just(i)))
+			.collectList()
+			.block();
+		assertThat(results).hasSize(30);
+		// a burst of 20 requests is allowed after which 10 more need half a second
+		assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(400);
+	}
+
+	private static PlatformRequestLimiter createLimiter(int maxConcurrency, double permitsPerSecond) {
+		PlatformRequestLimit limit = new PlatformRequestLimit();
+		limit.setMaxConcurrency(maxConcurrency);
+		limit.setPermitsPerSecond(permitsPerSecond);
+		PlatformRequestLimits limits = new PlatformRequestLimits();
+		limits.setDefaults(limit);
+		return new PlatformRequestLimiter(limits);
+	}
+}
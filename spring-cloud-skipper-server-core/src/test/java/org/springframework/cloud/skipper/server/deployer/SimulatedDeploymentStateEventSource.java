@@ -0,0 +1,52 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.deployer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import org.springframework.cloud.deployer.spi.app.DeploymentState;
+
+/**
+ * {@link DeploymentStateEventSource} simulating a platform which pushes state changes of
+ * locally deployed applications.
+ */
+public class SimulatedDeploymentStateEventSource implements DeploymentStateEventSource {
+
+	private final Sinks.Many<DeploymentStateEvent> sink = Sinks.many().multicast().onBackpressureBuffer();
+
+	private final String platformName;
+
+	public SimulatedDeploymentStateEventSource(String platformName) {
+		this.platformName = platformName;
+	}
+
+	/**
+	 * Simulates a state change of an application.
+	 *
+	 * @param deploymentId the deployment id of the application
+	 * @param state the new state of the application
+	 */
+	public void stateChanged(String deploymentId, DeploymentState state) {
+		this.sink.emitNext(DeploymentStateEvent.of(this.platformName, deploymentId, state),
+				Sinks.EmitFailureHandler.FAIL_FAST);
+	}
+
+	@Override
+	public Flux<DeploymentStateEvent> events() {
+		return this.sink.asFlux();
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.deployer.strategies;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.cloud.skipper.domain.Info;
+import org.springframework.cloud.skipper.domain.Manifest;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.ScaleRequest;
+import org.springframework.cloud.skipper.domain.SpringCloudDeployerApplicationManifest;
+import org.springframework.cloud.skipper.domain.SpringCloudDeployerApplicationManifestReader;
+import org.springframework.cloud.skipper.domain.SpringCloudDeployerApplicationSpec;
+import org.springframework.cloud.skipper.domain.deployer.ReleaseDifference;
+import org.springframework.cloud.skipper.server.deployer.ReleaseAnalysisReport;
+import org.springframework.cloud.skipper.server.deployer.ReleaseManager;
+import org.springframework.cloud.skipper.server.deployer.ReleaseManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link CanaryUpgradeStrategy}.
+ */
+public class CanaryUpgradeStrategyTests {
+
+	private static final String MANIFEST = "kind: SpringCloudDeployerApplication\n";
+
+	private final HealthCheckStep healthCheckStep = mock(HealthCheckStep.class);
+
+	private final HandleHealthCheckStep handleHealthCheckStep = mock(HandleHealthCheckStep.class);
+
+	private final DeployAppStep deployAppStep = mock(DeployAppStep.class);
+
+	private final ReleaseManager releaseManager = mock(ReleaseManager.class);
+
+	private final ReleaseManagerFactory releaseManagerFactory = mock(ReleaseManagerFactory.class);
+
+	private final SpringCloudDeployerApplicationManifestReader applicationManifestReader = mock(
+			SpringCloudDeployerApplicationManifestReader.class);
+
+	private final CanaryUpgradeProperties properties = new CanaryUpgradeProperties();
+
+	private final CanaryUpgradeStrategy strategy = new CanaryUpgradeStrategy(this.healthCheckStep,
+			this.handleHealthCheckStep, this.deployAppStep, this.releaseManagerFactory,
+			this.applicationManifestReader, this.properties);
+
+	private final Release existingRelease = createRelease(1);
+
+	private final Release replacingRelease = createRelease(2);
+
+	private final ReleaseAnalysisReport report = new ReleaseAnalysisReport(
+			new ArrayList<>(Collections.singletonList("app1")), new ReleaseDifference(), this.existingRelease,
+			this.replacingRelease);
+
+	@Before
+	public void setup() {
+		this.properties.setSoakTimeInMillis(0);
+		when(this.releaseManagerFactory.getReleaseManager("SpringCloudDeployerApplication"))
+				.thenReturn(this.releaseManager);
+		setCount(3);
+		when(this.healthCheckStep.checkHealth(this.replacingRelease)).thenReturn(HealthCheckResult.HEALTHY);
+	}
+
+	@Test
+	public void canaryIsDeployedWithInitialCount() {
+		this.strategy.deployApps(this.existingRelease, this.replacingRelease, this.report);
+
+		Map<String, Map<String, String>> deploymentProperties = new HashMap<>();
+		deploymentProperties.put("app1", Collections.singletonMap("spring.cloud.deployer.count", "1"));
+		verify(this.deployAppStep).deployApps(this.existingRelease, this.replacingRelease,
+				Collections.singletonList("app1"), deploymentProperties);
+	}
+
+	@Test
+	public void instancesAreMovedStepByStep() {
+		assertThat(this.strategy.checkHealth(this.existingRelease, this.replacingRelease, this.report))
+				.isEqualTo(HealthCheckResult.PENDING);
+		assertThat(this.strategy.checkHealth(this.existingRelease, this.replacingRelease, this.report))
+				.isEqualTo(HealthCheckResult.PENDING);
+		assertThat(this.strategy.checkHealth(this.existingRelease, this.replacingRelease, this.report))
+				.isEqualTo(HealthCheckResult.HEALTHY);
+
+		assertThat(scaledCounts(this.replacingRelease)).containsExactly(2, 3);
+		assertThat(scaledCounts(this.existingRelease)).containsExactly(2, 1);
+	}
+
+	@Test
+	public void canaryIsSoakedBeforeNextStep() {
+		this.properties.setSoakTimeInMillis(60000);
+
+		assertThat(this.strategy.checkHealth(this.existingRelease, this.replacingRelease, this.report))
+				.isEqualTo(HealthCheckResult.PENDING);
+		verify(this.releaseManager, never()).scale(any(), any());
+	}
+
+	@Test
+	public void upgradeTimeoutIsExtendedBySoakTimes() {
+		this.properties.setSoakTimeInMillis(60000);
+
+		// soaked before two steps and before the upgrade is accepted
+		assertThat(this.strategy.getUpgradeTimeoutExtension(this.existingRelease, this.replacingRelease,
+				this.report)).isEqualTo(180000);
+	}
+
+	@Test
+	public void canaryWithMoreSoaksThanTimeoutFinishesBeforeCutoff() throws Exception {
+		long timeout = 300;
+		this.properties.setSoakTimeInMillis(100);
+		setCount(5);
+
+		// what the upgrade actions do when deploying and checking the canary
+		long start = System.currentTimeMillis();
+		long cutOffTime = start + timeout
+				+ this.strategy.getUpgradeTimeoutExtension(this.existingRelease, this.replacingRelease, this.report);
+		HealthCheckResult result;
+		while ((result = this.strategy.checkHealth(this.existingRelease, this.replacingRelease,
+				this.report)) == HealthCheckResult.PENDING) {
+			assertThat(System.currentTimeMillis()).isLessThanOrEqualTo(cutOffTime);
+			Thread.sleep(10);
+		}
+
+		assertThat(result).isEqualTo(HealthCheckResult.HEALTHY);
+		assertThat(System.currentTimeMillis() - start).isGreaterThan(timeout);
+		assertThat(scaledCounts(this.replacingRelease)).containsExactly(2, 3, 4, 5);
+	}
+
+	@Test
+	public void unhealthyCanaryIsNotScaled() {
+		when(this.healthCheckStep.checkHealth(this.replacingRelease)).thenReturn(HealthCheckResult.FAILED);
+
+		assertThat(this.strategy.checkHealth(this.existingRelease, this.replacingRelease, this.report))
+				.isEqualTo(HealthCheckResult.FAILED);
+		verify(this.releaseManager, never()).scale(any(), any());
+	}
+
+	@Test
+	public void cancelScalesBackExistingApps() {
+		this.strategy.checkHealth(this.existingRelease, this.replacingRelease, this.report);
+
+		this.strategy.cancel(this.existingRelease, this.replacingRelease, this.report, 1000L, true, false);
+
+		assertThat(scaledCounts(this.existingRelease)).containsExactly(2, 3);
+		verify(this.handleHealthCheckStep).handleHealthCheck(false, this.existingRelease,
+				Collections.singletonList("app1"), this.replacingRelease, 1000L, true, false);
+	}
+
+	private void setCount(int count) {
+		SpringCloudDeployerApplicationSpec spec = new SpringCloudDeployerApplicationSpec();
+		spec.setDeploymentProperties(
+				Collections.singletonMap("spring.cloud.deployer.count", String.valueOf(count)));
+		SpringCloudDeployerApplicationManifest manifest = new SpringCloudDeployerApplicationManifest();
+		manifest.setMetadata(Collections.singletonMap("name", "app1"));
+		manifest.setSpec(spec);
+		when(this.applicationManifestReader.read(MANIFEST)).thenReturn(Collections.singletonList(manifest));
+	}
+
+	private List<Integer> scaledCounts(Release release) {
+		ArgumentCaptor<Release> releaseCaptor = ArgumentCaptor.forClass(Release.class);
+		ArgumentCaptor<ScaleRequest> scaleRequestCaptor = ArgumentCaptor.forClass(ScaleRequest.class);
+		verify(this.releaseManager, atLeastOnce()).scale(releaseCaptor.capture(),
+				scaleRequestCaptor.capture());
+		List<Integer> counts = new ArrayList<>();
+		for (int i = 0; i < releaseCaptor.getAllValues().size(); i++) {
+			if (releaseCaptor.getAllValues().get(i) == release) {
+				counts.add(scaleRequestCaptor.getAllValues().get(i).getScale().get(0).getCount());
+			}
+		}
+		return counts;
+	}
+
+	private static Release createRelease(int version) {
+		Manifest manifest = new Manifest();
+		manifest.setData(MANIFEST);
+		Release release = new Release();
+		release.setName("test");
+		release.setVersion(version);
+		release.setPlatformName("default");
+		release.setInfo(new Info());
+		release.setManifest(manifest);
+		return release;
+	}
+}
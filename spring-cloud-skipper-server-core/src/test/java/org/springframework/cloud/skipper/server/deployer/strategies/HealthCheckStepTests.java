@@ -0,0 +1,131 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.deployer.strategies;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.deployer.spi.app.AppDeployer;
+import org.springframework.cloud.deployer.spi.app.AppStatus;
+import org.springframework.cloud.deployer.spi.app.DeploymentState;
+import org.springframework.cloud.skipper.domain.Deployer;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.server.domain.AppDeployerData;
+import org.springframework.cloud.skipper.server.repository.jpa.AppDeployerDataRepository;
+import org.springframework.cloud.skipper.server.repository.map.DeployerRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link HealthCheckStep}.
+ */
+public class HealthCheckStepTests {
+
+	private final AppDeployer appDeployer = mock(AppDeployer.class);
+
+	private final AppDeployerDataRepository appDeployerDataRepository = mock(AppDeployerDataRepository.class);
+
+	private final DeployerRepository deployerRepository = mock(DeployerRepository.class);
+
+	private final HealthCheckStep healthCheckStep = new HealthCheckStep(this.appDeployerDataRepository,
+			this.deployerRepository, null);
+
+	private final Release release = new Release();
+
+	@Before
+	public void setup() {
+		this.release.setName("test");
+		this.release.setVersion(2);
+		this.release.setPlatformName("default");
+		Map<String, String> deploymentIds = new LinkedHashMap<>();
+		deploymentIds.put("app1", "test-app1-v2");
+		deploymentIds.put("app2", "test-app2-v2");
+		deploymentIds.put("app3", "test-app3-v2");
+		AppDeployerData appDeployerData = new AppDeployerData();
+		appDeployerData.setDeploymentDataUsingMap(deploymentIds);
+		when(this.appDeployerDataRepository.findByReleaseNameAndReleaseVersionRequired("test", 2))
+				.thenReturn(appDeployerData);
+		when(this.deployerRepository.findByNameRequired("default"))
+				.thenReturn(new Deployer("default", "test", this.appDeployer));
+	}
+
+	@Test
+	public void appsAreCheckedInParallel() {
+		CountDownLatch latch = new CountDownLatch(3);
+		when(this.appDeployer.statusReactive("test-app1-v2")).thenReturn(awaitedStatus("test-app1-v2", latch));
+		when(this.appDeployer.statusReactive("test-app2-v2")).thenReturn(awaitedStatus("test-app2-v2", latch));
+		when(this.appDeployer.statusReactive("test-app3-v2")).thenReturn(awaitedStatus("test-app3-v2", latch));
+
+		assertThat(this.healthCheckStep.checkHealth(this.release)).isEqualTo(HealthCheckResult.HEALTHY);
+		assertThat(this.healthCheckStep.isHealthy(this.release)).isTrue();
+	}
+
+	@Test
+	public void pendingWhenSomeAppIsNotDeployed() {
+		when(this.appDeployer.statusReactive("test-app1-v2")).thenReturn(status("test-app1-v2", DeploymentState.deployed));
+		when(this.appDeployer.statusReactive("test-app2-v2")).thenReturn(status("test-app2-v2", DeploymentState.deploying));
+		when(this.appDeployer.statusReactive("test-app3-v2")).thenReturn(status("test-app3-v2", DeploymentState.deployed));
+
+		assertThat(this.healthCheckStep.checkHealth(this.release)).isEqualTo(HealthCheckResult.PENDING);
+		assertThat(this.healthCheckStep.isHealthy(this.release)).isFalse();
+	}
+
+	@Test
+	public void failedAppFailsWithoutWaitingOtherApps() {
+		when(this.appDeployer.statusReactive("test-app1-v2")).thenReturn(Mono.never());
+		when(this.appDeployer.statusReactive("test-app2-v2")).thenReturn(status("test-app2-v2", DeploymentState.failed));
+		when(this.appDeployer.statusReactive("test-app3-v2")).thenReturn(Mono.never());
+
+		assertThat(this.healthCheckStep.checkHealth(this.release)).isEqualTo(HealthCheckResult.FAILED);
+	}
+
+	@Test
+	public void intervalsBackOffUpToSleepTime() {
+		HealthCheckProperties properties = new HealthCheckProperties();
+		properties.setInitialIntervalInMillis(500);
+		properties.setBackoffMultiplier(2);
+		properties.setSleepInMillis(3000);
+
+		assertThat(properties.getIntervalInMillis(1)).isEqualTo(500);
+		assertThat(properties.getIntervalInMillis(2)).isEqualTo(1000);
+		assertThat(properties.getIntervalInMillis(3)).isEqualTo(2000);
+		assertThat(properties.getIntervalInMillis(4)).isEqualTo(3000);
+		assertThat(properties.getIntervalInMillis(100)).isEqualTo(3000);
+	}
+
+	private static Mono<AppStatus> status(String deploymentId, DeploymentState state) {
+		return Mono.just(AppStatus.of(deploymentId).generalState(state).build());
+	}
+
+	private static Mono<AppStatus> awaitedStatus(String deploymentId, CountDownLatch latch) {
+		// only deployed if all apps are being checked at the same time
+		return Mono.fromCallable(() -> {
+			latch.countDown();
+			boolean all = latch.await(5, TimeUnit.SECONDS);
+			return AppStatus.of(deploymentId)
+					.generalState(all ? DeploymentState.deployed : DeploymentState.deploying)
+					.build();
+		});
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.deployer.strategies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.cloud.skipper.domain.Info;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.deployer.ReleaseDifference;
+import org.springframework.cloud.skipper.server.deployer.ReleaseAnalysisReport;
+import org.springframework.cloud.skipper.server.domain.AppDeployerData;
+import org.springframework.cloud.skipper.server.repository.jpa.AppDeployerDataRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link RollingUpgradeStrategy}.
+ */
+public class RollingUpgradeStrategyTests {
+
+	private final HealthCheckStep healthCheckStep = mock(HealthCheckStep.class);
+
+	private final HandleHealthCheckStep handleHealthCheckStep = mock(HandleHealthCheckStep.class);
+
+	private final DeployAppStep deployAppStep = mock(DeployAppStep.class);
+
+	private final DeleteStep deleteStep = mock(DeleteStep.class);
+
+	private final AppDeployerDataRepository appDeployerDataRepository = mock(AppDeployerDataRepository.class);
+
+	private final RollingUpgradeProperties properties = new RollingUpgradeProperties();
+
+	private final RollingUpgradeStrategy strategy = new RollingUpgradeStrategy(this.healthCheckStep,
+			this.handleHealthCheckStep, this.deployAppStep, this.deleteStep, this.appDeployerDataRepository,
+			this.properties);
+
+	private final Release existingRelease = createRelease(1);
+
+	private final Release replacingRelease = createRelease(2);
+
+	private final ReleaseAnalysisReport report = new ReleaseAnalysisReport(
+			new ArrayList<>(Arrays.asList("app1", "app2", "app3")), new ReleaseDifference(), this.existingRelease,
+			this.replacingRelease);
+
+	@Before
+	public void setup() {
+		this.properties.setBatchSize(2);
+	}
+
+	@Test
+	public void firstBatchIsDeployed() {
+		this.strategy.deployApps(this.existingRelease, this.replacingRelease, this.report);
+
+		verify(this.deployAppStep).deployApps(this.existingRelease, this.replacingRelease,
+				Arrays.asList("app1", "app2"));
+	}
+
+	@Test
+	public void healthyBatchReplacesOldAppsAndDeploysNextBatch() {
+		AppDeployerData existingData = mockDeployments(1, "v1", "v1", "v1");
+		mockDeployments(2, "v2", "v2", "v1");
+		when(this.healthCheckStep.checkHealth(this.replacingRelease)).thenReturn(HealthCheckResult.HEALTHY);
+
+		assertThat(this.strategy.checkHealth(this.existingRelease, this.replacingRelease, this.report))
+				.isEqualTo(HealthCheckResult.PENDING);
+		verify(this.deleteStep).delete(this.existingRelease, existingData, Arrays.asList("app1", "app2"), false);
+		verify(this.appDeployerDataRepository).save(existingData);
+		assertThat(existingData.getDeploymentDataAsMap()).containsOnlyKeys("app3");
+		verify(this.deployAppStep).deployApps(this.existingRelease, this.replacingRelease,
+				Collections.singletonList("app3"));
+	}
+
+	@Test
+	public void pendingBatchIsNotReplaced() {
+		mockDeployments(1, "v1", "v1", "v1");
+		mockDeployments(2, "v2", "v2", "v1");
+		when(this.healthCheckStep.checkHealth(this.replacingRelease)).thenReturn(HealthCheckResult.PENDING);
+
+		assertThat(this.strategy.checkHealth(this.existingRelease, this.replacingRelease, this.report))
+				.isEqualTo(HealthCheckResult.PENDING);
+		verify(this.deleteStep, never()).delete(any(), any(), any(), any(boolean.class));
+		verify(this.deployAppStep, never()).deployApps(any(), any(), any(List.class));
+	}
+
+	@Test
+	public void healthyLastBatchCompletesUpgrade() {
+		AppDeployerData existingData = new AppDeployerData();
+		existingData.setDeploymentDataUsingMap(Collections.singletonMap("app3", "test-app3-v1"));
+		when(this.appDeployerDataRepository.findByReleaseNameAndReleaseVersionRequired("test", 1))
+				.thenReturn(existingData);
+		mockDeployments(2, "v2", "v2", "v2");
+		when(this.healthCheckStep.checkHealth(this.replacingRelease)).thenReturn(HealthCheckResult.HEALTHY);
+
+		assertThat(this.strategy.checkHealth(this.existingRelease, this.replacingRelease, this.report))
+				.isEqualTo(HealthCheckResult.HEALTHY);
+		verify(this.deleteStep, never()).delete(any(), any(), any(), any(boolean.class));
+	}
+
+	@Test
+	public void cancelRestoresUpgradedApps() {
+		AppDeployerData existingData = new AppDeployerData();
+		existingData.setDeploymentDataUsingMap(Collections.singletonMap("app3", "test-app3-v1"));
+		when(this.appDeployerDataRepository.findByReleaseNameAndReleaseVersionRequired("test", 1))
+				.thenReturn(existingData);
+		mockDeployments(2, "v2", "v2", "v2");
+
+		this.strategy.cancel(this.existingRelease, this.replacingRelease, this.report, 1000L, false, false);
+
+		verify(this.deployAppStep).restoreApps(this.existingRelease, Arrays.asList("app1", "app2"));
+		verify(this.handleHealthCheckStep).handleHealthCheck(false, this.existingRelease,
+				Arrays.asList("app1", "app2", "app3"), this.replacingRelease, 1000L, false, false);
+	}
+
+	private AppDeployerData mockDeployments(int version, String... appVersions) {
+		Map<String, String> deploymentIds = new LinkedHashMap<>();
+		for (int i = 0; i < appVersions.length; i++) {
+			deploymentIds.put("app" + (i + 1), "test-app" + (i + 1) + "-" + appVersions[i]);
+		}
+		AppDeployerData appDeployerData = new AppDeployerData();
+		appDeployerData.setDeploymentDataUsingMap(deploymentIds);
+		when(this.appDeployerDataRepository.findByReleaseNameAndReleaseVersionRequired("test", version))
+				.thenReturn(appDeployerData);
+		when(this.appDeployerDataRepository.findByReleaseNameAndReleaseVersion("test", version))
+				.thenReturn(appDeployerData);
+		return appDeployerData;
+	}
+
+	private static Release createRelease(int version) {
+		Release release = new Release();
+		release.setName("test");
+		release.setVersion(version);
+		release.setPlatformName("default");
+		release.setInfo(new Info());
+		return release;
+	}
+}
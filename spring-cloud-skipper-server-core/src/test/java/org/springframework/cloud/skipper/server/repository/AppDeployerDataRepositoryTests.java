@@ -0,0 +1,124 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.repository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.skipper.server.AbstractIntegrationTest;
+import org.springframework.cloud.skipper.server.domain.AppDeployerData;
+import org.springframework.cloud.skipper.server.domain.AppDeployment;
+import org.springframework.cloud.skipper.server.repository.jpa.AppDeployerDataRepository;
+import org.springframework.cloud.skipper.server.repository.jpa.AppDeploymentRepository;
+import org.springframework.cloud.skipper.server.service.AppDeploymentMigrationService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Tests for {@link AppDeployerDataRepository}.
+ */
+@ActiveProfiles("repo-test")
+@Transactional
+public class AppDeployerDataRepositoryTests extends AbstractIntegrationTest {
+
+	@Autowired
+	private AppDeployerDataRepository appDeployerDataRepository;
+
+	@Autowired
+	private AppDeploymentRepository appDeploymentRepository;
+
+	@Autowired
+	private AppDeploymentMigrationService appDeploymentMigrationService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	public void deploymentDataIsStoredAsRows() {
+		Map<String, String> appNameDeploymentIdMap = new LinkedHashMap<>();
+		appNameDeploymentIdMap.put("time", "rows-time-v1");
+		appNameDeploymentIdMap.put("log", "rows-log-v1");
+		saveAppDeployerData("rows", 1, appNameDeploymentIdMap);
+		appNameDeploymentIdMap.put("log", "rows-log-v2");
+		saveAppDeployerData("rows", 2, appNameDeploymentIdMap);
+		this.entityManager.flush();
+		this.entityManager.clear();
+
+		AppDeployerData appDeployerData = this.appDeployerDataRepository.findByReleaseNameAndReleaseVersion("rows", 2);
+		assertThat(appDeployerData.getDeploymentDataAsMap()).containsExactly(
+				entry("time", "rows-time-v1"), entry("log", "rows-log-v2"));
+		assertThat(appDeployerData.getDeploymentIds()).containsExactly("rows-time-v1", "rows-log-v2");
+
+		assertThat(this.appDeploymentRepository.findByReleaseNameAndReleaseVersion("rows", 1))
+				.extracting(AppDeployment::getAppName, AppDeployment::getDeploymentId)
+				.containsExactlyInAnyOrder(tuple("time", "rows-time-v1"), tuple("log", "rows-log-v1"));
+		assertThat(this.appDeploymentRepository.findByDeploymentIdOrderByReleaseVersionDesc("rows-time-v1"))
+				.extracting(AppDeployment::getReleaseName, AppDeployment::getReleaseVersion)
+				.containsExactly(tuple("rows", 2), tuple("rows", 1));
+		assertThat(this.appDeploymentRepository.findByDeploymentIdOrderByReleaseVersionDesc("rows-log-v2"))
+				.extracting(AppDeployment::getReleaseVersion)
+				.containsExactly(2);
+	}
+
+	@Test
+	public void legacyDeploymentDataIsMigrated() {
+		AppDeployerData appDeployerData = new AppDeployerData();
+		appDeployerData.setReleaseName("legacy");
+		appDeployerData.setReleaseVersion(1);
+		ReflectionTestUtils.setField(appDeployerData, "deploymentData",
+				"{\"time\":\"legacy-time-v1\",\"log\":\"legacy-log-v1\"}");
+		this.appDeployerDataRepository.save(appDeployerData);
+		this.entityManager.flush();
+		this.entityManager.clear();
+
+		AppDeployerData legacy = this.appDeployerDataRepository.findByReleaseNameAndReleaseVersion("legacy", 1);
+		assertThat(legacy.isLegacyDeploymentData()).isTrue();
+		assertThat(legacy.getDeploymentIds()).containsExactly("legacy-time-v1", "legacy-log-v1");
+		assertThat(this.appDeploymentRepository.findByDeploymentIdOrderByReleaseVersionDesc("legacy-log-v1")).isEmpty();
+
+		assertThat(this.appDeploymentMigrationService.migrate()).isGreaterThanOrEqualTo(1);
+		this.entityManager.flush();
+		this.entityManager.clear();
+
+		AppDeployerData migrated = this.appDeployerDataRepository.findByReleaseNameAndReleaseVersion("legacy", 1);
+		assertThat(migrated.isLegacyDeploymentData()).isFalse();
+		assertThat(migrated.getDeploymentIds()).containsExactly("legacy-time-v1", "legacy-log-v1");
+		List<AppDeployment> deployments = this.appDeploymentRepository
+				.findByDeploymentIdOrderByReleaseVersionDesc("legacy-log-v1");
+		assertThat(deployments).extracting(AppDeployment::getReleaseName, AppDeployment::getAppName)
+				.containsExactly(tuple("legacy", "log"));
+	}
+
+	private void saveAppDeployerData(String releaseName, int releaseVersion,
+			Map<String, String> appNameDeploymentIdMap) {
+		AppDeployerData appDeployerData = new AppDeployerData();
+		appDeployerData.setReleaseName(releaseName);
+		appDeployerData.setReleaseVersion(releaseVersion);
+		appDeployerData.setDeploymentDataUsingMap(appNameDeploymentIdMap);
+		this.appDeployerDataRepository.save(appDeployerData);
+	}
+}
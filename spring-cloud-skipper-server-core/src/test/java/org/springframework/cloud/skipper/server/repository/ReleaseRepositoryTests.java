@@ -15,17 +15,31 @@
  */
 package org.springframework.cloud.skipper.server.repository;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import javax.persistence.EntityManager;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.skipper.InvalidPageRequestException;
 import org.springframework.cloud.skipper.ReleaseNotFoundException;
 import org.springframework.cloud.skipper.SkipperException;
 import org.springframework.cloud.skipper.domain.Info;
 import org.springframework.cloud.skipper.domain.Package;
 import org.springframework.cloud.skipper.domain.PackageMetadata;
 import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.ReleasePage;
 import org.springframework.cloud.skipper.domain.Status;
 import org.springframework.cloud.skipper.domain.StatusCode;
 import org.springframework.cloud.skipper.server.AbstractIntegrationTest;
@@ -34,9 +48,14 @@ import org.springframework.cloud.skipper.server.repository.jpa.ReleaseRepository
 import org.springframework.cloud.skipper.server.repository.jpa.RepositoryRepository;
 import org.springframework.cloud.skipper.server.service.PackageMetadataService;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.assertj.core.api.Java6Assertions.fail;
 
 /**
@@ -47,6 +66,8 @@ import static org.assertj.core.api.Java6Assertions.fail;
 @Transactional
 public class ReleaseRepositoryTests extends AbstractIntegrationTest {
 
+	private static final Logger logger = LoggerFactory.getLogger(ReleaseRepositoryTests.class);
+
 	private static Long REMOTE_REPO = 1L;
 
 	private static Long LOCAL_REPO = 2L;
@@ -63,6 +84,12 @@ public class ReleaseRepositoryTests extends AbstractIntegrationTest {
 	@Autowired
 	private RepositoryRepository repositoryRepository;
 
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
 	@Test
 	public void verifyFindByMethods() {
 		PackageMetadata packageMetadata1 = new PackageMetadata();
@@ -317,10 +344,16 @@ public class ReleaseRepositoryTests extends AbstractIntegrationTest {
 		List<Release> deployedOrFailed = this.releaseRepository.findLatestDeployedOrFailed("stable");
 		assertThat(deployedOrFailed).isNotEmpty();
 		assertThat(deployedOrFailed).hasSize(2);
+		assertThat(deployedOrFailed).extracting("name", "version")
+				.containsExactly(tuple("stableA", 3), tuple("stableB", 2));
 
 		List<Release> deployedOrFailedAll = this.releaseRepository.findLatestDeployedOrFailed("");
 		assertThat(deployedOrFailedAll).isNotEmpty();
-		assertThat(deployedOrFailedAll).hasSize(9);
+		assertThat(deployedOrFailedAll).hasSize(6);
+		assertThat(deployedOrFailedAll).extracting("name", "version").containsExactlyInAnyOrder(
+				tuple("stableA", 3), tuple("stableB", 2), tuple("multipleDeleted", 3),
+				tuple("multipleRevisions1", 3), tuple("multipleRevisions2", 1), tuple("multipleRevisions3", 1));
+		assertThat(this.releaseRepository.findLatestDeployedOrFailed()).hasSameSizeAs(deployedOrFailedAll);
 
 		Release latestDeletedRelease1 = this.releaseRepository.findLatestReleaseIfDeleted(release1.getName());
 		assertThat(latestDeletedRelease1).isNull();
@@ -551,4 +584,200 @@ public class ReleaseRepositoryTests extends AbstractIntegrationTest {
 					String.format("Release with the name [%s] and version [%s] doesn't exist", releaseName, version)));
 		}
 	}
+
+	@Test
+	public void verifyFindByNameAndVersionDoesNotScanReleases() {
+		PackageMetadata packageMetadata = new PackageMetadata();
+		packageMetadata.setApiVersion("skipper.spring.io/v1");
+		packageMetadata.setKind("SpringCloudDeployerApplication");
+		packageMetadata.setRepositoryId(LOCAL_REPO);
+		packageMetadata.setRepositoryName("local");
+		packageMetadata.setName("package1");
+		packageMetadata.setVersion("1.0.0");
+		Package pkg = new Package();
+		pkg.setMetadata(packageMetadata);
+		this.packageMetadataRepository.save(packageMetadata);
+
+		Statistics statistics = this.entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+				.getStatistics();
+		statistics.setStatisticsEnabled(true);
+		try {
+			long[] loadCounts = new long[2];
+			int[] releaseCounts = { 10, 1000 };
+			for (int i = 0; i < releaseCounts.length; i++) {
+				for (int version = 1; version <= releaseCounts[i] / 10; version++) {
+					for (int name = 0; name < 10; name++) {
+						Release release = new Release();
+						release.setName("scan" + i + "-" + name);
+						release.setVersion(version);
+						release.setPlatformName("platform1");
+						release.setPkg(pkg);
+						release.setInfo(createDeployedInfo());
+						this.releaseRepository.save(release);
+					}
+				}
+				this.entityManager.flush();
+				this.entityManager.clear();
+				statistics.clear();
+				long start = System.nanoTime();
+				Release release = this.releaseRepository.findByNameAndVersion("scan" + i + "-5", 1);
+				long took = System.nanoTime() - start;
+				assertThat(release.getName()).isEqualTo("scan" + i + "-5");
+				assertThat(release.getVersion()).isEqualTo(1);
+				loadCounts[i] = statistics.getEntityLoadCount();
+				logger.info("Lookup from {} releases loaded {} entities in {}ms", this.releaseRepository.count(),
+						loadCounts[i], took / 1000000);
+			}
+			// lookup should only load a single release and its associations
+			assertThat(loadCounts[1]).isEqualTo(loadCounts[0]);
+		}
+		finally {
+			statistics.setStatisticsEnabled(false);
+		}
+	}
+
+	@Test
+	public void verifyReleasesSharePackageBlob() {
+		PackageMetadata packageMetadata = new PackageMetadata();
+		packageMetadata.setApiVersion("skipper.spring.io/v1");
+		packageMetadata.setKind("SpringCloudDeployerApplication");
+		packageMetadata.setRepositoryId(LOCAL_REPO);
+		packageMetadata.setRepositoryName("local");
+		packageMetadata.setName("blob1");
+		packageMetadata.setVersion("1.0.0");
+		Package pkg = new Package();
+		pkg.setMetadata(packageMetadata);
+		this.packageMetadataRepository.save(packageMetadata);
+
+		for (int version = 1; version <= 20; version++) {
+			Release release = new Release();
+			release.setName("blob");
+			release.setVersion(version);
+			release.setPlatformName("platform1");
+			release.setPkg(pkg);
+			release.setInfo(createDeployedInfo());
+			this.releaseRepository.save(release);
+		}
+		this.entityManager.flush();
+		this.entityManager.clear();
+
+		List<Release> releases = this.releaseRepository.findByNameOrderByVersionDesc("blob");
+		assertThat(releases).hasSize(20);
+		String hash = releases.get(0).getPkgBlob().getHash();
+		assertThat(releases).allMatch(r -> r.getPkgBlob().getHash().equals(hash));
+		assertThat(this.entityManager
+				.createQuery("select count(b) from PackageBlob b where b.hash = :hash", Long.class)
+				.setParameter("hash", hash).getSingleResult()).isEqualTo(1L);
+		// blob is fetched lazily and not read for releases not accessing the package
+		assertThat(this.entityManager.getEntityManagerFactory().getPersistenceUnitUtil()
+				.isLoaded(releases.get(0).getPkgBlob())).isFalse();
+		assertThat(releases.get(0).getPkg().getMetadata().getName()).isEqualTo("blob1");
+		assertThat(releases.get(19).getPkg()).isNotSameAs(releases.get(0).getPkg());
+		assertThat(releases.get(19).getPkg().getMetadata().getName()).isEqualTo("blob1");
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void verifyConcurrentSavesSharePackageBlob() throws Exception {
+		PackageMetadata packageMetadata = new PackageMetadata();
+		packageMetadata.setApiVersion("skipper.spring.io/v1");
+		packageMetadata.setKind("SpringCloudDeployerApplication");
+		packageMetadata.setName("concurrent1");
+		packageMetadata.setVersion("1.0.0");
+		Package pkg = new Package();
+		pkg.setMetadata(packageMetadata);
+
+		int count = 8;
+		CyclicBarrier barrier = new CyclicBarrier(count);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+		ExecutorService executor = Executors.newFixedThreadPool(count);
+		try {
+			List<Future<Release>> saves = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				String name = "concurrent" + i;
+				saves.add(executor.submit(() -> {
+					Release release = new Release();
+					release.setName(name);
+					release.setVersion(1);
+					release.setPlatformName("platform1");
+					release.setPkg(pkg);
+					release.setInfo(createDeletedInfo());
+					// start all saves together so that they all miss the blob
+					barrier.await(10, TimeUnit.SECONDS);
+					return transactionTemplate.execute(status -> this.releaseRepository.save(release));
+				}));
+			}
+			for (Future<Release> save : saves) {
+				assertThat(save.get(30, TimeUnit.SECONDS).getId()).isNotNull();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		String hash = transactionTemplate.execute(status -> this.releaseRepository
+				.findByNameAndVersion("concurrent0", 1).getPkgBlob().getHash());
+		for (int i = 1; i < count; i++) {
+			String name = "concurrent" + i;
+			assertThat(transactionTemplate.execute(status -> this.releaseRepository
+					.findByNameAndVersion(name, 1).getPkgBlob().getHash())).isEqualTo(hash);
+		}
+		assertThat(transactionTemplate.execute(status -> this.entityManager
+				.createQuery("select count(b) from PackageBlob b where b.hash = :hash", Long.class)
+				.setParameter("hash", hash).getSingleResult())).isEqualTo(1L);
+	}
+
+	@Test
+	public void verifyLatestDeployedOrFailedPaging() {
+		PackageMetadata packageMetadata = new PackageMetadata();
+		packageMetadata.setApiVersion("skipper.spring.io/v1");
+		packageMetadata.setKind("SpringCloudDeployerApplication");
+		packageMetadata.setRepositoryId(LOCAL_REPO);
+		packageMetadata.setRepositoryName("local");
+		packageMetadata.setName("package1");
+		packageMetadata.setVersion("1.0.0");
+		Package pkg = new Package();
+		pkg.setMetadata(packageMetadata);
+		this.packageMetadataRepository.save(packageMetadata);
+
+		for (String name : new String[] { "pageE", "pageA", "pageD", "pageB", "pageC" }) {
+			Release release = new Release();
+			release.setName(name);
+			release.setVersion(1);
+			release.setPlatformName("platform1");
+			release.setPkg(pkg);
+			release.setInfo(createDeployedInfo());
+			this.releaseRepository.save(release);
+		}
+		Release release = new Release();
+		release.setName("pageC");
+		release.setVersion(2);
+		release.setPlatformName("platform1");
+		release.setPkg(pkg);
+		release.setInfo(createFailedInfo());
+		this.releaseRepository.save(release);
+
+		List<String> listed = new ArrayList<>();
+		int pages = 0;
+		String cursor = null;
+		do {
+			ReleasePage page = this.releaseService.list("page", cursor, 2);
+			assertThat(page.getReleases().size()).isLessThanOrEqualTo(2);
+			page.getReleases().forEach(r -> listed.add(r.getName() + "-v" + r.getVersion()));
+			cursor = page.getNextCursor();
+			pages++;
+		}
+		while (cursor != null);
+		assertThat(pages).isEqualTo(3);
+		assertThat(listed).containsExactly("pageA-v1", "pageB-v1", "pageC-v2", "pageD-v1", "pageE-v1");
+
+		assertThatThrownBy(() -> this.releaseService.list("page", "not-a-cursor", 2))
+				.isInstanceOf(InvalidPageRequestException.class)
+				.hasMessageContaining("Invalid release list cursor");
+		assertThatThrownBy(() -> this.releaseService.list("page", null, 0))
+				.isInstanceOf(InvalidPageRequestException.class)
+				.hasMessageContaining("Page size must be between 1 and");
+		assertThatThrownBy(() -> this.releaseService.listStream("page", 0))
+				.isInstanceOf(InvalidPageRequestException.class);
+	}
 }
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.cloud.skipper.SkipperException;
+import org.springframework.cloud.skipper.domain.BatchUpgradeRequest;
+import org.springframework.cloud.skipper.domain.BatchUpgradeResult;
+import org.springframework.cloud.skipper.domain.BatchUpgradeResult.Outcome;
+import org.springframework.cloud.skipper.domain.Info;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.Status;
+import org.springframework.cloud.skipper.domain.StatusCode;
+import org.springframework.cloud.skipper.domain.UpgradeProperties;
+import org.springframework.cloud.skipper.domain.UpgradeRequest;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.BatchUpgrades;
+import org.springframework.cloud.skipper.server.repository.jpa.ReleaseRepository;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link BatchUpgradeService}.
+ */
+public class BatchUpgradeServiceTests {
+
+	private final SkipperStateMachineService skipperStateMachineService = mock(SkipperStateMachineService.class);
+
+	private final ReleaseRepository releaseRepository = mock(ReleaseRepository.class);
+
+	@Test
+	public void upgradesRunWithBoundedParallelism() {
+		BatchUpgrades properties = properties();
+		properties.setParallelism(2);
+		BatchUpgradeService service = service(properties);
+		when(this.releaseRepository.findByNameAndVersion(anyString(), anyInt()))
+				.thenAnswer(invocation -> release(invocation.getArgument(0), StatusCode.DEPLOYED, null));
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		when(this.skipperStateMachineService.upgradeRelease(any(UpgradeRequest.class))).thenAnswer(invocation -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			Thread.sleep(20);
+			running.decrementAndGet();
+			UpgradeRequest upgradeRequest = invocation.getArgument(0);
+			if (upgradeRequest.getUpgradeProperties().getReleaseName().equals("failing")) {
+				throw new SkipperException("Upgrade failed");
+			}
+			return release(upgradeRequest.getUpgradeProperties().getReleaseName(), StatusCode.UNKNOWN, null);
+		});
+
+		List<BatchUpgradeResult> results = service
+				.upgrade(new BatchUpgradeRequest("batch1", Arrays.asList(upgradeRequest("log1"),
+						upgradeRequest("failing"), upgradeRequest("log2"), upgradeRequest("log3"))))
+				.collectList()
+				.block(Duration.ofSeconds(10));
+
+		assertThat(results).hasSize(4);
+		assertThat(results).extracting("batchId").containsOnly("batch1");
+		assertThat(results).filteredOn(result -> result.getOutcome() == Outcome.FAILED)
+				.extracting("releaseName", "message")
+				.containsExactly(tuple("failing", "Upgrade failed"));
+		assertThat(results).filteredOn(result -> result.getOutcome() == Outcome.SUCCEEDED).hasSize(3);
+		assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+	}
+
+	@Test
+	public void upgradeSucceedsOnceNewReleaseIsDeployed() {
+		BatchUpgradeService service = service(properties());
+		when(this.skipperStateMachineService.upgradeRelease(any(UpgradeRequest.class)))
+				.thenReturn(release("log1", StatusCode.UNKNOWN, null));
+		when(this.releaseRepository.findByNameAndVersion("log1", 2)).thenReturn(
+				release("log1", StatusCode.UNKNOWN, null), release("log1", StatusCode.UNKNOWN, null),
+				release("log1", StatusCode.DEPLOYED, null));
+
+		List<BatchUpgradeResult> results = service
+				.upgrade(new BatchUpgradeRequest("batch1", Arrays.asList(upgradeRequest("log1"))))
+				.collectList()
+				.block(Duration.ofSeconds(10));
+
+		assertThat(results).extracting("outcome").containsExactly(Outcome.SUCCEEDED);
+		assertThat(results.get(0).getRelease().getInfo().getStatus().getStatusCode())
+				.isEqualTo(StatusCode.DEPLOYED);
+		verify(this.releaseRepository, times(3)).findByNameAndVersion("log1", 2);
+	}
+
+	@Test
+	public void upgradeFailsWhenNewReleaseFails() {
+		BatchUpgradeService service = service(properties());
+		when(this.skipperStateMachineService.upgradeRelease(any(UpgradeRequest.class)))
+				.thenReturn(release("log1", StatusCode.UNKNOWN, null));
+		when(this.releaseRepository.findByNameAndVersion("log1", 2)).thenReturn(
+				release("log1", StatusCode.UNKNOWN, null), release("log1", StatusCode.FAILED, "Health check failed"));
+
+		List<BatchUpgradeResult> results = service
+				.upgrade(new BatchUpgradeRequest("batch1", Arrays.asList(upgradeRequest("log1"))))
+				.collectList()
+				.block(Duration.ofSeconds(10));
+
+		assertThat(results).extracting("outcome", "message")
+				.containsExactly(tuple(Outcome.FAILED, "Health check failed"));
+	}
+
+	@Test
+	public void upgradeFailsWhenNewReleaseDoesNotFinishInTime() {
+		BatchUpgrades properties = properties();
+		properties.setStatusTimeoutInMillis(100);
+		BatchUpgradeService service = service(properties);
+		when(this.skipperStateMachineService.upgradeRelease(any(UpgradeRequest.class)))
+				.thenReturn(release("log1", StatusCode.UNKNOWN, null));
+		when(this.releaseRepository.findByNameAndVersion("log1", 2))
+				.thenAnswer(invocation -> release("log1", StatusCode.UNKNOWN, null));
+
+		List<BatchUpgradeResult> results = service
+				.upgrade(new BatchUpgradeRequest("batch1", Arrays.asList(upgradeRequest("log1"))))
+				.collectList()
+				.block(Duration.ofSeconds(10));
+
+		assertThat(results).extracting("outcome").containsExactly(Outcome.FAILED);
+		assertThat(results.get(0).getMessage()).contains("Timed out");
+	}
+
+	@Test
+	public void cancelledBatchSkipsUpgradesNotStarted() throws Exception {
+		BatchUpgrades properties = properties();
+		properties.setParallelism(1);
+		BatchUpgradeService service = service(properties);
+		when(this.releaseRepository.findByNameAndVersion(eq("log1"), anyInt()))
+				.thenReturn(release("log1", StatusCode.FAILED, "Upgrade cancelled"));
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch cancelled = new CountDownLatch(1);
+		when(this.skipperStateMachineService.upgradeRelease(any(UpgradeRequest.class))).thenAnswer(invocation -> {
+			started.countDown();
+			cancelled.await(10, TimeUnit.SECONDS);
+			return release("log1", StatusCode.UNKNOWN, null);
+		});
+
+		List<BatchUpgradeResult> results = new ArrayList<>();
+		Flux<BatchUpgradeResult> batch = service.upgrade(new BatchUpgradeRequest("batch1",
+				Arrays.asList(upgradeRequest("log1"), upgradeRequest("log2"), upgradeRequest("log3"))));
+		CountDownLatch done = new CountDownLatch(1);
+		batch.doFinally(signal -> done.countDown()).subscribe(results::add);
+
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(service.cancel("batch1")).isTrue();
+		cancelled.countDown();
+		assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+
+		verify(this.skipperStateMachineService).cancelRelease("log1");
+		assertThat(results).extracting("outcome").containsExactly(Outcome.CANCELLED, Outcome.CANCELLED,
+				Outcome.CANCELLED);
+		assertThat(service.cancel("batch1")).isFalse();
+	}
+
+	@Test
+	public void batchOverMaxSizeIsRejected() {
+		BatchUpgrades properties = properties();
+		properties.setMaxSize(1);
+		BatchUpgradeService service = service(properties);
+
+		assertThatThrownBy(() -> service.upgrade(new BatchUpgradeRequest(null,
+				Arrays.asList(upgradeRequest("log1"), upgradeRequest("log2")))))
+				.isInstanceOf(SkipperException.class);
+	}
+
+	private BatchUpgradeService service(BatchUpgrades properties) {
+		return new BatchUpgradeService(this.skipperStateMachineService, this.releaseRepository, properties);
+	}
+
+	private static BatchUpgrades properties() {
+		BatchUpgrades properties = new BatchUpgrades();
+		properties.setStatusPollIntervalInMillis(10);
+		return properties;
+	}
+
+	private static Release release(String releaseName, StatusCode statusCode, String description) {
+		Status status = new Status();
+		status.setStatusCode(statusCode);
+		Info info = Info.createNewInfo(description);
+		info.setStatus(status);
+		Release release = new Release();
+		release.setName(releaseName);
+		release.setVersion(2);
+		release.setInfo(info);
+		return release;
+	}
+
+	private static UpgradeRequest upgradeRequest(String releaseName) {
+		UpgradeProperties upgradeProperties = new UpgradeProperties();
+		upgradeProperties.setReleaseName(releaseName);
+		UpgradeRequest upgradeRequest = new UpgradeRequest();
+		upgradeRequest.setUpgradeProperties(upgradeProperties);
+		return upgradeRequest;
+	}
+}
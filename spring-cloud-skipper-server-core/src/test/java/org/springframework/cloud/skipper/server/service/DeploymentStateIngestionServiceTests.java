@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.cloud.deployer.spi.app.AppStatus;
+import org.springframework.cloud.deployer.spi.app.DeploymentState;
+import org.springframework.cloud.skipper.domain.Info;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.Status;
+import org.springframework.cloud.skipper.domain.StatusCode;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.DeploymentStateIngestion;
+import org.springframework.cloud.skipper.server.deployer.DeploymentStateEvent;
+import org.springframework.cloud.skipper.server.deployer.SimulatedDeploymentStateEventSource;
+import org.springframework.cloud.skipper.server.domain.AppDeployment;
+import org.springframework.cloud.skipper.server.repository.jpa.AppDeploymentRepository;
+import org.springframework.cloud.skipper.server.repository.jpa.ReleaseRepository;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link DeploymentStateIngestionService}.
+ */
+public class DeploymentStateIngestionServiceTests {
+
+	private final SimulatedDeploymentStateEventSource source = new SimulatedDeploymentStateEventSource("default");
+
+	private final AppDeploymentRepository appDeploymentRepository = mock(AppDeploymentRepository.class);
+
+	private final ReleaseRepository releaseRepository = mock(ReleaseRepository.class);
+
+	private final ReleaseStateUpdateService releaseStateUpdateService = mock(ReleaseStateUpdateService.class);
+
+	private final SkipperStateMachineService skipperStateMachineService = mock(SkipperStateMachineService.class);
+
+	private final DeploymentStateIngestionService service = new DeploymentStateIngestionService(
+			Collections.singletonList(this.source), this.appDeploymentRepository, this.releaseRepository,
+			this.releaseStateUpdateService, this.skipperStateMachineService, new DeploymentStateIngestion());
+
+	@After
+	public void destroy() {
+		this.service.destroy();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void pushedStatesAreCoalescedAndApplied() {
+		Release release = createRelease("test", 2, StatusCode.DEPLOYED);
+		release.getInfo().getStatus().setPlatformStatusAsAppStatusList(Arrays.asList(
+				AppStatus.of("test-app1-v2").generalState(DeploymentState.deploying).build(),
+				AppStatus.of("test-app2-v1").generalState(DeploymentState.deployed).build()));
+		when(this.releaseRepository.findTopByNameOrderByVersionDesc("test")).thenReturn(release);
+		when(this.appDeploymentRepository.findByDeploymentIdOrderByReleaseVersionDesc("test-app1-v2"))
+				.thenReturn(Collections.singletonList(new AppDeployment("test", 2, "app1", "test-app1-v2")));
+
+		this.service.ingest(Arrays.asList(
+				DeploymentStateEvent.of("default", "test-app1-v2", DeploymentState.deploying),
+				DeploymentStateEvent.of("default", "test-app1-v2", DeploymentState.deployed)));
+
+		ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+		verify(this.releaseStateUpdateService).updatePushed(captor.capture());
+		List<Release> updated = (List<Release>) captor.getValue();
+		assertThat(updated).containsExactly(release);
+		assertThat(release.getInfo().getStatus().getDeploymentStateList()).containsOnly(DeploymentState.deployed);
+		assertThat(release.getInfo().getStatus().getAppStatusList()).hasSize(2);
+	}
+
+	@Test
+	public void eventsOfSourcesAreIngested() {
+		Release release = createRelease("test", 2, StatusCode.DEPLOYED);
+		when(this.releaseRepository.findTopByNameOrderByVersionDesc("test")).thenReturn(release);
+		when(this.appDeploymentRepository.findByDeploymentIdOrderByReleaseVersionDesc("test-app1-v2"))
+				.thenReturn(Collections.singletonList(new AppDeployment("test", 2, "app1", "test-app1-v2")));
+
+		this.service.initialize(null);
+		this.source.stateChanged("test-app1-v2", DeploymentState.deployed);
+
+		verify(this.releaseStateUpdateService, timeout(5000)).updatePushed(any());
+		assertThat(release.getInfo().getStatus().getDeploymentStateList()).containsExactly(DeploymentState.deployed);
+	}
+
+	@Test
+	public void upgradeIsCheckedOnPushedState() {
+		Release release = createRelease("test", 2, StatusCode.UNKNOWN);
+		when(this.releaseRepository.findTopByNameOrderByVersionDesc("test")).thenReturn(release);
+		when(this.appDeploymentRepository.findByDeploymentIdOrderByReleaseVersionDesc("test-app1-v2"))
+				.thenReturn(Collections.singletonList(new AppDeployment("test", 2, "app1", "test-app1-v2")));
+
+		this.service.ingest(Collections.singletonList(
+				DeploymentStateEvent.of("default", "test-app1-v2", DeploymentState.deployed)));
+
+		verify(this.skipperStateMachineService).checkUpgrade("test");
+		verify(this.releaseStateUpdateService, never()).updatePushed(any());
+	}
+
+	@Test
+	public void stateOfOlderReleaseVersionIsIgnored() {
+		when(this.releaseRepository.findTopByNameOrderByVersionDesc("test"))
+				.thenReturn(createRelease("test", 3, StatusCode.DEPLOYED));
+		when(this.appDeploymentRepository.findByDeploymentIdOrderByReleaseVersionDesc("test-app1-v2"))
+				.thenReturn(Collections.singletonList(new AppDeployment("test", 2, "app1", "test-app1-v2")));
+
+		this.service.ingest(Collections.singletonList(
+				DeploymentStateEvent.of("default", "test-app1-v2", DeploymentState.failed)));
+
+		verify(this.releaseStateUpdateService, never()).updatePushed(any());
+		verify(this.skipperStateMachineService, never()).checkUpgrade(any());
+	}
+
+	private static Release createRelease(String name, int version, StatusCode statusCode) {
+		Status status = new Status();
+		ReflectionTestUtils.setField(status, "id", 1L);
+		status.setStatusCode(statusCode);
+		Info info = new Info();
+		info.setStatus(status);
+		Release release = new Release();
+		release.setName(name);
+		release.setVersion(version);
+		release.setPlatformName("default");
+		release.setInfo(info);
+		return release;
+	}
+}
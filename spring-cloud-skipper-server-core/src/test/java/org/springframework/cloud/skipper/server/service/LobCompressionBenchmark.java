@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cloud.skipper.support.codec.DeflateLobCodec;
+import org.springframework.cloud.skipper.support.codec.GzipLobCodec;
+import org.springframework.cloud.skipper.support.codec.LobCodecs;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.skipper.server.service.LobReencodingServiceTests.createPlatformStatus;
+
+/**
+ * Measures the latency of writing and reading single rows of a large text column with
+ * each codec against an H2 database created with the H2 migration scripts. Not run with
+ * the regular tests as the measurements depend on the machine and on the database, run
+ * with the {@code benchmark} profile instead.
+ */
+public class LobCompressionBenchmark {
+
+	private static final Logger logger = LoggerFactory.getLogger(LobCompressionBenchmark.class);
+
+	private static final String MIGRATION_PATH = "org/springframework/cloud/skipper/server/db/migration/h2/";
+
+	private static final int ROWS = 2000;
+
+	private static final int INSTANCES = 50;
+
+	private EmbeddedDatabase database;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private final LobCodecs lobCodecs = new LobCodecs();
+
+	@Before
+	public void setup() {
+		this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+				.addScript(MIGRATION_PATH + "V1__INITIAL_SETUP.sql")
+				.build();
+		this.jdbcTemplate = new JdbcTemplate(this.database);
+	}
+
+	@After
+	public void destroy() {
+		this.database.shutdown();
+	}
+
+	@Test
+	public void writeAndReadLatency() {
+		for (String codec : new String[] { LobCodecs.NONE, GzipLobCodec.NAME, DeflateLobCodec.NAME }) {
+			this.lobCodecs.setColumnCodec(LobCodecs.STATUS_PLATFORM_STATUS, codec);
+			// warm up the jit and the database before measuring
+			measure();
+			long[][] latencies = measure();
+			logger.info("Codec {}: write p50 {}us p99 {}us, read p50 {}us p99 {}us", codec,
+					percentile(latencies[0], 50), percentile(latencies[0], 99),
+					percentile(latencies[1], 50), percentile(latencies[1], 99));
+		}
+	}
+
+	private long[][] measure() {
+		this.jdbcTemplate.update("delete from skipper_status");
+		long[] writes = new long[ROWS];
+		long[] reads = new long[ROWS];
+		for (int i = 0; i < ROWS; i++) {
+			String value = createPlatformStatus(i, INSTANCES);
+			long start = System.nanoTime();
+			this.jdbcTemplate.update("insert into skipper_status (id, platform_status, status_code) values (?, ?, ?)",
+					i, this.lobCodecs.encode(LobCodecs.STATUS_PLATFORM_STATUS, value), "DEPLOYED");
+			writes[i] = System.nanoTime() - start;
+		}
+		String value = null;
+		for (int i = 0; i < ROWS; i++) {
+			long start = System.nanoTime();
+			value = this.lobCodecs.decode(this.jdbcTemplate.queryForObject(
+					"select platform_status from skipper_status where id = ?", String.class, i));
+			reads[i] = System.nanoTime() - start;
+		}
+		assertThat(value).isEqualTo(createPlatformStatus(ROWS - 1, INSTANCES));
+		return new long[][] { writes, reads };
+	}
+
+	private static long percentile(long[] latencies, int percentile) {
+		long[] sorted = latencies.clone();
+		Arrays.sort(sorted);
+		return sorted[(sorted.length - 1) * percentile / 100] / 1000;
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties;
+import org.springframework.cloud.skipper.support.codec.GzipLobCodec;
+import org.springframework.cloud.skipper.support.codec.LobCodecs;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link LobReencodingService} against an H2 database created with the H2
+ * migration scripts.
+ */
+public class LobReencodingServiceTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(LobReencodingServiceTests.class);
+
+	private static final String MIGRATION_PATH = "org/springframework/cloud/skipper/server/db/migration/h2/";
+
+	private EmbeddedDatabase database;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private LobCodecs lobCodecs;
+
+	private SkipperServerProperties.LobCompression lobCompression;
+
+	@Before
+	public void setup() {
+		this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+				.addScript(MIGRATION_PATH + "V1__INITIAL_SETUP.sql")
+				.addScript(MIGRATION_PATH + "V3__PACKAGE_BLOB.sql")
+				.build();
+		this.jdbcTemplate = new JdbcTemplate(this.database);
+		this.lobCodecs = new LobCodecs();
+		this.lobCompression = new SkipperServerProperties.LobCompression();
+		this.lobCompression.setReencodeBatchSize(7);
+	}
+
+	@After
+	public void destroy() {
+		this.database.shutdown();
+	}
+
+	@Test
+	public void rowsAreReencodedWithConfiguredCodec() {
+		insertStatuses(20, 5);
+		this.lobCodecs.setColumnCodec(LobCodecs.STATUS_PLATFORM_STATUS, GzipLobCodec.NAME);
+
+		assertThat(createService().reencode()).isEqualTo(20);
+
+		List<String> values = this.jdbcTemplate.queryForList(
+				"select platform_status from skipper_status order by id", String.class);
+		assertThat(values).hasSize(20).allMatch(value -> value.startsWith("~" + GzipLobCodec.NAME + ":"));
+		assertThat(this.lobCodecs.decode(values.get(3))).isEqualTo(createPlatformStatus(4, 5));
+		assertThat(createService().reencode()).isZero();
+	}
+
+	@Test
+	public void rowsAreDecodedWhenCodecIsDisabled() {
+		this.lobCodecs.setColumnCodec(LobCodecs.STATUS_PLATFORM_STATUS, GzipLobCodec.NAME);
+		insertStatuses(10, 5);
+		this.lobCodecs.setColumnCodec(LobCodecs.STATUS_PLATFORM_STATUS, LobCodecs.NONE);
+
+		assertThat(createService().reencode()).isEqualTo(10);
+
+		assertThat(this.jdbcTemplate.queryForObject("select platform_status from skipper_status where id = 1",
+				String.class)).isEqualTo(createPlatformStatus(1, 5));
+	}
+
+	@Test
+	public void packageBlobsAreReencodedWithTheirOwnCodec() {
+		String data = "{\"metadata\":{\"name\":\"log\",\"version\":\"1.0.0\"}}";
+		for (int i = 0; i < 10; i++) {
+			this.jdbcTemplate.update("insert into skipper_package_blob (hash, data) values (?, ?)", "hash" + i, data);
+		}
+		this.lobCodecs.setColumnCodec(LobCodecs.RELEASE_PACKAGE, GzipLobCodec.NAME);
+
+		assertThat(createService().reencode()).isZero();
+
+		this.lobCodecs.setColumnCodec(LobCodecs.PACKAGE_BLOB_DATA, GzipLobCodec.NAME);
+
+		assertThat(createService().reencode()).isEqualTo(10);
+
+		String value = this.jdbcTemplate.queryForObject("select data from skipper_package_blob where hash = ?",
+				String.class, "hash9");
+		assertThat(value).startsWith("~" + GzipLobCodec.NAME + ":");
+		assertThat(this.lobCodecs.decode(value)).isEqualTo(data);
+	}
+
+	@Test
+	public void reencodingReducesStoredSize() {
+		int rows = 500;
+		insertStatuses(rows, 50);
+		long plainSize = storedSize();
+		this.lobCodecs.setColumnCodec(LobCodecs.STATUS_PLATFORM_STATUS, GzipLobCodec.NAME);
+		this.lobCompression.setReencodeBatchSize(100);
+
+		assertThat(createService().reencode()).isEqualTo(rows);
+
+		long encodedSize = storedSize();
+		logger.info("Re-encoded {} rows from {} to {} chars", rows, plainSize, encodedSize);
+		assertThat(encodedSize).isLessThan(plainSize / 4);
+	}
+
+	private LobReencodingService createService() {
+		return new LobReencodingService(this.database, this.lobCodecs,
+				new PackageBlobMigrationService(this.database, this.lobCodecs, 100), this.lobCompression);
+	}
+
+	private long storedSize() {
+		Long size = this.jdbcTemplate.queryForObject("select sum(length(platform_status)) from skipper_status",
+				Long.class);
+		return size != null ? size : 0;
+	}
+
+	private void insertStatuses(int count, int instances) {
+		List<Object[]> args = new ArrayList<>();
+		for (int i = 1; i <= count; i++) {
+			args.add(new Object[] { i, this.lobCodecs.encode(LobCodecs.STATUS_PLATFORM_STATUS,
+					createPlatformStatus(i, instances)), "DEPLOYED" });
+		}
+		this.jdbcTemplate.batchUpdate("insert into skipper_status (id, platform_status, status_code) values (?, ?, ?)",
+				args);
+	}
+
+	static String createPlatformStatus(int id, int instances) {
+		StringBuilder builder = new StringBuilder("[{\"deploymentId\":\"log-v").append(id)
+				.append("\",\"state\":\"deployed\",\"instances\":{");
+		for (int i = 0; i < instances; i++) {
+			if (i > 0) {
+				builder.append(",");
+			}
+			builder.append("\"log-v").append(id).append("-").append(i).append("\":{\"instanceNumber\":").append(i)
+					.append(",\"state\":\"deployed\",\"attributes\":{\"port\":\"").append(30000 + i)
+					.append("\",\"stdout\":\"/tmp/spring-cloud-deployer/log-v").append(id).append("/stdout_")
+					.append(i).append(".log\"}}");
+		}
+		return builder.append("}}]").toString();
+	}
+}
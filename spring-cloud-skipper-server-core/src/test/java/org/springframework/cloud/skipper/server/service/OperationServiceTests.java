@@ -0,0 +1,155 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.cloud.skipper.OperationNotFoundException;
+import org.springframework.cloud.skipper.SkipperException;
+import org.springframework.cloud.skipper.domain.Operation;
+import org.springframework.cloud.skipper.domain.OperationState;
+import org.springframework.cloud.skipper.domain.OperationType;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.Operations;
+import org.springframework.cloud.skipper.server.repository.jpa.OperationRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link OperationService}.
+ */
+public class OperationServiceTests {
+
+	private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+	private OperationService service;
+
+	@After
+	public void destroy() {
+		if (this.service != null) {
+			this.service.destroy();
+		}
+	}
+
+	@Test
+	public void operationSucceedsWithReleaseVersion() throws Exception {
+		this.service = createService(1, 10);
+		Release release = new Release();
+		release.setName("test");
+		release.setVersion(2);
+
+		Operation operation = this.service.submit(OperationType.UPGRADE, "test", () -> release);
+		assertThat(operation.getId()).isNotNull();
+
+		Operation done = waitFor(operation.getId());
+		assertThat(done.getState()).isEqualTo(OperationState.SUCCEEDED);
+		assertThat(done.getReleaseVersion()).isEqualTo(2);
+	}
+
+	@Test
+	public void operationFailsWithMessage() throws Exception {
+		this.service = createService(1, 10);
+		Operation operation = this.service.submit(OperationType.INSTALL, "test", () -> {
+			throw new SkipperException("deploy failed");
+		});
+
+		Operation done = waitFor(operation.getId());
+		assertThat(done.getState()).isEqualTo(OperationState.FAILED);
+		assertThat(done.getMessage()).isEqualTo("deploy failed");
+	}
+
+	@Test
+	public void operationsOverQueueCapacityAreRejected() throws Exception {
+		this.service = createService(1, 0);
+		CountDownLatch latch = new CountDownLatch(1);
+		this.service.submit(OperationType.INSTALL, "test1", () -> {
+			try {
+				latch.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		});
+		assertThatThrownBy(() -> this.service.submit(OperationType.INSTALL, "test2", () -> null))
+				.isInstanceOf(SkipperException.class);
+		latch.countDown();
+		assertThat(this.operations.values()).extracting(Operation::getReleaseName, Operation::getState)
+				.contains(tuple("test2", OperationState.FAILED));
+	}
+
+	@Test
+	public void interruptedOperationsFailOnStartup() {
+		this.service = createService(1, 10);
+		Operation operation = new Operation("interrupted", OperationType.UPGRADE, "test");
+		operation.setState(OperationState.RUNNING);
+		this.operations.put(operation.getId(), operation);
+
+		this.service.initialize(null);
+		assertThat(this.service.get("interrupted").getState()).isEqualTo(OperationState.FAILED);
+	}
+
+	@Test
+	public void missingOperationIsNotFound() {
+		this.service = createService(1, 10);
+		assertThatThrownBy(() -> this.service.get("missing")).isInstanceOf(OperationNotFoundException.class);
+	}
+
+	private Operation waitFor(String id) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!this.service.get(id).isDone() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		return this.service.get(id);
+	}
+
+	@SuppressWarnings("unchecked")
+	private OperationService createService(int workers, int queueCapacity) {
+		OperationRepository repository = mock(OperationRepository.class);
+		when(repository.save(any(Operation.class))).thenAnswer(invocation -> {
+			Operation operation = (Operation) invocation.getArguments()[0];
+			this.operations.put(operation.getId(), operation);
+			return operation;
+		});
+		when(repository.findById(anyString()))
+				.thenAnswer(invocation -> Optional.ofNullable(this.operations.get(invocation.getArguments()[0])));
+		when(repository.findByStateIn(any())).thenAnswer(invocation -> {
+			Collection<OperationState> states = (Collection<OperationState>) invocation
+					.getArguments()[0];
+			return this.operations.values().stream().filter(o -> states.contains(o.getState()))
+					.collect(Collectors.toList());
+		});
+		Operations properties = new Operations();
+		properties.setWorkers(workers);
+		properties.setQueueCapacity(queueCapacity);
+		return new OperationService(repository, properties);
+	}
+}
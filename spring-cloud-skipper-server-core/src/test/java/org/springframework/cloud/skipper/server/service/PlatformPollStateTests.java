@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.util.Date;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.cloud.skipper.server.service.PlatformPollState.CircuitState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PlatformPollState}.
+ */
+public class PlatformPollStateTests {
+
+	private static final long NOW = 1600000000000L;
+
+	private final PlatformPollState platform = new PlatformPollState("test", 1, 2, 60000);
+
+	@After
+	public void dispose() {
+		this.platform.dispose();
+	}
+
+	@Test
+	public void circuitOpensAfterConsecutiveFailures() {
+		this.platform.recordFailure("release1", new TimeoutException(), NOW);
+		assertThat(this.platform.allowPoll(NOW)).isTrue();
+		this.platform.recordFailure("release2", new TimeoutException(), NOW);
+		assertThat(this.platform.getCircuitState()).isEqualTo(CircuitState.OPEN);
+		assertThat(this.platform.getOpenUntil()).isEqualTo(NOW + 60000);
+		assertThat(this.platform.getLastFailure()).isEqualTo(new Date(NOW));
+		assertThat(this.platform.allowPoll(NOW + 59999)).isFalse();
+		assertThat(this.platform.getStaleReleases()).containsExactly("release1", "release2");
+	}
+
+	@Test
+	public void circuitClosesAfterCoolDownAndSuccess() {
+		this.platform.recordFailure("release1", new TimeoutException(), NOW);
+		this.platform.recordFailure("release1", new TimeoutException(), NOW);
+		long openUntil = this.platform.getOpenUntil();
+		assertThat(this.platform.allowPoll(openUntil)).isTrue();
+		assertThat(this.platform.getCircuitState()).isEqualTo(CircuitState.HALF_OPEN);
+
+		this.platform.recordSuccess("release1", NOW + 60000);
+		assertThat(this.platform.getCircuitState()).isEqualTo(CircuitState.CLOSED);
+		assertThat(this.platform.getLastSuccess()).isEqualTo(new Date(NOW + 60000));
+		assertThat(this.platform.getConsecutiveFailures()).isZero();
+		assertThat(this.platform.getStaleReleases()).isEmpty();
+	}
+
+	@Test
+	public void failureWhileHalfOpenOpensCircuit() {
+		this.platform.recordFailure("release1", new TimeoutException(), NOW);
+		this.platform.recordFailure("release1", new TimeoutException(), NOW);
+		assertThat(this.platform.allowPoll(this.platform.getOpenUntil())).isTrue();
+		this.platform.recordFailure("release1", new TimeoutException(), NOW);
+		assertThat(this.platform.getCircuitState()).isEqualTo(CircuitState.OPEN);
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.cloud.skipper.domain.ConfigValues;
+import org.springframework.cloud.skipper.domain.Manifest;
+import org.springframework.cloud.skipper.domain.Package;
+import org.springframework.cloud.skipper.domain.PackageIdentifier;
+import org.springframework.cloud.skipper.domain.PackageMetadata;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.UpgradeProperties;
+import org.springframework.cloud.skipper.domain.UpgradeRequest;
+import org.springframework.cloud.skipper.domain.deployer.ReleaseDifference;
+import org.springframework.cloud.skipper.server.deployer.ReleaseAnalysisReport;
+import org.springframework.cloud.skipper.server.deployer.ReleaseManager;
+import org.springframework.cloud.skipper.server.deployer.ReleaseManagerFactory;
+import org.springframework.cloud.skipper.server.repository.jpa.PackageMetadataRepository;
+import org.springframework.cloud.skipper.server.repository.jpa.ReleaseRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ReleaseReportService}.
+ */
+public class ReleaseReportServiceTests {
+
+	private ReleaseRepository releaseRepository;
+
+	private ReleaseManager releaseManager;
+
+	private ReleaseReportService releaseReportService;
+
+	private Release existingRelease;
+
+	private Release replacingRelease;
+
+	@Before
+	public void setup() {
+		this.releaseRepository = mock(ReleaseRepository.class);
+		this.releaseManager = mock(ReleaseManager.class);
+		ReleaseManagerFactory releaseManagerFactory = mock(ReleaseManagerFactory.class);
+		when(releaseManagerFactory.getReleaseManager(anyString())).thenReturn(this.releaseManager);
+		this.releaseReportService = new ReleaseReportService(mock(PackageMetadataRepository.class),
+				this.releaseRepository, mock(PackageService.class), releaseManagerFactory);
+
+		this.existingRelease = createRelease(1);
+		this.replacingRelease = createRelease(2);
+		when(this.releaseRepository.findLatestRelease("test")).thenReturn(this.replacingRelease);
+		when(this.releaseRepository.findLatestReleaseForUpdate("test")).thenReturn(this.existingRelease);
+		when(this.releaseRepository.findByNameAndVersion("test", 2)).thenReturn(this.replacingRelease);
+		when(this.releaseManager.createReport(any(), any(), anyBoolean(), anyBoolean(), any()))
+				.thenAnswer(invocation -> new ReleaseAnalysisReport(Arrays.asList("log"), new ReleaseDifference(),
+						invocation.getArgument(0), invocation.getArgument(1)));
+	}
+
+	@Test
+	public void reportIsReusedUntilEvicted() {
+		UpgradeRequest upgradeRequest = createUpgradeRequest();
+
+		ReleaseAnalysisReport first = this.releaseReportService.createReport(upgradeRequest, null, false);
+		ReleaseAnalysisReport second = this.releaseReportService.createReport(upgradeRequest, null, false);
+		verify(this.releaseManager, times(1)).createReport(any(), any(), anyBoolean(), anyBoolean(), any());
+		assertThat(second.getApplicationNamesToUpgrade()).containsExactly("log");
+		assertThat(second.getExistingRelease().getVersion()).isEqualTo(1);
+		assertThat(second.getReplacingRelease().getVersion()).isEqualTo(2);
+
+		this.releaseReportService.evictReport(first);
+		this.releaseReportService.createReport(upgradeRequest, null, false);
+		verify(this.releaseManager, times(2)).createReport(any(), any(), anyBoolean(), anyBoolean(), any());
+	}
+
+	private static UpgradeRequest createUpgradeRequest() {
+		UpgradeProperties upgradeProperties = new UpgradeProperties();
+		upgradeProperties.setReleaseName("test");
+		PackageIdentifier packageIdentifier = new PackageIdentifier();
+		packageIdentifier.setPackageName("log");
+		UpgradeRequest upgradeRequest = new UpgradeRequest();
+		upgradeRequest.setUpgradeProperties(upgradeProperties);
+		upgradeRequest.setPackageIdentifier(packageIdentifier);
+		return upgradeRequest;
+	}
+
+	private static Release createRelease(int version) {
+		PackageMetadata packageMetadata = new PackageMetadata();
+		packageMetadata.setName("log");
+		packageMetadata.setVersion("1.0.0");
+		Package pkg = new Package();
+		pkg.setMetadata(packageMetadata);
+		Manifest manifest = new Manifest();
+		manifest.setData("kind: SpringCloudDeployerApplication\n");
+		Release release = new Release();
+		release.setName("test");
+		release.setVersion(version);
+		release.setPlatformName("default");
+		release.setConfigValues(new ConfigValues());
+		release.setPkg(pkg);
+		release.setManifest(manifest);
+		return release;
+	}
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.deployer.spi.app.AppStatus;
+import org.springframework.cloud.deployer.spi.app.DeploymentState;
+import org.springframework.cloud.skipper.domain.Info;
+import org.springframework.cloud.skipper.domain.Manifest;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.Status;
+import org.springframework.cloud.skipper.domain.StatusCode;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.ReleaseStatePolling;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.StatusSnapshots;
+import org.springframework.cloud.skipper.server.deployer.ReleaseManager;
+import org.springframework.cloud.skipper.server.deployer.ReleaseManagerFactory;
+import org.springframework.cloud.skipper.server.repository.jpa.ReleaseRepository;
+import org.springframework.cloud.skipper.support.codec.LobCodecs;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ReleaseStateUpdateService} driven by a controllable clock.
+ */
+public class ReleaseStateUpdateServiceTests {
+
+	private static final String KIND = "SpringCloudDeployerApplication";
+
+	private static final long START = 1600000000000L;
+
+	private final MutableClock clock = new MutableClock(START);
+
+	private final ReleaseManager releaseManager = mock(ReleaseManager.class);
+
+	private final ReleaseManagerFactory releaseManagerFactory = mock(ReleaseManagerFactory.class);
+
+	private final ReleaseRepository releaseRepository = mock(ReleaseRepository.class);
+
+	private final ReleaseStatePolling polling = new ReleaseStatePolling();
+
+	private final AtomicInteger polls = new AtomicInteger();
+
+	private volatile DeploymentState state = DeploymentState.deployed;
+
+	private volatile boolean failing;
+
+	private EmbeddedDatabase database;
+
+	private ReleaseStateUpdateService service;
+
+	@Before
+	public void setup() {
+		this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+				.addScript("org/springframework/cloud/skipper/server/db/migration/h2/V1__INITIAL_SETUP.sql")
+				.build();
+		new JdbcTemplate(this.database).update("insert into skipper_status (id, status_code) values (1, 'DEPLOYED')");
+		this.polling.setMinIntervalInMillis(1000);
+		this.polling.setMaxIntervalInMillis(8000);
+		this.polling.setBackoffMultiplier(2);
+		this.polling.setRecentDeployWindowInMillis(60000);
+		when(this.releaseManagerFactory.getReleaseManager(KIND)).thenReturn(this.releaseManager);
+		when(this.releaseManager.statusReactive(any())).thenAnswer(invocation -> {
+			Release release = invocation.getArgument(0);
+			release.getInfo().getStatus().setPlatformStatusAsAppStatusList(Collections.singletonList(
+					AppStatus.of("test-app-v1").generalState(this.state).build()));
+			this.polls.incrementAndGet();
+			return this.failing ? Mono.error(new IllegalStateException("platform down")) : Mono.just(release);
+		});
+		this.service = new ReleaseStateUpdateService(this.releaseManagerFactory, this.releaseRepository,
+				this.database, new LobCodecs(), this.polling, new ReleaseStatusSnapshotStore(new StatusSnapshots()),
+				this.clock);
+	}
+
+	@After
+	public void destroy() {
+		this.service.destroy();
+		this.database.shutdown();
+	}
+
+	@Test
+	public void releasesAreNotPolledBeforeReconcile() {
+		when(this.releaseRepository.findLatestDeployedOrFailed())
+				.thenReturn(Collections.singletonList(createRelease("test", 1L, START - 3600000)));
+
+		this.service.updateReactively();
+
+		assertThat(this.polls).hasValue(0);
+		this.service.reconcile();
+		this.service.updateReactively();
+		assertThat(this.polls).hasValue(1);
+	}
+
+	@Test
+	public void intervalBacksOffUpToMaxInterval() {
+		startPolling(START - 3600000);
+
+		// first poll finds the state reported by the release manager changed
+		assertNextPollAfter(1000);
+		assertNextPollAfter(2000);
+		assertNextPollAfter(4000);
+		assertNextPollAfter(8000);
+		assertNextPollAfter(8000);
+	}
+
+	@Test
+	public void intervalIsResetWhenStateChanges() {
+		startPolling(START - 3600000);
+		assertNextPollAfter(1000);
+		assertNextPollAfter(2000);
+
+		this.state = DeploymentState.failed;
+		this.clock.add(4400);
+		this.service.updateReactively();
+		assertThat(this.polls).hasValue(4);
+
+		assertNextPollAfter(1000);
+		assertNextPollAfter(2000);
+	}
+
+	@Test
+	public void intervalIsResetAfterRecentDeploy() {
+		startPolling(START);
+
+		assertNextPollAfter(1000);
+		assertNextPollAfter(1000);
+
+		this.clock.add(60000);
+		this.service.updateReactively();
+		assertThat(this.polls).hasValue(4);
+		assertNextPollAfter(2000);
+	}
+
+	@Test
+	public void releasesWhichAreNoLongerLatestAreDropped() {
+		startPolling(START - 3600000);
+		when(this.releaseRepository.findLatestDeployedOrFailed()).thenReturn(Collections.emptyList());
+		this.service.reconcile();
+
+		this.clock.add(3600000);
+		this.service.updateReactively();
+
+		assertThat(this.polls).hasValue(1);
+	}
+
+	@Test
+	public void jitterStaysWithinTenthOfInterval() {
+		List<Release> releases = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			releases.add(createRelease("test" + i, 100L + i, START - 3600000));
+		}
+		when(this.releaseRepository.findLatestDeployedOrFailed()).thenReturn(releases);
+		this.service.reconcile();
+		this.service.updateReactively();
+		assertThat(this.polls).hasValue(20);
+
+		// first polls find states changed, so all releases are due after the min interval
+		this.clock.add(999);
+		this.service.updateReactively();
+		assertThat(this.polls).hasValue(20);
+		this.clock.add(101);
+		this.service.updateReactively();
+		assertThat(this.polls).hasValue(40);
+	}
+
+	@Test
+	public void circuitCoolDownFollowsServiceClock() {
+		this.polling.setFailureThreshold(1);
+		this.polling.setCoolDownInMillis(30000);
+		this.failing = true;
+		startPolling(START - 3600000);
+		PlatformPollState platform = this.service.getPlatformPollStates().iterator().next();
+		assertThat(platform.getCircuitState()).isEqualTo(PlatformPollState.CircuitState.OPEN);
+		assertThat(platform.getLastFailure()).isEqualTo(new Date(START));
+
+		// releases are due again before the cool-down period of the service clock is over
+		this.clock.set(START + 29999);
+		this.service.updateReactively();
+		assertThat(this.polls).hasValue(1);
+		assertThat(platform.getStaleReleases()).containsExactly("test");
+
+		this.failing = false;
+		this.clock.set(START + 30000);
+		this.service.updateReactively();
+		assertThat(this.polls).hasValue(2);
+		assertThat(platform.getCircuitState()).isEqualTo(PlatformPollState.CircuitState.CLOSED);
+		assertThat(platform.getLastSuccess()).isEqualTo(new Date(START + 30000));
+		assertThat(platform.getStaleReleases()).isEmpty();
+	}
+
+	private void startPolling(long lastDeployed) {
+		when(this.releaseRepository.findLatestDeployedOrFailed())
+				.thenReturn(Collections.singletonList(createRelease("test", 1L, lastDeployed)));
+		this.service.reconcile();
+		this.service.updateReactively();
+		assertThat(this.polls).hasValue(1);
+	}
+
+	// next poll is due after the interval plus a jitter of up to a tenth of the interval
+	private void assertNextPollAfter(long interval) {
+		long polled = this.clock.millis();
+		int count = this.polls.get();
+		this.clock.set(polled + interval - 1);
+		this.service.updateReactively();
+		assertThat(this.polls).hasValue(count);
+		this.clock.set(polled + interval + interval / 10);
+		this.service.updateReactively();
+		assertThat(this.polls).hasValue(count + 1);
+	}
+
+	private static Release createRelease(String name, long statusId, long lastDeployed) {
+		Status status = new Status();
+		ReflectionTestUtils.setField(status, "id", statusId);
+		status.setStatusCode(StatusCode.DEPLOYED);
+		Info info = new Info();
+		info.setStatus(status);
+		info.setLastDeployed(new Date(lastDeployed));
+		Manifest manifest = new Manifest();
+		manifest.setData("kind: " + KIND + "\n");
+		Release release = new Release();
+		release.setName(name);
+		release.setVersion(1);
+		release.setPlatformName("default");
+		release.setInfo(info);
+		release.setManifest(manifest);
+		return release;
+	}
+
+	private static class MutableClock extends Clock {
+
+		private volatile long millis;
+
+		MutableClock(long millis) {
+			this.millis = millis;
+		}
+
+		void set(long millis) {
+			this.millis = millis;
+		}
+
+		void add(long millis) {
+			this.millis += millis;
+		}
+
+		@Override
+		public long millis() {
+			return this.millis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(this.millis);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.springframework.cloud.skipper.domain.Info;
+import org.springframework.cloud.skipper.domain.Release;
+import org.springframework.cloud.skipper.domain.Status;
+import org.springframework.cloud.skipper.domain.StatusCode;
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.StatusSnapshots;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link ReleaseStatusSnapshotStore}.
+ */
+public class ReleaseStatusSnapshotStoreTests {
+
+	@Test
+	public void freshSnapshotIsUsed() {
+		ReleaseStatusSnapshotStore store = new ReleaseStatusSnapshotStore(new StatusSnapshots());
+		Release release = createRelease("test", 1);
+		store.put(release);
+
+		AtomicInteger revalidations = new AtomicInteger();
+		ReleaseStatusSnapshotStore.Snapshot snapshot = store.get(release, null, revalidations::incrementAndGet);
+		assertThat(snapshot).isNotNull();
+		assertThat(snapshot.getVersion()).isEqualTo(1);
+		assertThat(revalidations.get()).isZero();
+
+		Info info = snapshot.toInfo(release.getInfo());
+		assertThat(info).isNotSameAs(release.getInfo());
+		assertThat(info.getStatus().getStatusCode()).isEqualTo(StatusCode.DEPLOYED);
+	}
+
+	@Test
+	public void staleSnapshotIsRevalidatedOnce() {
+		StatusSnapshots properties = new StatusSnapshots();
+		properties.setMaxStalenessInMillis(-1);
+		ReleaseStatusSnapshotStore store = new ReleaseStatusSnapshotStore(properties);
+		Release release = createRelease("test", 1);
+		store.put(release);
+
+		AtomicInteger revalidations = new AtomicInteger();
+		assertThat(store.get(release, null, revalidations::incrementAndGet)).isNotNull();
+		assertThat(store.get(release, null, revalidations::incrementAndGet)).isNotNull();
+		assertThat(revalidations.get()).isEqualTo(1);
+
+		store.revalidated("test");
+		assertThat(store.get(release, null, revalidations::incrementAndGet)).isNotNull();
+		assertThat(revalidations.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void requestedMaxStalenessIsNotExceeded() {
+		ReleaseStatusSnapshotStore store = new ReleaseStatusSnapshotStore(new StatusSnapshots());
+		Release release = createRelease("test", 1);
+		store.put(release);
+
+		AtomicInteger revalidations = new AtomicInteger();
+		assertThat(store.get(release, -1L, revalidations::incrementAndGet)).isNull();
+		assertThat(revalidations.get()).isZero();
+		assertThat(store.get(release, 60000L, revalidations::incrementAndGet)).isNotNull();
+	}
+
+	@Test
+	public void failedRevalidationCanBeRetried() {
+		StatusSnapshots properties = new StatusSnapshots();
+		properties.setMaxStalenessInMillis(-1);
+		ReleaseStatusSnapshotStore store = new ReleaseStatusSnapshotStore(properties);
+		Release release = createRelease("test", 1);
+		store.put(release);
+
+		assertThatThrownBy(() -> store.get(release, null, () -> {
+			throw new IllegalStateException("Revalidation failed");
+		})).isInstanceOf(IllegalStateException.class);
+		AtomicInteger revalidations = new AtomicInteger();
+		assertThat(store.get(release, null, revalidations::incrementAndGet)).isNotNull();
+		assertThat(revalidations.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void snapshotOfOtherVersionIsNotUsed() {
+		ReleaseStatusSnapshotStore store = new ReleaseStatusSnapshotStore(new StatusSnapshots());
+		store.put(createRelease("test", 2));
+		store.put(createRelease("test", 1));
+
+		assertThat(store.get(createRelease("test", 1), null, () -> { })).isNull();
+		assertThat(store.get(createRelease("test", 2), null, () -> { })).isNotNull();
+	}
+
+	@Test
+	public void tooStaleSnapshotIsNotUsed() {
+		StatusSnapshots properties = new StatusSnapshots();
+		properties.setMaxStalenessInMillis(-1);
+		properties.setStaleWhileRevalidateInMillis(0);
+		ReleaseStatusSnapshotStore store = new ReleaseStatusSnapshotStore(properties);
+		Release release = createRelease("test", 1);
+		store.put(release);
+
+		assertThat(store.get(release, null, () -> { })).isNull();
+	}
+
+	private static Release createRelease(String name, int version) {
+		Status status = new Status();
+		status.setStatusCode(StatusCode.DEPLOYED);
+		Info info = new Info();
+		info.setStatus(status);
+		Release release = new Release();
+		release.setName(name);
+		release.setVersion(version);
+		release.setInfo(info);
+		return release;
+	}
+}
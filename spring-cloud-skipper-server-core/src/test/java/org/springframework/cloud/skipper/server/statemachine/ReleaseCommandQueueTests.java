@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.statemachine;
+
+import org.junit.Test;
+
+import org.springframework.cloud.skipper.SkipperException;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService.SkipperEvents;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService.SkipperStates;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link ReleaseCommandQueue}.
+ */
+public class ReleaseCommandQueueTests {
+
+	private static final SkipperStates[] INITIAL = new SkipperStates[] { SkipperStates.INITIAL };
+
+	private final ReleaseCommandQueue queue = new ReleaseCommandQueue();
+
+	@Test
+	public void consecutiveScaleCommandsAreCoalesced() {
+		Message<SkipperEvents> scale1 = MessageBuilder.withPayload(SkipperEvents.SCALE).build();
+		Message<SkipperEvents> scale2 = MessageBuilder.withPayload(SkipperEvents.SCALE).build();
+		ReleaseCommandQueue.Command command1 = this.queue.offer(scale1, INITIAL, 10);
+		ReleaseCommandQueue.Command command2 = this.queue.offer(scale2, INITIAL, 10);
+
+		assertThat(command2).isSameAs(command1);
+		assertThat(command1.isCreatedFor(scale1)).isTrue();
+		assertThat(command1.isCreatedFor(scale2)).isFalse();
+		assertThat(command1.getMessage()).isSameAs(scale2);
+		assertThat(this.queue.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void dispatchedCommandIsNotCoalesced() throws Exception {
+		ReleaseCommandQueue.Command command1 = this.queue
+				.offer(MessageBuilder.withPayload(SkipperEvents.SCALE).build(), INITIAL, 10);
+		assertThat(this.queue.dispatch(command1, () -> true, Long.MAX_VALUE)).isTrue();
+		ReleaseCommandQueue.Command command2 = this.queue
+				.offer(MessageBuilder.withPayload(SkipperEvents.SCALE).build(), INITIAL, 10);
+
+		assertThat(command2).isNotSameAs(command1);
+		assertThat(this.queue.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void commandsAreDispatchedInOrder() throws Exception {
+		ReleaseCommandQueue.Command command1 = this.queue
+				.offer(MessageBuilder.withPayload(SkipperEvents.UPGRADE).build(), INITIAL, 10);
+		ReleaseCommandQueue.Command command2 = this.queue
+				.offer(MessageBuilder.withPayload(SkipperEvents.DELETE).build(), INITIAL, 10);
+
+		long deadline = System.currentTimeMillis() + 10000;
+		assertThat(this.queue.dispatch(command2, () -> true, System.currentTimeMillis() + 10)).isFalse();
+		assertThat(this.queue.dispatch(command1, () -> false, System.currentTimeMillis() + 10)).isFalse();
+		assertThat(this.queue.dispatch(command1, () -> true, deadline)).isTrue();
+		this.queue.complete(command1);
+		assertThat(this.queue.dispatch(command2, () -> true, deadline)).isTrue();
+		this.queue.complete(command2);
+		assertThat(this.queue.isEmpty()).isTrue();
+	}
+
+	@Test
+	public void commandsOverMaxDepthAreRejected() {
+		this.queue.offer(MessageBuilder.withPayload(SkipperEvents.UPGRADE).build(), INITIAL, 1);
+		assertThatThrownBy(() -> this.queue.offer(MessageBuilder.withPayload(SkipperEvents.DELETE).build(),
+				INITIAL, 1)).isInstanceOf(SkipperException.class);
+	}
+
+	@Test
+	public void commandWaitingPastDeadlineIsRemoved() {
+		ReleaseCommandQueue.Command command = this.queue
+				.offer(MessageBuilder.withPayload(SkipperEvents.DELETE).build(), INITIAL, 10);
+		assertThatThrownBy(() -> this.queue.dispatch(command, () -> false, System.currentTimeMillis() - 1))
+				.isInstanceOf(SkipperException.class)
+				.hasMessageContaining("not in state ready");
+		assertThat(this.queue.isEmpty()).isTrue();
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.statemachine;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.StateMachinePool;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService.SkipperEvents;
+import org.springframework.cloud.skipper.server.statemachine.SkipperStateMachineService.SkipperStates;
+import org.springframework.context.Lifecycle;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachinePersist;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.data.jpa.JpaRepositoryStateMachine;
+import org.springframework.statemachine.data.jpa.JpaStateMachineRepository;
+import org.springframework.statemachine.state.State;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Tests for {@link SkipperStateMachinePool}.
+ */
+@SuppressWarnings("unchecked")
+public class SkipperStateMachinePoolTests {
+
+	private final StateMachineFactory<SkipperStates, SkipperEvents> stateMachineFactory = mock(
+			StateMachineFactory.class);
+
+	private final StateMachinePersist<SkipperStates, SkipperEvents, String> stateMachinePersist = mock(
+			StateMachinePersist.class);
+
+	private final JpaStateMachineRepository jpaStateMachineRepository = mock(JpaStateMachineRepository.class);
+
+	private final StateMachinePool properties = new StateMachinePool();
+
+	private SkipperStateMachinePool pool;
+
+	@Before
+	public void setup() {
+		when(this.stateMachineFactory.getStateMachine(anyString()))
+				.thenAnswer(invocation -> createStateMachine(SkipperStates.INITIAL));
+		this.properties.setMaxSize(2);
+		this.properties.setMaxIdleInMillis(0);
+		this.properties.setEvictionIntervalInMillis(60000);
+		this.pool = new SkipperStateMachinePool(this.stateMachineFactory, this.stateMachinePersist,
+				this.jpaStateMachineRepository, this.properties);
+		this.pool.setAcquireGracePeriodInMillis(0);
+	}
+
+	@After
+	public void dispose() throws Exception {
+		this.pool.destroy();
+	}
+
+	@Test
+	public void pooledMachineIsReused() {
+		StateMachine<SkipperStates, SkipperEvents> stateMachine = this.pool.acquireStateMachine("release1");
+		assertThat(this.pool.acquireStateMachine("release1")).isSameAs(stateMachine);
+		assertThat(this.pool.getSize()).isEqualTo(1);
+	}
+
+	@Test
+	public void leastRecentlyUsedIdleMachineIsReleasedOverMaxSize() throws Exception {
+		StateMachine<SkipperStates, SkipperEvents> stateMachine1 = this.pool.acquireStateMachine("release1");
+		Thread.sleep(5);
+		StateMachine<SkipperStates, SkipperEvents> stateMachine2 = this.pool.acquireStateMachine("release2");
+		Thread.sleep(5);
+		this.pool.acquireStateMachine("release3");
+
+		assertThat(this.pool.getSize()).isEqualTo(2);
+		verify(stateMachine1).stop();
+		verify(stateMachine2, never()).stop();
+	}
+
+	@Test
+	public void busyMachineIsNotReleased() {
+		StateMachine<SkipperStates, SkipperEvents> busy = createStateMachine(SkipperStates.UPGRADE);
+		when(this.stateMachineFactory.getStateMachine("busy")).thenReturn(busy);
+		this.pool.acquireStateMachine("busy");
+		this.pool.acquireStateMachine("release1");
+		this.pool.acquireStateMachine("release2");
+		this.pool.acquireStateMachine("release3");
+
+		this.pool.evictIdle();
+		assertThat(this.pool.getSize()).isEqualTo(1);
+		verify(busy, never()).stop();
+	}
+
+	@Test
+	public void idleMachinesAreReleased() {
+		StateMachine<SkipperStates, SkipperEvents> stateMachine = this.pool.acquireStateMachine("release1");
+		this.pool.evictIdle();
+		assertThat(this.pool.getSize()).isZero();
+		verify(stateMachine).stop();
+	}
+
+	@Test
+	public void machinesWithOperationsInProgressArePrewarmed() {
+		JpaRepositoryStateMachine upgrading = new JpaRepositoryStateMachine();
+		upgrading.setMachineId("upgrading");
+		upgrading.setState(SkipperStates.UPGRADE_WAIT_TARGET_APPS.name());
+		JpaRepositoryStateMachine idle = new JpaRepositoryStateMachine();
+		idle.setMachineId("idle");
+		idle.setState(SkipperStates.INITIAL.name());
+		when(this.jpaStateMachineRepository.findAll()).thenReturn(Arrays.asList(upgrading, idle));
+
+		this.pool.prewarm(null);
+		assertThat(this.pool.getSize()).isEqualTo(1);
+		verify(this.stateMachineFactory).getStateMachine("upgrading");
+		verify(this.stateMachineFactory, never()).getStateMachine("idle");
+	}
+
+	private static StateMachine<SkipperStates, SkipperEvents> createStateMachine(SkipperStates stateId) {
+		State<SkipperStates, SkipperEvents> state = mock(State.class);
+		when(state.getId()).thenReturn(stateId);
+		// machines are started already, so the pool doesn't wait for them to start
+		StateMachine<SkipperStates, SkipperEvents> stateMachine = mock(StateMachine.class,
+				withSettings().extraInterfaces(Lifecycle.class));
+		when(((Lifecycle) stateMachine).isRunning()).thenReturn(true);
+		when(stateMachine.getState()).thenReturn(state);
+		return stateMachine;
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.server.statemachine;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import org.springframework.cloud.skipper.server.config.SkipperServerProperties.StateMachineExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link StateMachineExecutorConfiguration}.
+ */
+public class StateMachineExecutorConfigurationTests {
+
+	@Test
+	public void concurrentUpgradesProgressTogether() throws Exception {
+		TaskExecutor executor = StateMachineExecutorConfiguration.createTaskExecutor(new StateMachineExecutor());
+		try {
+			assertUpgradesProgressTogether(executor, 100);
+		}
+		finally {
+			((ThreadPoolTaskExecutor) executor).shutdown();
+		}
+	}
+
+	@Test
+	public void concurrentUpgradesProgressTogetherOnVirtualThreads() throws Exception {
+		StateMachineExecutor properties = new StateMachineExecutor();
+		properties.setVirtualThreads(true);
+		TaskExecutor executor = StateMachineExecutorConfiguration.createTaskExecutor(properties);
+		Assume.assumeTrue("Virtual threads not available", executor instanceof ConcurrentTaskExecutor);
+		assertUpgradesProgressTogether(executor, 100);
+	}
+
+	@Test
+	public void poolSizesAreConfigurable() {
+		StateMachineExecutor properties = new StateMachineExecutor();
+		properties.setCorePoolSize(2);
+		properties.setMaxPoolSize(1);
+		properties.setQueueCapacity(10);
+		ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) StateMachineExecutorConfiguration
+				.createTaskExecutor(properties);
+		try {
+			assertThat(executor.getCorePoolSize()).isEqualTo(2);
+			assertThat(executor.getMaxPoolSize()).isEqualTo(2);
+			assertThat(executor.getThreadPoolExecutor().getQueue().remainingCapacity()).isEqualTo(10);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void metricsTrackQueuedAndRunningTasks() throws Exception {
+		StateMachineExecutorMetrics metrics = new StateMachineExecutorMetrics(null);
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Runnable task = metrics.decorate(() -> {
+			running.countDown();
+			await(release);
+		});
+		assertThat(metrics.getQueued()).isEqualTo(1);
+
+		Thread thread = new Thread(task);
+		thread.start();
+		assertThat(running.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(metrics.getQueued()).isZero();
+		assertThat(metrics.getRunning()).isEqualTo(1);
+
+		release.countDown();
+		thread.join(10000);
+		assertThat(metrics.getRunning()).isZero();
+	}
+
+	/**
+	 * Every upgrade blocks in its step until all of them have reached it, the way upgrades
+	 * wait for health checks of their apps, so they only complete if none of them waits for
+	 * a thread behind others.
+	 */
+	private static void assertUpgradesProgressTogether(TaskExecutor executor, int upgrades) throws Exception {
+		CountDownLatch started = new CountDownLatch(upgrades);
+		CountDownLatch completed = new CountDownLatch(upgrades);
+		AtomicInteger failed = new AtomicInteger();
+		for (int i = 0; i < upgrades; i++) {
+			executor.execute(() -> {
+				started.countDown();
+				try {
+					if (!started.await(10, TimeUnit.SECONDS)) {
+						failed.incrementAndGet();
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					failed.incrementAndGet();
+				}
+				completed.countDown();
+			});
+		}
+		assertThat(completed.await(30, TimeUnit.SECONDS)).isTrue();
+		assertThat(failed.get()).isZero();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
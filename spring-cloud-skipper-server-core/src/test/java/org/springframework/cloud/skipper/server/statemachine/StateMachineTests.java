@@ -45,6 +45,7 @@ import org.springframework.cloud.skipper.server.deployer.ReleaseManager;
 import org.springframework.cloud.skipper.server.deployer.strategies.DeployAppStep;
 import org.springframework.cloud.skipper.server.deployer.strategies.HandleHealthCheckStep;
 import org.springframework.cloud.skipper.server.deployer.strategies.HealthCheckProperties;
+import org.springframework.cloud.skipper.server.deployer.strategies.HealthCheckResult;
 import org.springframework.cloud.skipper.server.deployer.strategies.HealthCheckStep;
 import org.springframework.cloud.skipper.server.deployer.strategies.UpgradeStrategy;
 import org.springframework.cloud.skipper.server.deployer.strategies.UpgradeStrategyFactory;
@@ -225,9 +226,9 @@ public class StateMachineTests {
 		release.setManifest(manifest);
 		Mockito.when(releaseReportService.createReport(any(), any(), any(boolean.class))).thenReturn(new ReleaseAnalysisReport(
 				new ArrayList<>(), new ReleaseDifference(), release, release));
-		Mockito.when(upgradeStrategy.checkStatus(any()))
-				.thenReturn(true);
-		Mockito.when(upgradeStrategyFactory.getUpgradeStrategy(any())).thenReturn(upgradeStrategy);
+		Mockito.when(upgradeStrategy.checkHealth(any(), any(), any()))
+				.thenReturn(HealthCheckResult.HEALTHY);
+		Mockito.when(upgradeStrategyFactory.getUpgradeStrategy(any(), any())).thenReturn(upgradeStrategy);
 
 		DefaultExtendedState extendedState = new DefaultExtendedState();
 		extendedState.getVariables().put(SkipperEventHeaders.UPGRADE_REQUEST, new UpgradeRequest());
@@ -291,9 +292,9 @@ public class StateMachineTests {
 		release.setManifest(manifest);
 		Mockito.when(releaseReportService.createReport(any(), any(), any(boolean.class))).thenReturn(new ReleaseAnalysisReport(
 				new ArrayList<>(), new ReleaseDifference(), release, release));
-		Mockito.when(upgradeStrategy.checkStatus(any()))
-				.thenReturn(true);
-		Mockito.when(upgradeStrategyFactory.getUpgradeStrategy(any())).thenReturn(upgradeStrategy);
+		Mockito.when(upgradeStrategy.checkHealth(any(), any(), any()))
+				.thenReturn(HealthCheckResult.HEALTHY);
+		Mockito.when(upgradeStrategyFactory.getUpgradeStrategy(any(), any())).thenReturn(upgradeStrategy);
 
 		UpgradeRequest upgradeRequest = new UpgradeRequest();
 
@@ -322,6 +323,7 @@ public class StateMachineTests {
 		plan.test();
 		Mockito.verify(upgradeCancelAction, never()).execute(any());
 		Mockito.verify(errorAction, never()).execute(any());
+		Mockito.verify(releaseService).refreshStatusSnapshot(release);
 	}
 
 	@Test
@@ -331,9 +333,9 @@ public class StateMachineTests {
 		release.setManifest(manifest);
 		Mockito.when(releaseReportService.createReport(any(), any(), any(boolean.class))).thenReturn(new ReleaseAnalysisReport(
 				new ArrayList<>(), new ReleaseDifference(), release, release));
-		Mockito.when(upgradeStrategy.checkStatus(any()))
-				.thenReturn(false);
-		Mockito.when(upgradeStrategyFactory.getUpgradeStrategy(any())).thenReturn(upgradeStrategy);
+		Mockito.when(upgradeStrategy.checkHealth(any(), any(), any()))
+				.thenReturn(HealthCheckResult.PENDING);
+		Mockito.when(upgradeStrategyFactory.getUpgradeStrategy(any(), any())).thenReturn(upgradeStrategy);
 
 		UpgradeRequest upgradeRequest = new UpgradeRequest();
 
@@ -374,6 +376,7 @@ public class StateMachineTests {
 
 		Mockito.verify(upgradeCancelAction).execute(any());
 		Mockito.verify(errorAction, never()).execute(any());
+		Mockito.verify(releaseService).refreshStatusSnapshot(release);
 	}
 
 	@Ignore("Flaky, what it tests not actually used yet")
@@ -384,9 +387,9 @@ public class StateMachineTests {
 		release.setManifest(manifest);
 		Mockito.when(releaseReportService.createReport(any(), any(), any(boolean.class))).thenReturn(new ReleaseAnalysisReport(
 				new ArrayList<>(), new ReleaseDifference(), release, release));
-		Mockito.when(upgradeStrategy.checkStatus(any()))
-				.thenReturn(false);
-		Mockito.when(upgradeStrategyFactory.getUpgradeStrategy(any())).thenReturn(upgradeStrategy);
+		Mockito.when(upgradeStrategy.checkHealth(any(), any(), any()))
+				.thenReturn(HealthCheckResult.PENDING);
+		Mockito.when(upgradeStrategyFactory.getUpgradeStrategy(any(), any())).thenReturn(upgradeStrategy);
 
 		UpgradeRequest upgradeRequest = new UpgradeRequest();
 
@@ -630,9 +633,9 @@ public class StateMachineTests {
 		release.setManifest(manifest);
 		Mockito.when(releaseReportService.createReport(any(), any(), any(boolean.class))).thenReturn(new ReleaseAnalysisReport(
 				new ArrayList<>(), new ReleaseDifference(), release, release));
-		Mockito.when(upgradeStrategy.checkStatus(any()))
-				.thenReturn(false);
-		Mockito.when(upgradeStrategyFactory.getUpgradeStrategy(any())).thenReturn(upgradeStrategy);
+		Mockito.when(upgradeStrategy.checkHealth(any(), any(), any()))
+				.thenReturn(HealthCheckResult.PENDING);
+		Mockito.when(upgradeStrategyFactory.getUpgradeStrategy(any(), any())).thenReturn(upgradeStrategy);
 
 		UpgradeRequest upgradeRequest = new UpgradeRequest();
 
@@ -136,7 +136,9 @@ public class ReleaseCommands extends AbstractSkipperCommand {
 			@ShellOption(help = "the comma separated set of properties to override during upgrade", defaultValue = ShellOption.NULL) String properties,
 			@ShellOption(help = "force upgrade") boolean force,
 			@ShellOption(help = "application names to force upgrade. If no specific list is provided, all the apps in the packages are force upgraded",
-					defaultValue = ShellOption.NULL) String appNames)
+					defaultValue = ShellOption.NULL) String appNames,
+			@ShellOption(help = "the name of the upgrade strategy, such as 'rolling' or 'canary', if not specified the default strategy will be used",
+					defaultValue = ShellOption.NULL) String strategy)
 			throws IOException {
 		// Commented out until https://github.com/spring-cloud/spring-cloud-skipper/issues/263 is
 		// addressed
@@ -145,7 +147,8 @@ public class ReleaseCommands extends AbstractSkipperCommand {
 			Assert.isTrue(force, "App names can be used only when the stream update is forced.");
 		}
 		Release release = skipperClient
-				.upgrade(getUpgradeRequest(releaseName, packageName, packageVersion, file, properties, timeoutExpression, force, appNames));
+				.upgrade(getUpgradeRequest(releaseName, packageName, packageVersion, file, properties, timeoutExpression, force,
+						appNames, strategy));
 		StringBuilder sb = new StringBuilder();
 		sb.append(release.getName() + " has been upgraded.  Now at version v" + release.getVersion() + ".");
 		return sb.toString();
@@ -172,10 +175,12 @@ public class ReleaseCommands extends AbstractSkipperCommand {
 	}
 
 	private UpgradeRequest getUpgradeRequest(String releaseName, String packageName, String packageVersion,
-			File propertiesFile, String propertiesToOverride, String timeoutExpression, boolean forceUpgrade, String appNames) throws IOException {
+			File propertiesFile, String propertiesToOverride, String timeoutExpression, boolean forceUpgrade, String appNames,
+			String strategy) throws IOException {
 		UpgradeRequest upgradeRequest = new UpgradeRequest();
 		upgradeRequest.setForce(forceUpgrade);
 		upgradeRequest.setAppNames(new ArrayList<>(StringUtils.commaDelimitedListToSet(appNames)));
+		upgradeRequest.setUpgradeStrategy(strategy);
 		UpgradeProperties upgradeProperties = new UpgradeProperties();
 		upgradeProperties.setReleaseName(releaseName);
 		String configValuesYML = YmlUtils.getYamlConfigValues(propertiesFile, propertiesToOverride);
@@ -238,8 +243,10 @@ public class ReleaseCommands extends AbstractSkipperCommand {
 
 	@ShellMethod(key = "release list", value = "List the latest version of releases with status of deployed or failed.")
 	public Table list(
-			@ShellOption(help = "wildcard expression to search by release name", defaultValue = ShellOption.NULL) String releaseName) {
-		List<Release> releases = this.skipperClient.list(releaseName);
+			@ShellOption(help = "wildcard expression to search by release name", defaultValue = ShellOption.NULL) String releaseName,
+			@ShellOption(help = "the number of releases fetched from the server at a time", defaultValue = ShellOption.NULL) Integer pageSize) {
+		List<Release> releases = (pageSize != null) ? this.skipperClient.list(releaseName, pageSize)
+				: this.skipperClient.list(releaseName);
 		LinkedHashMap<String, Object> headers = new LinkedHashMap<>();
 		headers.put("name", "Name");
 		headers.put("version", "Version");
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper;
+
+/**
+ * A {@link SkipperException} indicating a missing asynchronous operation.
+ */
+@SuppressWarnings("serial")
+public class OperationNotFoundException extends SkipperException {
+
+	private final String operationId;
+
+	/**
+	 * Instantiates a new {@code OperationNotFoundException}.
+	 *
+	 * @param operationId the operation id
+	 */
+	public OperationNotFoundException(String operationId) {
+		super(String.format("Operation with the id [%s] doesn't exist", operationId));
+		this.operationId = operationId;
+	}
+
+	/**
+	 * Gets the operation id.
+	 *
+	 * @return the operation id
+	 */
+	public String getOperationId() {
+		return operationId;
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This contains all the request attributes for upgrading multiple releases in a batch.
+ * The batch id is the handle used to cancel the batch while it's running.
+ */
+public class BatchUpgradeRequest {
+
+	private String batchId;
+
+	private List<UpgradeRequest> upgradeRequests = new ArrayList<>();
+
+	public BatchUpgradeRequest() {
+	}
+
+	public BatchUpgradeRequest(String batchId, List<UpgradeRequest> upgradeRequests) {
+		this.batchId = batchId;
+		this.upgradeRequests = upgradeRequests;
+	}
+
+	public String getBatchId() {
+		return batchId;
+	}
+
+	public void setBatchId(String batchId) {
+		this.batchId = batchId;
+	}
+
+	public List<UpgradeRequest> getUpgradeRequests() {
+		return upgradeRequests;
+	}
+
+	public void setUpgradeRequests(List<UpgradeRequest> upgradeRequests) {
+		this.upgradeRequests = upgradeRequests;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchUpgradeRequest [batchId=" + batchId + ", upgradeRequests=" + upgradeRequests + "]";
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.domain;
+
+/**
+ * Result of upgrading a single release of a batch.
+ */
+public class BatchUpgradeResult {
+
+	/**
+	 * Outcomes of an upgrade of a batch.
+	 */
+	public enum Outcome {
+
+		/**
+		 * Upgrade finished and the new release, which is returned, is deployed and healthy.
+		 */
+		SUCCEEDED,
+
+		/**
+		 * Upgrade could not be started, or its new release failed, with an error message.
+		 */
+		FAILED,
+
+		/**
+		 * Upgrade was not done, or was rolled back, as the batch was cancelled.
+		 */
+		CANCELLED
+	}
+
+	private String batchId;
+
+	private String releaseName;
+
+	private Outcome outcome;
+
+	private Release release;
+
+	private String message;
+
+	public BatchUpgradeResult() {
+	}
+
+	public BatchUpgradeResult(String batchId, String releaseName, Outcome outcome, Release release,
+			String message) {
+		this.batchId = batchId;
+		this.releaseName = releaseName;
+		this.outcome = outcome;
+		this.release = release;
+		this.message = message;
+	}
+
+	public String getBatchId() {
+		return batchId;
+	}
+
+	public void setBatchId(String batchId) {
+		this.batchId = batchId;
+	}
+
+	public String getReleaseName() {
+		return releaseName;
+	}
+
+	public void setReleaseName(String releaseName) {
+		this.releaseName = releaseName;
+	}
+
+	public Outcome getOutcome() {
+		return outcome;
+	}
+
+	public void setOutcome(Outcome outcome) {
+		this.outcome = outcome;
+	}
+
+	public Release getRelease() {
+		return release;
+	}
+
+	public void setRelease(Release release) {
+		this.release = release;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchUpgradeResult [batchId=" + batchId + ", releaseName=" + releaseName + ", outcome=" + outcome
+				+ ", message=" + message + "]";
+	}
+}
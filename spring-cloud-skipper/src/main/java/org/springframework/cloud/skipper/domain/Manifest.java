@@ -15,11 +15,14 @@
  */
 package org.springframework.cloud.skipper.domain;
 
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.Lob;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 
+import org.springframework.cloud.skipper.support.codec.CompressedLobConverter;
+
 /**
  * @author Mark Pollack
  */
@@ -29,6 +32,7 @@ public class Manifest extends AbstractEntity {
 
 	@NotNull
 	@Lob
+	@Convert(converter = CompressedLobConverter.ManifestData.class)
 	private String data;
 
 	public Manifest() {
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.domain;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Record of an install, upgrade or rollback requested to run asynchronously. The
+ * operation is identified by a random id returned to the client, which can be used to
+ * follow its progress until it's done.
+ */
+@Entity
+@Table(name = "SkipperOperation", indexes = @Index(name = "idx_operation_release", columnList = "releaseName"))
+public class Operation {
+
+	/**
+	 * Maximum length of an operation message.
+	 */
+	public static final int MESSAGE_LENGTH = 2048;
+
+	@Id
+	@Column(length = 36)
+	private String id;
+
+	@Enumerated(EnumType.STRING)
+	private OperationType type;
+
+	@Enumerated(EnumType.STRING)
+	private OperationState state;
+
+	private String releaseName;
+
+	private Integer releaseVersion;
+
+	@Column(length = MESSAGE_LENGTH)
+	private String message;
+
+	private Date created;
+
+	private Date updated;
+
+	public Operation() {
+	}
+
+	public Operation(String id, OperationType type, String releaseName) {
+		this.id = id;
+		this.type = type;
+		this.releaseName = releaseName;
+		this.state = OperationState.PENDING;
+		this.created = new Date();
+		this.updated = this.created;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public OperationType getType() {
+		return type;
+	}
+
+	public void setType(OperationType type) {
+		this.type = type;
+	}
+
+	public OperationState getState() {
+		return state;
+	}
+
+	public void setState(OperationState state) {
+		this.state = state;
+	}
+
+	public String getReleaseName() {
+		return releaseName;
+	}
+
+	public void setReleaseName(String releaseName) {
+		this.releaseName = releaseName;
+	}
+
+	public Integer getReleaseVersion() {
+		return releaseVersion;
+	}
+
+	public void setReleaseVersion(Integer releaseVersion) {
+		this.releaseVersion = releaseVersion;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	public Date getCreated() {
+		return created;
+	}
+
+	public void setCreated(Date created) {
+		this.created = created;
+	}
+
+	public Date getUpdated() {
+		return updated;
+	}
+
+	public void setUpdated(Date updated) {
+		this.updated = updated;
+	}
+
+	@JsonIgnore
+	public boolean isDone() {
+		return state != null && state.isDone();
+	}
+
+	@Override
+	public String toString() {
+		return "Operation{" +
+				"id='" + id + '\'' +
+				", type=" + type +
+				", state=" + state +
+				", releaseName='" + releaseName + '\'' +
+				", releaseVersion=" + releaseVersion +
+				'}';
+	}
+}
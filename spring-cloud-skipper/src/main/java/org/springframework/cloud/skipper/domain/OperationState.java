@@ -0,0 +1,40 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.domain;
+
+/**
+ * State of an asynchronous {@link Operation}.
+ */
+public enum OperationState {
+
+	// Operation_PENDING indicates that an operation is waiting to be run.
+	PENDING,
+	// Operation_RUNNING indicates that an operation is being run.
+	RUNNING,
+	// Operation_SUCCEEDED indicates that an operation was run and returned a release.
+	SUCCEEDED,
+	// Operation_FAILED indicates that an operation failed or was interrupted by a restart.
+	FAILED;
+
+	/**
+	 * Checks if an operation in this state is done.
+	 *
+	 * @return true if the operation is done
+	 */
+	public boolean isDone() {
+		return this == SUCCEEDED || this == FAILED;
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.domain;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import org.springframework.cloud.skipper.SkipperException;
+import org.springframework.cloud.skipper.support.codec.CompressedLobConverter;
+
+/**
+ * Serialized {@link Package} stored once per distinct content and shared by all releases
+ * using the same package. The blob is identified by the SHA-256 hash of the canonical
+ * package JSON.
+ * <p>
+ * Every call to {@link #getPackage()} reads a new package, so releases sharing a blob
+ * never share a package instance. Releases loaded by the server get copies of packages
+ * parsed once per blob from {@link PackageBlobCache}.
+ */
+@Entity
+@Table(name = "SkipperPackageBlob")
+public class PackageBlob {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+			.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+			.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+	@Id
+	@Column(length = 64)
+	private String hash;
+
+	@Lob
+	@Convert(converter = CompressedLobConverter.PackageBlobData.class)
+	private String data;
+
+	public PackageBlob() {
+	}
+
+	public PackageBlob(String hash, String data) {
+		this.hash = hash;
+		this.data = data;
+	}
+
+	/**
+	 * Creates a blob for a package using its canonical JSON representation.
+	 *
+	 * @param pkg the package
+	 * @return the package blob
+	 */
+	public static PackageBlob from(Package pkg) {
+		try {
+			// Note that @JsonIgnore is on the package file byte array field.
+			String data = OBJECT_MAPPER.writeValueAsString(pkg);
+			return new PackageBlob(hash(data), data);
+		}
+		catch (JsonProcessingException e) {
+			throw new SkipperException("Error processing pkg json string", e);
+		}
+	}
+
+	/**
+	 * Reads a package from its JSON representation.
+	 *
+	 * @param data the package JSON
+	 * @return the package
+	 */
+	public static Package read(String data) {
+		try {
+			return OBJECT_MAPPER.readValue(data, Package.class);
+		}
+		catch (IOException e) {
+			throw new SkipperException("Error processing pkg json string", e);
+		}
+	}
+
+	/**
+	 * Copies a package as if it was written to and read from its JSON representation,
+	 * without the cost of formatting and parsing the JSON.
+	 *
+	 * @param pkg the package
+	 * @return a new package instance
+	 */
+	public static Package copy(Package pkg) {
+		try {
+			TokenBuffer buffer = new TokenBuffer(OBJECT_MAPPER, false);
+			OBJECT_MAPPER.writeValue(buffer, pkg);
+			return OBJECT_MAPPER.readValue(buffer.asParser(), Package.class);
+		}
+		catch (IOException e) {
+			throw new SkipperException("Error copying pkg", e);
+		}
+	}
+
+	public String getHash() {
+		return hash;
+	}
+
+	public String getData() {
+		return data;
+	}
+
+	/**
+	 * Reads the package stored in this blob.
+	 *
+	 * @return a new package instance
+	 */
+	public Package getPackage() {
+		return read(this.data);
+	}
+
+	private static String hash(String data) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(data.getBytes(StandardCharsets.UTF_8));
+			StringBuilder builder = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				builder.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+			}
+			return builder.toString();
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new SkipperException("SHA-256 is not available", e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "PackageBlob [hash=" + hash + "]";
+	}
+}
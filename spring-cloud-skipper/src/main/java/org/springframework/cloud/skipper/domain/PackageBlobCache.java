@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.domain;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.persistence.PostLoad;
+
+import org.springframework.util.Assert;
+
+/**
+ * Bounded cache of packages parsed from {@link PackageBlob}s keyed by blob hash, so that
+ * a package shared by many releases is parsed once no matter how many times it's loaded.
+ * Packages are mutable, so every release gets a copy of the cached package.
+ * <p>
+ * Packages missing from the cache are read with the loader, if any, so that releases
+ * don't need to read their lazily fetched blob, which may no longer be possible once the
+ * release is detached. The server keeps a single instance as a bean which is passed to
+ * the {@link Listener} created by Hibernate through the application context.
+ */
+public class PackageBlobCache {
+
+	private final Map<String, Package> packages;
+
+	private final Function<String, String> loader;
+
+	public PackageBlobCache(int size) {
+		this(size, null);
+	}
+
+	/**
+	 * Instantiates a new package blob cache.
+	 *
+	 * @param size the max number of cached packages
+	 * @param loader reads the package JSON of a blob hash, returning null if not found, or
+	 * null to always use the JSON of the blob
+	 */
+	public PackageBlobCache(int size, Function<String, String> loader) {
+		Assert.isTrue(size > 0, "size must be positive");
+		this.packages = new LinkedHashMap<String, Package>(size, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Package> eldest) {
+				return size() > size;
+			}
+		};
+		this.loader = loader;
+	}
+
+	/**
+	 * Gets a copy of the package of a blob, parsing and caching it if it's not cached.
+	 *
+	 * @param hash the blob hash
+	 * @param data supplies the blob JSON if the loader can't read it
+	 * @return a new package instance
+	 */
+	public Package getPackage(String hash, Supplier<String> data) {
+		Package pkg;
+		synchronized (this) {
+			pkg = this.packages.get(hash);
+		}
+		if (pkg == null) {
+			String json = this.loader != null ? this.loader.apply(hash) : null;
+			pkg = PackageBlob.read(json != null ? json : data.get());
+			synchronized (this) {
+				this.packages.put(hash, pkg);
+			}
+		}
+		return PackageBlob.copy(pkg);
+	}
+
+	/**
+	 * Entity listener giving loaded {@link Release}s the cache to get their packages from.
+	 * Without a {@link PackageBlobCache} bean, the no-arg constructor is used and releases
+	 * read their packages from their blobs.
+	 */
+	public static class Listener {
+
+		private final PackageBlobCache packageBlobCache;
+
+		public Listener() {
+			this(null);
+		}
+
+		public Listener(PackageBlobCache packageBlobCache) {
+			this.packageBlobCache = packageBlobCache;
+		}
+
+		@PostLoad
+		public void afterLoad(Release release) {
+			if (this.packageBlobCache != null) {
+				release.setPackageBlobCache(this.packageBlobCache);
+			}
+		}
+	}
+}
@@ -15,14 +15,17 @@
  */
 package org.springframework.cloud.skipper.domain;
 
-import java.io.IOException;
-
 import javax.persistence.CascadeType;
+import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.Lob;
+import javax.persistence.ManyToOne;
 import javax.persistence.OneToOne;
 import javax.persistence.PostLoad;
 import javax.persistence.Table;
@@ -30,11 +33,8 @@ import javax.persistence.Transient;
 import javax.validation.constraints.NotNull;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
-import org.springframework.cloud.skipper.SkipperException;
+import org.springframework.cloud.skipper.support.codec.CompressedLobConverter;
 import org.springframework.util.StringUtils;
 
 /**
@@ -45,7 +45,10 @@ import org.springframework.util.StringUtils;
  * @author Ilayaperumal Gopinathan
  */
 @Entity
-@Table(name = "SkipperRelease", indexes = @Index(name = "idx_rel_name", columnList = "name"))
+@Table(name = "SkipperRelease", indexes = {
+		@Index(name = "idx_rel_name", columnList = "name"),
+		@Index(name = "idx_rel_name_version", columnList = "name,version", unique = true) })
+@EntityListeners(PackageBlobCache.Listener.class)
 public class Release extends AbstractEntity {
 
 	/**
@@ -60,6 +63,9 @@ public class Release extends AbstractEntity {
 	@JoinColumn(foreignKey = @ForeignKey(name = "fk_release_info"))
 	private Info info;
 
+	/**
+	 * Package materialized from {@code pkgBlob} or {@code pkgJsonString} on first access.
+	 */
 	@Transient
 	private Package pkg;
 
@@ -69,7 +75,30 @@ public class Release extends AbstractEntity {
 	@JsonIgnore
 	private Long repositoryId;
 
+	/**
+	 * Blob of the package, only read if the package is not in the {@link PackageBlobCache}.
+	 */
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "pkg_hash", foreignKey = @ForeignKey(name = "fk_release_pkg_blob"))
+	@JsonIgnore
+	private PackageBlob pkgBlob;
+
+	/**
+	 * Hash of {@code pkgBlob} as loaded, used to look up the package without reading the
+	 * blob.
+	 */
+	@Column(name = "pkg_hash", insertable = false, updatable = false)
+	@JsonIgnore
+	private String pkgHash;
+
+	@Transient
+	private PackageBlobCache packageBlobCache;
+
+	/**
+	 * Package JSON of releases stored before packages were kept in {@link PackageBlob}s.
+	 */
 	@Lob
+	@Convert(converter = CompressedLobConverter.ReleasePackage.class)
 	private String pkgJsonString;
 
 	@Transient
@@ -112,6 +141,21 @@ public class Release extends AbstractEntity {
 	}
 
 	public Package getPkg() {
+		if (this.pkg == null) {
+			if (this.pkgBlob != null) {
+				PackageBlob blob = this.pkgBlob;
+				if (this.packageBlobCache != null) {
+					this.pkg = this.packageBlobCache.getPackage(
+							this.pkgHash != null ? this.pkgHash : blob.getHash(), blob::getData);
+				}
+				else {
+					this.pkg = blob.getPackage();
+				}
+			}
+			else if (this.pkgJsonString != null) {
+				this.pkg = PackageBlob.read(this.pkgJsonString);
+			}
+		}
 		return pkg;
 	}
 
@@ -119,14 +163,22 @@ public class Release extends AbstractEntity {
 		this.pkg = pkg;
 		this.packageMetadataId = pkg.getMetadata().getId();
 		this.repositoryId = pkg.getMetadata().getRepositoryId();
-		ObjectMapper mapper = new ObjectMapper();
-		try {
-			// Note that @JsonIgnore is on the package file byte array field.
-			this.pkgJsonString = mapper.writeValueAsString(pkg);
-		}
-		catch (JsonProcessingException e) {
-			throw new SkipperException("Error processing pkg json string", e);
-		}
+		this.pkgBlob = PackageBlob.from(pkg);
+		this.pkgHash = null;
+		this.pkgJsonString = null;
+	}
+
+	public PackageBlob getPkgBlob() {
+		return pkgBlob;
+	}
+
+	public void setPkgBlob(PackageBlob pkgBlob) {
+		this.pkgBlob = pkgBlob;
+		this.pkgHash = null;
+	}
+
+	void setPackageBlobCache(PackageBlobCache packageBlobCache) {
+		this.packageBlobCache = packageBlobCache;
 	}
 
 	public Long getPackageMetadataId() {
@@ -179,17 +231,11 @@ public class Release extends AbstractEntity {
 
 	@PostLoad
 	public void afterLoad() {
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-		try {
-			this.pkg = mapper.readValue(this.pkgJsonString, Package.class);
-			this.configValues = new ConfigValues();
-			if (this.configValuesString != null && StringUtils.hasText(configValuesString)) {
-				this.configValues.setRaw(this.configValuesString);
-			}
-		}
-		catch (IOException e) {
-			throw new SkipperException("Error processing config values", e);
+		// package is deserialized lazily in getPkg() as many callers don't need it
+		this.pkg = null;
+		this.configValues = new ConfigValues();
+		if (this.configValuesString != null && StringUtils.hasText(configValuesString)) {
+			this.configValues.setRaw(this.configValuesString);
 		}
 	}
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single page of releases returned from a keyset paginated release listing. If
+ * there are more releases available, {@code nextCursor} contains an opaque token to
+ * request the next page with.
+ */
+public class ReleasePage {
+
+	private List<Release> releases = new ArrayList<>();
+
+	private String nextCursor;
+
+	public ReleasePage() {
+	}
+
+	public ReleasePage(List<Release> releases, String nextCursor) {
+		this.releases = releases;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<Release> getReleases() {
+		return releases;
+	}
+
+	public void setReleases(List<Release> releases) {
+		this.releases = releases;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	@Override
+	public String toString() {
+		return "ReleasePage [releases=" + (releases != null ? releases.size() : 0) + ", nextCursor=" + nextCursor + "]";
+	}
+}
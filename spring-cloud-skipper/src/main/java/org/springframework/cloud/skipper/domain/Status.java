@@ -15,10 +15,15 @@
  */
 package org.springframework.cloud.skipper.domain;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
@@ -38,6 +43,8 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 import org.springframework.cloud.deployer.spi.app.AppInstanceStatus;
 import org.springframework.cloud.deployer.spi.app.AppStatus;
 import org.springframework.cloud.deployer.spi.app.DeploymentState;
+import org.springframework.cloud.skipper.support.codec.CompressedLobConverter;
+import org.springframework.util.DigestUtils;
 
 /**
  * Status contains release's status from the release management platform and the
@@ -55,6 +62,7 @@ public class Status extends NonVersionedAbstractEntity {
 
 	// Status from the underlying platform
 	@Lob
+	@Convert(converter = CompressedLobConverter.StatusPlatformStatus.class)
 	private String platformStatus;
 
 	public Status() {
@@ -112,6 +120,34 @@ public class Status extends NonVersionedAbstractEntity {
 		return statusMsg.toString();
 	}
 
+	/**
+	 * Get a fingerprint of the platform status which stays the same as long as states
+	 * and attributes of applications and their instances don't change, regardless of the
+	 * order they were serialized in.
+	 *
+	 * @return the platform status fingerprint
+	 */
+	@JsonIgnore
+	public String getPlatformStatusFingerprint() {
+		List<AppStatus> appStatusList = new ArrayList<>(getAppStatusList());
+		appStatusList.sort(Comparator.comparing(AppStatus::getDeploymentId,
+				Comparator.nullsFirst(Comparator.naturalOrder())));
+		StringBuilder builder = new StringBuilder();
+		for (AppStatus appStatus : appStatusList) {
+			builder.append(appStatus.getDeploymentId()).append('=').append(appStatus.getState()).append('[');
+			for (Map.Entry<String, AppInstanceStatus> entry : new TreeMap<>(appStatus.getInstances()).entrySet()) {
+				AppInstanceStatus instanceStatus = entry.getValue();
+				builder.append(entry.getKey()).append('=').append(instanceStatus.getState());
+				if (instanceStatus.getAttributes() != null) {
+					builder.append(new TreeMap<>(instanceStatus.getAttributes()));
+				}
+				builder.append(';');
+			}
+			builder.append("]\n");
+		}
+		return DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
 	@JsonIgnore
 	public List<DeploymentState> getDeploymentStateList() {
 		return getAppStatusList().stream().map(appStatus -> appStatus.getState()).collect(Collectors.toList());
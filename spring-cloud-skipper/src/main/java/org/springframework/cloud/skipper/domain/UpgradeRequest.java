@@ -35,6 +35,8 @@ public class UpgradeRequest {
 
 	private List<String> appNames = new ArrayList<>();
 
+	private String upgradeStrategy;
+
 	public PackageIdentifier getPackageIdentifier() {
 		return packageIdentifier;
 	}
@@ -75,6 +77,20 @@ public class UpgradeRequest {
 		this.appNames = appNames;
 	}
 
+	/**
+	 * Gets the name of the strategy used for the upgrade, or null to use the default
+	 * strategy of the package kind.
+	 *
+	 * @return the upgrade strategy name
+	 */
+	public String getUpgradeStrategy() {
+		return upgradeStrategy;
+	}
+
+	public void setUpgradeStrategy(String upgradeStrategy) {
+		this.upgradeStrategy = upgradeStrategy;
+	}
+
 	@Override
 	public String toString() {
 		final StringBuffer sb = new StringBuffer("UpgradeRequest{");
@@ -83,6 +99,7 @@ public class UpgradeRequest {
 		sb.append(", timeout=").append(timeout);
 		sb.append(", force=").append(force);
 		sb.append(", appNames=").append(appNames);
+		sb.append(", upgradeStrategy=").append(upgradeStrategy);
 		sb.append('}');
 		return sb.toString();
 	}
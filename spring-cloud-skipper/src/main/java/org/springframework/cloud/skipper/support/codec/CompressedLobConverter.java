@@ -0,0 +1,122 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.support.codec;
+
+import javax.persistence.AttributeConverter;
+
+import org.springframework.util.Assert;
+
+/**
+ * JPA {@link AttributeConverter} encoding large text columns with a {@link LobCodec}
+ * enabled for a column in {@link LobCodecs}. Nested classes define converters for
+ * each supported column.
+ * <p>
+ * Hibernate creates converters through the application context, which picks the
+ * constructor taking the {@link LobCodecs} bean. Without such a bean, the no-arg
+ * constructor is used and values are only decoded.
+ */
+public abstract class CompressedLobConverter implements AttributeConverter<String, String> {
+
+	private final String column;
+
+	private final LobCodecs lobCodecs;
+
+	protected CompressedLobConverter(String column, LobCodecs lobCodecs) {
+		Assert.notNull(lobCodecs, "lobCodecs must be set");
+		this.column = column;
+		this.lobCodecs = lobCodecs;
+	}
+
+	@Override
+	public String convertToDatabaseColumn(String attribute) {
+		return this.lobCodecs.encode(this.column, attribute);
+	}
+
+	@Override
+	public String convertToEntityAttribute(String dbData) {
+		return this.lobCodecs.decode(dbData);
+	}
+
+	/**
+	 * Converter for {@link LobCodecs#RELEASE_PACKAGE}.
+	 */
+	public static class ReleasePackage extends CompressedLobConverter {
+
+		public ReleasePackage() {
+			this(new LobCodecs());
+		}
+
+		public ReleasePackage(LobCodecs lobCodecs) {
+			super(LobCodecs.RELEASE_PACKAGE, lobCodecs);
+		}
+	}
+
+	/**
+	 * Converter for {@link LobCodecs#PACKAGE_BLOB_DATA}.
+	 */
+	public static class PackageBlobData extends CompressedLobConverter {
+
+		public PackageBlobData() {
+			this(new LobCodecs());
+		}
+
+		public PackageBlobData(LobCodecs lobCodecs) {
+			super(LobCodecs.PACKAGE_BLOB_DATA, lobCodecs);
+		}
+	}
+
+	/**
+	 * Converter for {@link LobCodecs#MANIFEST_DATA}.
+	 */
+	public static class ManifestData extends CompressedLobConverter {
+
+		public ManifestData() {
+			this(new LobCodecs());
+		}
+
+		public ManifestData(LobCodecs lobCodecs) {
+			super(LobCodecs.MANIFEST_DATA, lobCodecs);
+		}
+	}
+
+	/**
+	 * Converter for {@link LobCodecs#STATUS_PLATFORM_STATUS}.
+	 */
+	public static class StatusPlatformStatus extends CompressedLobConverter {
+
+		public StatusPlatformStatus() {
+			this(new LobCodecs());
+		}
+
+		public StatusPlatformStatus(LobCodecs lobCodecs) {
+			super(LobCodecs.STATUS_PLATFORM_STATUS, lobCodecs);
+		}
+	}
+
+	/**
+	 * Converter for {@link LobCodecs#APP_DEPLOYER_DATA}.
+	 */
+	public static class AppDeployerData extends CompressedLobConverter {
+
+		public AppDeployerData() {
+			this(new LobCodecs());
+		}
+
+		public AppDeployerData(LobCodecs lobCodecs) {
+			super(LobCodecs.APP_DEPLOYER_DATA, lobCodecs);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.support.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.util.StreamUtils;
+
+/**
+ * {@link LobCodec} compressing data with raw deflate using the fastest compression
+ * level. Trades compression ratio for lower cpu usage compared to {@link GzipLobCodec}.
+ */
+public class DeflateLobCodec implements LobCodec {
+
+	/**
+	 * Name of this codec.
+	 */
+	public static final String NAME = "deflate";
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public byte[] encode(byte[] data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 16);
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, deflater)) {
+			deflate.write(data);
+		}
+		finally {
+			deflater.end();
+		}
+		return out.toByteArray();
+	}
+
+	@Override
+	public byte[] decode(byte[] data) throws IOException {
+		try (InflaterInputStream inflate = new InflaterInputStream(new ByteArrayInputStream(data))) {
+			return StreamUtils.copyToByteArray(inflate);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.support.codec;
+
+import java.io.IOException;
+
+/**
+ * Codec used to encode and decode content of large text columns.
+ *
+ * @see LobCodecs
+ */
+public interface LobCodec {
+
+	/**
+	 * Gets the name of this codec. Name is written into a header of every encoded value
+	 * and must not contain a colon.
+	 *
+	 * @return the codec name
+	 */
+	String getName();
+
+	/**
+	 * Encodes the given bytes.
+	 *
+	 * @param data the data to encode
+	 * @return the encoded data
+	 * @throws IOException if encoding fails
+	 */
+	byte[] encode(byte[] data) throws IOException;
+
+	/**
+	 * Decodes the given bytes.
+	 *
+	 * @param data the data to decode
+	 * @return the decoded data
+	 * @throws IOException if decoding fails
+	 */
+	byte[] decode(byte[] data) throws IOException;
+}
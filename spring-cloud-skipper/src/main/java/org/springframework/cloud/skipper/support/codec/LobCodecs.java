@@ -0,0 +1,204 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.support.codec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.cloud.skipper.SkipperException;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Registry of {@link LobCodec}s and of codecs enabled per large text column.
+ * <p>
+ * Encoded values are stored as {@code ~<codec name>:<base64 data>}, the header telling
+ * which codec to use when reading a value back. Values without a header are returned
+ * as is, which allows to read rows written before a codec was enabled for a column and
+ * to disable a codec later without converting existing rows.
+ * <p>
+ * The server keeps a single instance as a bean which is passed to
+ * {@link CompressedLobConverter}s created by Hibernate through the application context.
+ * A new instance has gzip and deflate codecs registered and encoding disabled for all
+ * columns.
+ *
+ * @see CompressedLobConverter
+ */
+public class LobCodecs {
+
+	/**
+	 * Column key for {@code Release.pkgJsonString} of releases not yet migrated into
+	 * package blobs.
+	 */
+	public static final String RELEASE_PACKAGE = "release-package";
+
+	/**
+	 * Column key for {@code PackageBlob.data}.
+	 */
+	public static final String PACKAGE_BLOB_DATA = "package-blob-data";
+
+	/**
+	 * Column key for {@code Manifest.data}.
+	 */
+	public static final String MANIFEST_DATA = "manifest-data";
+
+	/**
+	 * Column key for {@code Status.platformStatus}.
+	 */
+	public static final String STATUS_PLATFORM_STATUS = "status-platform-status";
+
+	/**
+	 * Column key for {@code AppDeployerData.deploymentData}.
+	 */
+	public static final String APP_DEPLOYER_DATA = "app-deployer-data";
+
+	/**
+	 * Codec name disabling encoding for a column.
+	 */
+	public static final String NONE = "none";
+
+	private static final String HEADER_START = "~";
+
+	private static final String HEADER_END = ":";
+
+	private final Map<String, LobCodec> codecs = new ConcurrentHashMap<>();
+
+	private final Map<String, LobCodec> columnCodecs = new ConcurrentHashMap<>();
+
+	public LobCodecs() {
+		register(new GzipLobCodec());
+		register(new DeflateLobCodec());
+	}
+
+	/**
+	 * Registers a codec making it available for columns and for decoding values.
+	 *
+	 * @param codec the codec
+	 */
+	public void register(LobCodec codec) {
+		Assert.notNull(codec, "codec must be set");
+		Assert.isTrue(StringUtils.hasText(codec.getName()) && !codec.getName().contains(HEADER_END),
+				"codec name must be set and must not contain '" + HEADER_END + "'");
+		this.codecs.put(codec.getName(), codec);
+	}
+
+	/**
+	 * Sets a codec used to encode values written into a column. Setting a {@code null}
+	 * or {@link #NONE} codec disables encoding.
+	 *
+	 * @param column the column key
+	 * @param codecName the codec name
+	 */
+	public void setColumnCodec(String column, String codecName) {
+		Assert.hasText(column, "column must be set");
+		if (!StringUtils.hasText(codecName) || NONE.equals(codecName)) {
+			this.columnCodecs.remove(column);
+			return;
+		}
+		LobCodec codec = this.codecs.get(codecName);
+		Assert.notNull(codec, "Unknown codec '" + codecName + "', known codecs are " + this.codecs.keySet());
+		this.columnCodecs.put(column, codec);
+	}
+
+	/**
+	 * Gets the name of the codec used to encode values written into a column.
+	 *
+	 * @param column the column key
+	 * @return the codec name or {@link #NONE}
+	 */
+	public String getColumnCodec(String column) {
+		LobCodec codec = this.columnCodecs.get(column);
+		return codec != null ? codec.getName() : NONE;
+	}
+
+	/**
+	 * Encodes a value written into a column using codec set for the column.
+	 *
+	 * @param column the column key
+	 * @param value the value
+	 * @return the encoded value
+	 */
+	public String encode(String column, String value) {
+		LobCodec codec = this.columnCodecs.get(column);
+		if (value == null || codec == null) {
+			return value;
+		}
+		try {
+			byte[] encoded = codec.encode(value.getBytes(StandardCharsets.UTF_8));
+			return HEADER_START + codec.getName() + HEADER_END + Base64.getEncoder().encodeToString(encoded);
+		}
+		catch (IOException e) {
+			throw new SkipperException("Error encoding value with codec " + codec.getName(), e);
+		}
+	}
+
+	/**
+	 * Decodes a value read from a column. Values without a known codec header are
+	 * returned as is.
+	 *
+	 * @param value the value
+	 * @return the decoded value
+	 */
+	public String decode(String value) {
+		LobCodec codec = getCodec(value);
+		if (codec == null) {
+			return value;
+		}
+		byte[] data;
+		try {
+			data = Base64.getDecoder().decode(value.substring(codec.getName().length() + 2));
+		}
+		catch (IllegalArgumentException e) {
+			// not our encoding, plain text which happens to look like a header
+			return value;
+		}
+		try {
+			return new String(codec.decode(data), StandardCharsets.UTF_8);
+		}
+		catch (IOException e) {
+			throw new SkipperException("Error decoding value with codec " + codec.getName(), e);
+		}
+	}
+
+	/**
+	 * Checks if a value read from a column is encoded the way a column is currently
+	 * configured to encode values.
+	 *
+	 * @param column the column key
+	 * @param value the value
+	 * @return true if value doesn't need to be re-encoded
+	 */
+	public boolean isEncodedForColumn(String column, String value) {
+		if (value == null) {
+			return true;
+		}
+		return getCodec(value) == this.columnCodecs.get(column);
+	}
+
+	private LobCodec getCodec(String value) {
+		if (value == null || !value.startsWith(HEADER_START)) {
+			return null;
+		}
+		int index = value.indexOf(HEADER_END);
+		if (index < 0) {
+			return null;
+		}
+		return this.codecs.get(value.substring(HEADER_START.length(), index));
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.domain;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PackageBlobCache}.
+ */
+public class PackageBlobCacheTests {
+
+	@Test
+	public void packagesAreParsedOnceAndCopied() {
+		PackageBlob pkgBlob = PackageBlob.from(createPackage("log"));
+		AtomicInteger reads = new AtomicInteger();
+		PackageBlobCache cache = new PackageBlobCache(2);
+
+		Package pkg1 = cache.getPackage(pkgBlob.getHash(), () -> {
+			reads.incrementAndGet();
+			return pkgBlob.getData();
+		});
+		Package pkg2 = cache.getPackage(pkgBlob.getHash(), () -> {
+			reads.incrementAndGet();
+			return pkgBlob.getData();
+		});
+
+		assertThat(reads.get()).isEqualTo(1);
+		assertThat(pkg2).isNotSameAs(pkg1);
+		assertThat(pkg2.getTemplates().get(0)).isNotSameAs(pkg1.getTemplates().get(0));
+		assertThat(PackageBlob.from(pkg2).getHash()).isEqualTo(pkgBlob.getHash());
+		pkg1.getMetadata().setVersion("2.0.0");
+		assertThat(cache.getPackage(pkgBlob.getHash(), pkgBlob::getData).getMetadata().getVersion())
+				.isEqualTo("1.0.0");
+	}
+
+	@Test
+	public void loaderIsUsedBeforeBlobData() {
+		PackageBlob pkgBlob = PackageBlob.from(createPackage("log"));
+		PackageBlobCache cache = new PackageBlobCache(2,
+				hash -> hash.equals(pkgBlob.getHash()) ? pkgBlob.getData() : null);
+
+		assertThat(cache.getPackage(pkgBlob.getHash(), () -> {
+			throw new IllegalStateException("Blob should not be read");
+		}).getMetadata().getName()).isEqualTo("log");
+		PackageBlob otherBlob = PackageBlob.from(createPackage("time"));
+		assertThat(cache.getPackage(otherBlob.getHash(), otherBlob::getData).getMetadata().getName())
+				.isEqualTo("time");
+	}
+
+	@Test
+	public void leastRecentlyUsedPackageIsEvicted() {
+		PackageBlob pkgBlob1 = PackageBlob.from(createPackage("log1"));
+		PackageBlob pkgBlob2 = PackageBlob.from(createPackage("log2"));
+		PackageBlob pkgBlob3 = PackageBlob.from(createPackage("log3"));
+		AtomicInteger reads = new AtomicInteger();
+		PackageBlobCache cache = new PackageBlobCache(2);
+
+		cache.getPackage(pkgBlob1.getHash(), pkgBlob1::getData);
+		cache.getPackage(pkgBlob2.getHash(), pkgBlob2::getData);
+		cache.getPackage(pkgBlob1.getHash(), pkgBlob1::getData);
+		cache.getPackage(pkgBlob3.getHash(), pkgBlob3::getData);
+		cache.getPackage(pkgBlob1.getHash(), () -> {
+			reads.incrementAndGet();
+			return pkgBlob1.getData();
+		});
+		assertThat(reads.get()).isEqualTo(0);
+		cache.getPackage(pkgBlob2.getHash(), () -> {
+			reads.incrementAndGet();
+			return pkgBlob2.getData();
+		});
+		assertThat(reads.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void loadedReleasesGetPackagesFromCache() {
+		PackageBlob pkgBlob = PackageBlob.from(createPackage("log"));
+		PackageBlobCache cache = new PackageBlobCache(2);
+		cache.getPackage(pkgBlob.getHash(), pkgBlob::getData);
+
+		Release release = new Release();
+		release.setPkgBlob(new PackageBlob(pkgBlob.getHash(), null));
+		ReflectionTestUtils.setField(release, "pkgHash", pkgBlob.getHash());
+		new PackageBlobCache.Listener(cache).afterLoad(release);
+		release.afterLoad();
+
+		assertThat(release.getPkg().getMetadata().getName()).isEqualTo("log");
+	}
+
+	private static Package createPackage(String name) {
+		PackageMetadata packageMetadata = new PackageMetadata();
+		packageMetadata.setName(name);
+		packageMetadata.setVersion("1.0.0");
+		Template template = new Template();
+		template.setName(name + ".yml");
+		template.setData("kind: SpringCloudDeployerApplication\n");
+		Package pkg = new Package();
+		pkg.setMetadata(packageMetadata);
+		pkg.getTemplates().add(template);
+		return pkg;
+	}
+}
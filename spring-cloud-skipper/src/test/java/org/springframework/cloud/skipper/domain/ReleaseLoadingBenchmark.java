@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.domain;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.skipper.domain.ReleaseTests.createPkgJsonString;
+import static org.springframework.cloud.skipper.domain.ReleaseTests.loadRelease;
+
+/**
+ * Measures the cpu time and allocations of loading {@link Release}s with and without
+ * accessing their packages. Not run with the regular tests as the measurements depend on
+ * the machine, run with the {@code benchmark} profile instead.
+ */
+public class ReleaseLoadingBenchmark {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReleaseLoadingBenchmark.class);
+
+	private static final int RELEASE_COUNT = 10000;
+
+	@Test
+	public void loadingReleasesWithoutPackageAccessIsCheaper() {
+		String pkgJsonString = createPkgJsonString();
+		// warm up jackson and the jit before measuring
+		load(pkgJsonString, true);
+		load(pkgJsonString, false);
+
+		long[] eager = load(pkgJsonString, true);
+		long[] lazy = load(pkgJsonString, false);
+		logger.info("Loaded {} releases, package accessed: cpu {}ms, allocated {}KB", RELEASE_COUNT,
+				eager[0] / 1000000, eager[1] / 1024);
+		logger.info("Loaded {} releases, package not accessed: cpu {}ms, allocated {}KB", RELEASE_COUNT,
+				lazy[0] / 1000000, lazy[1] / 1024);
+		if (eager[1] >= 0 && lazy[1] >= 0) {
+			assertThat(lazy[1]).isLessThan(eager[1]);
+		}
+	}
+
+	private static long[] load(String pkgJsonString, boolean accessPackage) {
+		ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		long cpuStart = threadMXBean.getCurrentThreadCpuTime();
+		long allocatedStart = allocatedBytes(threadMXBean);
+		List<Release> releases = new ArrayList<>(RELEASE_COUNT);
+		for (int i = 0; i < RELEASE_COUNT; i++) {
+			Release release = loadRelease(pkgJsonString);
+			if (accessPackage) {
+				release.getPkg();
+			}
+			releases.add(release);
+		}
+		long allocated = allocatedStart >= 0 ? allocatedBytes(threadMXBean) - allocatedStart : -1;
+		assertThat(releases).hasSize(RELEASE_COUNT);
+		return new long[] { threadMXBean.getCurrentThreadCpuTime() - cpuStart, allocated };
+	}
+
+	private static long allocatedBytes(ThreadMXBean threadMXBean) {
+		if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) threadMXBean)
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+}
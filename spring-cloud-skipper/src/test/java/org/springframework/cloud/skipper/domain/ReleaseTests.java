@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.domain;
+
+import org.junit.Test;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link Release}.
+ */
+public class ReleaseTests {
+
+	@Test
+	public void packageIsMaterializedOnFirstAccess() {
+		Release release = loadRelease(createPkgJsonString());
+		assertThat(ReflectionTestUtils.getField(release, "pkg")).isNull();
+
+		Package pkg = release.getPkg();
+		assertThat(pkg.getMetadata().getName()).isEqualTo("log");
+		assertThat(pkg.getTemplates()).hasSize(1);
+		assertThat(release.getPkg()).isSameAs(pkg);
+	}
+
+	@Test
+	public void identicalPackagesShareBlob() {
+		Release release1 = new Release();
+		release1.setPkg(createPackage());
+		Release release2 = new Release();
+		release2.setPkg(createPackage());
+		assertThat(release1.getPkgBlob().getHash()).hasSize(64).isEqualTo(release2.getPkgBlob().getHash());
+
+		Package changed = createPackage();
+		changed.getMetadata().setVersion("1.0.1");
+		Release release3 = new Release();
+		release3.setPkg(changed);
+		assertThat(release3.getPkgBlob().getHash()).isNotEqualTo(release1.getPkgBlob().getHash());
+
+		// releases loaded with the same blob get packages of their own
+		PackageBlob pkgBlob = new PackageBlob(release1.getPkgBlob().getHash(), release1.getPkgBlob().getData());
+		Release loaded1 = new Release();
+		loaded1.setPkgBlob(pkgBlob);
+		loaded1.afterLoad();
+		Release loaded2 = new Release();
+		loaded2.setPkgBlob(pkgBlob);
+		loaded2.afterLoad();
+		assertThat(loaded1.getPkg()).isNotSameAs(loaded2.getPkg());
+		loaded1.getPkg().getMetadata().setVersion("2.0.0");
+		assertThat(loaded2.getPkg().getMetadata().getVersion()).isEqualTo("1.0.0");
+	}
+
+	static Release loadRelease(String pkgJsonString) {
+		// mimic what jpa does when loading a release from the database
+		Release release = new Release();
+		release.setName("log");
+		release.setVersion(1);
+		ReflectionTestUtils.setField(release, "pkgJsonString", pkgJsonString);
+		release.afterLoad();
+		return release;
+	}
+
+	static String createPkgJsonString() {
+		return PackageBlob.from(createPackage()).getData();
+	}
+
+	private static Package createPackage() {
+		PackageMetadata packageMetadata = new PackageMetadata();
+		packageMetadata.setName("log");
+		packageMetadata.setVersion("1.0.0");
+		packageMetadata.setDescription("A log sink");
+		Template template = new Template();
+		template.setName("log.yml");
+		template.setData("apiVersion: skipper.spring.io/v1\nkind: SpringCloudDeployerApplication\n"
+				+ "metadata:\n  name: log\nspec:\n  resource: maven://org.springframework.cloud.stream.app:log-sink-rabbit\n"
+				+ "  version: {{version}}\n  applicationProperties:\n    {{#spec.applicationProperties.entrySet}}\n"
+				+ "    {{key}}: {{value}}\n    {{/spec.applicationProperties.entrySet}}\n");
+		ConfigValues configValues = new ConfigValues();
+		configValues.setRaw("version: 1.1.0.RELEASE\nspec:\n  applicationProperties:\n    log.level: INFO\n");
+		Package pkg = new Package();
+		pkg.setMetadata(packageMetadata);
+		pkg.getTemplates().add(template);
+		pkg.setConfigValues(configValues);
+		return pkg;
+	}
+}
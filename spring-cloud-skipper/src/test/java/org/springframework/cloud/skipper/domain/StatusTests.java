@@ -0,0 +1,88 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.domain;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.cloud.deployer.spi.app.AppInstanceStatus;
+import org.springframework.cloud.deployer.spi.app.AppStatus;
+import org.springframework.cloud.deployer.spi.app.DeploymentState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link Status}.
+ */
+public class StatusTests {
+
+	@Test
+	public void fingerprintIgnoresAppOrder() {
+		Status status1 = new Status();
+		status1.setPlatformStatusAsAppStatusList(Arrays.asList(
+				appStatus("log", DeploymentState.deployed), appStatus("time", DeploymentState.deployed)));
+		Status status2 = new Status();
+		status2.setPlatformStatusAsAppStatusList(Arrays.asList(
+				appStatus("time", DeploymentState.deployed), appStatus("log", DeploymentState.deployed)));
+		assertThat(status1.getPlatformStatus()).isNotEqualTo(status2.getPlatformStatus());
+		assertThat(status1.getPlatformStatusFingerprint()).isEqualTo(status2.getPlatformStatusFingerprint());
+	}
+
+	@Test
+	public void fingerprintChangesWithInstanceState() {
+		Status status1 = new Status();
+		status1.setPlatformStatusAsAppStatusList(
+				Collections.singletonList(appStatus("log", DeploymentState.deploying)));
+		Status status2 = new Status();
+		status2.setPlatformStatusAsAppStatusList(
+				Collections.singletonList(appStatus("log", DeploymentState.deployed)));
+		assertThat(status1.getPlatformStatusFingerprint()).isNotEqualTo(status2.getPlatformStatusFingerprint());
+	}
+
+	private static AppStatus appStatus(String deploymentId, DeploymentState state) {
+		return AppStatus.of(deploymentId).with(new TestAppInstanceStatus(deploymentId + "-0", state)).build();
+	}
+
+	private static class TestAppInstanceStatus implements AppInstanceStatus {
+
+		private final String id;
+
+		private final DeploymentState state;
+
+		TestAppInstanceStatus(String id, DeploymentState state) {
+			this.id = id;
+			this.state = state;
+		}
+
+		@Override
+		public String getId() {
+			return id;
+		}
+
+		@Override
+		public DeploymentState getState() {
+			return state;
+		}
+
+		@Override
+		public Map<String, String> getAttributes() {
+			return Collections.singletonMap("guid", id);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.support.codec;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.skipper.support.codec.LobCodecsTests.createPlatformStatus;
+
+/**
+ * Measures the latency of encoding values written into and decoding values read from
+ * large text columns with each codec. Not run with the regular tests as the measurements
+ * depend on the machine, run with the {@code benchmark} profile instead.
+ */
+public class LobCodecsBenchmark {
+
+	private static final Logger logger = LoggerFactory.getLogger(LobCodecsBenchmark.class);
+
+	private static final int ITERATIONS = 5000;
+
+	private final LobCodecs lobCodecs = new LobCodecs();
+
+	@Test
+	public void encodeAndDecodeLatency() {
+		for (int instances : new int[] { 1, 50 }) {
+			String value = createPlatformStatus(instances);
+			for (String codec : new String[] { LobCodecs.NONE, GzipLobCodec.NAME, DeflateLobCodec.NAME }) {
+				this.lobCodecs.setColumnCodec(LobCodecs.STATUS_PLATFORM_STATUS, codec);
+				// warm up the jit before measuring
+				measure(value);
+				long[][] latencies = measure(value);
+				logger.info("Codec {}, {} chars: encode p50 {}us p99 {}us, decode p50 {}us p99 {}us", codec,
+						value.length(), percentile(latencies[0], 50), percentile(latencies[0], 99),
+						percentile(latencies[1], 50), percentile(latencies[1], 99));
+			}
+		}
+	}
+
+	private long[][] measure(String value) {
+		long[] encodes = new long[ITERATIONS];
+		long[] decodes = new long[ITERATIONS];
+		String decoded = null;
+		for (int i = 0; i < ITERATIONS; i++) {
+			long start = System.nanoTime();
+			String encoded = this.lobCodecs.encode(LobCodecs.STATUS_PLATFORM_STATUS, value);
+			encodes[i] = System.nanoTime() - start;
+			start = System.nanoTime();
+			decoded = this.lobCodecs.decode(encoded);
+			decodes[i] = System.nanoTime() - start;
+		}
+		assertThat(decoded).isEqualTo(value);
+		return new long[][] { encodes, decodes };
+	}
+
+	private static long percentile(long[] latencies, int percentile) {
+		long[] sorted = latencies.clone();
+		Arrays.sort(sorted);
+		return sorted[(sorted.length - 1) * percentile / 100] / 1000;
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.skipper.support.codec;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link LobCodecs}.
+ */
+public class LobCodecsTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(LobCodecsTests.class);
+
+	private final LobCodecs lobCodecs = new LobCodecs();
+
+	@Test
+	public void valuesAreNotEncodedByDefault() {
+		String value = createPlatformStatus(10);
+		assertThat(this.lobCodecs.encode(LobCodecs.STATUS_PLATFORM_STATUS, value)).isSameAs(value);
+		assertThat(this.lobCodecs.decode(value)).isSameAs(value);
+		assertThat(this.lobCodecs.isEncodedForColumn(LobCodecs.STATUS_PLATFORM_STATUS, value)).isTrue();
+	}
+
+	@Test
+	public void encodedValuesRoundTrip() {
+		String value = createPlatformStatus(10);
+		for (String codec : new String[] { GzipLobCodec.NAME, DeflateLobCodec.NAME }) {
+			this.lobCodecs.setColumnCodec(LobCodecs.STATUS_PLATFORM_STATUS, codec);
+			String encoded = this.lobCodecs.encode(LobCodecs.STATUS_PLATFORM_STATUS, value);
+			assertThat(encoded).startsWith("~" + codec + ":");
+			assertThat(this.lobCodecs.isEncodedForColumn(LobCodecs.STATUS_PLATFORM_STATUS, encoded)).isTrue();
+			assertThat(this.lobCodecs.isEncodedForColumn(LobCodecs.MANIFEST_DATA, encoded)).isFalse();
+			assertThat(this.lobCodecs.decode(encoded)).isEqualTo(value);
+		}
+	}
+
+	@Test
+	public void legacyValuesAreReadAfterCodecIsEnabled() {
+		this.lobCodecs.setColumnCodec(LobCodecs.MANIFEST_DATA, GzipLobCodec.NAME);
+		String manifest = "---\n# Source: log.yml\napiVersion: skipper.spring.io/v1\n";
+		assertThat(this.lobCodecs.decode(manifest)).isEqualTo(manifest);
+		assertThat(this.lobCodecs.isEncodedForColumn(LobCodecs.MANIFEST_DATA, manifest)).isFalse();
+		assertThat(this.lobCodecs.decode("~gzip:not base64")).isEqualTo("~gzip:not base64");
+		assertThat(this.lobCodecs.decode("~unknown:aGVsbG8=")).isEqualTo("~unknown:aGVsbG8=");
+	}
+
+	@Test
+	public void encodedValuesAreReadAfterCodecIsDisabled() {
+		String value = createPlatformStatus(1);
+		this.lobCodecs.setColumnCodec(LobCodecs.RELEASE_PACKAGE, DeflateLobCodec.NAME);
+		String encoded = this.lobCodecs.encode(LobCodecs.RELEASE_PACKAGE, value);
+		this.lobCodecs.setColumnCodec(LobCodecs.RELEASE_PACKAGE, LobCodecs.NONE);
+		assertThat(this.lobCodecs.getColumnCodec(LobCodecs.RELEASE_PACKAGE)).isEqualTo(LobCodecs.NONE);
+		assertThat(this.lobCodecs.decode(encoded)).isEqualTo(value);
+		assertThat(this.lobCodecs.isEncodedForColumn(LobCodecs.RELEASE_PACKAGE, encoded)).isFalse();
+	}
+
+	@Test
+	public void columnCodecsAreNotShared() {
+		String value = createPlatformStatus(1);
+		this.lobCodecs.setColumnCodec(LobCodecs.MANIFEST_DATA, GzipLobCodec.NAME);
+		LobCodecs other = new LobCodecs();
+		assertThat(other.getColumnCodec(LobCodecs.MANIFEST_DATA)).isEqualTo(LobCodecs.NONE);
+		assertThat(other.encode(LobCodecs.MANIFEST_DATA, value)).isSameAs(value);
+		assertThat(other.decode(this.lobCodecs.encode(LobCodecs.MANIFEST_DATA, value))).isEqualTo(value);
+	}
+
+	@Test
+	public void converterUsesGivenCodecs() {
+		String value = createPlatformStatus(1);
+		this.lobCodecs.setColumnCodec(LobCodecs.MANIFEST_DATA, DeflateLobCodec.NAME);
+		CompressedLobConverter converter = new CompressedLobConverter.ManifestData(this.lobCodecs);
+		String encoded = converter.convertToDatabaseColumn(value);
+		assertThat(encoded).startsWith("~" + DeflateLobCodec.NAME + ":");
+		assertThat(new CompressedLobConverter.ManifestData().convertToDatabaseColumn(value)).isSameAs(value);
+		assertThat(new CompressedLobConverter.ManifestData().convertToEntityAttribute(encoded)).isEqualTo(value);
+	}
+
+	@Test
+	public void unknownCodecIsRejected() {
+		assertThatThrownBy(() -> this.lobCodecs.setColumnCodec(LobCodecs.RELEASE_PACKAGE, "lz4"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Unknown codec 'lz4'");
+	}
+
+	@Test
+	public void compressionReducesStoredSize() {
+		String value = createPlatformStatus(50);
+		for (String codec : new String[] { GzipLobCodec.NAME, DeflateLobCodec.NAME }) {
+			this.lobCodecs.setColumnCodec(LobCodecs.STATUS_PLATFORM_STATUS, codec);
+			String encoded = this.lobCodecs.encode(LobCodecs.STATUS_PLATFORM_STATUS, value);
+			logger.info("Codec {}: {} chars stored as {} chars", codec, value.length(), encoded.length());
+			assertThat(encoded.length()).isLessThan(value.length() / 4);
+		}
+	}
+
+	static String createPlatformStatus(int instances) {
+		StringBuilder builder = new StringBuilder("[{\"deploymentId\":\"log-v1\",\"state\":\"deployed\",\"instances\":{");
+		for (int i = 0; i < instances; i++) {
+			if (i > 0) {
+				builder.append(",");
+			}
+			builder.append("\"log-v1-").append(i).append("\":{\"instanceNumber\":").append(i)
+					.append(",\"id\":\"log-v1-").append(i).append("\",\"state\":\"deployed\",\"attributes\":{")
+					.append("\"guid\":\"").append(10000 + i).append("\",\"pid\":\"").append(20000 + i)
+					.append("\",\"port\":\"").append(30000 + i)
+					.append("\",\"stdout\":\"/tmp/spring-cloud-deployer/log-v1/stdout_").append(i).append(".log\"")
+					.append(",\"stderr\":\"/tmp/spring-cloud-deployer/log-v1/stderr_").append(i).append(".log\"")
+					.append(",\"url\":\"http://127.0.0.1:").append(30000 + i).append("\"}}");
+		}
+		return builder.append("}}]").toString();
+	}
+}